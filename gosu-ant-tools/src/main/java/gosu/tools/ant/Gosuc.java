@@ -2,7 +2,7 @@ package gosu.tools.ant;
 
 import gosu.tools.ant.util.AntLoggingHelper;
 import gw.lang.gosuc.GosucUtil;
-import gw.lang.gosuc.simple.ICompilerDriver;
+import gw.lang.gosuc.simple.CompileDaemonClient;
 import gw.lang.gosuc.simple.IGosuCompiler;
 import gw.lang.gosuc.simple.SoutCompilerDriver;
 import org.apache.tools.ant.BuildException;
@@ -14,11 +14,13 @@ import org.apache.tools.ant.util.GlobPatternMapper;
 import org.apache.tools.ant.util.SourceFileScanner;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Ant task for compiling Gosu files to disk.
@@ -30,6 +32,9 @@ import java.util.Set;
  *     <li>"failonerror" : Ignore compile errors and continue if true.  Defaults to {@code true}.</li>
  *     <li>"projectname" : Outputs this value in the compilation complete message.  Defaults to the empty string.</li>
  *     <li>"additionalscriptextensions" : Comma-separated list of additional file extensions to compile.  Normally not required.</li>
+ *     <li>"threads" : Number of threads used to compile; 0 uses one per available processor.  Defaults to 1.</li>
+ *     <li>"incremental" : Compile only changed sources and the sources depending on their APIs if true.  Defaults to {@code false}.</li>
+ *     <li>"daemon" : Compile in a background gosuc that keeps Gosu loaded between builds if true.  Defaults to {@code false}.</li>
  *   </ul>
  */
 public class Gosuc extends GosuMatchingTask {
@@ -42,6 +47,9 @@ public class Gosuc extends GosuMatchingTask {
   private boolean _checkedArithmetic = false;
   private boolean _force = true;
   private String _projectName = "";
+  private int _threads = 1;
+  private boolean _incremental = false;
+  private boolean _daemon = false;
   private Set<String> _scriptExtensions = new HashSet<>(Arrays.asList("gs", "gsx", "gst", "gsp"));
 
   protected List<File> compileList = new ArrayList<>();
@@ -200,6 +208,52 @@ public class Gosuc extends GosuMatchingTask {
     _projectName = projectName;
   }
 
+  /**
+   * Gets the number of compiler threads.<br>
+   * Headers and declarations are still compiled serially; function bodies and bytecode are compiled on this many threads.
+   * Compiler output is reported in the same order regardless of this setting.
+   *
+   * @return the number of threads; defaults to 1, 0 or less means one per available processor.
+   */
+  public int getThreads() {
+    return _threads;
+  }
+
+  public void setThreads( int threads ) {
+    _threads = threads;
+  }
+
+  /**
+   * Gets the incremental flag.<br>
+   * When set, gosuc keeps a type dependency graph next to the destdir and recompiles only the sources that changed
+   * since the last incremental build, plus the sources depending on a type whose API changed.
+   *
+   * @return true if compiling incrementally; defaults to false.
+   */
+  public boolean isIncremental() {
+    return _incremental;
+  }
+
+  public void setIncremental( boolean incremental ) {
+    _incremental = incremental;
+  }
+
+  /**
+   * Gets the daemon flag.<br>
+   * When set, the sources compile in a long-lived gosuc JVM, started by the first build that needs it, which keeps
+   * JRE and library types loaded and refreshes only the sources that changed since its last compile.  The daemon's
+   * JVM options are taken from the {@code gosuc.daemon.jvmargs} property.
+   *
+   * @return true if compiling with the daemon; defaults to false.
+   */
+  public boolean isDaemon() {
+    return _daemon;
+  }
+
+  public void setDaemon( boolean daemon ) {
+    _daemon = daemon;
+  }
+
   /**
    * Scans the directory looking for source files to be compiled.
    * The results are returned in the class variable compileList
@@ -270,6 +324,9 @@ public class Gosuc extends GosuMatchingTask {
     log.debug("destdir=" + getDestdir());
     log.debug("failOnError=" + getFailOnError());
     log.debug("checkedArithmetic=" + isCheckedArithmetic());
+    log.debug("threads=" + getThreads());
+    log.debug("incremental=" + isIncremental());
+    log.debug("daemon=" + isDaemon());
     log.debug("scriptExtensions=" + getScriptExtensions());
     log.debug("_compileClasspath=" + _compileClasspath);
 
@@ -277,8 +334,7 @@ public class Gosuc extends GosuMatchingTask {
       System.setProperty("checkedArithmetic", "true");
     }
     
-    ICompilerDriver driver = new SoutCompilerDriver();
-    IGosuCompiler gosuc = new gw.lang.gosuc.simple.GosuCompiler();
+    SoutCompilerDriver driver = new SoutCompilerDriver();
 
     List<String> classpath = new ArrayList<>();
     classpath.addAll(Arrays.asList(_compileClasspath.list()));
@@ -314,27 +370,34 @@ public class Gosuc extends GosuMatchingTask {
       }
     }
     
-    gosuc.initializeGosu( sourceRoots, classpath, getDestdir().getAbsolutePath() );
-
     log.debug("About to compile these files:");
     for(File file : compileList) {
       log.debug("\t" + file.getAbsolutePath());
     }
     
-    for(File file : compileList) {
+    int threads = getThreads() > 0 ? getThreads() : Runtime.getRuntime().availableProcessors();
+    if(isDaemon()) {
+      compileWithDaemon(sourceRoots, threads, driver);
+    } else {
+      IGosuCompiler gosuc = new gw.lang.gosuc.simple.GosuCompiler();
+      gosuc.initializeGosu( sourceRoots, classpath, getDestdir().getAbsolutePath() );
       try {
-        gosuc.compile(file, driver);
+        if(isIncremental()) {
+          gosuc.compileIncrementally(compileList, threads, driver);
+        } else {
+          gosuc.compile(compileList, threads, driver);
+        }
       } catch (Exception e) {
         log.error(e.getMessage());
         throw new BuildException(e);
       }
-    }
 
-    gosuc.uninitializeGosu();
+      gosuc.uninitializeGosu();
+    }
 
-    List<String> warnings = ((SoutCompilerDriver) driver).getWarnings();
-    boolean errorsInCompilation = ((SoutCompilerDriver) driver).hasErrors();
-    List<String> errors = ((SoutCompilerDriver) driver).getErrors();
+    List<String> warnings = driver.getWarnings();
+    boolean errorsInCompilation = driver.hasErrors();
+    List<String> errors = driver.getErrors();
     
     List<String> warningMessages = new ArrayList<>();
     List<String> errorMessages = new ArrayList<>();
@@ -385,4 +448,37 @@ public class Gosuc extends GosuMatchingTask {
     }
     
   }
+
+  /**
+   * Sends the files to the gosuc daemon.  The daemon adds the JRE jars to the classpath itself.
+   */
+  private void compileWithDaemon(List<String> sourceRoots, int threads, SoutCompilerDriver driver) {
+    List<String> args = new ArrayList<>();
+    args.add("-classpath");
+    args.add(String.join(File.pathSeparator, _compileClasspath.list()));
+    args.add("-sourcepath");
+    args.add(sourceRoots.stream().map(root -> getProject().resolveFile(root).getAbsolutePath()).collect(Collectors.joining(File.pathSeparator)));
+    args.add("-d");
+    args.add(getDestdir().getAbsolutePath());
+    args.add("-j");
+    args.add(String.valueOf(threads));
+    // no thresholds, like compiling in process
+    args.add("-maxerrs");
+    args.add(String.valueOf(Integer.MAX_VALUE));
+    if(isCheckedArithmetic()) {
+      args.add("-ca");
+    }
+    if(isIncremental()) {
+      args.add("-incremental");
+    }
+    for(File file : compileList) {
+      args.add(file.getAbsolutePath());
+    }
+    try {
+      new CompileDaemonClient().compile(args, driver);
+    } catch (IOException e) {
+      log.error(e.getMessage());
+      throw new BuildException(e);
+    }
+  }
 }
@@ -0,0 +1,23 @@
+package gw.benchmark
+
+/**
+ * Reaches a property and a method through the Dynamic type, which the compiler turns into calls to
+ * GosuRuntimeMethods.
+ */
+class DynamicCalls implements IDynamicCalls {
+
+  override function getProperty( target: Object ) : Object {
+    var d : Dynamic = target
+    return d.Name
+  }
+
+  override function setProperty( target: Object, value: Object ) {
+    var d : Dynamic = target
+    d.Name = value
+  }
+
+  override function invokeMethod( target: Object ) : Object {
+    var d : Dynamic = target
+    return d.describe( 42 )
+  }
+}
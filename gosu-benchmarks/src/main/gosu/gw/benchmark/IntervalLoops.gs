@@ -0,0 +1,80 @@
+package gw.benchmark
+
+uses java.lang.Integer
+uses java.lang.Long
+uses java.util.Iterator
+
+/**
+ * The loops behind IntervalLoopBenchmark.  The counted forms are what the compiler lowers for-in over an interval
+ * to; the iterator forms walk the same interval the way every for-in over an interval used to.
+ */
+class IntervalLoops implements IIntervalLoops {
+
+  override function countedSum( n: int ) : long {
+    var sum = 0L
+    for( i in 0..|n ) {
+      sum += i
+    }
+    return sum
+  }
+
+  override function iteratorSum( n: int ) : long {
+    var sum = 0L
+    var it : Iterator<Integer> = (0..|n).iterator()
+    while( it.hasNext() ) {
+      sum += it.next()
+    }
+    return sum
+  }
+
+  override function countedStepSum( n: int, step: int ) : long {
+    var sum = 0L
+    for( i in (0..|n).step( step ) ) {
+      sum += i
+    }
+    return sum
+  }
+
+  override function iteratorStepSum( n: int, step: int ) : long {
+    var sum = 0L
+    var it : Iterator<Integer> = (0..|n).step( step ).iterator()
+    while( it.hasNext() ) {
+      sum += it.next()
+    }
+    return sum
+  }
+
+  override function countedReverseSum( n: int ) : long {
+    var sum = 0L
+    for( i in n|..0 ) {
+      sum += i
+    }
+    return sum
+  }
+
+  override function iteratorReverseSum( n: int ) : long {
+    var sum = 0L
+    var it : Iterator<Integer> = (n|..0).iterator()
+    while( it.hasNext() ) {
+      sum += it.next()
+    }
+    return sum
+  }
+
+  override function countedLongSum( n: long ) : long {
+    var sum = 0L
+    for( i in 0L..|n ) {
+      sum += i
+    }
+    return sum
+  }
+
+  override function iteratorLongSum( n: long ) : long {
+    var sum = 0L
+    var it : Iterator<Long> = (0L..|n).iterator()
+    while( it.hasNext() ) {
+      sum += it.next()
+    }
+    return sum
+  }
+}
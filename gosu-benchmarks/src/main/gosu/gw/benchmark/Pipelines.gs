@@ -0,0 +1,63 @@
+package gw.benchmark
+
+uses java.lang.Integer
+uses java.util.List
+
+/**
+ * The block pipelines behind PipelineBenchmark, each a typical chain of collection enhancements.
+ */
+class Pipelines implements IPipelines {
+
+  override function whereMapSum( data: List<Integer> ) : int {
+    return data.where( \ i -> i % 3 == 0 ).map( \ i -> i * 2 ).sum()
+  }
+
+  override function firstWhere( data: List<Integer>, value: int ) : int {
+    return data.firstWhere( \ i -> i == value )
+  }
+
+  override function mapToString( data: List<Integer> ) : List<String> {
+    return data.map( \ i -> "#" + i )
+  }
+
+  override function orderByTakeFirst( data: List<Integer> ) : Object {
+    return data.orderBy( \ i -> -i ).thenBy( \ i -> i % 7 ).first()
+  }
+
+  override function flatMapCount( data: List<Integer> ) : int {
+    return data.flatMap( \ i -> pair( i, i + 1 ) ).countWhere( \ i -> i % 2 == 0 )
+  }
+
+  override function reduce( data: List<Integer> ) : int {
+    return data.reduce( 0, \ sum, i -> sum + i )
+  }
+
+  override function hasMatch( data: List<Integer>, value: int ) : boolean {
+    return data.hasMatch( \ i -> i == value )
+  }
+
+  override function whereMapReduce( data: List<Integer> ) : int {
+    return data.where( \ i -> i % 3 == 0 ).map( \ i -> i * 2 ).reduce( 0, \ sum, i -> sum + i )
+  }
+
+  override function lazyWhereMapReduce( data: List<Integer> ) : int {
+    return data.lazy().where( \ i -> i % 3 == 0 ).map( \ i -> i * 2 ).reduce( 0, \ sum, i -> sum + i )
+  }
+
+  override function whereMapFirstWhere( data: List<Integer>, value: int ) : Object {
+    return data.where( \ i -> i % 3 == 0 ).map( \ i -> i * 2 ).firstWhere( \ i -> i == value )
+  }
+
+  override function lazyWhereMapFirstWhere( data: List<Integer>, value: int ) : Object {
+    return data.lazy().where( \ i -> i % 3 == 0 ).map( \ i -> i * 2 ).firstWhere( \ i -> i == value )
+  }
+
+  override function lazyFlatMapCount( data: List<Integer> ) : int {
+    return data.lazy().flatMap( \ i -> pair( i, i + 1 ) ).where( \ i -> i % 2 == 0 ).reduce( 0, \ count, i -> count + 1 )
+  }
+
+  // a block body starting with '{' is a statement list, not a list literal
+  private function pair( a: Integer, b: Integer ) : List<Integer> {
+    return {a, b}
+  }
+}
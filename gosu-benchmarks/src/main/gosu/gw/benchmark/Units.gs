@@ -0,0 +1,43 @@
+package gw.benchmark
+
+uses gw.util.Rational
+uses gw.util.science.*
+uses gw.util.science.UnitConstants#*
+
+/**
+ * Unit arithmetic behind ScienceBenchmark.  Every measure is a Rational plus a unit, so this is mostly Rational
+ * arithmetic and reduction with some dispatch on top.
+ */
+class Units implements IUnits {
+
+  override function velocity( iMeters: int, iSeconds: int ) : Object {
+    var len = new Length( Rational.get( iMeters ), m )
+    var time = new Time( Rational.get( iSeconds ), s )
+    return (len / time).to( mi/hr )
+  }
+
+  override function convertLength( iMeters: int ) : Object {
+    var len = new Length( Rational.get( iMeters ), m )
+    return len.to( ft ).to( km ).to( inch )
+  }
+
+  override function sumMasses( iCount: int ) : Object {
+    var total = new Mass( Rational.ZERO, kg )
+    var gram = new Mass( Rational.ONE, g )
+    for( 0..|iCount ) {
+      total = total + gram
+    }
+    return total
+  }
+
+  override function force( iKilograms: int ) : Object {
+    var mass = new Mass( Rational.get( iKilograms ), kg )
+    return mass * (10 m/s/s)
+  }
+
+  override function compareLengths( iMeters: int ) : boolean {
+    var a = new Length( Rational.get( iMeters ), m )
+    var b = new Length( Rational.get( iMeters * 100 + 1 ), cm )
+    return a < b
+  }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2014 Guidewire Software, Inc.
+ */
+
+package gw.benchmark;
+
+import gw.internal.gosu.parser.FieldJavaClassField;
+import gw.internal.gosu.parser.MethodCallAdapter;
+import gw.internal.gosu.parser.MethodHandleAccessors;
+import gw.lang.reflect.TypeSystem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Feature call handlers and field accessors with MethodHandleAccessors on and off i.e., a MethodHandle invoked
+ * through the handler's field against Method.invoke() and Field.get().
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class AccessorBenchmark
+{
+  @Param( {"true", "false"} )
+  public boolean handles;
+
+  private Target _target;
+  private MethodCallAdapter _getter;
+  private MethodCallAdapter _describe;
+  private MethodCallAdapter _staticDescribe;
+  private FieldJavaClassField _field;
+  private Object[] _describeArgs;
+
+  @Setup
+  public void setup() throws Exception
+  {
+    BenchmarkEnvironment.init();
+    MethodHandleAccessors.setEnabled( handles );
+    _target = new Target();
+    _getter = new MethodCallAdapter( Target.class.getMethod( "getName" ) );
+    _describe = new MethodCallAdapter( Target.class.getMethod( "describe", int.class ) );
+    _staticDescribe = new MethodCallAdapter( Target.class.getMethod( "staticDescribe", int.class ) );
+    _field = new FieldJavaClassField( Target.class.getField( "count" ), TypeSystem.getGlobalModule() );
+    _describeArgs = new Object[] {42};
+  }
+
+  @TearDown
+  public void tearDown()
+  {
+    MethodHandleAccessors.setEnabled( true );
+  }
+
+  @Benchmark
+  public Object getter()
+  {
+    return _getter.handleCall( _target );
+  }
+
+  @Benchmark
+  public Object method()
+  {
+    return _describe.handleCall( _target, _describeArgs );
+  }
+
+  @Benchmark
+  public Object staticMethod()
+  {
+    return _staticDescribe.handleCall( null, _describeArgs );
+  }
+
+  @Benchmark
+  public Object field() throws IllegalAccessException
+  {
+    return _field.get( _target );
+  }
+
+  public static class Target
+  {
+    public int count = 7;
+
+    public String getName()
+    {
+      return "target";
+    }
+
+    public String describe( int i )
+    {
+      return "target" + i;
+    }
+
+    public static String staticDescribe( int i )
+    {
+      return "static" + i;
+    }
+  }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2014 Guidewire Software, Inc.
+ */
+
+package gw.benchmark;
+
+import gw.internal.gosu.parser.TypeLord;
+import gw.lang.reflect.IType;
+import gw.lang.reflect.TypeSystem;
+import gw.lang.reflect.java.JavaTypes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Assignability checks the parser and the runtime make constantly: plain subtyping, parameterized types through
+ * TypeLord, and finding a parameterization of a generic supertype.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class AssignabilityBenchmark
+{
+  private IType _listOfCharSequence;
+  private IType _arrayListOfString;
+  private IType _mapOfStringToListOfNumber;
+  private IType _hashMapOfStringToArrayListOfInteger;
+  private IType _collection;
+  private IType _arrayList;
+
+  @Setup
+  public void setup()
+  {
+    BenchmarkEnvironment.init();
+    _collection = TypeSystem.getByFullName( "java.util.Collection" );
+    _arrayList = TypeSystem.getByFullName( "java.util.ArrayList" );
+    _listOfCharSequence = JavaTypes.LIST().getParameterizedType( JavaTypes.CHAR_SEQUENCE() );
+    _arrayListOfString = _arrayList.getParameterizedType( JavaTypes.STRING() );
+    _mapOfStringToListOfNumber = TypeSystem.getByFullName( "java.util.Map" )
+      .getParameterizedType( JavaTypes.STRING(), JavaTypes.LIST().getParameterizedType( JavaTypes.NUMBER() ) );
+    _hashMapOfStringToArrayListOfInteger = TypeSystem.getByFullName( "java.util.HashMap" )
+      .getParameterizedType( JavaTypes.STRING(), _arrayList.getParameterizedType( JavaTypes.INTEGER() ) );
+  }
+
+  @Benchmark
+  public boolean rawIsAssignableFrom()
+  {
+    return _collection.isAssignableFrom( _arrayList );
+  }
+
+  @Benchmark
+  public boolean parameterizedIsAssignableFrom()
+  {
+    return _listOfCharSequence.isAssignableFrom( _arrayListOfString );
+  }
+
+  @Benchmark
+  public boolean parameterizedTypesAssignable()
+  {
+    return TypeLord.areGenericOrParameterizedTypesAssignable( _listOfCharSequence, _arrayListOfString );
+  }
+
+  @Benchmark
+  public boolean nestedParameterizedTypesAssignable()
+  {
+    return TypeLord.areGenericOrParameterizedTypesAssignable( _mapOfStringToListOfNumber, _hashMapOfStringToArrayListOfInteger );
+  }
+
+  @Benchmark
+  public IType findParameterizedType()
+  {
+    return TypeLord.findParameterizedType( _arrayListOfString, _collection );
+  }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2014 Guidewire Software, Inc.
+ */
+
+package gw.benchmark;
+
+import gw.lang.Gosu;
+import gw.lang.reflect.ReflectUtil;
+import gw.util.StreamUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Initializes Gosu once per benchmark fork.  The classpath comes from java.class.path so the Gosu sources in this
+ * module (and the enhancements in gosu-core-api) are found whether the benchmarks run from the shaded jar or from
+ * target/classes.
+ */
+public final class BenchmarkEnvironment
+{
+  private static boolean g_bInitialized;
+
+  private BenchmarkEnvironment()
+  {
+  }
+
+  public static synchronized void init()
+  {
+    if( g_bInitialized )
+    {
+      return;
+    }
+    List<File> classpath = new ArrayList<>();
+    for( String entry : System.getProperty( "java.class.path" ).split( File.pathSeparator ) )
+    {
+      if( !entry.isEmpty() )
+      {
+        classpath.add( new File( entry ).getAbsoluteFile() );
+      }
+    }
+    Gosu.init( classpath );
+    g_bInitialized = true;
+  }
+
+  /**
+   * Constructs a Gosu class from this module, typically one implementing a Java interface the benchmark calls through.
+   */
+  public static <T> T construct( String gosuClass )
+  {
+    init();
+    return ReflectUtil.construct( gosuClass );
+  }
+
+  /**
+   * @return The text of a resource next to this class, e.g. the source of one of the sample Gosu classes
+   */
+  public static String resource( String name )
+  {
+    try( InputStream in = BenchmarkEnvironment.class.getResourceAsStream( name ) )
+    {
+      if( in == null )
+      {
+        throw new IllegalArgumentException( "No resource: " + name );
+      }
+      return StreamUtil.getContent( StreamUtil.getInputStreamReader( in ) );
+    }
+    catch( IOException e )
+    {
+      throw new RuntimeException( e );
+    }
+  }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2014 Guidewire Software, Inc.
+ */
+
+package gw.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Entry point of the benchmarks jar.  Takes the usual JMH command line, but writes results as JSON (jmh-result.json
+ * in the working directory) unless -rf is given, so any two runs can be compared with {@link CompareResults}:
+ * <pre>
+ *   mvn -pl gosu-benchmarks -am package
+ *   java -jar gosu-benchmarks/target/benchmarks.jar Json -rff before.json
+ *   ... change something, rebuild ...
+ *   java -jar gosu-benchmarks/target/benchmarks.jar Json -rff after.json
+ *   java -cp gosu-benchmarks/target/benchmarks.jar gw.benchmark.CompareResults before.json after.json
+ * </pre>
+ */
+public class BenchmarkMain
+{
+  public static void main( String[] args ) throws Exception
+  {
+    List<String> jmhArgs = new ArrayList<>( Arrays.asList( args ) );
+    if( !jmhArgs.contains( "-rf" ) )
+    {
+      jmhArgs.add( "-rf" );
+      jmhArgs.add( "json" );
+    }
+    org.openjdk.jmh.Main.main( jmhArgs.toArray( new String[jmhArgs.size()] ) );
+  }
+}
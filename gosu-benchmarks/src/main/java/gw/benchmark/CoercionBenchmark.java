@@ -0,0 +1,103 @@
+/*
+ * Copyright 2014 Guidewire Software, Inc.
+ */
+
+package gw.benchmark;
+
+import gw.config.CommonServices;
+import gw.lang.parser.ICoercer;
+import gw.lang.parser.ICoercionManager;
+import gw.lang.reflect.IType;
+import gw.lang.reflect.java.JavaTypes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * StandardCoercionManager: runtime value conversion, the static canCoerce check and resolving a coercer, which
+ * the parser does for every implicit conversion.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class CoercionBenchmark
+{
+  private ICoercionManager _coercionManager;
+  private IType _pInt;
+  private IType _string;
+  private IType _bigDecimal;
+  private IType _rational;
+  private IType _integer;
+  private IType _pDouble;
+
+  private Object _text = "1234";
+  private Object _boxed = 1234;
+  private Object _double = 12.34;
+
+  @Setup
+  public void setup()
+  {
+    BenchmarkEnvironment.init();
+    _coercionManager = CommonServices.getCoercionManager();
+    _pInt = JavaTypes.pINT();
+    _string = JavaTypes.STRING();
+    _bigDecimal = JavaTypes.BIG_DECIMAL();
+    _rational = JavaTypes.RATIONAL();
+    _integer = JavaTypes.INTEGER();
+    _pDouble = JavaTypes.pDOUBLE();
+  }
+
+  @Benchmark
+  public Object stringToInt()
+  {
+    return _coercionManager.convertValue( _text, _pInt );
+  }
+
+  @Benchmark
+  public Object integerToString()
+  {
+    return _coercionManager.convertValue( _boxed, _string );
+  }
+
+  @Benchmark
+  public Object doubleToBigDecimal()
+  {
+    return _coercionManager.convertValue( _double, _bigDecimal );
+  }
+
+  @Benchmark
+  public Object integerToRational()
+  {
+    return _coercionManager.convertValue( _boxed, _rational );
+  }
+
+  @Benchmark
+  public Object sameType()
+  {
+    return _coercionManager.convertValue( _boxed, _integer );
+  }
+
+  @Benchmark
+  public boolean canCoerce()
+  {
+    return _coercionManager.canCoerce( _pDouble, _integer );
+  }
+
+  @Benchmark
+  public ICoercer resolveCoercerStatically()
+  {
+    return _coercionManager.resolveCoercerStatically( _bigDecimal, _pInt );
+  }
+}
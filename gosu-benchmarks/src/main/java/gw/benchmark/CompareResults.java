@@ -0,0 +1,139 @@
+/*
+ * Copyright 2014 Guidewire Software, Inc.
+ */
+
+package gw.benchmark;
+
+import gw.lang.reflect.json.JsonReader;
+
+import javax.script.Bindings;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares two JMH JSON result files, benchmark by benchmark:
+ * <pre>
+ *   java -cp benchmarks.jar gw.benchmark.CompareResults before.json after.json [threshold-percent]
+ * </pre>
+ * A benchmark regressed if it got worse by more than the threshold (5% by default) and the two confidence intervals
+ * don't overlap.  The exit status is 1 if anything regressed, so the comparison can gate a build.
+ */
+public class CompareResults
+{
+  public static void main( String[] args ) throws IOException
+  {
+    if( args.length < 2 )
+    {
+      System.err.println( "Usage: CompareResults <before.json> <after.json> [threshold-percent]" );
+      System.exit( 2 );
+    }
+    double threshold = args.length > 2 ? Double.parseDouble( args[2] ) : 5;
+
+    Map<String, Score> before = read( args[0] );
+    Map<String, Score> after = read( args[1] );
+
+    int iRegressions = 0;
+    System.out.println( String.format( "%-70s %24s %24s %9s", "Benchmark", "Before", "After", "Change" ) );
+    for( Map.Entry<String, Score> entry : after.entrySet() )
+    {
+      Score newScore = entry.getValue();
+      Score oldScore = before.get( entry.getKey() );
+      if( oldScore == null )
+      {
+        System.out.println( String.format( "%-70s %24s %24s %9s", entry.getKey(), "-", newScore, "new" ) );
+        continue;
+      }
+      if( !oldScore._strUnit.equals( newScore._strUnit ) )
+      {
+        System.out.println( String.format( "%-70s %24s %24s %9s", entry.getKey(), oldScore, newScore, "?" ) );
+        continue;
+      }
+      double change = (newScore._score - oldScore._score) * 100 / oldScore._score;
+      double worse = newScore._bHigherIsBetter ? -change : change;
+      boolean bOverlap = Math.abs( newScore._score - oldScore._score ) <= newScore._error + oldScore._error;
+      String strMark = "";
+      if( worse > threshold && !bOverlap )
+      {
+        strMark = "  REGRESSION";
+        iRegressions++;
+      }
+      else if( -worse > threshold && !bOverlap )
+      {
+        strMark = "  improved";
+      }
+      System.out.println( String.format( "%-70s %24s %24s %+8.1f%%%s", entry.getKey(), oldScore, newScore, change, strMark ) );
+    }
+    for( String key : before.keySet() )
+    {
+      if( !after.containsKey( key ) )
+      {
+        System.out.println( String.format( "%-70s %24s %24s %9s", key, before.get( key ), "-", "removed" ) );
+      }
+    }
+
+    if( iRegressions > 0 )
+    {
+      System.out.println( iRegressions + " regression(s)" );
+      System.exit( 1 );
+    }
+  }
+
+  private static Map<String, Score> read( String strFile ) throws IOException
+  {
+    Map<String, Score> scores = new LinkedHashMap<>();
+    try( InputStream in = new FileInputStream( strFile ) )
+    {
+      List<?> results = (List<?>)new JsonReader( in ).readValue();
+      for( Object result : results )
+      {
+        Bindings bindings = (Bindings)result;
+        StringBuilder key = new StringBuilder( (String)bindings.get( "benchmark" ) );
+        Object params = bindings.get( "params" );
+        if( params instanceof Bindings )
+        {
+          // the same params in any order make the same key
+          for( Map.Entry<String, Object> param : new TreeMap<>( (Bindings)params ).entrySet() )
+          {
+            key.append( ' ' ).append( param.getKey() ).append( '=' ).append( param.getValue() );
+          }
+        }
+        scores.put( key.toString(), new Score( (String)bindings.get( "mode" ), (Bindings)bindings.get( "primaryMetric" ) ) );
+      }
+    }
+    return scores;
+  }
+
+  private static class Score
+  {
+    private final double _score;
+    private final double _error;
+    private final String _strUnit;
+    private final boolean _bHigherIsBetter;
+
+    Score( String strMode, Bindings metric )
+    {
+      _score = number( metric.get( "score" ) );
+      double error = number( metric.get( "scoreError" ) );
+      // a single measurement has no error, JMH writes NaN
+      _error = Double.isNaN( error ) ? 0 : error;
+      _strUnit = (String)metric.get( "scoreUnit" );
+      _bHigherIsBetter = "thrpt".equals( strMode );
+    }
+
+    private static double number( Object value )
+    {
+      return value instanceof Number ? ((Number)value).doubleValue() : Double.parseDouble( String.valueOf( value ) );
+    }
+
+    @Override
+    public String toString()
+    {
+      return String.format( "%.3f +- %.3f %s", _score, _error, _strUnit );
+    }
+  }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2014 Guidewire Software, Inc.
+ */
+
+package gw.benchmark;
+
+import gw.lang.reflect.ITypeRef;
+import gw.lang.reflect.TypeSystem;
+import gw.lang.reflect.gs.IGosuClass;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compiles a Gosu class end to end: the class is refreshed, then parsed through all phases, type checked and
+ * transformed to bytecode, the same path GosuClassLoader takes when a class is first loaded at runtime.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 5, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+public class CompileBenchmark
+{
+  @Param( {"gw.benchmark.Pipelines", "gw.benchmark.IntervalLoops", "gw.benchmark.Units"} )
+  public String className;
+
+  @Setup
+  public void setup()
+  {
+    BenchmarkEnvironment.init();
+    // load the type system and the class's dependencies once so only the class itself is compiled per call
+    compile();
+  }
+
+  @Benchmark
+  public byte[] compile()
+  {
+    TypeSystem.refresh( (ITypeRef)TypeSystem.getByFullName( className ) );
+    IGosuClass gsClass = (IGosuClass)TypeSystem.getByFullName( className );
+    if( !gsClass.isValid() )
+    {
+      throw new IllegalStateException( gsClass.getParseResultsException() );
+    }
+    return TypeSystem.getGosuClassLoader().getBytes( gsClass );
+  }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2014 Guidewire Software, Inc.
+ */
+
+package gw.benchmark;
+
+import gw.internal.gosu.runtime.GosuRuntimeMethods;
+import gw.lang.reflect.Expando;
+import gw.lang.reflect.IType;
+import gw.lang.reflect.TypeSystem;
+import gw.lang.reflect.java.JavaTypes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dynamic dispatch in GosuRuntimeMethods, called directly and from Gosu code compiled against the Dynamic type.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class DispatchBenchmark
+{
+  private Target _target;
+  private IType _targetType;
+  private IType[] _describeParams;
+  private Object[] _describeArgs;
+  private Expando _expando;
+  private IDynamicCalls _dynamicCalls;
+
+  @Setup
+  public void setup()
+  {
+    BenchmarkEnvironment.init();
+    _target = new Target();
+    _targetType = TypeSystem.get( Target.class );
+    _describeParams = new IType[] {JavaTypes.pINT()};
+    _describeArgs = new Object[] {42};
+    _expando = new Expando();
+    _expando.put( "Name", "expando" );
+    _dynamicCalls = BenchmarkEnvironment.construct( "gw.benchmark.DynamicCalls" );
+  }
+
+  @Benchmark
+  public Object getPropertyDynamically()
+  {
+    return GosuRuntimeMethods.getPropertyDynamically( _target, "Name" );
+  }
+
+  @Benchmark
+  public Object getProperty()
+  {
+    return GosuRuntimeMethods.getProperty( _target, _targetType, "Name" );
+  }
+
+  @Benchmark
+  public Object getPropertyOfBindings()
+  {
+    return GosuRuntimeMethods.getPropertyDynamically( _expando, "Name" );
+  }
+
+  @Benchmark
+  public Object invokeMethodInfo()
+  {
+    return GosuRuntimeMethods.invokeMethodInfo( _targetType, "describe", _describeParams, _target, _describeArgs );
+  }
+
+  @Benchmark
+  public Object compiledGetProperty()
+  {
+    return _dynamicCalls.getProperty( _target );
+  }
+
+  @Benchmark
+  public void compiledSetProperty()
+  {
+    _dynamicCalls.setProperty( _target, "target" );
+  }
+
+  @Benchmark
+  public Object compiledInvokeMethod()
+  {
+    return _dynamicCalls.invokeMethod( _target );
+  }
+
+  public static class Target
+  {
+    private String _strName = "target";
+
+    public String getName()
+    {
+      return _strName;
+    }
+
+    public void setName( String strName )
+    {
+      _strName = strName;
+    }
+
+    public String describe( int i )
+    {
+      return _strName + i;
+    }
+  }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2014 Guidewire Software, Inc.
+ */
+
+package gw.benchmark;
+
+import gw.util.cache.FqnCache;
+import gw.util.cache.FqnCacheNode;
+import gw.util.concurrent.Cache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FqnCache lookups of names that are in the cache, walking the trie over the name's chars against the way it used to
+ * work: splitting the name into parts, memoized in a 10,000 entry cache, then looking up each part.  Run with
+ * <code>-prof gc</code> to see the allocation rate of each.
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class FqnCacheBenchmark
+{
+  private static final int NAME_COUNT = 4096;
+
+  private final Cache<String, String[]> _partsCache = Cache.make( "Fqn Parts Cache", 10000, FqnCacheBenchmark::split );
+  private final FqnCache<String> _cache = new FqnCache<>();
+  private String[] _names;
+  private int _index;
+
+  @Setup
+  public void setup()
+  {
+    List<String> names = new ArrayList<>();
+    for( int i = 0; i < NAME_COUNT; i++ )
+    {
+      String name = "com.example.module" + (i % 8) + ".package" + (i % 64) + ".Type" + i;
+      if( i % 16 == 0 )
+      {
+        name += "<java.util.List<java.lang.String>>";
+      }
+      names.add( name );
+      _cache.add( name, name );
+    }
+    // fresh copies, as names usually come from the parser rather than from the cache
+    _names = new String[NAME_COUNT];
+    for( int i = 0; i < NAME_COUNT; i++ )
+    {
+      _names[i] = new String( names.get( i ).toCharArray() );
+    }
+  }
+
+  @Benchmark
+  public String walk()
+  {
+    return _cache.get( nextName() );
+  }
+
+  @Benchmark
+  public String splitCache()
+  {
+    FqnCacheNode<String> n = _cache.getRoot();
+    for( String part : _partsCache.get( nextName() ) )
+    {
+      n = n.getChild( part );
+      if( n == null )
+      {
+        return null;
+      }
+    }
+    return n.getUserData();
+  }
+
+  private String nextName()
+  {
+    return _names[_index++ & (NAME_COUNT - 1)];
+  }
+
+  /**
+   * The split FqnCache used before it walked names in place.
+   */
+  private static String[] split( String fqn )
+  {
+    String theRest = fqn;
+    List<String> parts = new ArrayList<>();
+    while( theRest != null )
+    {
+      int iParam = theRest.indexOf( '<' );
+      int iDot = theRest.indexOf( '.' );
+      int iArray = theRest.indexOf( '[' );
+      String part;
+      if( iParam == 0 )
+      {
+        if( iArray > 0 )
+        {
+          part = theRest.substring( 0, iArray );
+          theRest = theRest.substring( iArray );
+        }
+        else
+        {
+          part = theRest;
+          theRest = null;
+        }
+      }
+      else if( iArray == 0 )
+      {
+        part = theRest.substring( 0, 2 );
+        theRest = part.length() == theRest.length() ? null : theRest.substring( 2 );
+      }
+      else if( iParam > 0 && (iDot <= 0 || iDot > iParam) )
+      {
+        part = theRest.substring( 0, iParam );
+        theRest = theRest.substring( iParam );
+      }
+      else if( iDot > 0 )
+      {
+        part = theRest.substring( 0, iDot );
+        theRest = iDot + 1 < theRest.length() ? theRest.substring( iDot + 1 ) : null;
+      }
+      else
+      {
+        part = theRest;
+        theRest = null;
+      }
+      parts.add( part.intern() );
+    }
+    return parts.toArray( new String[parts.size()] );
+  }
+}
@@ -0,0 +1,18 @@
+/*
+ * Copyright 2014 Guidewire Software, Inc.
+ */
+
+package gw.benchmark;
+
+/**
+ * Implemented in Gosu by gw.benchmark.DynamicCalls, which reaches its argument through the Dynamic type so the
+ * compiled code dispatches through GosuRuntimeMethods.
+ */
+public interface IDynamicCalls
+{
+  Object getProperty( Object target );
+
+  void setProperty( Object target, Object value );
+
+  Object invokeMethod( Object target );
+}
@@ -0,0 +1,28 @@
+/*
+ * Copyright 2014 Guidewire Software, Inc.
+ */
+
+package gw.benchmark;
+
+/**
+ * Implemented in Gosu by gw.benchmark.IntervalLoops so the loops are compiled by the Gosu compiler and called
+ * without reflection.  Each counted form has an explicit iterator twin with the same result.
+ */
+public interface IIntervalLoops
+{
+  long countedSum( int n );
+
+  long iteratorSum( int n );
+
+  long countedStepSum( int n, int step );
+
+  long iteratorStepSum( int n, int step );
+
+  long countedReverseSum( int n );
+
+  long iteratorReverseSum( int n );
+
+  long countedLongSum( long n );
+
+  long iteratorLongSum( long n );
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2014 Guidewire Software, Inc.
+ */
+
+package gw.benchmark;
+
+import java.util.List;
+
+/**
+ * Implemented in Gosu by gw.benchmark.Pipelines; each method chains CoreIterableEnhancement (and friends) with
+ * block arguments over the same list.  The lazy* methods run the same chain as their eager twin through
+ * lazy(), which fuses it into a single pass.
+ */
+public interface IPipelines
+{
+  int whereMapSum( List<Integer> data );
+
+  int firstWhere( List<Integer> data, int value );
+
+  List<String> mapToString( List<Integer> data );
+
+  Object orderByTakeFirst( List<Integer> data );
+
+  int flatMapCount( List<Integer> data );
+
+  int reduce( List<Integer> data );
+
+  boolean hasMatch( List<Integer> data, int value );
+
+  int whereMapReduce( List<Integer> data );
+
+  int lazyWhereMapReduce( List<Integer> data );
+
+  Object whereMapFirstWhere( List<Integer> data, int value );
+
+  Object lazyWhereMapFirstWhere( List<Integer> data, int value );
+
+  int lazyFlatMapCount( List<Integer> data );
+}
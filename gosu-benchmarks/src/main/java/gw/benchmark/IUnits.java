@@ -0,0 +1,22 @@
+/*
+ * Copyright 2014 Guidewire Software, Inc.
+ */
+
+package gw.benchmark;
+
+/**
+ * Implemented in Gosu by gw.benchmark.Units over the gw.util.science library, whose measures all carry a
+ * gw.util.Rational.
+ */
+public interface IUnits
+{
+  Object velocity( int iMeters, int iSeconds );
+
+  Object convertLength( int iMeters );
+
+  Object sumMasses( int iCount );
+
+  Object force( int iKilograms );
+
+  boolean compareLengths( int iMeters );
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2014 Guidewire Software, Inc.
+ */
+
+package gw.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * for-in over an interval, which compiles to a counted loop, against walking the same interval with its iterator,
+ * see gw.benchmark.IntervalLoops.  Run with -prof gc to compare allocation as well as time.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class IntervalLoopBenchmark
+{
+  @Param( {"100", "10000"} )
+  public int n;
+
+  private IIntervalLoops _loops;
+
+  @Setup
+  public void setup()
+  {
+    _loops = BenchmarkEnvironment.construct( "gw.benchmark.IntervalLoops" );
+  }
+
+  @Benchmark
+  public long counted()
+  {
+    return _loops.countedSum( n );
+  }
+
+  @Benchmark
+  public long iterator()
+  {
+    return _loops.iteratorSum( n );
+  }
+
+  @Benchmark
+  public long countedStep()
+  {
+    return _loops.countedStepSum( n, 3 );
+  }
+
+  @Benchmark
+  public long iteratorStep()
+  {
+    return _loops.iteratorStepSum( n, 3 );
+  }
+
+  @Benchmark
+  public long countedReverse()
+  {
+    return _loops.countedReverseSum( n );
+  }
+
+  @Benchmark
+  public long iteratorReverse()
+  {
+    return _loops.iteratorReverseSum( n );
+  }
+
+  @Benchmark
+  public long countedLong()
+  {
+    return _loops.countedLongSum( n );
+  }
+
+  @Benchmark
+  public long iteratorLong()
+  {
+    return _loops.iteratorLongSum( n );
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2014 Guidewire Software, Inc.
+ */
+
+package gw.benchmark;
+
+import gw.lang.reflect.json.IJsonIO;
+import gw.lang.reflect.json.Json;
+import gw.lang.reflect.json.JsonReader;
+import gw.lang.reflect.json.JsonWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.script.Bindings;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON parsing into Bindings, event-only reading, binding straight to IJsonIO objects, and writing.  The document
+ * is an array of records generated once per trial.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class JsonBenchmark
+{
+  @Param( {"10", "1000"} )
+  public int records;
+
+  private String _json;
+  private byte[] _bytes;
+  private byte[] _listBytes;
+  private Bindings _bindings;
+
+  @Setup
+  public void setup()
+  {
+    Random random = new Random( 42 );
+    List<Record> list = new ArrayList<>();
+    for( int i = 0; i < records; i++ )
+    {
+      Record record = new Record();
+      record._id = i;
+      record._name = "record \"" + i + "\" é";
+      record._score = random.nextDouble() * 1000;
+      record._active = random.nextBoolean();
+      record._tags = Arrays.asList( "tag" + random.nextInt( 10 ), "tag" + random.nextInt( 10 ) );
+      record._timestamp = System.currentTimeMillis() + random.nextInt();
+      list.add( record );
+    }
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try( JsonWriter writer = new JsonWriter( out ) )
+    {
+      writer.beginObject().name( "records" );
+      IJsonIO.writeList( list, writer );
+      writer.endObject();
+    }
+    _bytes = out.toByteArray();
+    _json = new String( _bytes, StandardCharsets.UTF_8 );
+    _listBytes = _json.substring( _json.indexOf( '[' ), _json.lastIndexOf( ']' ) + 1 ).getBytes( StandardCharsets.UTF_8 );
+    _bindings = Json.fromJson( _json );
+  }
+
+  @Benchmark
+  public Bindings fromJsonString()
+  {
+    return Json.fromJson( _json );
+  }
+
+  @Benchmark
+  public Bindings fromJsonBytes()
+  {
+    return Json.fromJson( _bytes );
+  }
+
+  @Benchmark
+  public int readEvents()
+  {
+    JsonReader reader = new JsonReader( _bytes );
+    int iCount = 0;
+    while( reader.next() != JsonReader.Event.END )
+    {
+      iCount++;
+    }
+    return iCount;
+  }
+
+  @Benchmark
+  public List<Record> readIJsonIO()
+  {
+    return IJsonIO.readList( new JsonReader( _listBytes ) );
+  }
+
+  @Benchmark
+  public int write()
+  {
+    ByteArrayOutputStream out = new ByteArrayOutputStream( _bytes.length );
+    try( JsonWriter writer = new JsonWriter( out ) )
+    {
+      writer.value( _bindings );
+    }
+    return out.size();
+  }
+
+  public static class Record implements IJsonIO
+  {
+    private int _id;
+    private String _name;
+    private double _score;
+    private boolean _active;
+    private List<String> _tags;
+    private long _timestamp;
+  }
+}
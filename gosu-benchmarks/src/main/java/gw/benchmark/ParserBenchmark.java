@@ -0,0 +1,115 @@
+/*
+ * Copyright 2014 Guidewire Software, Inc.
+ */
+
+package gw.benchmark;
+
+import gw.internal.gosu.parser.IGosuClassInternal;
+import gw.internal.gosu.parser.SourceCodeTokenizer;
+import gw.lang.parser.GosuParserFactory;
+import gw.lang.parser.exceptions.ParseResultsException;
+import gw.lang.reflect.ITypeRef;
+import gw.lang.reflect.TypeSystem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tokenizing and parsing.  The tokenizer runs over CoreIterableEnhancement's source; the parser benchmarks parse a
+ * standalone program and re-parse a class through its header, declaration and definition phases.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class ParserBenchmark
+{
+  private static final String PROGRAM =
+    "uses java.util.ArrayList\n" +
+    "uses java.util.Map\n" +
+    "\n" +
+    "var list = new ArrayList<String>()\n" +
+    "for( i in 0..100 index idx ) {\n" +
+    "  if( i % 2 == 0 && idx != 3 ) {\n" +
+    "    list.add( \"even: ${i}\" )\n" +
+    "  } else {\n" +
+    "    list.add( i as String )\n" +
+    "  }\n" +
+    "}\n" +
+    "var lengths = list.map( \\ s -> s.length() ).where( \\ l -> l > 2 )\n" +
+    "var map : Map<String, Integer> = {\"a\" -> 1, \"b\" -> 2}\n" +
+    "function fib( n: int ) : int {\n" +
+    "  return n < 2 ? n : fib( n - 1 ) + fib( n - 2 )\n" +
+    "}\n" +
+    "var total = 0\n" +
+    "while( total < 1000 ) {\n" +
+    "  total += fib( 10 ) * (map.get( \"a\" ) ?: 0)\n" +
+    "}\n" +
+    "switch( total ) {\n" +
+    "  case 0:\n" +
+    "    print( \"none\" )\n" +
+    "    break\n" +
+    "  default: print( lengths.Count )\n" +
+    "}\n" +
+    "return total\n";
+
+  private static final String CLASS = "gw.benchmark.Pipelines";
+
+  private String _source;
+
+  @Setup
+  public void setup()
+  {
+    BenchmarkEnvironment.init();
+    _source = BenchmarkEnvironment.resource( "/gw/lang/enhancements/CoreIterableEnhancement.gsx" );
+  }
+
+  @Benchmark
+  public int tokenize()
+  {
+    SourceCodeTokenizer tokenizer = new SourceCodeTokenizer( _source );
+    int iCount = 0;
+    tokenizer.nextToken();
+    while( tokenizer.getType() != SourceCodeTokenizer.TT_EOF )
+    {
+      iCount++;
+      tokenizer.nextToken();
+    }
+    return iCount;
+  }
+
+  @Benchmark
+  public Object parseProgram() throws ParseResultsException
+  {
+    return GosuParserFactory.createParser( PROGRAM ).parseProgram( null );
+  }
+
+  @Benchmark
+  public Object parseExpression() throws ParseResultsException
+  {
+    return GosuParserFactory.createParser( "(1 + 2) * 3 > 4 and \"abc\".length() < 10 ? {1, 2, 3}.map( \\ i -> i * i ) : null" ).parseExp( null );
+  }
+
+  @Benchmark
+  public Object parseClass()
+  {
+    IGosuClassInternal gsClass = (IGosuClassInternal)TypeSystem.getByFullName( CLASS );
+    TypeSystem.refresh( (ITypeRef)gsClass );
+    gsClass = (IGosuClassInternal)TypeSystem.getByFullName( CLASS );
+    gsClass.compileHeaderIfNeeded();
+    gsClass.compileDeclarationsIfNeeded();
+    gsClass.compileDefinitionsIfNeeded();
+    return gsClass;
+  }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2014 Guidewire Software, Inc.
+ */
+
+package gw.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CoreIterableEnhancement block pipelines, see gw.benchmark.Pipelines.  whereMapSumJava is the same pipeline on
+ * java.util.stream, for reference.  The lazy* benchmarks go through lazy(); run with -prof gc to compare their
+ * allocation with the eager chains.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class PipelineBenchmark
+{
+  @Param( {"16", "1024", "65536"} )
+  public int size;
+
+  private List<Integer> _data;
+  private int _last;
+  private int _firstMatch;
+  private IPipelines _pipelines;
+
+  @Setup
+  public void setup()
+  {
+    _pipelines = BenchmarkEnvironment.construct( "gw.benchmark.Pipelines" );
+    Random random = new Random( 42 );
+    _data = new ArrayList<>( size );
+    for( int i = 0; i < size; i++ )
+    {
+      _data.add( random.nextInt( size ) );
+    }
+    _last = _data.get( size - 1 );
+    // a match about a quarter of the way in, where short-circuiting pays off
+    _firstMatch = -1;
+    for( int i = size / 4; i < size && _firstMatch < 0; i++ )
+    {
+      if( _data.get( i ) % 3 == 0 )
+      {
+        _firstMatch = _data.get( i ) * 2;
+      }
+    }
+  }
+
+  @Benchmark
+  public int whereMapSum()
+  {
+    return _pipelines.whereMapSum( _data );
+  }
+
+  @Benchmark
+  public int whereMapSumJava()
+  {
+    return _data.stream().filter( i -> i % 3 == 0 ).mapToInt( i -> i * 2 ).sum();
+  }
+
+  @Benchmark
+  public int firstWhere()
+  {
+    return _pipelines.firstWhere( _data, _last );
+  }
+
+  @Benchmark
+  public List<String> mapToString()
+  {
+    return _pipelines.mapToString( _data );
+  }
+
+  @Benchmark
+  public Object orderByTakeFirst()
+  {
+    return _pipelines.orderByTakeFirst( _data );
+  }
+
+  @Benchmark
+  public int flatMapCount()
+  {
+    return _pipelines.flatMapCount( _data );
+  }
+
+  @Benchmark
+  public int reduce()
+  {
+    return _pipelines.reduce( _data );
+  }
+
+  @Benchmark
+  public boolean hasMatch()
+  {
+    return _pipelines.hasMatch( _data, -1 );
+  }
+
+  @Benchmark
+  public int whereMapReduce()
+  {
+    return _pipelines.whereMapReduce( _data );
+  }
+
+  @Benchmark
+  public int lazyWhereMapReduce()
+  {
+    return _pipelines.lazyWhereMapReduce( _data );
+  }
+
+  @Benchmark
+  public Object whereMapFirstWhere()
+  {
+    return _pipelines.whereMapFirstWhere( _data, _firstMatch );
+  }
+
+  @Benchmark
+  public Object lazyWhereMapFirstWhere()
+  {
+    return _pipelines.lazyWhereMapFirstWhere( _data, _firstMatch );
+  }
+
+  @Benchmark
+  public int lazyFlatMapCount()
+  {
+    return _pipelines.lazyFlatMapCount( _data );
+  }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2014 Guidewire Software, Inc.
+ */
+
+package gw.benchmark;
+
+import gw.util.Rational;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigInteger;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * gw.util.Rational arithmetic, with small values and with values too big for two longs, and the gw.util.science
+ * unit library built on it, see gw.benchmark.Units.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class ScienceBenchmark
+{
+  private Rational _third;
+  private Rational _sevenEighths;
+  private Rational _bigThird;
+  private Rational _bigSevenEighths;
+  private IUnits _units;
+
+  @Setup
+  public void setup()
+  {
+    _third = Rational.get( 1, 3 );
+    _sevenEighths = Rational.get( 7, 8 );
+    BigInteger big = BigInteger.valueOf( Long.MAX_VALUE ).multiply( BigInteger.TEN );
+    _bigThird = Rational.get( big, big.multiply( BigInteger.valueOf( 3 ) ) ).add( Rational.get( BigInteger.ONE, big ) );
+    _bigSevenEighths = Rational.get( big.multiply( BigInteger.valueOf( 7 ) ), big.multiply( BigInteger.valueOf( 8 ) ) ).add( Rational.get( BigInteger.ONE, big ) );
+    _units = BenchmarkEnvironment.construct( "gw.benchmark.Units" );
+  }
+
+  @Benchmark
+  public Rational rationalAdd()
+  {
+    return _third.add( _sevenEighths );
+  }
+
+  @Benchmark
+  public Rational rationalMultiply()
+  {
+    return _third.multiply( _sevenEighths );
+  }
+
+  @Benchmark
+  public Rational rationalDivide()
+  {
+    return _third.divide( _sevenEighths );
+  }
+
+  @Benchmark
+  public int rationalCompare()
+  {
+    return _third.compareTo( _sevenEighths );
+  }
+
+  @Benchmark
+  public Rational rationalAccumulate()
+  {
+    Rational sum = Rational.ZERO;
+    for( int i = 1; i <= 16; i++ )
+    {
+      sum = sum.add( Rational.get( 1, i ) );
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public Rational bigRationalAdd()
+  {
+    return _bigThird.add( _bigSevenEighths );
+  }
+
+  @Benchmark
+  public Rational bigRationalMultiply()
+  {
+    return _bigThird.multiply( _bigSevenEighths );
+  }
+
+  @Benchmark
+  public Object velocity()
+  {
+    return _units.velocity( 1609, 60 );
+  }
+
+  @Benchmark
+  public Object convertLength()
+  {
+    return _units.convertLength( 1000 );
+  }
+
+  @Benchmark
+  public Object sumMasses()
+  {
+    return _units.sumMasses( 16 );
+  }
+
+  @Benchmark
+  public Object force()
+  {
+    return _units.force( 75 );
+  }
+
+  @Benchmark
+  public boolean compareLengths()
+  {
+    return _units.compareLengths( 12 );
+  }
+}
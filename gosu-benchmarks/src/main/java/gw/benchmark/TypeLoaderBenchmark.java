@@ -0,0 +1,82 @@
+/*
+ * Copyright 2014 Guidewire Software, Inc.
+ */
+
+package gw.benchmark;
+
+import gw.lang.reflect.IType;
+import gw.lang.reflect.TypeSystem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TypeLoaderAccess.getByFullName, warm (the type is cached) and cold (the type system was just refreshed with its
+ * caches cleared, so the name is resolved through the type loaders again).  Cold lookups are single shots, each
+ * after its own refresh.
+ */
+@State( Scope.Benchmark )
+@Fork( 1 )
+public class TypeLoaderBenchmark
+{
+  @Param( {"java.lang.String", "java.util.ArrayList", "java.util.HashMap[][]", "gw.benchmark.Pipelines", "gw.lang.enhancements.CoreIterableEnhancement"} )
+  public String typeName;
+
+  @Setup
+  public void setup()
+  {
+    BenchmarkEnvironment.init();
+    TypeSystem.getByFullName( typeName );
+  }
+
+  @Benchmark
+  @BenchmarkMode( Mode.AverageTime )
+  @OutputTimeUnit( TimeUnit.NANOSECONDS )
+  @Warmup( iterations = 5, time = 1 )
+  @Measurement( iterations = 5, time = 1 )
+  public IType warm()
+  {
+    return TypeSystem.getByFullName( typeName );
+  }
+
+  @Benchmark
+  @BenchmarkMode( Mode.AverageTime )
+  @OutputTimeUnit( TimeUnit.NANOSECONDS )
+  @Warmup( iterations = 5, time = 1 )
+  @Measurement( iterations = 5, time = 1 )
+  public IType miss()
+  {
+    return TypeSystem.getByFullNameIfValid( typeName + "_NoSuchType" );
+  }
+
+  @Benchmark
+  @BenchmarkMode( Mode.SingleShotTime )
+  @OutputTimeUnit( TimeUnit.MICROSECONDS )
+  @Warmup( iterations = 10 )
+  @Measurement( iterations = 50 )
+  public IType cold( Refreshed refreshed )
+  {
+    return TypeSystem.getByFullName( typeName );
+  }
+
+  @State( Scope.Thread )
+  public static class Refreshed
+  {
+    @Setup( Level.Iteration )
+    public void refresh()
+    {
+      TypeSystem.refresh( true );
+    }
+  }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2014 Guidewire Software, Inc.
+ */
+
+package gw.benchmark;
+
+import gw.lang.reflect.IType;
+import gw.lang.reflect.TypeSystem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TypeSystem.getByFullName plus getTypeInfo of types that are already loaded, on one thread and on one thread per
+ * core.  Loaded types are looked up without the global TypeSystem lock, so the throughput of allThreads should be
+ * close to that of oneThread times the number of cores.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class TypeSystemContentionBenchmark
+{
+  private static final String[] TYPE_NAMES = {
+    "java.lang.String",
+    "java.util.ArrayList",
+    "java.util.HashMap",
+    "java.lang.Integer",
+    "gw.lang.reflect.TypeSystem",
+    "gw.benchmark.Pipelines",
+  };
+
+  @Setup
+  public void setup()
+  {
+    BenchmarkEnvironment.init();
+    for( String name : TYPE_NAMES )
+    {
+      TypeSystem.getByFullName( name ).getTypeInfo().getMethods();
+    }
+  }
+
+  @Benchmark
+  @Threads( 1 )
+  public Object oneThread( Cursor cursor )
+  {
+    return lookup( cursor );
+  }
+
+  @Benchmark
+  @Threads( Threads.MAX )
+  public Object allThreads( Cursor cursor )
+  {
+    return lookup( cursor );
+  }
+
+  private static Object lookup( Cursor cursor )
+  {
+    IType type = TypeSystem.getByFullName( TYPE_NAMES[cursor._index++ % TYPE_NAMES.length] );
+    return type.getTypeInfo();
+  }
+
+  @State( Scope.Thread )
+  public static class Cursor
+  {
+    int _index;
+  }
+}
@@ -0,0 +1,283 @@
+package gw.util
+
+uses gw.lang.parser.StandardCoercionManager
+uses java.lang.Iterable
+uses java.lang.UnsupportedOperationException
+uses java.util.ArrayList
+uses java.util.Collection
+uses java.util.Iterator
+uses java.util.List
+uses java.util.NoSuchElementException
+uses java.util.RandomAccess
+
+/**
+ * A lazy view of an Iterable, see CoreIterableEnhancement.lazy().  where(), map(), flatMap(), whereTypeIs() and
+ * take() return a new Sequence without looking at any elements.  A terminal operation, toList(), first(),
+ * firstWhere(), hasMatch(), reduce() or each(), then runs every stage in one pass, an element at a time, with no
+ * list in between, and stops reading the source as soon as its result is known:
+ * <pre>
+ *   var name = people.lazy().where( \ p -> p.Active ).map( \ p -> p.Name ).firstWhere( \ n -> n.startsWith( "A" ) )
+ * </pre>
+ * A Sequence isn't an Iterable, so its operations don't clash with the eager Iterable enhancements of the same
+ * names.  for-in loops work over it all the same, through iterator(), which is just as lazy, and asIterable()
+ * gives the other enhancements.  A Sequence reads its source again for every terminal operation.
+ *
+ *  Copyright 2014 Guidewire Software, Inc.
+ */
+final class Sequence<T> {
+  // Feeds each element to the sink until the sink returns false; returns false if the sink stopped it
+  var _push : block(sink: block(elt: T): boolean): boolean
+  var _pull : block(): Iterator<T>
+
+  private construct( push: block(sink: block(elt: T): boolean): boolean, pull: block(): Iterator<T> ) {
+    _push = push
+    _pull = pull
+  }
+
+  static reified function of<E>( source: Iterable<E> ) : Sequence<E> {
+    return new Sequence<E>( \ sink -> feed( source, sink ), \ -> source.iterator() )
+  }
+
+  function where( cond(elt: T): boolean ) : Sequence<T> {
+    return new Sequence<T>( \ sink -> _push( \ e -> not cond( e ) or sink( e ) ),
+                            \ -> new WhereIterator<T>( _pull(), cond ) )
+  }
+
+  reified function map<Q>( mapper(elt: T): Q ) : Sequence<Q> {
+    return new Sequence<Q>( \ sink -> _push( \ e -> sink( mapper( e ) ) ),
+                            \ -> new MapIterator<T, Q>( _pull(), mapper ) )
+  }
+
+  reified function flatMap<R>( mapper(elt: T): Collection<R> ) : Sequence<R> {
+    return new Sequence<R>( \ sink -> _push( \ e -> feed( mapper( e ), sink ) ),
+                            \ -> new FlatMapIterator<T, R>( _pull(), mapper ) )
+  }
+
+  reified function whereTypeIs<R>( type: Type<R> ) : Sequence<R> {
+    return where( \ e -> type.Type.isAssignableFrom( typeof e ) or StandardCoercionManager.isStructurallyAssignable( type.Type, typeof e ) )
+          .map( \ e -> e as R )
+  }
+
+  /**
+   * The first n elements, or all of them if there are fewer
+   */
+  function take( n: int ) : Sequence<T> {
+    var push : block(sink: block(elt: T): boolean): boolean = \ sink -> {
+      if( n <= 0 ) {
+        return true
+      }
+      var count = 0
+      var more = true
+      _push( \ e -> {
+        count++
+        more = sink( e )
+        return more and count < n
+      } )
+      // stopping at n isn't the sink asking to stop
+      return more
+    }
+    return new Sequence<T>( push, \ -> new TakeIterator<T>( _pull(), n ) )
+  }
+
+  function toList() : List<T> {
+    var list = new ArrayList<T>()
+    _push( \ e -> {
+      list.add( e )
+      return true
+    } )
+    return list
+  }
+
+  function each( operation(elt: T) ) {
+    _push( \ e -> {
+      operation( e )
+      return true
+    } )
+  }
+
+  /**
+   * The first element, or null if there are none
+   */
+  function first() : T {
+    var result : T = null
+    _push( \ e -> {
+      result = e
+      return false
+    } )
+    return result
+  }
+
+  /**
+   * The first element that matches the condition, or null if none does
+   */
+  function firstWhere( cond(elt: T): boolean ) : T {
+    return where( cond ).first()
+  }
+
+  function hasMatch( cond(elt: T): boolean ) : boolean {
+    var found = false
+    _push( \ e -> {
+      found = cond( e )
+      return not found
+    } )
+    return found
+  }
+
+  function reduce<V>( init: V, aggregator(val: V, elt: T): V ) : V {
+    var result = init
+    _push( \ e -> {
+      result = aggregator( result, e )
+      return true
+    } )
+    return result
+  }
+
+  function iterator() : Iterator<T> {
+    return _pull()
+  }
+
+  /**
+   * This sequence as an Iterable, for the eager Iterable enhancements
+   */
+  function asIterable() : Iterable<T> {
+    return new Iterable<T>() {
+      override function iterator() : Iterator<T> {
+        return _pull()
+      }
+    }
+  }
+
+  private static reified function feed<E>( source: Iterable<E>, sink: block(elt: E): boolean ) : boolean {
+    // no iterator for array lists and the like; tested as an Object so List isn't inferred as List<E>
+    var list : Object = source
+    if( list typeis RandomAccess and list typeis List ) {
+      for( i in 0..|list.size() ) {
+        if( not sink( list.get( i ) as E ) ) {
+          return false
+        }
+      }
+      return true
+    }
+    for( e in source ) {
+      if( not sink( e ) ) {
+        return false
+      }
+    }
+    return true
+  }
+
+  private static class WhereIterator<E> implements Iterator<E> {
+    var _source : Iterator<E>
+    var _cond : block(elt: E): boolean
+    var _next : E
+    var _ready : boolean
+
+    construct( source: Iterator<E>, cond: block(elt: E): boolean ) {
+      _source = source
+      _cond = cond
+    }
+
+    override function hasNext() : boolean {
+      while( not _ready and _source.hasNext() ) {
+        var e = _source.next()
+        if( _cond( e ) ) {
+          _next = e
+          _ready = true
+        }
+      }
+      return _ready
+    }
+
+    override function next() : E {
+      if( not hasNext() ) {
+        throw new NoSuchElementException()
+      }
+      var e = _next
+      _next = null
+      _ready = false
+      return e
+    }
+
+    override function remove() {
+      throw new UnsupportedOperationException()
+    }
+  }
+
+  private static class MapIterator<E, Q> implements Iterator<Q> {
+    var _source : Iterator<E>
+    var _mapper : block(elt: E): Q
+
+    construct( source: Iterator<E>, mapper: block(elt: E): Q ) {
+      _source = source
+      _mapper = mapper
+    }
+
+    override function hasNext() : boolean {
+      return _source.hasNext()
+    }
+
+    override function next() : Q {
+      return _mapper( _source.next() )
+    }
+
+    override function remove() {
+      throw new UnsupportedOperationException()
+    }
+  }
+
+  private static class FlatMapIterator<E, R> implements Iterator<R> {
+    var _source : Iterator<E>
+    var _mapper : block(elt: E): Collection<R>
+    var _current : Iterator<R>
+
+    construct( source: Iterator<E>, mapper: block(elt: E): Collection<R> ) {
+      _source = source
+      _mapper = mapper
+    }
+
+    override function hasNext() : boolean {
+      while( (_current == null or not _current.hasNext()) and _source.hasNext() ) {
+        var elements = _mapper( _source.next() )
+        _current = elements == null ? null : elements.iterator()
+      }
+      return _current != null and _current.hasNext()
+    }
+
+    override function next() : R {
+      if( not hasNext() ) {
+        throw new NoSuchElementException()
+      }
+      return _current.next()
+    }
+
+    override function remove() {
+      throw new UnsupportedOperationException()
+    }
+  }
+
+  private static class TakeIterator<E> implements Iterator<E> {
+    var _source : Iterator<E>
+    var _remaining : int
+
+    construct( source: Iterator<E>, n: int ) {
+      _source = source
+      _remaining = n
+    }
+
+    override function hasNext() : boolean {
+      return _remaining > 0 and _source.hasNext()
+    }
+
+    override function next() : E {
+      if( not hasNext() ) {
+        throw new NoSuchElementException()
+      }
+      _remaining--
+      return _source.next()
+    }
+
+    override function remove() {
+      throw new UnsupportedOperationException()
+    }
+  }
+}
@@ -0,0 +1,71 @@
+package gw.util.concurrent
+
+uses java.lang.Iterable
+uses java.util.ArrayList
+uses java.util.List
+uses java.util.RandomAccess
+uses java.util.concurrent.ForkJoinTask
+uses java.util.concurrent.RecursiveTask
+
+/**
+ * The fork/join work behind the parallel* enhancements.  The index range [0, size) is split in halves until a piece
+ * is no larger than ParallelConfig.Threshold; each piece runs the leaf block and neighbouring results are combined
+ * left to right.  The pieces depend only on the size and the threshold, never on timing, so a combine block that
+ * isn't associative, such as double addition, still gives the same answer every run.
+ *
+ *  Copyright 2014 Guidewire Software, Inc.
+ */
+class RangeTask<R> extends RecursiveTask<R> {
+  var _from : long
+  var _to : long
+  var _threshold : long
+  var _leaf : block(from: long, to: long): R
+  var _combine : block(left: R, right: R): R
+
+  private construct( from: long, to: long, threshold: long, leaf: block(from: long, to: long): R, combine: block(left: R, right: R): R ) {
+    _from = from
+    _to = to
+    _threshold = threshold
+    _leaf = leaf
+    _combine = combine
+  }
+
+  /**
+   * Runs leaf over the pieces of [0, size) and returns their combined result.  Sizes up to the threshold run on
+   * the calling thread.
+   */
+  static reified function invoke<R>( size: long, leaf(from: long, to: long): R, combine(left: R, right: R): R ) : R {
+    var threshold = ParallelConfig.Threshold
+    if( size <= threshold ) {
+      return leaf( 0, size )
+    }
+    var task = new RangeTask<R>( 0, size, threshold, leaf, combine )
+    // nested calls run in the pool they were called from
+    return ForkJoinTask.inForkJoinPool() ? task.invoke() : ParallelConfig.Pool.invoke( task )
+  }
+
+  /**
+   * The source itself if it is a random access List, otherwise a copy of its elements
+   */
+  static reified function indexed<E>( source: Iterable<E> ) : List<E> {
+    if( source typeis RandomAccess and source typeis List ) {
+      return source as List<E>
+    }
+    var list = new ArrayList<E>()
+    for( e in source ) {
+      list.add( e )
+    }
+    return list
+  }
+
+  override function compute() : R {
+    if( _to - _from <= _threshold ) {
+      return _leaf( _from, _to )
+    }
+    var mid = _from + (_to - _from) / 2
+    var left = new RangeTask<R>( _from, mid, _threshold, _leaf, _combine )
+    left.fork()
+    var right = new RangeTask<R>( mid, _to, _threshold, _leaf, _combine ).compute()
+    return _combine( left.join(), right )
+  }
+}
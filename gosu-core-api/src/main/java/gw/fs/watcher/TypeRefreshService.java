@@ -0,0 +1,288 @@
+/*
+ * Copyright 2014 Guidewire Software, Inc.
+ */
+
+package gw.fs.watcher;
+
+import gw.config.CommonServices;
+import gw.fs.IResource;
+import gw.fs.watcher.DirectoryWatcher.FileEvent;
+import gw.lang.UnstableAPI;
+import gw.lang.reflect.RefreshKind;
+import gw.lang.reflect.TypeSystem;
+import gw.lang.reflect.module.IFileSystem;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Refreshes the type system as files change under watched directories.  Changes are collected until none have arrived
+ * for a debounce window, so a deployment that drops hundreds of files causes one batched refresh instead of hundreds of
+ * serial ones.  A steady stream of changes is still refreshed after ten debounce windows.
+ */
+@UnstableAPI
+public class TypeRefreshService {
+  public static final String DEBOUNCE_MILLIS_SYSTEM_PROP = "gosu.refresh.debounce.millis";
+  private static final long DEFAULT_DEBOUNCE_MILLIS = 250;
+
+  private final DirectoryWatcher _watcher;
+  private final long _debounceNanos;
+  private final long _maxDelayNanos;
+  private final long _pollMillis;
+  private final ScheduledExecutorService _executor;
+  private ScheduledFuture<?> _polling;
+
+  // changes waiting for the debounce window to pass
+  private final Map<Path, FileEvent> _pending = new LinkedHashMap<>();
+  private long _firstEventNanos;
+  private long _lastEventNanos;
+  // the watched directories, so a deleted one can be told from a deleted file
+  private final Set<Path> _directories = new HashSet<>();
+
+  private final AtomicLong _refreshCount = new AtomicLong();
+  private final AtomicLong _refreshedResourceCount = new AtomicLong();
+  private final AtomicLong _totalRefreshNanos = new AtomicLong();
+  private final AtomicLong _lastRefreshNanos = new AtomicLong();
+  private final AtomicLong _maxRefreshNanos = new AtomicLong();
+  private final AtomicLong _maxLatencyNanos = new AtomicLong();
+
+  public TypeRefreshService() {
+    this(Long.getLong(DEBOUNCE_MILLIS_SYSTEM_PROP, DEFAULT_DEBOUNCE_MILLIS));
+  }
+
+  /**
+   * @param debounceMillis how long no changes must arrive before the collected ones are refreshed
+   */
+  public TypeRefreshService(long debounceMillis) {
+    this(new DirectoryWatcher(), debounceMillis);
+  }
+
+  TypeRefreshService(DirectoryWatcher watcher, long debounceMillis) {
+    _watcher = watcher;
+    _debounceNanos = TimeUnit.MILLISECONDS.toNanos(debounceMillis);
+    _maxDelayNanos = _debounceNanos * 10;
+    _pollMillis = Math.max(10, debounceMillis / 4);
+    _executor = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread thread = new Thread(r, "Gosu type refresh");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Watch the directories under the given path, typically a source root.
+   */
+  public synchronized void watch(Path dir) {
+    _watcher.watchDirectoryTree(dir);
+    addDirectories(dir);
+  }
+
+  private void addDirectories(Path dir) {
+    if (!Files.isDirectory(dir)) {
+      return;
+    }
+    try (Stream<Path> paths = Files.walk(dir)) {
+      _directories.addAll(paths.filter(Files::isDirectory).collect(Collectors.toList()));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  public synchronized void start() {
+    if (_polling == null) {
+      _polling = _executor.scheduleWithFixedDelay(this::poll, _pollMillis, _pollMillis, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * Stops watching.  Changes still waiting for the debounce window are dropped, call {@link #flush()} first to refresh
+   * them.  After calling, this instance can't be used any more.
+   */
+  public void stop() {
+    _executor.shutdownNow();
+    synchronized (this) {
+      _pending.clear();
+      _watcher.stopWatching();
+    }
+  }
+
+  /**
+   * Refreshes all the changes seen so far without waiting for the debounce window.
+   */
+  public synchronized void flush() {
+    collectChanges(System.nanoTime());
+    if (!_pending.isEmpty()) {
+      refreshPending();
+    }
+  }
+
+  private void poll() {
+    poll(System.nanoTime());
+  }
+
+  synchronized void poll(long now) {
+    try {
+      collectChanges(now);
+      if (!_pending.isEmpty() &&
+          (now - _lastEventNanos >= _debounceNanos || now - _firstEventNanos >= _maxDelayNanos)) {
+        refreshPending();
+      }
+    } catch (RuntimeException e) {
+      // keep polling, a failed refresh must not stop later ones
+      CommonServices.getEntityAccess().getLogger().error("Could not refresh changed types", e);
+    }
+  }
+
+  private void collectChanges(long now) {
+    Map<Path, FileEvent> changes = _watcher.getChangesSinceLastTime();
+    if (changes.isEmpty()) {
+      return;
+    }
+    if (_pending.isEmpty()) {
+      _firstEventNanos = now;
+    }
+    _lastEventNanos = now;
+    for (Map.Entry<Path, FileEvent> change : changes.entrySet()) {
+      merge(change.getKey(), change.getValue());
+    }
+  }
+
+  /**
+   * Combines a change with the one already pending for the same file, the same way
+   * {@link DirectoryWatcher#getChangesSinceLastTime()} combines the changes of one poll.
+   */
+  private void merge(Path path, FileEvent event) {
+    FileEvent pending = _pending.get(path);
+    if (pending == null) {
+      _pending.put(path, event);
+    } else if (event == FileEvent.CREATE) {
+      // deleted and created again, who knows what the contents are now
+      _pending.put(path, FileEvent.MODIFY);
+    } else if (event == FileEvent.DELETE) {
+      if (pending == FileEvent.CREATE) {
+        _pending.remove(path);
+      } else {
+        _pending.put(path, FileEvent.DELETE);
+      }
+    }
+  }
+
+  private void refreshPending() {
+    IFileSystem fileSystem = CommonServices.getFileSystem();
+    Map<IResource, RefreshKind> changes = new LinkedHashMap<>();
+    for (Map.Entry<Path, FileEvent> entry : _pending.entrySet()) {
+      Path path = entry.getKey();
+      File file = path.toFile();
+      switch (entry.getValue()) {
+        case CREATE:
+          if (Files.isDirectory(path)) {
+            // the watcher doesn't pick up new directories by itself; refreshing the directory covers whatever was
+            // created in it before it's watched
+            _watcher.watchDirectoryTree(path);
+            addDirectories(path);
+            changes.put(fileSystem.getIDirectory(file), RefreshKind.CREATION);
+          } else {
+            changes.put(fileSystem.getIFile(file), RefreshKind.CREATION);
+          }
+          break;
+        case MODIFY:
+          // a modified directory only means its entries changed, and those have events of their own
+          if (!Files.isDirectory(path)) {
+            changes.put(fileSystem.getIFile(file), RefreshKind.MODIFICATION);
+          }
+          break;
+        case DELETE:
+          if (_directories.remove(path)) {
+            // refreshing the directory covers the types under it, whose files may have no events of their own
+            _directories.removeIf(dir -> dir.startsWith(path));
+            changes.put(fileSystem.getIDirectory(file), RefreshKind.DELETION);
+          } else {
+            changes.put(fileSystem.getIFile(file), RefreshKind.DELETION);
+          }
+          break;
+      }
+    }
+    long firstEventNanos = _firstEventNanos;
+    _pending.clear();
+
+    long start = System.nanoTime();
+    refresh(changes);
+    long end = System.nanoTime();
+
+    long refreshNanos = end - start;
+    _refreshCount.incrementAndGet();
+    _refreshedResourceCount.addAndGet(changes.size());
+    _totalRefreshNanos.addAndGet(refreshNanos);
+    _lastRefreshNanos.set(refreshNanos);
+    updateMax(_maxRefreshNanos, refreshNanos);
+    updateMax(_maxLatencyNanos, end - firstEventNanos);
+  }
+
+  void refresh(Map<IResource, RefreshKind> changes) {
+    TypeSystem.refreshed(changes);
+  }
+
+  private static void updateMax(AtomicLong max, long value) {
+    long current;
+    while ((current = max.get()) < value && !max.compareAndSet(current, value)) {
+      // retry
+    }
+  }
+
+  /**
+   * @return the number of batched refreshes done so far
+   */
+  public long getRefreshCount() {
+    return _refreshCount.get();
+  }
+
+  /**
+   * @return the number of changed files and directories refreshed so far
+   */
+  public long getRefreshedResourceCount() {
+    return _refreshedResourceCount.get();
+  }
+
+  /**
+   * @return the time spent in all the refreshes so far
+   */
+  public long getTotalRefreshNanos() {
+    return _totalRefreshNanos.get();
+  }
+
+  /**
+   * @return the time the last refresh took
+   */
+  public long getLastRefreshNanos() {
+    return _lastRefreshNanos.get();
+  }
+
+  /**
+   * @return the time the longest refresh took
+   */
+  public long getMaxRefreshNanos() {
+    return _maxRefreshNanos.get();
+  }
+
+  /**
+   * @return the longest time from seeing the first change of a batch to finishing its refresh, which includes the
+   *   debounce window
+   */
+  public long getMaxLatencyNanos() {
+    return _maxLatencyNanos.get();
+  }
+}
@@ -0,0 +1,12 @@
+/*
+ * Copyright 2014 Guidewire Software, Inc.
+ */
+
+package gw.lang.function;
+
+@FunctionalInterface
+public interface IDoubleFunction1_D {
+
+  double invokeDouble( double arg0 );
+
+}
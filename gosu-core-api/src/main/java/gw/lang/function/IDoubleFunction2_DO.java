@@ -0,0 +1,12 @@
+/*
+ * Copyright 2014 Guidewire Software, Inc.
+ */
+
+package gw.lang.function;
+
+@FunctionalInterface
+public interface IDoubleFunction2_DO<P1> {
+
+  double invokeDouble( double arg0, P1 arg1 );
+
+}
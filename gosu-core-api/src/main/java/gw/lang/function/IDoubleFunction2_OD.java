@@ -0,0 +1,12 @@
+/*
+ * Copyright 2014 Guidewire Software, Inc.
+ */
+
+package gw.lang.function;
+
+@FunctionalInterface
+public interface IDoubleFunction2_OD<P0> {
+
+  double invokeDouble( P0 arg0, double arg1 );
+
+}
@@ -0,0 +1,12 @@
+/*
+ * Copyright 2014 Guidewire Software, Inc.
+ */
+
+package gw.lang.function;
+
+@FunctionalInterface
+public interface IIntFunction1_O<P0> {
+
+  int invokeInt( P0 arg0 );
+
+}
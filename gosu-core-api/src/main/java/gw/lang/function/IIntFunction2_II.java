@@ -0,0 +1,12 @@
+/*
+ * Copyright 2014 Guidewire Software, Inc.
+ */
+
+package gw.lang.function;
+
+@FunctionalInterface
+public interface IIntFunction2_II {
+
+  int invokeInt( int arg0, int arg1 );
+
+}
@@ -0,0 +1,12 @@
+/*
+ * Copyright 2014 Guidewire Software, Inc.
+ */
+
+package gw.lang.function;
+
+@FunctionalInterface
+public interface IIntFunction2_IO<P1> {
+
+  int invokeInt( int arg0, P1 arg1 );
+
+}
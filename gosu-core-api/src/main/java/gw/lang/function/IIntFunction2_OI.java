@@ -0,0 +1,12 @@
+/*
+ * Copyright 2014 Guidewire Software, Inc.
+ */
+
+package gw.lang.function;
+
+@FunctionalInterface
+public interface IIntFunction2_OI<P0> {
+
+  int invokeInt( P0 arg0, int arg1 );
+
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2014 Guidewire Software, Inc.
+ */
+
+package gw.lang.function;
+
+import gw.lang.parser.IBlockClass;
+import gw.lang.parser.expressions.IBlockExpression;
+import gw.lang.reflect.IFunctionType;
+import gw.lang.reflect.IType;
+
+/**
+ * Implemented by blocks compiled to lambdas instead of to classes of their own, see
+ * {@link gw.lang.reflect.gs.BytecodeOptions#isLambdaBlocks()}.  The lambda's class is not a Gosu type, so these
+ * methods find the block's type through {@link LambdaBlockRegistry}.
+ */
+public interface ILambdaBlock extends IBlock
+{
+  @Override
+  default IType getIntrinsicType()
+  {
+    return LambdaBlockRegistry.getBlockClass( getClass() );
+  }
+
+  @Override
+  default IBlockExpression getParsedElement()
+  {
+    return ((IBlockClass)getIntrinsicType()).getBlock();
+  }
+
+  @Override
+  default IFunctionType getFunctionType()
+  {
+    return (IFunctionType)getParsedElement().getType();
+  }
+
+  @Override
+  default Object invokeWithArgs( Object... args )
+  {
+    return LambdaBlockRegistry.invokeWithArgs( this, args );
+  }
+}
@@ -0,0 +1,12 @@
+/*
+ * Copyright 2014 Guidewire Software, Inc.
+ */
+
+package gw.lang.function;
+
+@FunctionalInterface
+public interface ILongFunction2_OL<P0> {
+
+  long invokeLong( P0 arg0, long arg1 );
+
+}
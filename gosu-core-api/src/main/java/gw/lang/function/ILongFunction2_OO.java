@@ -0,0 +1,12 @@
+/*
+ * Copyright 2014 Guidewire Software, Inc.
+ */
+
+package gw.lang.function;
+
+@FunctionalInterface
+public interface ILongFunction2_OO<P0, P1> {
+
+  long invokeLong( P0 arg0, P1 arg1 );
+
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2014 Guidewire Software, Inc.
+ */
+
+package gw.lang.function;
+
+import gw.lang.reflect.IType;
+import gw.lang.reflect.TypeSystem;
+import gw.util.GosuExceptionUtil;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Maps the classes LambdaMetafactory spins for lambda blocks back to the blocks they implement.  There is one
+ * such class per block, registered once when its invokedynamic call site is linked.  Classes are held weakly so
+ * a discarded class loader takes its lambdas with it.
+ */
+public final class LambdaBlockRegistry
+{
+  private static final MethodType SPREAD_INVOKE = MethodType.methodType( Object.class, Object.class, Object[].class );
+
+  private static final Map<Class<?>, Entry> g_entries = Collections.synchronizedMap( new WeakHashMap<Class<?>, Entry>() );
+
+  private LambdaBlockRegistry()
+  {
+  }
+
+  /**
+   * @param lambdaClass the class implementing the block
+   * @param strBlockClass the name of the block's type, e.g. my.Foo.block_0_
+   * @param functionInterface the IFunctionN or IProcedureN interface the lambda implements
+   */
+  public static void register( Class<?> lambdaClass, String strBlockClass, Class<?> functionInterface ) throws ReflectiveOperationException
+  {
+    MethodType samType = null;
+    for( Method method : functionInterface.getMethods() )
+    {
+      if( method.getName().equals( "invoke" ) )
+      {
+        samType = MethodType.methodType( method.getReturnType(), method.getParameterTypes() );
+      }
+    }
+    if( samType == null )
+    {
+      throw new IllegalArgumentException( "Not a block interface: " + functionInterface.getName() );
+    }
+    int iArity = samType.parameterCount();
+    MethodHandle invoker = MethodHandles.publicLookup().findVirtual( functionInterface, "invoke", samType )
+      .asSpreader( Object[].class, iArity )
+      .asType( SPREAD_INVOKE );
+    g_entries.put( lambdaClass, new Entry( strBlockClass, iArity, invoker ) );
+  }
+
+  static IType getBlockClass( Class<?> lambdaClass )
+  {
+    return TypeSystem.getByFullName( getEntry( lambdaClass )._strBlockClass );
+  }
+
+  static Object invokeWithArgs( ILambdaBlock block, Object[] args )
+  {
+    Entry entry = getEntry( block.getClass() );
+    if( args.length != entry._iArity )
+    {
+      throw new IllegalArgumentException( "You must pass " + entry._iArity + " args to this block, but you passed " + args.length );
+    }
+    try
+    {
+      return entry._invoker.invokeExact( (Object)block, args );
+    }
+    catch( Throwable t )
+    {
+      throw GosuExceptionUtil.forceThrow( t );
+    }
+  }
+
+  private static Entry getEntry( Class<?> lambdaClass )
+  {
+    Entry entry = g_entries.get( lambdaClass );
+    if( entry == null )
+    {
+      throw new IllegalStateException( "Not a registered lambda block: " + lambdaClass.getName() );
+    }
+    return entry;
+  }
+
+  private static final class Entry
+  {
+    private final String _strBlockClass;
+    private final int _iArity;
+    private final MethodHandle _invoker;
+
+    private Entry( String strBlockClass, int iArity, MethodHandle invoker )
+    {
+      _strBlockClass = strBlockClass;
+      _iArity = iArity;
+      _invoker = invoker;
+    }
+  }
+}
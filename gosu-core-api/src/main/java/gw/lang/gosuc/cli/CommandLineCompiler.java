@@ -3,11 +3,12 @@ package gw.lang.gosuc.cli;
 import gw.internal.ext.com.beust.jcommander.JCommander;
 import gw.lang.Gosu;
 import gw.lang.gosuc.GosucUtil;
+import gw.lang.gosuc.simple.CompileDaemonClient;
 import gw.lang.gosuc.simple.GosuCompiler;
-import gw.lang.gosuc.simple.ICompilerDriver;
 import gw.lang.gosuc.simple.IGosuCompiler;
 import gw.lang.gosuc.simple.SoutCompilerDriver;
 import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -42,7 +43,7 @@ public class CommandLineCompiler
     return new CommandLineCompiler().execute( options, driver );
   }
 
-  private boolean execute( CommandLineOptions options, ICompilerDriver driver )
+  private boolean execute( CommandLineOptions options, SoutCompilerDriver driver )
   {
     if( options.isVersion() )
     {
@@ -50,6 +51,18 @@ public class CommandLineCompiler
       System.exit( 0 );
     }
 
+    if( options.isDaemon() )
+    {
+      try
+      {
+        return new CompileDaemonClient().compile( options, driver );
+      }
+      catch( IOException e )
+      {
+        throw new RuntimeException( "Unable to compile with the gosuc daemon.\n", e );
+      }
+    }
+
     IGosuCompiler gosuc = new GosuCompiler();
 
     List<String> sourcepath = Arrays.asList( options.getSourcepath().split( File.pathSeparator ) );
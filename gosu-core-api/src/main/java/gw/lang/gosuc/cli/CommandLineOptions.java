@@ -81,6 +81,45 @@ public class CommandLineOptions {
     return _version;
   }
 
+  @Parameter(names = {"-j", "-threads", "--threads"}, description = "Number of threads used to compile Gosu sources; 0 uses one per available processor")
+  private int _threads = 1;
+
+  /**
+   * @return the number of compiler threads. Defaults to 1; 0 or less means one per available processor.
+   */
+  public int getThreads() {
+    return _threads > 0 ? _threads : Runtime.getRuntime().availableProcessors();
+  }
+  public void setThreads( int threads ) {
+    _threads = threads;
+  }
+
+  @Parameter(names = "-incremental", description = "Compile only changed sources and the sources depending on their APIs; keeps a dependency graph next to the -d directory")
+  private boolean _incremental;
+
+  /**
+   * @return true if '-incremental' was specified on the command line
+   */
+  public boolean isIncremental() {
+    return _incremental;
+  }
+  public void setIncremental( boolean incremental ) {
+    _incremental = incremental;
+  }
+
+  @Parameter(names = "-daemon", description = "Compile in a background gosuc that keeps Gosu loaded between compiles, starting it if needed")
+  private boolean _daemon;
+
+  /**
+   * @return true if '-daemon' was specified on the command line
+   */
+  public boolean isDaemon() {
+    return _daemon;
+  }
+  public void setDaemon( boolean daemon ) {
+    _daemon = daemon;
+  }
+
   @Parameter(description = "<source files>")
   private List<String> _srcFiles = new ArrayList<>();
 
@@ -0,0 +1,44 @@
+package gw.lang.gosuc.simple;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Collects the issues and outputs reported while compiling a single source file so they can be handed to the
+ * real driver later, in source order.  Used by parallel compilation where files finish in arbitrary order.
+ */
+class BufferedCompilerDriver implements ICompilerDriver
+{
+  private final List<Consumer<ICompilerDriver>> _events = new ArrayList<>();
+
+  @Override
+  public void sendCompileIssue( File file, int category, long offset, long line, long column, String message )
+  {
+    _events.add( target -> target.sendCompileIssue( file, category, offset, line, column, message ) );
+  }
+
+  @Override
+  public void sendCompileIssue( Object file, int category, long offset, long line, long column, String message )
+  {
+    _events.add( target -> target.sendCompileIssue( file, category, offset, line, column, message ) );
+  }
+
+  @Override
+  public void registerOutput( File sourceFile, File outputFile )
+  {
+    _events.add( target -> target.registerOutput( sourceFile, outputFile ) );
+  }
+
+  @Override
+  public void registerOutput( Object sourceFile, File outputFile )
+  {
+    _events.add( target -> target.registerOutput( sourceFile, outputFile ) );
+  }
+
+  void replay( ICompilerDriver target )
+  {
+    _events.forEach( event -> event.accept( target ) );
+  }
+}
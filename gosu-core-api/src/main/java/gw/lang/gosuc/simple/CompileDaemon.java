@@ -0,0 +1,439 @@
+/*
+ * Copyright 2014 Guidewire Software, Inc.
+ */
+
+package gw.lang.gosuc.simple;
+
+import gw.config.CommonServices;
+import gw.fs.IResource;
+import gw.fs.watcher.TypeRefreshService;
+import gw.internal.ext.com.beust.jcommander.JCommander;
+import gw.lang.gosuc.GosucUtil;
+import gw.lang.gosuc.cli.CommandLineOptions;
+import gw.lang.reflect.RefreshKind;
+import gw.lang.reflect.TypeSystem;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.RandomAccessFile;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A long-lived gosuc that keeps the type system initialized between compiles, so JRE and library types, enhancement
+ * indexes and parsed headers are loaded once instead of on every build.  It listens on a loopback port and compiles
+ * one request at a time; a request is the gosuc command line, see {@link CommandLineOptions}.
+ * <p/>
+ * Between requests with the same source path, classpath, output directory and checked arithmetic setting only the
+ * source files that changed since the last request are refreshed in the type system.  Any other request, or a change
+ * to the classpath, reinitializes Gosu.  Changes are reported by a file watcher, and the source files a request names
+ * are also checked against the state the last request saw, since the watcher can report a change seconds after it
+ * happened.
+ * <p/>
+ * The port and a random token the clients must send first are written to a port file, which the daemon holds a lock
+ * next to for as long as it runs, so at most one daemon serves a port file.  The daemon exits after it has been idle
+ * for a while.  Use {@link CompileDaemonClient} to start and talk to it.
+ */
+public class CompileDaemon
+{
+  static final int COMPILE = 1;
+  static final int STOP = 2;
+  static final long DEFAULT_IDLE_MINUTES = 180;
+  private static final int REQUEST_TIMEOUT_MILLIS = 60000;
+  private static final int MAX_STRING_BYTES = 1 << 26;
+
+  private final File _portFile;
+  private final long _idleMillis;
+  private final String _token;
+
+  private IGosuCompiler _gosuc;
+  private TypeRefreshService _refreshService;
+  private String _configuration;
+  private long _environment;
+  // the state of each source file named by a request when it compiled, by absolute path
+  private final Map<String, SourceStamp> _stamps = new HashMap<>();
+
+  public CompileDaemon( File portFile, long idleMillis )
+  {
+    _portFile = portFile.getAbsoluteFile();
+    _idleMillis = idleMillis;
+    byte[] token = new byte[16];
+    new SecureRandom().nextBytes( token );
+    StringBuilder sb = new StringBuilder();
+    for( byte b : token )
+    {
+      sb.append( String.format( "%02x", b ) );
+    }
+    _token = sb.toString();
+  }
+
+  /**
+   * Usage: <code>CompileDaemon -portfile &lt;file&gt; [-idle &lt;minutes&gt;]</code>
+   */
+  public static void main( String[] args ) throws IOException
+  {
+    File portFile = null;
+    long idleMinutes = DEFAULT_IDLE_MINUTES;
+    for( int i = 0; i + 1 < args.length; i += 2 )
+    {
+      if( args[i].equals( "-portfile" ) )
+      {
+        portFile = new File( args[i + 1] );
+      }
+      else if( args[i].equals( "-idle" ) )
+      {
+        idleMinutes = Long.parseLong( args[i + 1] );
+      }
+    }
+    if( portFile == null )
+    {
+      System.err.println( "Usage: CompileDaemon -portfile <file> [-idle <minutes>]" );
+      System.exit( 1 );
+    }
+    new CompileDaemon( portFile, TimeUnit.MINUTES.toMillis( idleMinutes ) ).run();
+    System.exit( 0 );
+  }
+
+  /**
+   * Serves requests until stopped or idle.  Returns at once if another daemon already serves the port file.
+   */
+  public void run() throws IOException
+  {
+    File parent = _portFile.getParentFile();
+    if( parent != null )
+    {
+      parent.mkdirs();
+    }
+    try( RandomAccessFile lockFile = new RandomAccessFile( getLockFile( _portFile ), "rw" );
+         FileLock lock = tryLock( lockFile ) )
+    {
+      if( lock == null )
+      {
+        return;
+      }
+      try( ServerSocket server = new ServerSocket( 0, 50, InetAddress.getLoopbackAddress() ) )
+      {
+        writePortFile( server.getLocalPort() );
+        server.setSoTimeout( (int)Math.min( Integer.MAX_VALUE, _idleMillis ) );
+        boolean bStopped = false;
+        while( !bStopped )
+        {
+          try( Socket socket = server.accept() )
+          {
+            bStopped = serve( socket );
+          }
+          catch( SocketTimeoutException e )
+          {
+            bStopped = true;
+          }
+          catch( IOException e )
+          {
+            // the client went away, keep serving the others
+          }
+        }
+      }
+      finally
+      {
+        _portFile.delete();
+        uninitializeGosu();
+      }
+    }
+  }
+
+  private static FileLock tryLock( RandomAccessFile lockFile ) throws IOException
+  {
+    try
+    {
+      return lockFile.getChannel().tryLock();
+    }
+    catch( OverlappingFileLockException e )
+    {
+      // held by a daemon in this JVM
+      return null;
+    }
+  }
+
+  private void writePortFile( int port ) throws IOException
+  {
+    Path tmp = Files.createTempFile( _portFile.getAbsoluteFile().getParentFile().toPath(), _portFile.getName(), ".tmp" );
+    File tmpFile = tmp.toFile();
+    // the token keeps other local users from compiling as this one
+    tmpFile.setReadable( false, false );
+    tmpFile.setReadable( true, true );
+    Files.write( tmp, Collections.singletonList( port + " " + _token ), StandardCharsets.UTF_8 );
+    Files.move( tmp, _portFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+  }
+
+  /**
+   * @return true if the daemon was asked to stop
+   */
+  private boolean serve( Socket socket ) throws IOException
+  {
+    // a client that connects and sends nothing must not hold up the others
+    socket.setSoTimeout( REQUEST_TIMEOUT_MILLIS );
+    DataInputStream in = new DataInputStream( socket.getInputStream() );
+    DataOutputStream out = new DataOutputStream( socket.getOutputStream() );
+    if( !_token.equals( readString( in ) ) )
+    {
+      return false;
+    }
+    int command = in.readInt();
+    if( command == STOP )
+    {
+      out.writeBoolean( true );
+      out.flush();
+      return true;
+    }
+    if( command != COMPILE )
+    {
+      return false;
+    }
+
+    List<String> args = readStrings( in );
+    CommandLineOptions options = new CommandLineOptions();
+    SoutCompilerDriver driver = new SoutCompilerDriver( false, true );
+    boolean thresholdExceeded;
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    PrintStream sysout = System.out;
+    System.setOut( new PrintStream( output, true, StandardCharsets.UTF_8.name() ) );
+    try
+    {
+      new JCommander( options, args.toArray( new String[args.size()] ) );
+      driver = new SoutCompilerDriver( false, !options.isNoWarn() );
+      thresholdExceeded = compile( options, driver );
+    }
+    catch( Throwable e )
+    {
+      // start over on the next request, the type system may be half refreshed
+      uninitializeGosu();
+      driver.sendCompileIssue( (Object)"gosuc daemon", ICompilerDriver.ERROR, 0, 0, 0, GosuCompiler.getStackTrace( e ) );
+      thresholdExceeded = true;
+    }
+    finally
+    {
+      System.out.flush();
+      System.setOut( sysout );
+    }
+
+    out.writeBoolean( thresholdExceeded );
+    writeString( out, new String( output.toByteArray(), StandardCharsets.UTF_8 ) );
+    writeStrings( out, driver.getWarnings() );
+    writeStrings( out, driver.getErrors() );
+    out.flush();
+    return false;
+  }
+
+  private boolean compile( CommandLineOptions options, SoutCompilerDriver driver ) throws IOException
+  {
+    List<String> sourcepath = Arrays.asList( options.getSourcepath().split( File.pathSeparator ) );
+    List<String> classpath = new ArrayList<>();
+    classpath.addAll( Arrays.asList( options.getClasspath().split( File.pathSeparator ) ) );
+    classpath.addAll( GosucUtil.getJreJars() );
+    try
+    {
+      classpath.addAll( GosucUtil.getGosuBootstrapJars() );
+    }
+    catch( ClassNotFoundException cnfe )
+    {
+      throw new RuntimeException( "Unable to locate Gosu libraries in classpath.\n", cnfe );
+    }
+    if( options.isCheckedArithmetic() )
+    {
+      System.setProperty( "checkedArithmetic", "true" );
+    }
+    else
+    {
+      System.clearProperty( "checkedArithmetic" );
+    }
+
+    String configuration = String.join( File.pathSeparator, sourcepath ) + '\n' +
+                           String.join( File.pathSeparator, classpath ) + '\n' +
+                           options.getDestDir() + '\n' +
+                           options.isCheckedArithmetic();
+    long environment = DependencyGraph.makeEnvironmentFingerprint( classpath, new File( options.getDestDir() ), Collections.<File>emptyList() );
+    List<File> sourceFiles = new ArrayList<>();
+    for( String sourceFile : options.getSourceFiles() )
+    {
+      sourceFiles.add( new File( sourceFile ).getAbsoluteFile() );
+    }
+    if( _gosuc != null && configuration.equals( _configuration ) && environment == _environment )
+    {
+      _refreshService.flush();
+      refreshChangedSources( sourceFiles );
+    }
+    else
+    {
+      uninitializeGosu();
+      if( options.isVerbose() )
+      {
+        System.out.println( "Initializing gosu compiler with classpath:" + classpath );
+      }
+      initializeGosu( sourcepath, classpath, options.getDestDir() );
+      _configuration = configuration;
+      _environment = environment;
+    }
+    // before compiling, so an edit made while compiling differs from the stamp
+    for( File sourceFile : sourceFiles )
+    {
+      _stamps.put( sourceFile.getPath(), new SourceStamp( sourceFile ) );
+    }
+    return _gosuc.compile( options, driver );
+  }
+
+  /**
+   * Refreshes the source files that differ from when the last request compiled them, or that it didn't name, in case
+   * the watcher hasn't reported them yet.  Refreshing a file twice is harmless.
+   */
+  private void refreshChangedSources( List<File> sourceFiles ) throws IOException
+  {
+    Map<IResource, RefreshKind> changes = new LinkedHashMap<>();
+    for( File sourceFile : sourceFiles )
+    {
+      SourceStamp stamp = _stamps.get( sourceFile.getPath() );
+      if( stamp == null )
+      {
+        changes.put( CommonServices.getFileSystem().getIFile( sourceFile ), RefreshKind.CREATION );
+      }
+      else if( stamp.isChanged( sourceFile ) )
+      {
+        changes.put( CommonServices.getFileSystem().getIFile( sourceFile ),
+                     sourceFile.exists() ? RefreshKind.MODIFICATION : RefreshKind.DELETION );
+      }
+    }
+    if( !changes.isEmpty() )
+    {
+      TypeSystem.refreshed( changes );
+    }
+  }
+
+  private void initializeGosu( List<String> sourcepath, List<String> classpath, String destDir )
+  {
+    // watch before initializing, changes made while Gosu loads are refreshed by the next request
+    _refreshService = new TypeRefreshService();
+    for( String root : sourcepath )
+    {
+      Path path = Paths.get( root );
+      if( Files.isDirectory( path ) )
+      {
+        _refreshService.watch( path );
+      }
+    }
+    _gosuc = new GosuCompiler();
+    _gosuc.initializeGosu( sourcepath, classpath, destDir );
+  }
+
+  private void uninitializeGosu()
+  {
+    if( _refreshService != null )
+    {
+      _refreshService.stop();
+      _refreshService = null;
+    }
+    if( _gosuc != null )
+    {
+      _gosuc.uninitializeGosu();
+      _gosuc = null;
+    }
+    _configuration = null;
+    _stamps.clear();
+  }
+
+  /**
+   * The size and modification time of a source file.  File systems keep modification times as coarsely as two
+   * seconds, so an edit made soon after a stamp can keep the time and the size; a stamp made that soon after the file
+   * was modified keeps a fingerprint of the contents too.
+   */
+  private static class SourceStamp
+  {
+    private static final long TIMESTAMP_RESOLUTION_MILLIS = 2000;
+
+    private final long _lastModified;
+    private final long _length;
+    private final Long _fingerprint;
+
+    SourceStamp( File file ) throws IOException
+    {
+      long now = System.currentTimeMillis();
+      _lastModified = file.lastModified();
+      _length = file.length();
+      _fingerprint = file.isFile() && now - _lastModified < TIMESTAMP_RESOLUTION_MILLIS
+                     ? DependencyGraph.fingerprint( file )
+                     : null;
+    }
+
+    boolean isChanged( File file ) throws IOException
+    {
+      if( file.lastModified() != _lastModified || file.length() != _length )
+      {
+        return true;
+      }
+      return _fingerprint != null && (!file.isFile() || DependencyGraph.fingerprint( file ) != _fingerprint);
+    }
+  }
+
+  static File getLockFile( File portFile )
+  {
+    return new File( portFile.getAbsoluteFile().getParentFile(), portFile.getName() + ".lock" );
+  }
+
+  static void writeString( DataOutputStream out, String s ) throws IOException
+  {
+    // not writeUTF, compiler output can be longer than 64K
+    byte[] bytes = s.getBytes( StandardCharsets.UTF_8 );
+    out.writeInt( bytes.length );
+    out.write( bytes );
+  }
+
+  static String readString( DataInputStream in ) throws IOException
+  {
+    int length = in.readInt();
+    if( length < 0 || length > MAX_STRING_BYTES )
+    {
+      throw new IOException( "Bad string length: " + length );
+    }
+    byte[] bytes = new byte[length];
+    in.readFully( bytes );
+    return new String( bytes, StandardCharsets.UTF_8 );
+  }
+
+  static void writeStrings( DataOutputStream out, List<String> strings ) throws IOException
+  {
+    out.writeInt( strings.size() );
+    for( String s : strings )
+    {
+      writeString( out, s );
+    }
+  }
+
+  static List<String> readStrings( DataInputStream in ) throws IOException
+  {
+    int count = in.readInt();
+    List<String> strings = new ArrayList<>( count );
+    for( int i = 0; i < count; i++ )
+    {
+      strings.add( readString( in ) );
+    }
+    return strings;
+  }
+}
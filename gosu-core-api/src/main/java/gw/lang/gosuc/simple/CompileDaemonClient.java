@@ -0,0 +1,292 @@
+/*
+ * Copyright 2014 Guidewire Software, Inc.
+ */
+
+package gw.lang.gosuc.simple;
+
+import gw.lang.Gosu;
+import gw.lang.gosuc.GosucUtil;
+import gw.lang.gosuc.cli.CommandLineOptions;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compiles with a {@link CompileDaemon}, starting one in a background JVM if none serves the port file yet.  The
+ * daemon runs the Gosu jars this client was loaded from, so clients of different Gosu versions use different port
+ * files by default.
+ * <p/>
+ * The daemon JVM is started with the options in the <code>gosuc.daemon.jvmargs</code> system property, e.g.,
+ * <code>-Xmx2g</code>, and exits after <code>gosuc.daemon.idle</code> minutes without requests.
+ */
+public class CompileDaemonClient
+{
+  public static final String PORT_FILE_PROPERTY = "gosuc.daemon.portfile";
+  public static final String JVM_ARGS_PROPERTY = "gosuc.daemon.jvmargs";
+  public static final String IDLE_MINUTES_PROPERTY = "gosuc.daemon.idle";
+
+  private static final int CONNECT_TIMEOUT_MILLIS = 5000;
+  private static final long START_TIMEOUT_MILLIS = 60000;
+
+  private final File _portFile;
+
+  public CompileDaemonClient()
+  {
+    this( getDefaultPortFile() );
+  }
+
+  public CompileDaemonClient( File portFile )
+  {
+    _portFile = portFile.getAbsoluteFile();
+  }
+
+  /**
+   * @return the file named by the <code>gosuc.daemon.portfile</code> system property, or one in ~/.gosuc for this
+   * Gosu version
+   */
+  public static File getDefaultPortFile()
+  {
+    String portFile = System.getProperty( PORT_FILE_PROPERTY );
+    if( portFile != null && !portFile.isEmpty() )
+    {
+      return new File( portFile );
+    }
+    return new File( new File( System.getProperty( "user.home" ), ".gosuc" ), "daemon-" + Gosu.getVersion() + ".port" );
+  }
+
+  public boolean compile( CommandLineOptions options, SoutCompilerDriver driver ) throws IOException
+  {
+    return compile( toArgs( options ), driver );
+  }
+
+  /**
+   * Compiles on the daemon.  What the compiler prints is printed here, and the warnings and errors are added to the
+   * driver.  Paths in the arguments must be absolute, the daemon runs in a different directory.
+   *
+   * @param args a gosuc command line, see {@link CommandLineOptions}
+   *
+   * @return true if the error or warning threshold was exceeded
+   */
+  public boolean compile( List<String> args, SoutCompilerDriver driver ) throws IOException
+  {
+    try( Connection connection = connectOrStart() )
+    {
+      connection._out.writeInt( CompileDaemon.COMPILE );
+      CompileDaemon.writeStrings( connection._out, args );
+      connection._out.flush();
+
+      boolean thresholdExceeded = connection._in.readBoolean();
+      System.out.print( CompileDaemon.readString( connection._in ) );
+      for( String warning : CompileDaemon.readStrings( connection._in ) )
+      {
+        driver.addIssue( ICompilerDriver.WARNING, warning );
+      }
+      for( String error : CompileDaemon.readStrings( connection._in ) )
+      {
+        driver.addIssue( ICompilerDriver.ERROR, error );
+      }
+      return thresholdExceeded;
+    }
+  }
+
+  /**
+   * @return true if a daemon was running and is stopping
+   */
+  public boolean stop() throws IOException
+  {
+    try( Connection connection = connect() )
+    {
+      if( connection == null )
+      {
+        return false;
+      }
+      connection._out.writeInt( CompileDaemon.STOP );
+      connection._out.flush();
+      return connection._in.readBoolean();
+    }
+  }
+
+  /**
+   * @return the arguments for the options, with paths made absolute
+   */
+  public static List<String> toArgs( CommandLineOptions options )
+  {
+    List<String> args = new ArrayList<>();
+    addPathArg( args, "-classpath", options.getClasspath() );
+    addPathArg( args, "-sourcepath", options.getSourcepath() );
+    addPathArg( args, "-d", options.getDestDir() );
+    if( options.isCheckedArithmetic() )
+    {
+      args.add( "-ca" );
+    }
+    if( options.isNoWarn() )
+    {
+      args.add( "-nowarn" );
+    }
+    if( options.isVerbose() )
+    {
+      args.add( "-verbose" );
+    }
+    if( options.isIncremental() )
+    {
+      args.add( "-incremental" );
+    }
+    args.addAll( Arrays.asList( "-j", String.valueOf( options.getThreads() ),
+                                "-maxerrs", String.valueOf( options.getMaxErrs() ),
+                                "-maxwarns", String.valueOf( options.getMaxWarns() ) ) );
+    for( String sourceFile : options.getSourceFiles() )
+    {
+      args.add( new File( sourceFile ).getAbsolutePath() );
+    }
+    return args;
+  }
+
+  private static void addPathArg( List<String> args, String option, String path )
+  {
+    if( path.isEmpty() )
+    {
+      return;
+    }
+    List<String> absolutePaths = new ArrayList<>();
+    for( String entry : path.split( File.pathSeparator ) )
+    {
+      if( !entry.isEmpty() )
+      {
+        absolutePaths.add( new File( entry ).getAbsolutePath() );
+      }
+    }
+    args.add( option );
+    args.add( String.join( File.pathSeparator, absolutePaths ) );
+  }
+
+  private Connection connectOrStart() throws IOException
+  {
+    Connection connection = connect();
+    if( connection != null )
+    {
+      return connection;
+    }
+
+    File log = startDaemon();
+    long deadline = System.currentTimeMillis() + START_TIMEOUT_MILLIS;
+    while( (connection = connect()) == null )
+    {
+      if( System.currentTimeMillis() > deadline )
+      {
+        throw new IOException( "The gosuc daemon did not start, see " + log );
+      }
+      try
+      {
+        Thread.sleep( 100 );
+      }
+      catch( InterruptedException e )
+      {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException( "Interrupted waiting for the gosuc daemon to start" );
+      }
+    }
+    return connection;
+  }
+
+  /**
+   * @return a connection that sent the token, or null if no daemon serves the port file
+   */
+  private Connection connect() throws IOException
+  {
+    String[] portAndToken;
+    try
+    {
+      List<String> lines = Files.readAllLines( _portFile.toPath(), StandardCharsets.UTF_8 );
+      portAndToken = lines.isEmpty() ? new String[0] : lines.get( 0 ).split( " " );
+    }
+    catch( IOException e )
+    {
+      return null;
+    }
+    if( portAndToken.length != 2 )
+    {
+      return null;
+    }
+
+    Socket socket = new Socket();
+    try
+    {
+      socket.connect( new InetSocketAddress( InetAddress.getLoopbackAddress(), Integer.parseInt( portAndToken[0] ) ), CONNECT_TIMEOUT_MILLIS );
+    }
+    catch( IOException | NumberFormatException e )
+    {
+      // a daemon that exited without removing its port file
+      socket.close();
+      return null;
+    }
+    Connection connection = new Connection( socket );
+    CompileDaemon.writeString( connection._out, portAndToken[1] );
+    return connection;
+  }
+
+  private File startDaemon() throws IOException
+  {
+    List<String> command = new ArrayList<>();
+    command.add( new File( new File( System.getProperty( "java.home" ), "bin" ), "java" ).getPath() );
+    String jvmArgs = System.getProperty( JVM_ARGS_PROPERTY );
+    if( jvmArgs != null && !jvmArgs.trim().isEmpty() )
+    {
+      command.addAll( Arrays.asList( jvmArgs.trim().split( "\\s+" ) ) );
+    }
+    try
+    {
+      command.add( "-classpath" );
+      command.add( String.join( File.pathSeparator, GosucUtil.getGosuBootstrapJars() ) );
+    }
+    catch( ClassNotFoundException cnfe )
+    {
+      throw new IOException( "Unable to locate Gosu libraries in classpath.", cnfe );
+    }
+    command.add( CompileDaemon.class.getName() );
+    command.add( "-portfile" );
+    command.add( _portFile.getPath() );
+    command.add( "-idle" );
+    command.add( String.valueOf( Long.getLong( IDLE_MINUTES_PROPERTY, CompileDaemon.DEFAULT_IDLE_MINUTES ) ) );
+
+    _portFile.getParentFile().mkdirs();
+    File log = new File( _portFile.getPath() + ".log" );
+    new ProcessBuilder( command )
+      .redirectErrorStream( true )
+      .redirectOutput( ProcessBuilder.Redirect.appendTo( log ) )
+      .start();
+    return log;
+  }
+
+  private static class Connection implements Closeable
+  {
+    private final Socket _socket;
+    private final DataInputStream _in;
+    private final DataOutputStream _out;
+
+    Connection( Socket socket ) throws IOException
+    {
+      _socket = socket;
+      _in = new DataInputStream( new BufferedInputStream( socket.getInputStream() ) );
+      _out = new DataOutputStream( new BufferedOutputStream( socket.getOutputStream() ) );
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+      _socket.close();
+    }
+  }
+}
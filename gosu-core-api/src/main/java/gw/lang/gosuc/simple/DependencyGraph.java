@@ -0,0 +1,561 @@
+package gw.lang.gosuc.simple;
+
+import gw.internal.ext.org.objectweb.asm.ClassReader;
+import gw.internal.ext.org.objectweb.asm.ClassVisitor;
+import gw.internal.ext.org.objectweb.asm.FieldVisitor;
+import gw.internal.ext.org.objectweb.asm.MethodVisitor;
+import gw.internal.ext.org.objectweb.asm.Opcodes;
+import gw.lang.Gosu;
+import gw.lang.parser.IDynamicFunctionSymbol;
+import gw.lang.parser.IExpression;
+import gw.lang.parser.IParseTree;
+import gw.lang.parser.ISymbol;
+import gw.lang.parser.ITypeUsesMap;
+import gw.lang.parser.expressions.IMemberAccessExpression;
+import gw.lang.parser.expressions.IVarStatement;
+import gw.lang.parser.statements.IClassStatement;
+import gw.lang.parser.statements.IFunctionStatement;
+import gw.lang.reflect.IFeatureInfo;
+import gw.lang.reflect.IMetaType;
+import gw.lang.reflect.IType;
+import gw.lang.reflect.Modifier;
+import gw.lang.reflect.gs.IGosuClass;
+import gw.lang.reflect.gs.IGosuEnhancement;
+import gw.util.fingerprint.FP64;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The type-level dependency graph an incremental gosuc build leaves behind, one entry per Gosu source file.  An
+ * entry records the file's content fingerprint, the outputs it produced, a fingerprint of its API (the
+ * non-private signatures of its classes, the values of its constants and the names and default values of its
+ * functions' parameters) and the names of the types it uses: supertypes, types referenced from its bytecode,
+ * owners of constants it inlined, types of feature literals in its uses statements and, for an enhancement, the
+ * enhanced type.
+ * <p/>
+ * The graph is only valid for the environment it was built in, i.e., the same Gosu and Java versions, the
+ * same classpath and the same Java sources; a change to any of these makes the next build a full build.
+ */
+class DependencyGraph
+{
+  private static final int MAGIC = 0x47534447; // GSDG
+  private static final int FORMAT_VERSION = 1;
+  private static final String FILE_SUFFIX = ".gosuc-deps";
+  private static final String[] JDK_PACKAGES = {"java.", "javax.", "sun.", "jdk.", "com.sun."};
+  private static final Pattern DESCRIPTOR_TYPE = Pattern.compile( "L([^;<>:()\\[]+)[;<]" );
+
+  private final long _environment;
+  private final Map<String, Entry> _entries = new LinkedHashMap<>();
+
+  DependencyGraph( long environment )
+  {
+    _environment = environment;
+  }
+
+  /**
+   * The graph lives next to the output directory, not in it, so it isn't packaged with the classes.
+   */
+  static File getFile( File outputDir )
+  {
+    File dir = outputDir.getAbsoluteFile();
+    return new File( dir.getParentFile(), dir.getName() + FILE_SUFFIX );
+  }
+
+  Entry get( String path )
+  {
+    return _entries.get( path );
+  }
+
+  void put( String path, Entry entry )
+  {
+    _entries.put( path, entry );
+  }
+
+  void remove( String path )
+  {
+    _entries.remove( path );
+  }
+
+  Set<String> getPaths()
+  {
+    return Collections.unmodifiableSet( _entries.keySet() );
+  }
+
+  /**
+   * @return The paths of the sources that use any of the types
+   */
+  List<String> findDependents( Set<String> typeNames )
+  {
+    List<String> paths = new ArrayList<>();
+    if( !typeNames.isEmpty() )
+    {
+      for( Map.Entry<String, Entry> e : _entries.entrySet() )
+      {
+        if( !Collections.disjoint( e.getValue()._dependencies, typeNames ) )
+        {
+          paths.add( e.getKey() );
+        }
+      }
+    }
+    return paths;
+  }
+
+  static DependencyGraph load( File file, long environment )
+  {
+    if( !file.isFile() )
+    {
+      return null;
+    }
+    try( DataInputStream in = new DataInputStream( new FileInputStream( file ) ) )
+    {
+      if( in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION || in.readLong() != environment )
+      {
+        return null;
+      }
+      DependencyGraph graph = new DependencyGraph( environment );
+      int iEntries = in.readInt();
+      for( int i = 0; i < iEntries; i++ )
+      {
+        String path = in.readUTF();
+        String typeName = in.readUTF();
+        long sourceFp = in.readLong();
+        long apiFp = in.readLong();
+        graph.put( path, new Entry( typeName, sourceFp, apiFp, readStrings( in ), readStrings( in ) ) );
+      }
+      return graph;
+    }
+    catch( IOException e )
+    {
+      return null;
+    }
+  }
+
+  void save( File file ) throws IOException
+  {
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream( buffer );
+    out.writeInt( MAGIC );
+    out.writeInt( FORMAT_VERSION );
+    out.writeLong( _environment );
+    out.writeInt( _entries.size() );
+    for( Map.Entry<String, Entry> e : _entries.entrySet() )
+    {
+      Entry entry = e.getValue();
+      out.writeUTF( e.getKey() );
+      out.writeUTF( entry._typeName );
+      out.writeLong( entry._sourceFp );
+      out.writeLong( entry._apiFp );
+      writeStrings( out, entry._dependencies );
+      writeStrings( out, entry._outputs );
+    }
+    out.flush();
+
+    File temp = File.createTempFile( file.getName(), ".tmp", file.getAbsoluteFile().getParentFile() );
+    try( FileOutputStream fileOut = new FileOutputStream( temp ) )
+    {
+      buffer.writeTo( fileOut );
+    }
+    Files.move( temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING );
+  }
+
+  private static Set<String> readStrings( DataInputStream in ) throws IOException
+  {
+    int iCount = in.readInt();
+    Set<String> strings = new TreeSet<>();
+    for( int i = 0; i < iCount; i++ )
+    {
+      strings.add( in.readUTF() );
+    }
+    return strings;
+  }
+
+  private static void writeStrings( DataOutputStream out, Collection<String> strings ) throws IOException
+  {
+    out.writeInt( strings.size() );
+    for( String s : strings )
+    {
+      out.writeUTF( s );
+    }
+  }
+
+  /**
+   * Fingerprints everything outside the Gosu sources that compiled code depends on.  Class directories are
+   * fingerprinted by the names, sizes and time stamps of their files; the output directory is skipped.
+   */
+  static long makeEnvironmentFingerprint( List<String> classpath, File outputDir, List<File> javaFiles ) throws IOException
+  {
+    FP64 fp = new FP64( FORMAT_VERSION + ":" + Gosu.getVersion() + ":" + System.getProperty( "java.version" ) )
+      .extend( String.valueOf( System.getProperty( "checkedArithmetic" ) ) );
+    File output = outputDir.getAbsoluteFile();
+    for( String entry : classpath )
+    {
+      File file = new File( entry ).getAbsoluteFile();
+      if( !file.equals( output ) )
+      {
+        fp.extend( file.getPath() );
+        extendWithFiles( fp, file );
+      }
+    }
+    List<File> sortedJavaFiles = new ArrayList<>( javaFiles );
+    sortedJavaFiles.sort( null );
+    for( File javaFile : sortedJavaFiles )
+    {
+      fp.extend( javaFile.getAbsolutePath() ).extend( fingerprint( javaFile ) );
+    }
+    return fp.getRawFingerprint();
+  }
+
+  private static void extendWithFiles( FP64 fp, File file )
+  {
+    if( file.isDirectory() )
+    {
+      File[] children = file.listFiles();
+      if( children != null )
+      {
+        Arrays.sort( children );
+        for( File child : children )
+        {
+          fp.extend( child.getName() );
+          extendWithFiles( fp, child );
+        }
+      }
+    }
+    else if( file.isFile() )
+    {
+      fp.extend( file.length() ).extend( file.lastModified() );
+    }
+  }
+
+  static long fingerprint( File file ) throws IOException
+  {
+    try( FileInputStream in = new FileInputStream( file ) )
+    {
+      return new FP64( in ).getRawFingerprint();
+    }
+  }
+
+  /**
+   * Makes the entry for a source file that just compiled without errors.
+   */
+  static Entry makeEntry( File sourceFile, IGosuClass gsClass, List<File> outputs ) throws IOException
+  {
+    String typeName = gsClass.getName();
+    Set<String> dependencies = new TreeSet<>();
+    FP64 apiFp = new FP64( typeName );
+
+    List<File> classFiles = new ArrayList<>();
+    for( File output : outputs )
+    {
+      if( output.getName().endsWith( ".class" ) )
+      {
+        classFiles.add( output );
+      }
+    }
+    classFiles.sort( null );
+    for( File classFile : classFiles )
+    {
+      byte[] bytes = Files.readAllBytes( classFile.toPath() );
+      addApi( apiFp, bytes );
+      addBytecodeDependencies( dependencies, bytes );
+    }
+
+    IClassStatement classStmt = gsClass.getClassStatement();
+    if( classStmt != null )
+    {
+      // Constants are inlined by their users, so their values are part of the API...
+      List<IVarStatement> fields = new ArrayList<>();
+      classStmt.getContainedParsedElementsByType( IVarStatement.class, fields );
+      for( IVarStatement field : fields )
+      {
+        IExpression value = field.getAsExpression();
+        if( field.isStatic() && field.isFinal() && !field.isPrivate() && value != null && value.isCompileTimeConstant() )
+        {
+          apiFp.extend( field.getIdentifierName() ).extend( String.valueOf( value.evaluate() ) );
+        }
+      }
+      // ...so are default parameter values, which callers inline too, and parameter names, which named arguments
+      // bind to; neither is in the class file walk below, which skips debug info
+      String source = gsClass.getSource();
+      List<IFunctionStatement> functions = new ArrayList<>();
+      classStmt.getContainedParsedElementsByType( IFunctionStatement.class, functions );
+      for( IFunctionStatement function : functions )
+      {
+        IDynamicFunctionSymbol dfs = function.getDynamicFunctionSymbol();
+        if( dfs != null && !Modifier.isPrivate( dfs.getModifiers() ) )
+        {
+          apiFp.extend( dfs.getName() );
+          for( ISymbol arg : dfs.getArgs() )
+          {
+            apiFp.extend( arg.getName() ).extend( getSource( source, arg.getDefaultValueExpression() ) );
+          }
+        }
+      }
+      // ...and the types constants come from don't show up in the users' bytecode
+      List<IMemberAccessExpression> memberAccesses = new ArrayList<>();
+      classStmt.getContainedParsedElementsByType( IMemberAccessExpression.class, memberAccesses );
+      for( IMemberAccessExpression memberAccess : memberAccesses )
+      {
+        if( memberAccess.isCompileTimeConstant() )
+        {
+          addDependency( dependencies, memberAccess.getRootType() );
+        }
+      }
+    }
+    ITypeUsesMap typeUses = gsClass.getTypeUsesMap();
+    if( typeUses != null )
+    {
+      for( IFeatureInfo feature : typeUses.getFeatureLiterals() )
+      {
+        addDependency( dependencies, feature.getOwnersType() );
+      }
+    }
+    if( gsClass instanceof IGosuEnhancement )
+    {
+      addDependency( dependencies, ((IGosuEnhancement)gsClass).getEnhancedType() );
+    }
+    dependencies.remove( typeName );
+
+    List<String> outputPaths = new ArrayList<>();
+    for( File output : outputs )
+    {
+      outputPaths.add( output.getAbsolutePath() );
+    }
+    return new Entry( typeName, fingerprint( sourceFile ), apiFp.getRawFingerprint(), dependencies, new TreeSet<>( outputPaths ) );
+  }
+
+  /**
+   * The expression's text from the class's source.  Parse trees only carry tokens in the editor, so the text
+   * comes from the source at the expression's offsets.
+   */
+  private static String getSource( String source, IExpression expr )
+  {
+    if( expr == null )
+    {
+      return "";
+    }
+    IParseTree location = expr.getLocation();
+    if( location == null || source == null || location.getOffset() < 0 || location.getExtent() >= source.length() )
+    {
+      return String.valueOf( expr );
+    }
+    return source.substring( location.getOffset(), location.getExtent() + 1 );
+  }
+
+  private static void addApi( FP64 fp, byte[] bytes )
+  {
+    new ClassReader( bytes ).accept( new ClassVisitor( Opcodes.ASM5 )
+    {
+      @Override
+      public void visit( int version, int access, String name, String signature, String superName, String[] interfaces )
+      {
+        fp.extend( access ).extend( name ).extend( String.valueOf( signature ) ).extend( String.valueOf( superName ) );
+        for( String iface : interfaces )
+        {
+          fp.extend( iface );
+        }
+      }
+
+      @Override
+      public FieldVisitor visitField( int access, String name, String desc, String signature, Object value )
+      {
+        if( (access & Opcodes.ACC_PRIVATE) == 0 )
+        {
+          fp.extend( access ).extend( name ).extend( desc ).extend( String.valueOf( signature ) ).extend( String.valueOf( value ) );
+        }
+        return null;
+      }
+
+      @Override
+      public MethodVisitor visitMethod( int access, String name, String desc, String signature, String[] exceptions )
+      {
+        if( (access & Opcodes.ACC_PRIVATE) == 0 )
+        {
+          fp.extend( access ).extend( name ).extend( desc ).extend( String.valueOf( signature ) );
+        }
+        return null;
+      }
+    }, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES );
+  }
+
+  /**
+   * Adds the classes named in the constant pool, including those only named in descriptors and signatures.
+   */
+  private static void addBytecodeDependencies( Set<String> dependencies, byte[] bytes )
+  {
+    ClassReader reader = new ClassReader( bytes );
+    char[] buf = new char[reader.getMaxStringLength()];
+    for( int i = 1; i < reader.getItemCount(); i++ )
+    {
+      int iOffset = reader.getItem( i );
+      if( iOffset <= 0 )
+      {
+        continue;
+      }
+      int iTag = reader.b[iOffset - 1];
+      if( iTag == 7 ) // CONSTANT_Class
+      {
+        String name = reader.readUTF8( iOffset, buf );
+        if( name.startsWith( "[" ) )
+        {
+          addDescriptorDependencies( dependencies, name );
+        }
+        else
+        {
+          addDependency( dependencies, name );
+        }
+      }
+      else if( iTag == 1 ) // CONSTANT_Utf8
+      {
+        int iLength = reader.readUnsignedShort( iOffset );
+        addDescriptorDependencies( dependencies, new String( reader.b, iOffset + 2, iLength, StandardCharsets.UTF_8 ) );
+      }
+    }
+  }
+
+  private static void addDescriptorDependencies( Set<String> dependencies, String descriptor )
+  {
+    if( descriptor.indexOf( 'L' ) < 0 )
+    {
+      return;
+    }
+    Matcher matcher = DESCRIPTOR_TYPE.matcher( descriptor );
+    while( matcher.find() )
+    {
+      addDependency( dependencies, matcher.group( 1 ) );
+    }
+  }
+
+  private static void addDependency( Set<String> dependencies, IType type )
+  {
+    if( type instanceof IMetaType )
+    {
+      type = ((IMetaType)type).getType();
+    }
+    while( type != null && type.isArray() )
+    {
+      type = type.getComponentType();
+    }
+    if( type == null )
+    {
+      return;
+    }
+    if( type.isParameterizedType() )
+    {
+      type = type.getGenericType();
+    }
+    while( type.getEnclosingType() != null )
+    {
+      type = type.getEnclosingType();
+    }
+    addDependency( dependencies, type.getName() );
+  }
+
+  /**
+   * Records the outermost type of the class; a source file is the unit of recompilation.
+   */
+  private static void addDependency( Set<String> dependencies, String internalName )
+  {
+    String name = internalName.replace( '/', '.' );
+    int iDollar = name.indexOf( '$' );
+    if( iDollar > 0 )
+    {
+      name = name.substring( 0, iDollar );
+    }
+    for( String jdkPackage : JDK_PACKAGES )
+    {
+      if( name.startsWith( jdkPackage ) )
+      {
+        return; // covered by the Java version
+      }
+    }
+    dependencies.add( name );
+  }
+
+  static class Entry
+  {
+    private final String _typeName;
+    private final long _sourceFp;
+    private final long _apiFp;
+    private final Set<String> _dependencies;
+    private final Set<String> _outputs;
+
+    Entry( String typeName, long sourceFp, long apiFp, Set<String> dependencies, Set<String> outputs )
+    {
+      _typeName = typeName;
+      _sourceFp = sourceFp;
+      _apiFp = apiFp;
+      _dependencies = dependencies;
+      _outputs = outputs;
+    }
+
+    String getTypeName()
+    {
+      return _typeName;
+    }
+
+    long getApiFingerprint()
+    {
+      return _apiFp;
+    }
+
+    Set<String> getDependencies()
+    {
+      return _dependencies;
+    }
+
+    /**
+     * @return True if the source is unchanged and all its outputs are still there
+     */
+    boolean isUpToDate( File sourceFile )
+    {
+      try
+      {
+        if( fingerprint( sourceFile ) != _sourceFp )
+        {
+          return false;
+        }
+      }
+      catch( IOException e )
+      {
+        return false;
+      }
+      for( String output : _outputs )
+      {
+        if( !new File( output ).isFile() )
+        {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    void deleteOutputs()
+    {
+      for( String output : _outputs )
+      {
+        //noinspection ResultOfMethodCallIgnored
+        new File( output ).delete();
+      }
+    }
+  }
+}
@@ -22,6 +22,7 @@ import gw.lang.parser.IParsedElement;
 import gw.lang.parser.exceptions.ParseWarning;
 import gw.lang.parser.statements.IClassFileStatement;
 import gw.lang.parser.statements.IClassStatement;
+import gw.lang.reflect.IDefaultTypeLoader;
 import gw.lang.reflect.IEntityAccess;
 import gw.lang.reflect.IType;
 import gw.lang.reflect.TypeSystem;
@@ -31,6 +32,7 @@ import gw.lang.reflect.java.IJavaType;
 import gw.lang.reflect.module.IExecutionEnvironment;
 import gw.lang.reflect.module.IFileSystem;
 import gw.lang.reflect.module.IModule;
+import gw.util.GosuExceptionUtil;
 import gw.util.PathUtil;
 import java.io.File;
 import java.io.FileInputStream;
@@ -47,8 +49,17 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.StringTokenizer;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import javax.tools.DiagnosticCollector;
 import javax.tools.JavaFileObject;
@@ -63,6 +74,7 @@ public class GosuCompiler implements IGosuCompiler
 
   protected GosuInitialization _gosuInitialization;
   protected File _compilingSourceFile;
+  private List<String> _classpath = Collections.emptyList();
 
   @Override
   public boolean compile( CommandLineOptions options, ICompilerDriver driver )
@@ -83,7 +95,7 @@ public class GosuCompiler implements IGosuCompiler
 
     if( !gosuFiles.isEmpty() )
     {
-      if( compileGosuSources( options, driver, gosuFiles ) )
+      if( compileGosuSources( options, driver, gosuFiles, javaFiles ) )
       {
         return true;
       }
@@ -153,34 +165,382 @@ public class GosuCompiler implements IGosuCompiler
     return Arrays.stream( SOURCE_EXTS ).anyMatch( e -> absolutePathName.toLowerCase().endsWith( e ) );
   }
 
-  private boolean compileGosuSources( CommandLineOptions options, ICompilerDriver driver, List<String> gosuFiles )
+  private boolean compileGosuSources( CommandLineOptions options, ICompilerDriver driver, List<String> gosuFiles, List<String> javaFiles )
   {
-    boolean thresholdExceeded = false;
-    for( String fileName : gosuFiles )
+    List<File> files = gosuFiles.stream().map( File::new ).collect( Collectors.toList() );
+    if( !files.isEmpty() && !javaFiles.isEmpty() )
     {
-      File file = new File( fileName );
+      parseJavaSources( javaFiles );
+    }
+    int maxWarns = options.isNoWarn() ? Integer.MAX_VALUE : options.getMaxWarns();
+    if( options.isIncremental() )
+    {
+      List<File> javaSourceFiles = javaFiles.stream().map( File::new ).collect( Collectors.toList() );
+      return compileGosuSourcesIncrementally( files, javaSourceFiles, options.getThreads(), options.getMaxErrs(), maxWarns, options.isVerbose(), driver );
+    }
+    return compileGosuSources( files, options.getThreads(), options.getMaxErrs(), maxWarns, options.isVerbose(), driver );
+  }
+
+  /**
+   * Parses the Java sources in one javac task ahead of the Gosu sources, so the Java types they reference are built
+   * from those trees instead of from a javac task per type.
+   */
+  private void parseJavaSources( List<String> javaFiles )
+  {
+    IModule module = TypeSystem.getGlobalModule();
+    IDefaultTypeLoader defaultTypeLoader = module.getModuleTypeLoader().getDefaultTypeLoader();
+    List<ISourceFileHandle> handles = new ArrayList<>();
+    for( String javaFile : javaFiles )
+    {
+      String fqn = getJavaTypeName( module, FileFactory.instance().getIFile( new File( javaFile ) ) );
+      ISourceFileHandle handle = fqn == null ? null : defaultTypeLoader.getSourceFileHandle( fqn );
+      if( handle != null )
+      {
+        handles.add( handle );
+      }
+    }
+    GosuParserFactory.getInterface( IJavaParser.class ).parseFiles( handles );
+  }
+
+  private String getJavaTypeName( IModule module, IFile file )
+  {
+    for( IDirectory root : module.getSourcePath() )
+    {
+      if( file.isDescendantOf( root ) )
+      {
+        String relativePath = root.relativePath( file );
+        return relativePath.substring( 0, relativePath.length() - ".java".length() ).replace( '/', '.' );
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public boolean compile( List<File> sourceFiles, int threads, ICompilerDriver driver )
+  {
+    return compileGosuSources( sourceFiles, threads, Integer.MAX_VALUE, Integer.MAX_VALUE, false, driver );
+  }
+
+  @Override
+  public boolean compileIncrementally( List<File> sourceFiles, int threads, ICompilerDriver driver )
+  {
+    return compileGosuSourcesIncrementally( sourceFiles, Collections.emptyList(), threads, Integer.MAX_VALUE, Integer.MAX_VALUE, false, driver );
+  }
+
+  /**
+   * Compiles the sources that changed since the last incremental build into the same output directory, then the
+   * sources that depend on a type whose API changed, and so on until no more APIs change.  Sources whose
+   * fingerprint and outputs are unchanged are skipped.  Sources that were deleted have their outputs deleted and
+   * count as API changes.  Without a usable dependency graph from the last build, e.g., after the classpath or a
+   * Java source changed, every source compiles.
+   * <p/>
+   * Sources from the last build that are still in the source path but aren't passed in, e.g., when a build tool
+   * passes only the stale ones, are kept in the graph and recompiled if they changed or depend on a changed API.
+   *
+   * @return true if the error or warning threshold was exceeded
+   */
+  private boolean compileGosuSourcesIncrementally( List<File> files, List<File> javaFiles, int threads, int maxErrs, int maxWarns, boolean verbose, ICompilerDriver driver )
+  {
+    File outputDir = getOutputDirectory();
+    File graphFile = DependencyGraph.getFile( outputDir );
+    long environment;
+    try
+    {
+      environment = DependencyGraph.makeEnvironmentFingerprint( _classpath, outputDir, javaFiles );
+    }
+    catch( IOException e )
+    {
+      throw new RuntimeException( e );
+    }
+    DependencyGraph oldGraph = DependencyGraph.load( graphFile, environment );
+    DependencyGraph graph = new DependencyGraph( environment );
+    // A build that doesn't finish must not leave a graph behind that claims its outputs are current
+    //noinspection ResultOfMethodCallIgnored
+    graphFile.delete();
+
+    Map<String, File> sources = new LinkedHashMap<>();
+    for( File file : files )
+    {
+      sources.put( file.getAbsolutePath(), file );
+    }
+    Set<String> changedTypes = new HashSet<>();
+    if( oldGraph != null )
+    {
+      for( String path : oldGraph.getPaths() )
+      {
+        File file = new File( path );
+        if( sources.containsKey( path ) || (file.isFile() && getType( file ) != null) )
+        {
+          sources.putIfAbsent( path, file );
+        }
+        else
+        {
+          DependencyGraph.Entry removed = oldGraph.get( path );
+          removed.deleteOutputs();
+          changedTypes.add( removed.getTypeName() );
+        }
+      }
+    }
 
-      if( options.isVerbose() )
+    List<File> toCompile = new ArrayList<>();
+    for( Map.Entry<String, File> source : sources.entrySet() )
+    {
+      DependencyGraph.Entry entry = oldGraph == null ? null : oldGraph.get( source.getKey() );
+      if( entry != null && entry.isUpToDate( source.getValue() ) )
+      {
+        graph.put( source.getKey(), entry );
+      }
+      else
+      {
+        toCompile.add( source.getValue() );
+      }
+    }
+    Set<String> compiled = new HashSet<>();
+    addDependents( graph, changedTypes, compiled, sources, toCompile );
+    if( verbose )
+    {
+      System.out.println( "gosuc: incremental build compiling " + toCompile.size() + " of " + sources.size() + " files" );
+    }
+
+    while( !toCompile.isEmpty() )
+    {
+      for( File file : toCompile )
+      {
+        compiled.add( file.getAbsolutePath() );
+        DependencyGraph.Entry old = oldGraph == null ? null : oldGraph.get( file.getAbsolutePath() );
+        if( old != null )
+        {
+          // e.g., inner classes that no longer exist
+          old.deleteOutputs();
+        }
+      }
+      RecordingCompilerDriver recorder = new RecordingCompilerDriver( driver );
+      if( compileGosuSources( toCompile, threads, maxErrs, maxWarns, verbose, recorder ) )
+      {
+        return true;
+      }
+
+      changedTypes = new HashSet<>();
+      for( File file : toCompile )
+      {
+        String path = file.getAbsolutePath();
+        DependencyGraph.Entry old = oldGraph == null ? null : oldGraph.get( path );
+        DependencyGraph.Entry entry = makeDependencyEntry( file, recorder );
+        if( entry == null )
+        {
+          // compile again next time, and recompile dependents now so they report their errors
+          graph.remove( path );
+          if( old != null )
+          {
+            changedTypes.add( old.getTypeName() );
+          }
+          continue;
+        }
+        graph.put( path, entry );
+        if( old == null || old.getApiFingerprint() != entry.getApiFingerprint() )
+        {
+          changedTypes.add( entry.getTypeName() );
+        }
+      }
+      toCompile = new ArrayList<>();
+      addDependents( graph, changedTypes, compiled, sources, toCompile );
+    }
+
+    try
+    {
+      graph.save( graphFile );
+    }
+    catch( IOException e )
+    {
+      System.out.println( "gosuc: cannot save the dependency graph, the next build will be a full build: " + e.getMessage() );
+    }
+    return false;
+  }
+
+  /**
+   * @return true if the error or warning threshold was exceeded
+   */
+  private boolean compileGosuSources( List<File> files, int threads, int maxErrs, int maxWarns, boolean verbose, ICompilerDriver driver )
+  {
+    if( threads > 1 && files.size() > 1 )
+    {
+      return compileGosuSourcesInParallel( files, threads, maxErrs, maxWarns, verbose, driver );
+    }
+
+    for( File file : files )
+    {
+      if( verbose )
       {
         System.out.println( "gosuc: about to compile file: " + file );
       }
 
       compile( file, driver );
 
-      if( driver.getErrors().size() > options.getMaxErrs() )
+      if( isThresholdExceeded( driver, maxErrs, maxWarns ) )
       {
-        System.out.printf( "\nError threshold of %d exceeded; aborting compilation.", options.getMaxErrs() );
-        thresholdExceeded = true;
-        break;
+        return true;
       }
-      if( !options.isNoWarn() && driver.getWarnings().size() > options.getMaxWarns() )
+    }
+    return false;
+  }
+
+  /**
+   * Adds the sources that use any of the types and haven't compiled in this build yet.  All sources load from
+   * the current source set, so a source compiled earlier in the build already saw the changed APIs.
+   */
+  private void addDependents( DependencyGraph graph, Set<String> changedTypes, Set<String> compiled, Map<String, File> sources, List<File> toCompile )
+  {
+    for( String path : graph.findDependents( changedTypes ) )
+    {
+      File file = sources.get( path );
+      if( !compiled.contains( path ) && !toCompile.contains( file ) )
       {
-        System.out.printf( "\nWarning threshold of %d exceeded; aborting compilation.", options.getMaxWarns() );
-        thresholdExceeded = true;
-        break;
+        toCompile.add( file );
       }
     }
-    return thresholdExceeded;
+  }
+
+  private DependencyGraph.Entry makeDependencyEntry( File file, RecordingCompilerDriver recorder )
+  {
+    if( recorder.hasErrors( file ) )
+    {
+      return null;
+    }
+    IType type = getType( file );
+    if( !(type instanceof IGosuClass) )
+    {
+      return null;
+    }
+    try
+    {
+      return DependencyGraph.makeEntry( file, (IGosuClass)type, recorder.getOutputs( file ) );
+    }
+    catch( IOException e )
+    {
+      return null;
+    }
+  }
+
+  private File getOutputDirectory()
+  {
+    IDirectory moduleOutputDirectory = TypeSystem.getGlobalModule().getOutputPath();
+    if( moduleOutputDirectory == null )
+    {
+      throw new RuntimeException( "Can't make class file, no output path defined." );
+    }
+    return new File( moduleOutputDirectory.getPath().getFileSystemPathString() );
+  }
+
+  /**
+   * Parsing is compiled serially, in source order: headers, declarations and function bodies all resolve types
+   * across the whole source set and take the global TypeSystem lock, so workers would only queue on it.  The
+   * worker threads get what remains per file, IR transformation, bytecode generation and writing the output
+   * files, none of which takes the lock once the class and the types it references are loaded.  Each file's
+   * issues are buffered and handed to the driver in source order, so diagnostics and thresholds come out the
+   * same as in a serial build.
+   * <p/>
+   * Static state on the worker path, audited for concurrent use:
+   * <ul>
+   *   <li>ExpressionTransformer's compound assignment temps and TemplateStringLiteralTransformer's symbol stack
+   *   are ThreadLocals; the other transformers and IR compilers keep their state in per-class instances
+   *   (GosuClassTransformer, TopLevelTransformationContext, IRClassCompiler).</li>
+   *   <li>JavaClassIRType's type cache, AbstractElementTransformer.CUSTOM_RUNTIMES, IRMethodCallExpressionCompiler's
+   *   proxy cache and PersistentClassCache's fingerprints are concurrent maps; EvalExpressionTransformer's
+   *   expression map is synchronized; FunctionStatementTransformer's method counter is atomic.</li>
+   *   <li>AbstractElementTransformer's checked arithmetic flag and EvalExpressionTransformer's constructor
+   *   accessor are lockless lazy vars over idempotent values, so a race only computes them twice.</li>
+   *   <li>IRClassCompiler.COMPILE_WITH_DEBUG_INFO is never reassigned.  DebugFlag is only switched on to dump the
+   *   bytecode of a class that failed verification when it was defined, which a build doesn't do; a non-debug
+   *   compile merely resets it.</li>
+   * </ul>
+   * A type first loaded on a worker, e.g., a Java type only a function body refers to, still takes the lock to
+   * load.  Parallel compilation stays opt-in (gosuc -j) until more builds have run with it.
+   */
+  private boolean compileGosuSourcesInParallel( List<File> files, int threads, int maxErrs, int maxWarns, boolean verbose, ICompilerDriver driver )
+  {
+    List<IType> types = new ArrayList<>( files.size() );
+    for( File file : files )
+    {
+      if( verbose )
+      {
+        System.out.println( "gosuc: about to compile file: " + file );
+      }
+      IType type = getType( file );
+      if( type instanceof IGosuClass )
+      {
+        // compiles the header, declarations and function bodies
+        type.isValid();
+      }
+      types.add( type );
+    }
+
+    IModule module = TypeSystem.getGlobalModule();
+    AtomicInteger threadCount = new AtomicInteger();
+    ExecutorService executor = Executors.newFixedThreadPool( threads, r -> {
+      Thread thread = new Thread( r, "gosuc-worker-" + threadCount.incrementAndGet() );
+      thread.setDaemon( true );
+      return thread;
+    } );
+    try
+    {
+      List<Future<BufferedCompilerDriver>> results = new ArrayList<>( files.size() );
+      for( int i = 0; i < files.size(); i++ )
+      {
+        File file = files.get( i );
+        IType type = types.get( i );
+        results.add( executor.submit( () -> {
+          BufferedCompilerDriver buffer = new BufferedCompilerDriver();
+          TypeSystem.pushModule( module );
+          try
+          {
+            compile( file, type, buffer );
+          }
+          finally
+          {
+            TypeSystem.popModule( module );
+          }
+          return buffer;
+        } ) );
+      }
+
+      for( Future<BufferedCompilerDriver> result : results )
+      {
+        result.get().replay( driver );
+        if( isThresholdExceeded( driver, maxErrs, maxWarns ) )
+        {
+          return true;
+        }
+      }
+      return false;
+    }
+    catch( ExecutionException e )
+    {
+      throw GosuExceptionUtil.forceThrow( e.getCause() );
+    }
+    catch( InterruptedException e )
+    {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException( e );
+    }
+    finally
+    {
+      executor.shutdownNow();
+    }
+  }
+
+  private boolean isThresholdExceeded( ICompilerDriver driver, int maxErrs, int maxWarns )
+  {
+    if( maxErrs != Integer.MAX_VALUE && driver.getErrors().size() > maxErrs )
+    {
+      System.out.printf( "\nError threshold of %d exceeded; aborting compilation.", maxErrs );
+      return true;
+    }
+    if( maxWarns != Integer.MAX_VALUE && driver.getWarnings().size() > maxWarns )
+    {
+      System.out.printf( "\nWarning threshold of %d exceeded; aborting compilation.", maxWarns );
+      return true;
+    }
+    return false;
   }
 
   private boolean compileJavaSources( CommandLineOptions options, ICompilerDriver driver, List<String> javaFiles )
@@ -225,11 +585,14 @@ public class GosuCompiler implements IGosuCompiler
   public boolean compile( File sourceFile, ICompilerDriver driver )
   {
     _compilingSourceFile = sourceFile;
+    return compile( sourceFile, getType( sourceFile ), driver );
+  }
 
-    IType type = getType( _compilingSourceFile );
+  private boolean compile( File sourceFile, IType type, ICompilerDriver driver )
+  {
     if( type == null )
     {
-      driver.sendCompileIssue( _compilingSourceFile, ERROR, 0, 0, 0, "Cannot find type in the Gosu Type System." );
+      driver.sendCompileIssue( sourceFile, ERROR, 0, 0, 0, "Cannot find type in the Gosu Type System." );
       return false;
     }
 
@@ -239,12 +602,12 @@ public class GosuCompiler implements IGosuCompiler
       {
         if( type.isValid() )
         {
-          createGosuOutputFiles( (IGosuClass)type, driver );
+          createGosuOutputFiles( (IGosuClass)type, sourceFile, driver );
         }
       }
       catch( CompilerDriverException ex )
       {
-        driver.sendCompileIssue( _compilingSourceFile, ERROR, 0, 0, 0, ex.getMessage() );
+        driver.sendCompileIssue( sourceFile, ERROR, 0, 0, 0, ex.getMessage() );
         return false;
       }
       // output warnings and errors - whether the type was valid or not
@@ -256,7 +619,7 @@ public class GosuCompiler implements IGosuCompiler
       {
         int category = issue instanceof ParseWarning ? WARNING : ERROR;
         String message = mode == ExecutionMode.IDE ? issue.getUIMessage() : issue.getConsoleMessage();
-        driver.sendCompileIssue( _compilingSourceFile, category, issue.getTokenStart(), issue.getLine(), issue.getColumn(), message );
+        driver.sendCompileIssue( sourceFile, category, issue.getTokenStart(), issue.getLine(), issue.getColumn(), message );
       }
     }
 
@@ -281,7 +644,7 @@ public class GosuCompiler implements IGosuCompiler
     return type instanceof IGosuClass && !type.getTypeInfo().hasAnnotation( doNotVerifyAnnotation );
   }
 
-  private void createGosuOutputFiles( IGosuClass gsClass, ICompilerDriver driver )
+  private void createGosuOutputFiles( IGosuClass gsClass, File sourceFile, ICompilerDriver driver )
   {
     IDirectory moduleOutputDirectory = TypeSystem.getGlobalModule().getOutputPath();
     if( moduleOutputDirectory == null )
@@ -310,12 +673,12 @@ public class GosuCompiler implements IGosuCompiler
           }
         }
       }
-      populateGosuClassFile( child, gsClass, driver );
-      maybeCopySourceFile( child.getParentFile(), gsClass, _compilingSourceFile, driver );
+      populateGosuClassFile( child, gsClass, sourceFile, driver );
+      maybeCopySourceFile( child.getParentFile(), gsClass, sourceFile, driver );
     }
     catch( Throwable e )
     {
-      driver.sendCompileIssue( _compilingSourceFile, ERROR, 0, 0, 0, combine( "Cannot create .class files.", getStackTrace( e ) ) );
+      driver.sendCompileIssue( sourceFile, ERROR, 0, 0, 0, combine( "Cannot create .class files.", getStackTrace( e ) ) );
     }
   }
 
@@ -409,7 +772,7 @@ public class GosuCompiler implements IGosuCompiler
         {
           File destFile = new File( parent, file.getName() );
           copyFile( file, destFile );
-          driver.registerOutput( _compilingSourceFile, destFile );
+          driver.registerOutput( sourceFile, destFile );
         }
         catch( IOException e )
         {
@@ -441,13 +804,13 @@ public class GosuCompiler implements IGosuCompiler
     }
   }
 
-  private void populateGosuClassFile( File outputFile, IGosuClass gosuClass, ICompilerDriver driver ) throws IOException
+  private void populateGosuClassFile( File outputFile, IGosuClass gosuClass, File sourceFile, ICompilerDriver driver ) throws IOException
   {
     final byte[] bytes = TypeSystem.getGosuClassLoader().getBytes( gosuClass );
     try( OutputStream out = new FileOutputStream( outputFile ) )
     {
       out.write( bytes );
-      driver.registerOutput( _compilingSourceFile, outputFile );
+      driver.registerOutput( sourceFile, outputFile );
     }
     for( IGosuClass innerClass : gosuClass.getInnerClasses() )
     {
@@ -457,7 +820,7 @@ public class GosuCompiler implements IGosuCompiler
       {
         createNewFile( innerClassFile );
       }
-      populateGosuClassFile( innerClassFile, innerClass, driver );
+      populateGosuClassFile( innerClassFile, innerClass, sourceFile, driver );
     }
   }
 
@@ -474,6 +837,7 @@ public class GosuCompiler implements IGosuCompiler
   public long initializeGosu( List<String> sourceFolders, List<String> classpath, List<String> backingSourcePath, String outputPath )
   {
     final long start = System.currentTimeMillis();
+    _classpath = classpath;
 
     CommonServices.getKernel().redefineService_Privileged( IFileSystem.class, createFileSystemInstance() );
     CommonServices.getKernel().redefineService_Privileged( IMemoryMonitor.class, new CompilerMemoryMonitor() );
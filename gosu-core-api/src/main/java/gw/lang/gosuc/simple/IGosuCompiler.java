@@ -30,4 +30,31 @@ public interface IGosuCompiler {
 
   boolean compile(File sourceFile, ICompilerDriver driver) throws Exception;
   boolean compile( CommandLineOptions options, ICompilerDriver driver );
+
+  /**
+   * Compiles the given Gosu source files using up to {@code threads} worker threads.  Issues are reported to
+   * the driver in the order of {@code sourceFiles} regardless of the thread count.
+   *
+   * @return true if compilation was aborted
+   */
+  default boolean compile( List<File> sourceFiles, int threads, ICompilerDriver driver ) throws Exception
+  {
+    for( File sourceFile : sourceFiles )
+    {
+      compile( sourceFile, driver );
+    }
+    return false;
+  }
+
+  /**
+   * Like {@link #compile(List, int, ICompilerDriver)}, but compiles only the sources that changed since the last
+   * incremental build into the same output directory, plus the sources depending on a type whose API changed.
+   * The dependency graph is kept in a file next to the output directory.
+   *
+   * @return true if compilation was aborted
+   */
+  default boolean compileIncrementally( List<File> sourceFiles, int threads, ICompilerDriver driver ) throws Exception
+  {
+    return compile( sourceFiles, threads, driver );
+  }
 }
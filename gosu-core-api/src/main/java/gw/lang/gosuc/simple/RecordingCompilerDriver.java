@@ -0,0 +1,112 @@
+package gw.lang.gosuc.simple;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.tools.Diagnostic;
+
+/**
+ * Forwards everything to the real driver and remembers, per source file, the outputs it produced and whether it
+ * had errors.  Used by incremental compilation to build the dependency graph.
+ */
+class RecordingCompilerDriver implements ICompilerDriver
+{
+  private final ICompilerDriver _driver;
+  private final Map<File, List<File>> _outputs = new HashMap<>();
+  private final Set<File> _filesWithErrors = new HashSet<>();
+
+  RecordingCompilerDriver( ICompilerDriver driver )
+  {
+    _driver = driver;
+  }
+
+  @Override
+  public void sendCompileIssue( File file, int category, long offset, long line, long column, String message )
+  {
+    recordIssue( file, category );
+    _driver.sendCompileIssue( file, category, offset, line, column, message );
+  }
+
+  @Override
+  public void sendCompileIssue( Object file, int category, long offset, long line, long column, String message )
+  {
+    recordIssue( file, category );
+    _driver.sendCompileIssue( file, category, offset, line, column, message );
+  }
+
+  @Override
+  public void sendCompileIssue( Diagnostic d )
+  {
+    _driver.sendCompileIssue( d );
+  }
+
+  @Override
+  public void registerOutput( File sourceFile, File outputFile )
+  {
+    recordOutput( sourceFile, outputFile );
+    _driver.registerOutput( sourceFile, outputFile );
+  }
+
+  @Override
+  public void registerOutput( Object sourceFile, File outputFile )
+  {
+    recordOutput( sourceFile, outputFile );
+    _driver.registerOutput( sourceFile, outputFile );
+  }
+
+  @Override
+  public boolean isIncludeWarnings()
+  {
+    return _driver.isIncludeWarnings();
+  }
+
+  @Override
+  public boolean hasErrors()
+  {
+    return _driver.hasErrors();
+  }
+
+  @Override
+  public List<String> getErrors()
+  {
+    return _driver.getErrors();
+  }
+
+  @Override
+  public List<String> getWarnings()
+  {
+    return _driver.getWarnings();
+  }
+
+  boolean hasErrors( File sourceFile )
+  {
+    return _filesWithErrors.contains( sourceFile );
+  }
+
+  List<File> getOutputs( File sourceFile )
+  {
+    List<File> outputs = _outputs.get( sourceFile );
+    return outputs == null ? Collections.emptyList() : outputs;
+  }
+
+  private synchronized void recordIssue( Object file, int category )
+  {
+    if( category == ERROR && file instanceof File )
+    {
+      _filesWithErrors.add( (File)file );
+    }
+  }
+
+  private synchronized void recordOutput( Object sourceFile, File outputFile )
+  {
+    if( sourceFile instanceof File )
+    {
+      _outputs.computeIfAbsent( (File)sourceFile, k -> new ArrayList<>() ).add( outputFile );
+    }
+  }
+}
@@ -30,16 +30,25 @@ public class SoutCompilerDriver implements ICompilerDriver {
   @Override
   public void sendCompileIssue(Object file, int category, long offset, long line, long column, String message) {
     if (category == WARNING) {
-      String warning = String.format( "%s:[%s,%s] warning: %s", file.toString(), line, column, message );
-      warnings.add( warning );
+      addIssue( category, String.format( "%s:[%s,%s] warning: %s", file.toString(), line, column, message ) );
+    } else if (category == ERROR) {
+      addIssue( category, String.format( "%s:[%s,%s] error: %s", file.toString(), line, column, message ) );
+    }
+  }
+
+  /**
+   * Adds an issue another driver already formatted, e.g., one sent back by the compile daemon.
+   */
+  public void addIssue( int category, String issue ) {
+    if (category == WARNING) {
+      warnings.add( issue );
       if( _echo && _includeWarnings ) {
-        System.out.println( warning );
+        System.out.println( issue );
       }
     } else if (category == ERROR) {
-      String error = String.format( "%s:[%s,%s] error: %s", file.toString(), line, column, message );
-      errors.add( error );
+      errors.add( issue );
       if( _echo ) {
-        System.out.println( error );
+        System.out.println( issue );
       }
     }
   }
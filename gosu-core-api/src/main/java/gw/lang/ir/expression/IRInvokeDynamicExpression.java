@@ -0,0 +1,79 @@
+/*
+ * Copyright 2014 Guidewire Software, Inc.
+ */
+
+package gw.lang.ir.expression;
+
+import gw.lang.UnstableAPI;
+import gw.lang.ir.IRExpression;
+import gw.lang.ir.IRType;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An invokedynamic call site.  The bootstrap method must be a public static method on the bootstrap owner
+ * taking (Lookup, String, MethodType) followed by one parameter per bootstrap argument.  Bootstrap arguments
+ * are limited to constant pool values: String, Integer, Long, Float and Double.
+ */
+@UnstableAPI
+public class IRInvokeDynamicExpression extends IRExpression {
+  private String _name;
+  private IRType _bootstrapOwner;
+  private String _bootstrapMethodName;
+  private List<Object> _bootstrapArgs;
+  private IRType _returnType;
+  private List<IRType> _parameterTypes;
+  private List<IRExpression> _args;
+
+  public IRInvokeDynamicExpression( String name, IRType bootstrapOwner, String bootstrapMethodName, IRType returnType, List<IRType> parameterTypes, List<IRExpression> args ) {
+    this( name, bootstrapOwner, bootstrapMethodName, Collections.emptyList(), returnType, parameterTypes, args );
+  }
+
+  public IRInvokeDynamicExpression( String name, IRType bootstrapOwner, String bootstrapMethodName, List<Object> bootstrapArgs, IRType returnType, List<IRType> parameterTypes, List<IRExpression> args ) {
+    _name = name;
+    _bootstrapOwner = bootstrapOwner;
+    _bootstrapMethodName = bootstrapMethodName;
+    _bootstrapArgs = bootstrapArgs;
+    _returnType = returnType;
+    _parameterTypes = parameterTypes;
+    _args = args;
+
+    for( IRExpression arg : args ) {
+      arg.setParent( this );
+    }
+  }
+
+  public String getName() {
+    return _name;
+  }
+
+  public IRType getBootstrapOwner() {
+    return _bootstrapOwner;
+  }
+
+  public String getBootstrapMethodName() {
+    return _bootstrapMethodName;
+  }
+
+  public List<Object> getBootstrapArgs() {
+    return _bootstrapArgs;
+  }
+
+  public IRType getReturnType() {
+    return _returnType;
+  }
+
+  public List<IRType> getParameterTypes() {
+    return _parameterTypes;
+  }
+
+  public List<IRExpression> getArgs() {
+    return _args;
+  }
+
+  @Override
+  public IRType getType() {
+    return _returnType;
+  }
+}
@@ -3,6 +3,7 @@ package gw.lang.javac;
 import com.sun.source.tree.CompilationUnitTree;
 import com.sun.source.util.DocTrees;
 import com.sun.source.util.SourcePositions;
+import gw.lang.reflect.gs.ISourceFileHandle;
 import gw.util.Pair;
 import java.util.Collection;
 import java.util.List;
@@ -16,6 +17,8 @@ public interface IJavaParser
 {
   boolean parseText( String src, List<CompilationUnitTree> trees, Consumer<SourcePositions> sourcePositions, Consumer<DocTrees> docTrees, DiagnosticCollector<JavaFileObject> errorHandler );
   boolean parseType( String fqn, List<CompilationUnitTree> trees, DiagnosticCollector<JavaFileObject> errorHandler );
+  boolean parseFile( ISourceFileHandle src, List<CompilationUnitTree> trees, Consumer<SourcePositions> sourcePositions, Consumer<DocTrees> docTrees, DiagnosticCollector<JavaFileObject> errorHandler );
+  void parseFiles( Collection<ISourceFileHandle> files );
 
   ClassJavaFileObject compile( JavaFileObject jfo, String fqn, Iterable<String> options, DiagnosticCollector<JavaFileObject> errorHandler );
   Collection<ClassJavaFileObject> compile( Collection<JavaFileObject > jfo, Iterable<String> options, DiagnosticCollector<JavaFileObject> errorHandler );
@@ -14,6 +14,7 @@ import gw.util.GosuClassUtil;
 import java.lang.reflect.Proxy;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.util.Set;
 
 public class BlockCoercer extends BaseCoercer
@@ -71,6 +72,20 @@ public class BlockCoercer extends BaseCoercer
     {
       throw new IllegalStateException( "Unable to find an invoke method on class " + aClass.getName() );
     }
+    if( !Modifier.isPublic( invokeMethod.getDeclaringClass().getModifiers() ) )
+    {
+      // A lambda block's class isn't public, call through its function interface instead
+      for( Class iface : GosuClassUtil.getAllInterfaces( aClass ) )
+      {
+        for( Method method : iface.getMethods() )
+        {
+          if( method.getName().equals( IBlockClass.INVOKE_METHOD_NAME ) )
+          {
+            return method;
+          }
+        }
+      }
+    }
     return invokeMethod;
   }
 
@@ -17,9 +17,9 @@ import gw.util.GosuExceptionUtil;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @SuppressWarnings({"unchecked"})
 public class FeatureManager<T extends CharSequence> {
@@ -27,11 +27,11 @@ public class FeatureManager<T extends CharSequence> {
   private final boolean _caseSensitive;
   private final boolean _addObjectMethods;
   private IRelativeTypeInfo _typeInfo;
-  private volatile Map<IModule, InitState> _methodsInitialized = new HashMap<IModule, InitState>();
-  private volatile Map<IModule, InitState> _propertiesInitialized = new HashMap<IModule, InitState>();
+  private volatile Map<IModule, InitState> _methodsInitialized = new ConcurrentHashMap<IModule, InitState>();
+  private volatile Map<IModule, InitState> _propertiesInitialized = new ConcurrentHashMap<IModule, InitState>();
   private volatile InitState _ctorsInitialized = InitState.NotInitialized;
-  private Map<IModule, PropertyNameMap<T>[]> _properties = new HashMap<IModule, PropertyNameMap<T>[]>();
-  private Map<IModule, MethodList[]> _methods = new HashMap<IModule, MethodList[]>();
+  private Map<IModule, PropertyNameMap<T>[]> _properties = new ConcurrentHashMap<IModule, PropertyNameMap<T>[]>();
+  private Map<IModule, MethodList[]> _methods = new ConcurrentHashMap<IModule, MethodList[]>();
   private List<IConstructorInfo>[] _constructors = new List[IRelativeTypeInfo.Accessibility_Size];
   private String _superPropertyPrefix;
   private IType _supertypeToCopyPropertiesFrom;
@@ -156,8 +156,8 @@ public class FeatureManager<T extends CharSequence> {
   }
 
   public void clear() {
-    _methodsInitialized = new HashMap<IModule, InitState>();
-    _propertiesInitialized = new HashMap<IModule, InitState>();
+    _methodsInitialized = new ConcurrentHashMap<IModule, InitState>();
+    _propertiesInitialized = new ConcurrentHashMap<IModule, InitState>();
     _ctorsInitialized = InitState.NotInitialized;
     clearMaps();
   }
@@ -202,9 +202,19 @@ public class FeatureManager<T extends CharSequence> {
     }
   }
 
+  /**
+   * The module the per-module maps are keyed by.  When no module is pushed, e.g., in the IDE outside a module's
+   * scope, the current module is null; those members are kept under the global module since the concurrent maps
+   * don't take null keys.
+   */
+  private static IModule getModuleKey() {
+    IModule module = TypeSystem.getCurrentModule();
+    return module == null ? TypeSystem.getGlobalModule() : module;
+  }
+
   public List<IPropertyInfo> getProperties( IRelativeTypeInfo.Accessibility accessibility ) {
     maybeInitProperties();
-    PropertyNameMap<T>[] arr = _properties.get( TypeSystem.getCurrentModule() );
+    PropertyNameMap<T>[] arr = _properties.get( getModuleKey() );
     if( arr == null )
     {
       return Collections.emptyList();
@@ -215,7 +225,7 @@ public class FeatureManager<T extends CharSequence> {
 
   public IPropertyInfo getProperty( IRelativeTypeInfo.Accessibility accessibility, CharSequence propName ) {
     maybeInitProperties();
-    PropertyNameMap<T>[] arr = _properties.get( TypeSystem.getCurrentModule() );
+    PropertyNameMap<T>[] arr = _properties.get( getModuleKey() );
     if( arr == null )
     {
       return null;
@@ -231,7 +241,7 @@ public class FeatureManager<T extends CharSequence> {
   @SuppressWarnings({"unchecked"})
   public MethodList getMethods( IRelativeTypeInfo.Accessibility accessibility) {
     maybeInitMethods();
-    MethodList[] arr = _methods.get( TypeSystem.getCurrentModule() );
+    MethodList[] arr = _methods.get( getModuleKey() );
     if( arr == null )
     {
       return MethodList.EMPTY;
@@ -259,10 +269,7 @@ public class FeatureManager<T extends CharSequence> {
 
   @SuppressWarnings({"ConstantConditions"})
   protected void maybeInitMethods() {
-    IModule module = TypeSystem.getCurrentModule();
-    if (module == null) {
-      throw new NullPointerException("Cannot init the FeatureManager with no current module.");
-    }
+    IModule module = getModuleKey();
     if (_methodsInitialized.get(module) != InitState.Initialized && _methodsInitialized.get(module) != InitState.ERROR) {
       TypeSystem.lock();
       try {
@@ -339,10 +346,7 @@ public class FeatureManager<T extends CharSequence> {
   protected void maybeInitProperties() {
     maybeInitMethods(); // because properties depend on methods for their getter or setter method !
 
-    IModule module = TypeSystem.getCurrentModule();
-    if (module == null) {
-      throw new NullPointerException("Cannot init the FeatureManager with no current module.");
-    }
+    IModule module = getModuleKey();
     if (_propertiesInitialized.get(module) != InitState.Initialized && _propertiesInitialized.get(module) != InitState.ERROR) {
       TypeSystem.lock();
       try {
@@ -55,6 +55,16 @@ public interface ITypeLoader extends IService
    */
   Set<? extends CharSequence> getAllTypeNames();
 
+  /**
+   * @return true if {@link #getAllTypeNames()} names every type this loader can find by a plain dotted name, apart
+   *         from types nested in them and generated types such as programs, fragments, proxies and blocks.  The type
+   *         system then indexes those names and doesn't ask this loader for names it can't have.
+   */
+  default boolean hasCompleteTypeNames()
+  {
+    return false;
+  }
+
   public boolean showTypeNamesInIDE();
 
   /**
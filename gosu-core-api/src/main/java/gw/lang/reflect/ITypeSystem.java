@@ -22,6 +22,7 @@ import gw.lang.reflect.module.IModule;
 import gw.lang.reflect.module.IProject;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 public interface ITypeSystem extends IService
@@ -118,6 +119,13 @@ public interface ITypeSystem extends IService
    * @return true if any types were refreshed for this file
    */
   void refreshed(IResource file, String typeName, RefreshKind refreshKind);
+
+  /**
+   * Refreshes the types of many changed resources at once.  Types handled by the same type loader with the same kind
+   * of change are refreshed by a single batched {@link RefreshRequest}, so caches are cleared once for the batch instead
+   * of once per file.
+   */
+  void refreshed(Map<? extends IResource, RefreshKind> changes);
   void shutdown();
 
   String[] getTypesForFile(IModule module, IFile file);
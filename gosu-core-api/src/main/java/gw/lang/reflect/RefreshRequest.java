@@ -13,14 +13,36 @@ import java.util.List;
 import java.util.TreeSet;
 
 public class RefreshRequest {
+  private static final IFile[] NO_FILES = new IFile[0];
+
+  /**
+   * The changed file, or null if the request is for more than one file
+   */
   public final IFile file;
+  /**
+   * All the changed files, one for each in a batched request
+   */
+  public final IFile[] files;
   public final IModule module;
   public final ITypeLoader typeLoader;
   public final RefreshKind kind;
   public final String[] types;
 
   public RefreshRequest(IFile file, String[] types, IModule module, ITypeLoader typeLoader, RefreshKind kind) {
-    this.file = file;
+    this(file == null ? NO_FILES : new IFile[] {file}, types, module, typeLoader, kind);
+  }
+
+  /**
+   * A batched request for the types of several files, all handled by the same type loader with the same kind of change.
+   * Takes the types first so a null file doesn't make the other constructors ambiguous.
+   */
+  public RefreshRequest(String[] types, IFile[] files, ITypeLoader typeLoader, RefreshKind kind) {
+    this(files, types, getModule(typeLoader), typeLoader, kind);
+  }
+
+  private RefreshRequest(IFile[] files, String[] types, IModule module, ITypeLoader typeLoader, RefreshKind kind) {
+    this.files = files;
+    this.file = files.length == 1 ? files[0] : null;
     this.kind = kind;
     this.types = types;
     this.module = module;
@@ -32,7 +54,7 @@ public class RefreshRequest {
   }
 
   public RefreshRequest(String[] allTypes, RefreshRequest request, ITypeLoader typeLoader) {
-    this(request.file, allTypes, typeLoader, request.kind);
+    this(allTypes, request.files, typeLoader, request.kind);
   }
 
   public RefreshRequest(IFile file, String[] types, IModule module, RefreshKind kind) {
@@ -31,20 +31,32 @@ import gw.lang.reflect.module.IExecutionEnvironment;
 import gw.lang.reflect.module.IModule;
 import gw.lang.reflect.module.IProject;
 import gw.util.IFeatureFilter;
+import gw.util.concurrent.Cache;
 import gw.util.perf.InvocationCounter;
 
 import java.io.File;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
 
 @UnstableAPI
 public class TypeSystem
 {
   private static final Lock GLOBAL_LOCK = new ReentrantLock();
+  static
+  {
+    // a cache miss made under the lock must not wait for a load that may need the lock
+    Cache.setMayBlock( () -> !isLockedByCurrentThread() );
+  }
+  private static final StampedLock REFRESH_LOCK = new StampedLock();
+  private static long g_refreshStamp;
+  private static int g_iRefreshDepth;
   public static InvocationCounter tyeRequestCounter = new InvocationCounter(false);
   public static InvocationCounter tyeLoadingCounter = new InvocationCounter(false);
 
@@ -279,6 +291,54 @@ public class TypeSystem
     return GLOBAL_LOCK;
   }
 
+  /**
+   * @return true if the current thread holds the global type-system lock
+   */
+  public static boolean isLockedByCurrentThread()
+  {
+    return ((ReentrantLock)GLOBAL_LOCK).isHeldByCurrentThread();
+  }
+
+  /**
+   * Marks the start of a change to the type system's caches, such as a refresh or a type loader change.  Must
+   * be called while holding the global lock, and paired with {@link #endRefresh()}.  Calls may nest.
+   * <p/>
+   * Readers that find an already-loaded type without taking the global lock bracket their lookup with
+   * {@link #tryOptimisticRead()} and {@link #validateRead(long)}, and retry under the global lock if a refresh
+   * overlapped it.
+   */
+  public static void beginRefresh()
+  {
+    if( g_iRefreshDepth++ == 0 )
+    {
+      g_refreshStamp = REFRESH_LOCK.writeLock();
+    }
+  }
+
+  public static void endRefresh()
+  {
+    if( --g_iRefreshDepth == 0 )
+    {
+      REFRESH_LOCK.unlockWrite( g_refreshStamp );
+    }
+  }
+
+  /**
+   * @return A stamp for {@link #validateRead(long)}, zero if a refresh is in progress
+   */
+  public static long tryOptimisticRead()
+  {
+    return REFRESH_LOCK.tryOptimisticRead();
+  }
+
+  /**
+   * @return true if no refresh has started since the stamp was issued
+   */
+  public static boolean validateRead( long stamp )
+  {
+    return stamp != 0 && REFRESH_LOCK.validate( stamp );
+  }
+
   public static IType getComponentType( IType valueType )
   {
     return CommonServices.getTypeSystem().getComponentType(valueType);
@@ -898,18 +958,29 @@ public class TypeSystem
    * @param filePaths
    */
   public static void refreshedFiles(String[] filePaths) {
+    Map<IFile, RefreshKind> changes = new LinkedHashMap<>();
     for (String filePath : filePaths) {
       IFile file = CommonServices.getFileSystem().getIFile(new File(filePath));
       if (file != null) {
-        TypeSystem.refreshed(file);
+        changes.put(file, RefreshKind.MODIFICATION);
       }
     }
+    TypeSystem.refreshed(changes);
   }
 
   public static void refreshed(IResource resource) {
     CommonServices.getTypeSystem().refreshed(resource, null, RefreshKind.MODIFICATION);
   }
 
+  /**
+   * Refreshes the types of many changed resources at once, see {@link ITypeSystem#refreshed(Map)}
+   */
+  public static void refreshed(Map<? extends IResource, RefreshKind> changes) {
+    if (!changes.isEmpty()) {
+      CommonServices.getTypeSystem().refreshed(changes);
+    }
+  }
+
   public static void deleted(IResource resource) {
     CommonServices.getTypeSystem().refreshed(resource, null, RefreshKind.DELETION);
   }
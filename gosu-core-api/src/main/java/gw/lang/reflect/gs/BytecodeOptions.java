@@ -16,6 +16,9 @@ public class BytecodeOptions
   private static boolean COLLECT_COMPILATION_STATISTICS = false;
   private static boolean GENERATE_ANNOTATIONS_TO_CLASS_FILES = true;
   private static boolean TREE_VERIFICATION_ENABLED = false;
+  private static boolean INVOKEDYNAMIC_DISPATCH = !"false".equalsIgnoreCase( System.getProperty( "gosu.invokedynamic.dispatch" ) );
+  private static boolean LAMBDA_BLOCKS = Boolean.getBoolean( "gosu.lambda.blocks" );
+  private static boolean INDY_STRING_CONCAT = determineIndyStringConcat();
 
   public static final String RELOAD_CLASSES_SYSTEM_PROP = "gosu.can.reload.classes";
 
@@ -87,6 +90,24 @@ public class BytecodeOptions
     return COLLECT_COMPILATION_STATISTICS;
   }
 
+  private static boolean determineIndyStringConcat()
+  {
+    String value = System.getProperty( "gosu.indy.string.concat" );
+    if( value != null )
+    {
+      return !"false".equalsIgnoreCase( value );
+    }
+    try
+    {
+      Class.forName( "java.lang.invoke.StringConcatFactory" );
+      return true;
+    }
+    catch( ClassNotFoundException e )
+    {
+      return false;
+    }
+  }
+
   private static boolean determineIfCanReloadClasses() {
     String explicitValue = System.getProperty(RELOAD_CLASSES_SYSTEM_PROP);
     if (explicitValue != null) {
@@ -110,4 +131,51 @@ public class BytecodeOptions
   {
     TREE_VERIFICATION_ENABLED = b;
   }
+
+  /**
+   * When true, dynamic property access and reflective method calls (dynamic.Dynamic, structures, Bindings, etc.)
+   * compile to invokedynamic call sites with a per-site inline cache instead of direct calls to GosuRuntimeMethods.
+   * Disable with -Dgosu.invokedynamic.dispatch=false.
+   */
+  public static boolean isInvokeDynamicDispatch()
+  {
+    return INVOKEDYNAMIC_DISPATCH;
+  }
+
+  public static void setInvokeDynamicDispatch( boolean b )
+  {
+    INVOKEDYNAMIC_DISPATCH = b;
+  }
+
+  /**
+   * When true, a block that captures no local variables and has no type parameters compiles to a private synthetic
+   * method on its enclosing class, instantiated through invokedynamic and LambdaMetafactory, instead of to a class of
+   * its own.  Such blocks implement {@link gw.lang.function.ILambdaBlock}; their toString() is the lambda's.
+   * Enable with -Dgosu.lambda.blocks=true.
+   */
+  public static boolean isLambdaBlocks()
+  {
+    return LAMBDA_BLOCKS;
+  }
+
+  public static void setLambdaBlocks( boolean b )
+  {
+    LAMBDA_BLOCKS = b;
+  }
+
+  /**
+   * When true, string concatenation chains and template string literals without scriptlets compile to a single
+   * invokedynamic linked by StringConcatFactory, instead of to an inline StringBuilder chain.  On by default only
+   * when the compiling JVM has StringConcatFactory (Java 9+); Java 8 keeps the inline StringBuilder.  Override with
+   * -Dgosu.indy.string.concat=true|false.
+   */
+  public static boolean isIndyStringConcat()
+  {
+    return INDY_STRING_CONCAT;
+  }
+
+  public static void setIndyStringConcat( boolean b )
+  {
+    INDY_STRING_CONCAT = b;
+  }
 }
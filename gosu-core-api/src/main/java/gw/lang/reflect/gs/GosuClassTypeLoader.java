@@ -240,6 +240,13 @@ public class GosuClassTypeLoader extends SimpleTypeLoader
     return true;
   }
 
+  @Override
+  public boolean hasCompleteTypeNames()
+  {
+    // outside of generated types, every class is a file of the repository; subclasses may serve others
+    return getClass() == GosuClassTypeLoader.class;
+  }
+
   public IGosuClass makeNewClass( ISourceFileHandle sourceFile )
   {
     return makeNewClass( sourceFile, null );
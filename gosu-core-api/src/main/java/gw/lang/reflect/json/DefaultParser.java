@@ -2,8 +2,6 @@ package gw.lang.reflect.json;
 
 import javax.script.Bindings;
 import javax.script.ScriptException;
-import java.io.StringReader;
-import java.util.List;
 
 public class DefaultParser implements IJsonParser {
   private static final DefaultParser INSTANCE = new DefaultParser();
@@ -20,15 +18,24 @@ public class DefaultParser implements IJsonParser {
   }
   public Bindings parseJson( String jsonText, boolean big ) throws ScriptException
   {
-    SimpleParserImpl parser = new SimpleParserImpl( new Tokenizer(new StringReader(jsonText)), big );
-    Object result = parser.parse();
-    List<String> errors = parser.getErrors();
-    if(errors.size() != 0) {
-      StringBuilder sb = new StringBuilder("Found errors:\n");
-      for(String err : errors) {
-        sb.append(err).append("\n");
+    return parseJson( new JsonReader( jsonText ), big );
+  }
+
+  static Bindings parseJson( JsonReader reader, boolean big ) throws ScriptException
+  {
+    Object result;
+    try
+    {
+      result = reader.readValue( big );
+    }
+    catch( RuntimeException e )
+    {
+      ScriptException error = JsonReader.getSyntaxError( e );
+      if( error == null )
+      {
+        throw e;
       }
-      throw new ScriptException(sb.toString());
+      throw new ScriptException( "Found errors:\n" + error.getMessage() + "\n" );
     }
     if(result instanceof Bindings) {
       return (Bindings)result;
@@ -116,6 +116,53 @@ public interface IJsonIO
     }
   }
 
+  /**
+   * Reads the next value from the reader as an object written with {@link #write(IJsonIO, JsonWriter)} or
+   * {@link #save(Bindings)}.  Fields are set directly from the token stream, without building a Bindings for the
+   * object, unless its class overrides {@link #load(Bindings)}.  Fields missing from the JSON keep the values the
+   * default constructor gave them.
+   *
+   * @return The object, or null if the value is null
+   */
+  static <E extends IJsonIO> E read( JsonReader reader )
+  {
+    return JsonBinder.read( reader, reader.next() );
+  }
+
+  /**
+   * Reads the next value from the reader as an array of objects, see {@link #read(JsonReader)}.
+   *
+   * @return The objects, or null if the value is null
+   */
+  static <E extends IJsonIO> List<E> readList( JsonReader reader )
+  {
+    return JsonBinder.readList( reader, reader.next() );
+  }
+
+  /**
+   * Writes the object to the writer in the same format as {@link #save(Bindings)}.  Unless its class overrides
+   * save(), the fields are written directly, without building a Bindings for the object.
+   */
+  static <E extends IJsonIO> void write( E obj, JsonWriter writer )
+  {
+    JsonBinder.write( obj, writer );
+  }
+
+  static <E extends IJsonIO> void writeList( List<E> list, JsonWriter writer )
+  {
+    if( list == null )
+    {
+      writer.nullValue();
+      return;
+    }
+    writer.beginArray();
+    for( E e : list )
+    {
+      JsonBinder.write( e, writer );
+    }
+    writer.endArray();
+  }
+
   /**
    * Implement this method to control loading from the Json bindings.  The
    * default behavior simply loads values corresponding with your class's
@@ -1,10 +1,15 @@
 package gw.lang.reflect.json;
 
 
+import gw.util.StreamUtil;
 import gw.util.concurrent.LocklessLazyVar;
 
 import javax.script.Bindings;
 import javax.script.ScriptException;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 /**
@@ -65,6 +70,55 @@ public class Json
     }
   }
 
+  /**
+   * Parse UTF-8 JSON text as one of a javax.script.Bindings instance.  With the default parser the bytes are read
+   * directly, without first decoding them to a String.  The result can be cast to a JSON structure type, as with
+   * {@link #fromJson(String)}.
+   */
+  public static Bindings fromJson( byte[] json )
+  {
+    if( getParserName() != null )
+    {
+      // a configured parser only takes Strings
+      return fromJson( new String( json, StandardCharsets.UTF_8 ) );
+    }
+    return fromJson( new JsonReader( json ) );
+  }
+
+  /**
+   * Parse UTF-8 JSON text from the stream as one of a javax.script.Bindings instance.  With the default parser the
+   * stream is read incrementally.  The stream is not closed.
+   */
+  public static Bindings fromJson( InputStream json )
+  {
+    if( getParserName() != null )
+    {
+      try
+      {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        StreamUtil.copy( json, content );
+        return fromJson( new String( content.toByteArray(), StandardCharsets.UTF_8 ) );
+      }
+      catch( IOException e )
+      {
+        throw new RuntimeException( e );
+      }
+    }
+    return fromJson( new JsonReader( json ) );
+  }
+
+  private static Bindings fromJson( JsonReader reader )
+  {
+    try
+    {
+      return DefaultParser.parseJson( reader, false );
+    }
+    catch( ScriptException e )
+    {
+      throw new RuntimeException( e );
+    }
+  }
+
   /**
    * Makes a tree of structure types reflecting the Bindings.
    *<p>
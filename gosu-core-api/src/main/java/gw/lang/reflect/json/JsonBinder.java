@@ -0,0 +1,373 @@
+package gw.lang.reflect.json;
+
+import gw.lang.reflect.Expando;
+
+import javax.script.Bindings;
+import javax.script.SimpleBindings;
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads and writes {@link IJsonIO} objects directly from a {@link JsonReader} and to a {@link JsonWriter}.  The
+ * format is the one {@link IJsonIO#save(Bindings)} and {@link IJsonIO#load(Bindings)} produce and consume, so the
+ * streaming and the Bindings based paths interoperate.  Classes that override load() or save() still get a
+ * Bindings, built for just that object.
+ */
+final class JsonBinder
+{
+  private static final ClassValue<ClassBinding> BINDINGS =
+    new ClassValue<ClassBinding>()
+    {
+      @Override
+      protected ClassBinding computeValue( Class<?> type )
+      {
+        return new ClassBinding( type );
+      }
+    };
+
+  private JsonBinder()
+  {
+  }
+
+  static <E extends IJsonIO> E read( JsonReader reader, JsonReader.Event event )
+  {
+    if( event == JsonReader.Event.NULL )
+    {
+      return null;
+    }
+    if( event != JsonReader.Event.BEGIN_OBJECT )
+    {
+      throw new IllegalStateException( "Expecting a JSON object, found " + event );
+    }
+
+    if( reader.next() != JsonReader.Event.NAME )
+    {
+      throw new IllegalStateException( "JSON object has no " + IJsonIO.TYPE + " member" );
+    }
+    if( !IJsonIO.TYPE.equals( reader.getString() ) )
+    {
+      // the type isn't first, so read the object and bind it again with the type moved to the front
+      Bindings bindings = new SimpleBindings();
+      readMembers( reader, bindings );
+      Object fqn = bindings.remove( IJsonIO.TYPE );
+      if( fqn == null )
+      {
+        throw new IllegalStateException( "JSON object has no " + IJsonIO.TYPE + " member" );
+      }
+      Bindings reordered = new Expando();
+      reordered.put( IJsonIO.TYPE, fqn );
+      reordered.putAll( bindings );
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      JsonWriter writer = new JsonWriter( out );
+      writer.value( reordered );
+      writer.flush();
+      JsonReader again = new JsonReader( out.toByteArray() );
+      return read( again, again.next() );
+    }
+    if( reader.next() != JsonReader.Event.STRING )
+    {
+      throw new IllegalStateException( IJsonIO.TYPE + " must be a string" );
+    }
+    String fqn = reader.getString();
+
+    try
+    {
+      ClassBinding binding = BINDINGS.get( Class.forName( fqn ) );
+      //noinspection unchecked
+      E obj = (E)binding.newInstance();
+      if( binding._bCustomLoad )
+      {
+        Bindings bindings = new SimpleBindings();
+        bindings.put( IJsonIO.TYPE, fqn );
+        reader.next();
+        readMembers( reader, bindings );
+        obj.load( bindings );
+        return obj;
+      }
+      while( reader.next() == JsonReader.Event.NAME )
+      {
+        Field field = binding._fields.get( reader.getString() );
+        if( field == null )
+        {
+          reader.skipValue();
+        }
+        else
+        {
+          setField( obj, field, reader, reader.next() );
+        }
+      }
+      return obj;
+    }
+    catch( ReflectiveOperationException e )
+    {
+      throw new RuntimeException( e );
+    }
+  }
+
+  static <E extends IJsonIO> List<E> readList( JsonReader reader, JsonReader.Event event )
+  {
+    if( event == JsonReader.Event.NULL )
+    {
+      return null;
+    }
+    if( event != JsonReader.Event.BEGIN_ARRAY )
+    {
+      throw new IllegalStateException( "Expecting a JSON array, found " + event );
+    }
+    List<E> list = new ArrayList<>();
+    for( JsonReader.Event e = reader.next(); e != JsonReader.Event.END_ARRAY; e = reader.next() )
+    {
+      list.add( read( reader, e ) );
+    }
+    return list;
+  }
+
+  static void write( IJsonIO obj, JsonWriter writer )
+  {
+    if( obj == null )
+    {
+      writer.nullValue();
+      return;
+    }
+
+    ClassBinding binding = BINDINGS.get( obj.getClass() );
+    if( binding._bCustomSave )
+    {
+      Bindings bindings = new Expando();
+      obj.save( bindings );
+      writer.value( bindings );
+      return;
+    }
+
+    writer.beginObject();
+    writer.name( IJsonIO.TYPE ).value( obj.getClass().getName() );
+    try
+    {
+      for( Field field : binding._savedFields )
+      {
+        writer.name( field.getName() );
+        writeValue( field.get( obj ), writer );
+      }
+    }
+    catch( IllegalAccessException e )
+    {
+      throw new RuntimeException( e );
+    }
+    writer.endObject();
+  }
+
+  /**
+   * Reads the rest of an object's members, starting at the current NAME event.
+   */
+  private static void readMembers( JsonReader reader, Bindings bindings )
+  {
+    for( JsonReader.Event e = reader.getEvent(); e == JsonReader.Event.NAME; e = reader.next() )
+    {
+      String name = reader.getString();
+      bindings.put( name, reader.readValue() );
+    }
+  }
+
+  private static void setField( IJsonIO obj, Field field, JsonReader reader, JsonReader.Event event ) throws IllegalAccessException
+  {
+    Class<?> type = field.getType();
+    Object value;
+    switch( event )
+    {
+      case NULL:
+        if( type.isPrimitive() )
+        {
+          return;
+        }
+        value = null;
+        break;
+      case BEGIN_OBJECT:
+        value = read( reader, event );
+        break;
+      case BEGIN_ARRAY:
+        value = readArray( reader );
+        break;
+      case STRING:
+        value = type.isEnum() ? enumValue( type, reader.getString() ) : reader.getString();
+        break;
+      case TRUE:
+      case FALSE:
+        value = reader.getBoolean();
+        break;
+      case INTEGER:
+        // save() writes booleans as 1 or 0
+        value = type == boolean.class || type == Boolean.class ? (Object)(reader.getLong() != 0) : number( reader, type );
+        break;
+      case DOUBLE:
+        value = number( reader, type );
+        break;
+      default:
+        throw new IllegalStateException( "Expecting a value, found " + event );
+    }
+    field.set( obj, value );
+  }
+
+  private static List<Object> readArray( JsonReader reader )
+  {
+    List<Object> list = new ArrayList<>();
+    for( JsonReader.Event e = reader.next(); e != JsonReader.Event.END_ARRAY; e = reader.next() )
+    {
+      list.add( e == JsonReader.Event.BEGIN_OBJECT ? read( reader, e ) : reader.value( e, false ) );
+    }
+    return list;
+  }
+
+  private static Object number( JsonReader reader, Class<?> type )
+  {
+    if( type == int.class || type == Integer.class )
+    {
+      return reader.getInt();
+    }
+    if( type == long.class || type == Long.class )
+    {
+      return reader.getLong();
+    }
+    if( type == double.class || type == Double.class )
+    {
+      return reader.getDouble();
+    }
+    if( type == float.class || type == Float.class )
+    {
+      return (float)reader.getDouble();
+    }
+    if( type == BigInteger.class )
+    {
+      return reader.getBigInteger();
+    }
+    if( type == BigDecimal.class )
+    {
+      return reader.getBigDecimal();
+    }
+    return reader.getNumber();
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Object enumValue( Class<?> type, String name )
+  {
+    return Enum.valueOf( (Class)type, name );
+  }
+
+  private static void writeValue( Object value, JsonWriter writer )
+  {
+    if( IJsonIO.isSimpleType( value ) )
+    {
+      writer.value( value );
+    }
+    else if( value instanceof Enum )
+    {
+      writer.value( ((Enum)value).name() );
+    }
+    else if( value instanceof Boolean )
+    {
+      writer.value( (Boolean)value ? 1 : 0 );
+    }
+    else if( value instanceof Collection )
+    {
+      writer.beginArray();
+      for( Object elem : (Collection)value )
+      {
+        writeValue( elem, writer );
+      }
+      writer.endArray();
+    }
+    else if( value instanceof IJsonIO )
+    {
+      write( (IJsonIO)value, writer );
+    }
+    else
+    {
+      throw new UnsupportedOperationException( "Type: " + value.getClass() + " does not implement " + IJsonIO.class.getName() );
+    }
+  }
+
+  private static final class ClassBinding
+  {
+    private final Constructor<?> _constructor;
+    private final boolean _bCustomLoad;
+    private final boolean _bCustomSave;
+    private final Map<String, Field> _fields;
+    private final Collection<Field> _savedFields;
+
+    ClassBinding( Class<?> type )
+    {
+      _constructor = findConstructor( type );
+      _bCustomLoad = overrides( type, "load" );
+      _bCustomSave = overrides( type, "save" );
+
+      // same fields, in the same order, as IJsonIO.saveFields()
+      Map<String, Field> saved = new LinkedHashMap<>();
+      addFields( type, saved );
+      _savedFields = new ArrayList<>( saved.values() );
+      _fields = new HashMap<>( saved );
+    }
+
+    Object newInstance() throws ReflectiveOperationException
+    {
+      if( _constructor == null )
+      {
+        throw new InstantiationException( "No default constructor" );
+      }
+      return _constructor.newInstance();
+    }
+
+    private static Constructor<?> findConstructor( Class<?> type )
+    {
+      try
+      {
+        Constructor<?> constructor = type.getDeclaredConstructor();
+        constructor.setAccessible( true );
+        return constructor;
+      }
+      catch( NoSuchMethodException e )
+      {
+        return null;
+      }
+    }
+
+    private static boolean overrides( Class<?> type, String method )
+    {
+      try
+      {
+        return type.getMethod( method, Bindings.class ).getDeclaringClass() != IJsonIO.class;
+      }
+      catch( NoSuchMethodException e )
+      {
+        return false;
+      }
+    }
+
+    private static void addFields( Class<?> type, Map<String, Field> fields )
+    {
+      Class<?> superclass = type.getSuperclass();
+      if( superclass != null )
+      {
+        addFields( superclass, fields );
+      }
+      for( Field field : type.getDeclaredFields() )
+      {
+        int mod = field.getModifiers();
+        if( field.isSynthetic() || Modifier.isStatic( mod ) || Modifier.isTransient( mod ) )
+        {
+          continue;
+        }
+        field.setAccessible( true );
+        fields.put( field.getName(), field );
+      }
+    }
+  }
+}
@@ -0,0 +1,997 @@
+package gw.lang.reflect.json;
+
+import javax.script.Bindings;
+import javax.script.ScriptException;
+import javax.script.SimpleBindings;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A pull parser for JSON text, read either as UTF-8 bytes or straight from a CharSequence.  Each call to
+ * {@link #next()} returns the next {@link Event} in the document; the value of a NAME, STRING, INTEGER or DOUBLE
+ * event is read with one of the getters.  The parser works directly on its source and does not allocate anything
+ * per lexeme, so callers who bind the values straight to their own
+ * objects (see {@link IJsonIO#read(JsonReader)}) never create the intermediate Bindings tree.
+ * <p>
+ * Accepts the same dialect as {@link DefaultParser}: standard JSON plus single-quoted strings.  Syntax errors are
+ * thrown as a RuntimeException whose cause is a {@link ScriptException}, the same way {@link Json#fromJson(String)}
+ * reports them.
+ */
+public final class JsonReader implements Closeable
+{
+  public enum Event
+  {
+    BEGIN_OBJECT,
+    END_OBJECT,
+    BEGIN_ARRAY,
+    END_ARRAY,
+    NAME,
+    STRING,
+    INTEGER,
+    DOUBLE,
+    TRUE,
+    FALSE,
+    NULL,
+    END
+  }
+
+  private static final int DOC_START = 0;
+  private static final int DOC_END = 1;
+  private static final int OBJECT_FIRST = 2;
+  private static final int OBJECT_NEXT = 3;
+  private static final int OBJECT_VALUE = 4;
+  private static final int ARRAY_FIRST = 5;
+  private static final int ARRAY_NEXT = 6;
+
+  private static final long MIN_LONG_DIV_10 = Long.MIN_VALUE / 10;
+  private static final char REPLACEMENT_CHAR = '\uFFFD';
+
+  private final InputStream _in;
+  private final CharSequence _text;
+  private byte[] _buf;
+  private int _iPos;
+  private int _iLimit;
+  private long _lBufStart;
+  private long _lLineStart;
+  private int _iLine = 1;
+  private int _iTokenLine = 1;
+  private int _iTokenColumn = 1;
+
+  private int[] _stack = new int[32];
+  private int _iDepth;
+
+  private Event _event;
+  private String _name;
+  private char[] _chars = new char[64];
+  private int _iChars;
+  private long _lValue;
+  private boolean _bOverflow;
+  private final String[] _names = new String[256];
+
+  public JsonReader( byte[] json )
+  {
+    this( json, 0, json.length );
+  }
+
+  public JsonReader( byte[] json, int iOffset, int iLength )
+  {
+    _in = null;
+    _text = null;
+    _buf = json;
+    _iPos = iOffset;
+    _iLimit = iOffset + iLength;
+    _lBufStart = -iOffset;
+    _lLineStart = 0;
+    _stack[0] = DOC_START;
+  }
+
+  /**
+   * Reads UTF-8 JSON from the stream.  The stream is read in blocks, so it is not positioned just past the
+   * document when parsing ends.
+   */
+  public JsonReader( InputStream in )
+  {
+    _in = in;
+    _text = null;
+    _buf = new byte[8192];
+    _stack[0] = DOC_START;
+  }
+
+  /**
+   * Reads JSON from chars that are already decoded, e.g., a String, without encoding them to bytes first.
+   */
+  public JsonReader( CharSequence json )
+  {
+    _in = null;
+    _text = json;
+    _iLimit = json.length();
+    _stack[0] = DOC_START;
+  }
+
+  /**
+   * @return The next event in the document.  After the top-level value this returns END, or throws if anything
+   * but whitespace follows.
+   */
+  public Event next()
+  {
+    int b;
+    switch( _stack[_iDepth] )
+    {
+      case DOC_START:
+        _stack[_iDepth] = DOC_END;
+        return _event = value( skipWhitespace() );
+
+      case DOC_END:
+        b = skipWhitespace();
+        if( b >= 0 )
+        {
+          throw unexpected( b );
+        }
+        return _event = Event.END;
+
+      case OBJECT_FIRST:
+        b = skipWhitespace();
+        if( b == '}' )
+        {
+          _iPos++;
+          _iDepth--;
+          return _event = Event.END_OBJECT;
+        }
+        return _event = name( b );
+
+      case OBJECT_NEXT:
+        b = skipWhitespace();
+        if( b == '}' )
+        {
+          _iPos++;
+          _iDepth--;
+          return _event = Event.END_OBJECT;
+        }
+        if( b != ',' )
+        {
+          throw expecting( "',' or '}'", b );
+        }
+        _iPos++;
+        return _event = name( skipWhitespace() );
+
+      case OBJECT_VALUE:
+        _stack[_iDepth] = OBJECT_NEXT;
+        return _event = value( skipWhitespace() );
+
+      case ARRAY_FIRST:
+        b = skipWhitespace();
+        if( b == ']' )
+        {
+          _iPos++;
+          _iDepth--;
+          return _event = Event.END_ARRAY;
+        }
+        _stack[_iDepth] = ARRAY_NEXT;
+        return _event = value( b );
+
+      case ARRAY_NEXT:
+        b = skipWhitespace();
+        if( b == ']' )
+        {
+          _iPos++;
+          _iDepth--;
+          return _event = Event.END_ARRAY;
+        }
+        if( b != ',' )
+        {
+          throw expecting( "',' or ']'", b );
+        }
+        _iPos++;
+        return _event = value( skipWhitespace() );
+
+      default:
+        throw new IllegalStateException();
+    }
+  }
+
+  /**
+   * @return The event last returned from {@link #next()}
+   */
+  public Event getEvent()
+  {
+    return _event;
+  }
+
+  /**
+   * @return The member name of a NAME event, the text of a STRING event, or the literal text of a number
+   */
+  public String getString()
+  {
+    switch( _event )
+    {
+      case NAME:
+        return _name;
+      case STRING:
+      case INTEGER:
+      case DOUBLE:
+        return new String( _chars, 0, _iChars );
+      default:
+        throw new IllegalStateException( "No string value for " + _event );
+    }
+  }
+
+  public boolean getBoolean()
+  {
+    if( _event == Event.TRUE )
+    {
+      return true;
+    }
+    if( _event == Event.FALSE )
+    {
+      return false;
+    }
+    throw new IllegalStateException( "No boolean value for " + _event );
+  }
+
+  public int getInt()
+  {
+    long value = getLong();
+    if( value != (int)value )
+    {
+      throw new NumberFormatException( "Value does not fit in an int: " + value );
+    }
+    return (int)value;
+  }
+
+  public long getLong()
+  {
+    checkNumber();
+    if( _event == Event.INTEGER && !_bOverflow )
+    {
+      return _lValue;
+    }
+    return getBigDecimal().longValueExact();
+  }
+
+  public double getDouble()
+  {
+    checkNumber();
+    if( _event == Event.INTEGER && !_bOverflow )
+    {
+      return _lValue;
+    }
+    return Double.parseDouble( getString() );
+  }
+
+  public BigInteger getBigInteger()
+  {
+    checkNumber();
+    if( _event == Event.INTEGER )
+    {
+      return _bOverflow ? new BigInteger( getString() ) : BigInteger.valueOf( _lValue );
+    }
+    return getBigDecimal().toBigInteger();
+  }
+
+  public BigDecimal getBigDecimal()
+  {
+    checkNumber();
+    return new BigDecimal( _chars, 0, _iChars );
+  }
+
+  /**
+   * @return An Integer or Long for an integer value, or a BigInteger if it doesn't fit in a long; a Double for
+   * any other number
+   */
+  public Number getNumber()
+  {
+    checkNumber();
+    if( _event == Event.DOUBLE )
+    {
+      return getDouble();
+    }
+    if( _bOverflow )
+    {
+      return getBigInteger();
+    }
+    if( _lValue == (int)_lValue )
+    {
+      return (int)_lValue;
+    }
+    return _lValue;
+  }
+
+  /**
+   * Reads the next complete value: a Bindings for an object, a List for an array, or a String, Number, Boolean or
+   * null.  This is the same tree {@link DefaultParser} builds.
+   */
+  public Object readValue()
+  {
+    return readValue( false );
+  }
+
+  /**
+   * @param bBig If true, numbers are read as BigInteger and BigDecimal
+   */
+  public Object readValue( boolean bBig )
+  {
+    return value( next(), bBig );
+  }
+
+  /**
+   * Skips the next complete value.
+   */
+  public void skipValue()
+  {
+    skip( next() );
+  }
+
+  public int getLineNumber()
+  {
+    return _iTokenLine;
+  }
+
+  public int getColumn()
+  {
+    return _iTokenColumn;
+  }
+
+  @Override
+  public void close() throws IOException
+  {
+    if( _in != null )
+    {
+      _in.close();
+    }
+  }
+
+  Object value( Event event, boolean bBig )
+  {
+    switch( event )
+    {
+      case BEGIN_OBJECT:
+        Bindings bindings = new SimpleBindings();
+        while( next() == Event.NAME )
+        {
+          String name = _name;
+          bindings.put( name, value( next(), bBig ) );
+        }
+        return bindings;
+      case BEGIN_ARRAY:
+        List<Object> list = new ArrayList<>();
+        for( Event e = next(); e != Event.END_ARRAY; e = next() )
+        {
+          list.add( value( e, bBig ) );
+        }
+        return list;
+      case STRING:
+        return getString();
+      case INTEGER:
+        return bBig ? getBigInteger() : getNumber();
+      case DOUBLE:
+        return bBig ? getBigDecimal() : (Object)getDouble();
+      case TRUE:
+        return Boolean.TRUE;
+      case FALSE:
+        return Boolean.FALSE;
+      case NULL:
+        return null;
+      default:
+        throw new IllegalStateException( "Expecting a value, found " + event );
+    }
+  }
+
+  void skip( Event event )
+  {
+    if( event == Event.BEGIN_OBJECT || event == Event.BEGIN_ARRAY )
+    {
+      int iDepth = 1;
+      while( iDepth > 0 )
+      {
+        Event e = next();
+        if( e == Event.BEGIN_OBJECT || e == Event.BEGIN_ARRAY )
+        {
+          iDepth++;
+        }
+        else if( e == Event.END_OBJECT || e == Event.END_ARRAY )
+        {
+          iDepth--;
+        }
+      }
+    }
+    else if( event == Event.NAME || event == Event.END_OBJECT || event == Event.END_ARRAY || event == Event.END )
+    {
+      throw new IllegalStateException( "Expecting a value, found " + event );
+    }
+  }
+
+  private Event name( int b )
+  {
+    if( b != '"' && b != '\'' )
+    {
+      throw expecting( "a string", b );
+    }
+    _iPos++;
+    readString( b );
+    _name = makeName();
+    b = skipWhitespace();
+    if( b != ':' )
+    {
+      throw expecting( "':'", b );
+    }
+    _iPos++;
+    _stack[_iDepth] = OBJECT_VALUE;
+    return Event.NAME;
+  }
+
+  private Event value( int b )
+  {
+    switch( b )
+    {
+      case '{':
+        _iPos++;
+        push( OBJECT_FIRST );
+        return Event.BEGIN_OBJECT;
+      case '[':
+        _iPos++;
+        push( ARRAY_FIRST );
+        return Event.BEGIN_ARRAY;
+      case '"':
+      case '\'':
+        _iPos++;
+        readString( b );
+        return Event.STRING;
+      case '-':
+      case '0':
+      case '1':
+      case '2':
+      case '3':
+      case '4':
+      case '5':
+      case '6':
+      case '7':
+      case '8':
+      case '9':
+        return readNumber();
+      default:
+        if( isLetter( b ) )
+        {
+          return readConstant();
+        }
+        throw unexpected( b );
+    }
+  }
+
+  private void push( int state )
+  {
+    if( ++_iDepth == _stack.length )
+    {
+      _stack = Arrays.copyOf( _stack, _stack.length * 2 );
+    }
+    _stack[_iDepth] = state;
+  }
+
+  /*
+    string = '"' {char} '"' | "'" {char} "'".
+    char = unescaped | "\" ('"' | "\" | "/" | "b" | "f" | "n" | "r" | "t" | "u" hex hex hex hex).
+  */
+  private void readString( int quote )
+  {
+    _iChars = 0;
+    if( _text != null )
+    {
+      readChars( quote );
+      return;
+    }
+    while( true )
+    {
+      // copy the run of plain ASCII straight out of the buffer
+      byte[] buf = _buf;
+      char[] chars = _chars;
+      int iPos = _iPos;
+      int iLimit = _iLimit;
+      int iChars = _iChars;
+      while( iPos < iLimit )
+      {
+        int b = buf[iPos];
+        if( b == quote || b == '\\' || b == '\n' || b < 0 )
+        {
+          break;
+        }
+        if( iChars == chars.length )
+        {
+          chars = _chars = Arrays.copyOf( chars, iChars * 2 );
+        }
+        chars[iChars++] = (char)b;
+        iPos++;
+      }
+      _iPos = iPos;
+      _iChars = iChars;
+
+      if( iPos == iLimit )
+      {
+        if( !fill() )
+        {
+          throw error( "Unterminated string" );
+        }
+        continue;
+      }
+
+      int b = buf[_iPos++];
+      if( b == quote )
+      {
+        return;
+      }
+      if( b == '\\' )
+      {
+        append( readEscape() );
+      }
+      else if( b == '\n' )
+      {
+        newLine();
+        append( '\n' );
+      }
+      else
+      {
+        readUtf8( b & 0xFF );
+      }
+    }
+  }
+
+  private void readChars( int quote )
+  {
+    CharSequence text = _text;
+    int iLimit = _iLimit;
+    while( true )
+    {
+      // copy the run of plain chars straight out of the text
+      char[] chars = _chars;
+      int iPos = _iPos;
+      int iChars = _iChars;
+      while( iPos < iLimit )
+      {
+        char c = text.charAt( iPos );
+        if( c == quote || c == '\\' || c == '\n' )
+        {
+          break;
+        }
+        if( iChars == chars.length )
+        {
+          chars = _chars = Arrays.copyOf( chars, iChars * 2 );
+        }
+        chars[iChars++] = c;
+        iPos++;
+      }
+      _iPos = iPos;
+      _iChars = iChars;
+
+      if( iPos == iLimit )
+      {
+        throw error( "Unterminated string" );
+      }
+
+      char c = text.charAt( _iPos++ );
+      if( c == quote )
+      {
+        return;
+      }
+      if( c == '\\' )
+      {
+        append( readEscape() );
+      }
+      else
+      {
+        newLine();
+        append( '\n' );
+      }
+    }
+  }
+
+  private char readEscape()
+  {
+    int c = read();
+    switch( c )
+    {
+      case '"':
+      case '\'':
+      case '\\':
+      case '/':
+        return (char)c;
+      case 'b':
+        return '\b';
+      case 'f':
+        return '\f';
+      case 'n':
+        return '\n';
+      case 'r':
+        return '\r';
+      case 't':
+        return '\t';
+      case 'u':
+        int u = 0;
+        for( int i = 0; i < 4; i++ )
+        {
+          int digit = Character.digit( read(), 16 );
+          if( digit < 0 )
+          {
+            throw error( "Invalid unicode escape" );
+          }
+          u = u * 16 + digit;
+        }
+        return (char)u;
+      default:
+        throw error( "Invalid escape '\\" + (c < 0 ? "" : String.valueOf( (char)c )) + "'" );
+    }
+  }
+
+  private void readUtf8( int lead )
+  {
+    int cp;
+    int iExtra;
+    if( lead >= 0xC2 && lead <= 0xDF )
+    {
+      cp = lead & 0x1F;
+      iExtra = 1;
+    }
+    else if( lead >= 0xE0 && lead <= 0xEF )
+    {
+      cp = lead & 0x0F;
+      iExtra = 2;
+    }
+    else if( lead >= 0xF0 && lead <= 0xF4 )
+    {
+      cp = lead & 0x07;
+      iExtra = 3;
+    }
+    else
+    {
+      append( REPLACEMENT_CHAR );
+      return;
+    }
+    for( int i = 0; i < iExtra; i++ )
+    {
+      int c = peek();
+      if( (c & 0xC0) != 0x80 )
+      {
+        append( REPLACEMENT_CHAR );
+        return;
+      }
+      _iPos++;
+      cp = cp << 6 | c & 0x3F;
+    }
+    if( cp >= Character.MIN_SUPPLEMENTARY_CODE_POINT )
+    {
+      append( Character.highSurrogate( cp ) );
+      append( Character.lowSurrogate( cp ) );
+    }
+    else
+    {
+      append( (char)cp );
+    }
+  }
+
+  /**
+   * Names repeat, so they come from a small cache keyed by their chars instead of allocating a String each time.
+   */
+  private String makeName()
+  {
+    int iHash = 0;
+    for( int i = 0; i < _iChars; i++ )
+    {
+      iHash = 31 * iHash + _chars[i];
+    }
+    int iIndex = (iHash ^ (iHash >>> 16)) & (_names.length - 1);
+    String name = _names[iIndex];
+    if( name != null && name.length() == _iChars )
+    {
+      int i = 0;
+      while( i < _iChars && name.charAt( i ) == _chars[i] )
+      {
+        i++;
+      }
+      if( i == _iChars )
+      {
+        return name;
+      }
+    }
+    return _names[iIndex] = new String( _chars, 0, _iChars );
+  }
+
+  /*
+    number = [ "-" ] int [ frac ] [ exp ].
+    exp = ("e" | "E") [ "-" | "+" ] digit {digit}.
+    frac = "." digit {digit}.
+    int = "0" |  digit19 {digit}.
+  */
+  private Event readNumber()
+  {
+    _iChars = 0;
+    _bOverflow = false;
+    boolean bNegative = false;
+    boolean bDouble = false;
+    long lValue = 0; // accumulated negative so Long.MIN_VALUE fits
+
+    int b = peek();
+    if( b == '-' )
+    {
+      bNegative = true;
+      append( '-' );
+      _iPos++;
+      b = peek();
+    }
+    if( b == '0' )
+    {
+      append( '0' );
+      _iPos++;
+    }
+    else if( isDigit( b ) )
+    {
+      do
+      {
+        int digit = b - '0';
+        if( lValue < MIN_LONG_DIV_10 || lValue == MIN_LONG_DIV_10 && digit > 8 )
+        {
+          _bOverflow = true;
+        }
+        else
+        {
+          lValue = lValue * 10 - digit;
+        }
+        append( (char)b );
+        _iPos++;
+        b = peek();
+      } while( isDigit( b ) );
+    }
+    else
+    {
+      throw expecting( "a digit", b );
+    }
+
+    b = peek();
+    if( b == '.' )
+    {
+      bDouble = true;
+      append( '.' );
+      _iPos++;
+      readDigits();
+      b = peek();
+    }
+    if( b == 'e' || b == 'E' )
+    {
+      bDouble = true;
+      append( (char)b );
+      _iPos++;
+      b = peek();
+      if( b == '-' || b == '+' )
+      {
+        append( (char)b );
+        _iPos++;
+      }
+      readDigits();
+    }
+
+    if( bDouble )
+    {
+      return Event.DOUBLE;
+    }
+    if( !bNegative )
+    {
+      if( lValue == Long.MIN_VALUE )
+      {
+        _bOverflow = true;
+      }
+      lValue = -lValue;
+    }
+    _lValue = lValue;
+    return Event.INTEGER;
+  }
+
+  private void readDigits()
+  {
+    int b = peek();
+    if( !isDigit( b ) )
+    {
+      throw expecting( "a digit", b );
+    }
+    do
+    {
+      append( (char)b );
+      _iPos++;
+      b = peek();
+    } while( isDigit( b ) );
+  }
+
+  private Event readConstant()
+  {
+    _iChars = 0;
+    int b = peek();
+    do
+    {
+      append( (char)b );
+      _iPos++;
+      b = peek();
+    } while( isLetter( b ) );
+
+    if( isConstant( "true" ) )
+    {
+      return Event.TRUE;
+    }
+    if( isConstant( "false" ) )
+    {
+      return Event.FALSE;
+    }
+    if( isConstant( "null" ) )
+    {
+      return Event.NULL;
+    }
+    throw error( "Unexpected token '" + new String( _chars, 0, _iChars ) + "'" );
+  }
+
+  private boolean isConstant( String constant )
+  {
+    if( constant.length() != _iChars )
+    {
+      return false;
+    }
+    for( int i = 0; i < _iChars; i++ )
+    {
+      if( constant.charAt( i ) != _chars[i] )
+      {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void checkNumber()
+  {
+    if( _event != Event.INTEGER && _event != Event.DOUBLE )
+    {
+      throw new IllegalStateException( "No number value for " + _event );
+    }
+  }
+
+  private void append( char c )
+  {
+    if( _iChars == _chars.length )
+    {
+      _chars = Arrays.copyOf( _chars, _iChars * 2 );
+    }
+    _chars[_iChars++] = c;
+  }
+
+  /**
+   * @return The next byte that isn't whitespace, without consuming it, or -1 at the end of input
+   */
+  private int skipWhitespace()
+  {
+    while( true )
+    {
+      if( _iPos == _iLimit && !fill() )
+      {
+        markToken();
+        return -1;
+      }
+      int b = _text != null ? _text.charAt( _iPos ) : _buf[_iPos] & 0xFF;
+      switch( b )
+      {
+        case ' ':
+        case '\t':
+        case '\r':
+          _iPos++;
+          break;
+        case '\n':
+          _iPos++;
+          newLine();
+          break;
+        default:
+          markToken();
+          return b;
+      }
+    }
+  }
+
+  private int peek()
+  {
+    if( _iPos == _iLimit && !fill() )
+    {
+      return -1;
+    }
+    return _text != null ? _text.charAt( _iPos ) : _buf[_iPos] & 0xFF;
+  }
+
+  private int read()
+  {
+    if( _iPos == _iLimit && !fill() )
+    {
+      return -1;
+    }
+    return _text != null ? _text.charAt( _iPos++ ) : _buf[_iPos++] & 0xFF;
+  }
+
+  private boolean fill()
+  {
+    if( _in == null )
+    {
+      return false;
+    }
+    _lBufStart += _iLimit;
+    _iPos = _iLimit = 0;
+    try
+    {
+      int iRead;
+      do
+      {
+        iRead = _in.read( _buf, 0, _buf.length );
+      } while( iRead == 0 );
+      if( iRead < 0 )
+      {
+        return false;
+      }
+      _iLimit = iRead;
+      return true;
+    }
+    catch( IOException e )
+    {
+      throw new RuntimeException( e );
+    }
+  }
+
+  private void newLine()
+  {
+    _iLine++;
+    _lLineStart = _lBufStart + _iPos;
+  }
+
+  private void markToken()
+  {
+    _iTokenLine = _iLine;
+    _iTokenColumn = (int)(_lBufStart + _iPos - _lLineStart) + 1;
+  }
+
+  private static boolean isDigit( int b )
+  {
+    return b >= '0' && b <= '9';
+  }
+
+  private static boolean isLetter( int b )
+  {
+    return b >= 'a' && b <= 'z' || b >= 'A' && b <= 'Z';
+  }
+
+  private RuntimeException unexpected( int b )
+  {
+    if( b < 0 )
+    {
+      return error( "Unexpected end of JSON text" );
+    }
+    return error( "Unexpected token '" + describe( b ) + "'" );
+  }
+
+  private RuntimeException expecting( String expected, int b )
+  {
+    return error( "expecting " + expected + ", found '" + (b < 0 ? "EOF" : describe( b )) + "'" );
+  }
+
+  private static String describe( int b )
+  {
+    return b < 0x80 ? String.valueOf( (char)b ) : "\\x" + Integer.toHexString( b );
+  }
+
+  private RuntimeException error( String message )
+  {
+    return new RuntimeException( new ScriptException( "[" + _iTokenLine + ":" + _iTokenColumn + "] " + message ) );
+  }
+
+  /**
+   * @return The ScriptException describing a syntax error thrown by a JsonReader, or null if the exception is
+   * something else
+   */
+  static ScriptException getSyntaxError( RuntimeException e )
+  {
+    return e.getClass() == RuntimeException.class && e.getCause() instanceof ScriptException
+           ? (ScriptException)e.getCause()
+           : null;
+  }
+}
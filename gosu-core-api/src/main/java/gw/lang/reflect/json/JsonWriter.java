@@ -0,0 +1,455 @@
+package gw.lang.reflect.json;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Writes JSON text to a stream as it is produced, without building a Bindings tree first.  Objects and arrays are
+ * opened and closed explicitly; inside an object each value is preceded by {@link #name(String)}:
+ * <pre>
+ *   writer.beginObject().name( "id" ).value( 42 ).name( "tags" ).beginArray().value( "a" ).endArray().endObject();
+ * </pre>
+ * IO failures are thrown as a RuntimeException wrapping the IOException.
+ */
+public final class JsonWriter implements Closeable, Flushable
+{
+  private static final int DOC_EMPTY = 0;
+  private static final int DOC_DONE = 1;
+  private static final int OBJECT_EMPTY = 2;
+  private static final int OBJECT = 3;
+  private static final int ARRAY_EMPTY = 4;
+  private static final int ARRAY = 5;
+
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+  private final Writer _out;
+  private final int _iIndent;
+  private final char[] _buf = new char[8192];
+  private int _iPos;
+
+  private int[] _stack = new int[32];
+  private int _iDepth;
+  private boolean _bName;
+
+  public JsonWriter( Writer out )
+  {
+    this( out, 0 );
+  }
+
+  /**
+   * @param iIndent The number of spaces to indent each level, or 0 to write everything on one line
+   */
+  public JsonWriter( Writer out, int iIndent )
+  {
+    _out = out;
+    _iIndent = iIndent;
+    _stack[0] = DOC_EMPTY;
+  }
+
+  /**
+   * Writes UTF-8 to the stream.
+   */
+  public JsonWriter( OutputStream out )
+  {
+    this( out, 0 );
+  }
+
+  public JsonWriter( OutputStream out, int iIndent )
+  {
+    this( new OutputStreamWriter( out, StandardCharsets.UTF_8 ), iIndent );
+  }
+
+  public JsonWriter beginObject()
+  {
+    beforeValue();
+    write( '{' );
+    push( OBJECT_EMPTY );
+    return this;
+  }
+
+  public JsonWriter endObject()
+  {
+    return end( OBJECT_EMPTY, OBJECT, '}' );
+  }
+
+  public JsonWriter beginArray()
+  {
+    beforeValue();
+    write( '[' );
+    push( ARRAY_EMPTY );
+    return this;
+  }
+
+  public JsonWriter endArray()
+  {
+    return end( ARRAY_EMPTY, ARRAY, ']' );
+  }
+
+  public JsonWriter name( String name )
+  {
+    int state = _stack[_iDepth];
+    if( (state != OBJECT_EMPTY && state != OBJECT) || _bName )
+    {
+      throw new IllegalStateException( "A name must be followed by a value and can only appear in an object" );
+    }
+    if( state == OBJECT )
+    {
+      write( ',' );
+    }
+    _stack[_iDepth] = OBJECT;
+    newLine( _iDepth );
+    string( name );
+    write( ':' );
+    if( _iIndent > 0 )
+    {
+      write( ' ' );
+    }
+    _bName = true;
+    return this;
+  }
+
+  public JsonWriter value( String value )
+  {
+    if( value == null )
+    {
+      return nullValue();
+    }
+    beforeValue();
+    string( value );
+    return this;
+  }
+
+  public JsonWriter value( boolean value )
+  {
+    beforeValue();
+    write( value ? "true" : "false" );
+    return this;
+  }
+
+  public JsonWriter value( long value )
+  {
+    beforeValue();
+    if( value == Long.MIN_VALUE )
+    {
+      write( Long.toString( value ) );
+      return this;
+    }
+    if( value < 0 )
+    {
+      write( '-' );
+      value = -value;
+    }
+    ensure( 19 );
+    int iEnd = _iPos + digits( value );
+    for( int i = iEnd - 1; i >= _iPos; i-- )
+    {
+      _buf[i] = (char)('0' + value % 10);
+      value /= 10;
+    }
+    _iPos = iEnd;
+    return this;
+  }
+
+  public JsonWriter value( double value )
+  {
+    if( Double.isNaN( value ) || Double.isInfinite( value ) )
+    {
+      throw new IllegalArgumentException( "JSON has no representation for " + value );
+    }
+    beforeValue();
+    write( Double.toString( value ) );
+    return this;
+  }
+
+  public JsonWriter value( Number value )
+  {
+    if( value == null )
+    {
+      return nullValue();
+    }
+    if( value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte )
+    {
+      return value( value.longValue() );
+    }
+    if( value instanceof Double || value instanceof Float )
+    {
+      return value( value.doubleValue() );
+    }
+    beforeValue();
+    write( value.toString() );
+    return this;
+  }
+
+  public JsonWriter nullValue()
+  {
+    beforeValue();
+    write( "null" );
+    return this;
+  }
+
+  /**
+   * Writes any JSON-compatible value: null, a String, Number, Boolean, Character or Enum, a Map (including
+   * Bindings), a Collection, or an {@link IJsonIO}, recursively.
+   */
+  public JsonWriter value( Object value )
+  {
+    if( value == null )
+    {
+      return nullValue();
+    }
+    if( value instanceof String )
+    {
+      return value( (String)value );
+    }
+    if( value instanceof Number )
+    {
+      return value( (Number)value );
+    }
+    if( value instanceof Boolean )
+    {
+      return value( ((Boolean)value).booleanValue() );
+    }
+    if( value instanceof Character || value instanceof Enum )
+    {
+      return value( value instanceof Enum ? ((Enum)value).name() : value.toString() );
+    }
+    if( value instanceof Map )
+    {
+      beginObject();
+      for( Map.Entry<?, ?> entry : ((Map<?, ?>)value).entrySet() )
+      {
+        name( String.valueOf( entry.getKey() ) );
+        value( entry.getValue() );
+      }
+      return endObject();
+    }
+    if( value instanceof Collection )
+    {
+      beginArray();
+      for( Object elem : (Collection<?>)value )
+      {
+        value( elem );
+      }
+      return endArray();
+    }
+    if( value instanceof IJsonIO )
+    {
+      JsonBinder.write( (IJsonIO)value, this );
+      return this;
+    }
+    throw new IllegalArgumentException( "Unsupported JSON value type: " + value.getClass().getName() );
+  }
+
+  @Override
+  public void flush()
+  {
+    try
+    {
+      flushBuffer();
+      _out.flush();
+    }
+    catch( IOException e )
+    {
+      throw new RuntimeException( e );
+    }
+  }
+
+  @Override
+  public void close()
+  {
+    try
+    {
+      flushBuffer();
+      _out.close();
+    }
+    catch( IOException e )
+    {
+      throw new RuntimeException( e );
+    }
+  }
+
+  private JsonWriter end( int emptyState, int state, char close )
+  {
+    int current = _stack[_iDepth];
+    if( (current != emptyState && current != state) || _bName )
+    {
+      throw new IllegalStateException( "Nesting problem: '" + close + "' does not close the current value" );
+    }
+    _iDepth--;
+    if( current == state )
+    {
+      newLine( _iDepth );
+    }
+    write( close );
+    return this;
+  }
+
+  private void beforeValue()
+  {
+    switch( _stack[_iDepth] )
+    {
+      case DOC_EMPTY:
+        _stack[_iDepth] = DOC_DONE;
+        break;
+      case DOC_DONE:
+        throw new IllegalStateException( "A JSON document has only one top-level value" );
+      case OBJECT_EMPTY:
+      case OBJECT:
+        if( !_bName )
+        {
+          throw new IllegalStateException( "A value in an object must follow a name" );
+        }
+        _bName = false;
+        break;
+      case ARRAY:
+        write( ',' );
+        newLine( _iDepth );
+        break;
+      case ARRAY_EMPTY:
+        _stack[_iDepth] = ARRAY;
+        newLine( _iDepth );
+        break;
+    }
+  }
+
+  private void push( int state )
+  {
+    if( ++_iDepth == _stack.length )
+    {
+      _stack = Arrays.copyOf( _stack, _stack.length * 2 );
+    }
+    _stack[_iDepth] = state;
+  }
+
+  private void newLine( int iLevel )
+  {
+    if( _iIndent > 0 )
+    {
+      write( '\n' );
+      for( int i = iLevel * _iIndent; i > 0; i-- )
+      {
+        write( ' ' );
+      }
+    }
+  }
+
+  private void string( String value )
+  {
+    write( '"' );
+    int iLen = value.length();
+    int iStart = 0;
+    for( int i = 0; i < iLen; i++ )
+    {
+      char c = value.charAt( i );
+      if( c >= ' ' && c != '"' && c != '\\' && c != '\u2028' && c != '\u2029' )
+      {
+        continue;
+      }
+      write( value, iStart, i );
+      iStart = i + 1;
+      write( '\\' );
+      switch( c )
+      {
+        case '"':
+        case '\\':
+          write( c );
+          break;
+        case '\b':
+          write( 'b' );
+          break;
+        case '\f':
+          write( 'f' );
+          break;
+        case '\n':
+          write( 'n' );
+          break;
+        case '\r':
+          write( 'r' );
+          break;
+        case '\t':
+          write( 't' );
+          break;
+        default:
+          write( 'u' );
+          write( HEX[c >> 12 & 0xF] );
+          write( HEX[c >> 8 & 0xF] );
+          write( HEX[c >> 4 & 0xF] );
+          write( HEX[c & 0xF] );
+      }
+    }
+    write( value, iStart, iLen );
+    write( '"' );
+  }
+
+  private static int digits( long value )
+  {
+    int iDigits = 1;
+    while( value >= 10 )
+    {
+      value /= 10;
+      iDigits++;
+    }
+    return iDigits;
+  }
+
+  private void write( char c )
+  {
+    if( _iPos == _buf.length )
+    {
+      flushBuffer();
+    }
+    _buf[_iPos++] = c;
+  }
+
+  private void write( String s )
+  {
+    write( s, 0, s.length() );
+  }
+
+  private void write( String s, int iStart, int iEnd )
+  {
+    while( iStart < iEnd )
+    {
+      if( _iPos == _buf.length )
+      {
+        flushBuffer();
+      }
+      int iCount = Math.min( iEnd - iStart, _buf.length - _iPos );
+      s.getChars( iStart, iStart + iCount, _buf, _iPos );
+      _iPos += iCount;
+      iStart += iCount;
+    }
+  }
+
+  private void ensure( int iChars )
+  {
+    if( _buf.length - _iPos < iChars )
+    {
+      flushBuffer();
+    }
+  }
+
+  private void flushBuffer()
+  {
+    if( _iPos > 0 )
+    {
+      try
+      {
+        _out.write( _buf, 0, _iPos );
+      }
+      catch( IOException e )
+      {
+        throw new RuntimeException( e );
+      }
+      _iPos = 0;
+    }
+  }
+}
@@ -1,18 +0,0 @@
-package gw.lang.reflect.json;
-
-enum TokenType {
-  LCURLY,
-  RCURLY,
-  LSQUARE,
-  RSQUARE,
-  COMMA,
-  COLON,
-  STRING,
-  INTEGER,
-  DOUBLE,
-  TRUE,
-  FALSE,
-  NULL,
-  ERROR,
-  EOF
-}
@@ -13,33 +13,45 @@ import java.math.MathContext;
 
 
 /**
+ * A numerator and denominator that fit in a long are held as two longs and the arithmetic is done with overflow
+ * checked long operations.  If an operation overflows it's redone with BigIntegers, and a result that fits in
+ * longs again goes back to longs.  Either way the numerator and denominator are the same, so the representation
+ * isn't visible through equals(), hashCode(), toString() or serialization.
  */
 final public class Rational extends Number implements ISequenceable<Rational, Rational, Void>, Serializable
 {
-  public static final Rational ZERO = new Rational( BigInteger.ZERO, BigInteger.ONE, true );
-  public static final Rational ONE = new Rational( BigInteger.ONE, BigInteger.ONE, true );
+  public static final Rational ZERO = new Rational( 0, 1, true );
+  public static final Rational ONE = new Rational( 1, 1, true );
 
   private static final int VERSION_1 = 1;
 
+  // Never a long numerator or denominator, so negating a long one can't overflow.  Also what the overflow checked
+  // long operations below return on overflow.
+  private static final long OVERFLOW = Long.MIN_VALUE;
+
+  // Valid when _numerator is null
+  private final long _lNumerator;
+  private final long _lDenominator;
+  // Null when the value fits in _lNumerator and _lDenominator
   private final BigInteger _numerator;
   private final BigInteger _denominator;
   private boolean _reduced;
 
   public static Rational get( int numerator )
   {
-    return get( BigInteger.valueOf( numerator ), BigInteger.ONE );
+    return get( numerator, 1L, false );
   }
   public static Rational get( int numerator, int denominator )
   {
-    return get( BigInteger.valueOf( numerator ), BigInteger.valueOf( denominator ) );
+    return get( numerator, (long)denominator, false );
   }
   public static Rational get( long numerator )
   {
-    return get( BigInteger.valueOf( numerator ), BigInteger.ONE );
+    return get( numerator, 1L, false );
   }
   public static Rational get( long numerator, long denominator )
   {
-    return get( BigInteger.valueOf( numerator ), BigInteger.valueOf( denominator ) );
+    return get( numerator, denominator, false );
   }
   public static Rational get( float f )
   {
@@ -125,9 +137,57 @@ final public class Rational extends Number implements ISequenceable<Rational, Ra
     {
       return ONE;
     }
+    if( isLong( numerator ) && isLong( denominator ) )
+    {
+      return new Rational( numerator.longValue(), denominator.longValue(), reduced );
+    }
+    return new Rational( numerator, denominator, reduced );
+  }
+
+  private static Rational get( long numerator, long denominator, boolean reduced )
+  {
+    if( numerator == 0 )
+    {
+      return ZERO;
+    }
+    if( numerator == 1 && denominator == 1 )
+    {
+      return ONE;
+    }
+    if( numerator == OVERFLOW || denominator == OVERFLOW )
+    {
+      return new Rational( BigInteger.valueOf( numerator ), BigInteger.valueOf( denominator ), reduced );
+    }
     return new Rational( numerator, denominator, reduced );
   }
 
+  private static boolean isLong( BigInteger bi )
+  {
+    return bi.bitLength() < 64 && bi.longValue() != OVERFLOW;
+  }
+
+  private Rational( long numerator, long denominator, boolean reduced )
+  {
+    if( denominator == 0 )
+    {
+      throw new ArithmeticException( "Divide by zero" );
+    }
+    if( numerator == 0 )
+    {
+      denominator = 1;
+    }
+    else if( denominator < 0 )
+    {
+      numerator = -numerator;
+      denominator = -denominator;
+    }
+    _lNumerator = numerator;
+    _lDenominator = denominator;
+    _numerator = null;
+    _denominator = null;
+    _reduced = reduced;
+  }
+
   private Rational( BigInteger numerator, BigInteger denominator, boolean reduced )
   {
     if( denominator.signum() == 0 )
@@ -150,6 +210,8 @@ final public class Rational extends Number implements ISequenceable<Rational, Ra
       _numerator = numerator;
       _denominator = denominator;
     }
+    _lNumerator = 0;
+    _lDenominator = 0;
     _reduced = reduced;
   }
 
@@ -157,6 +219,16 @@ final public class Rational extends Number implements ISequenceable<Rational, Ra
   {
     if( !_reduced )
     {
+      if( _numerator == null )
+      {
+        long gcd = gcd( Math.abs( _lNumerator ), _lDenominator );
+        if( gcd > 1 )
+        {
+          return get( _lNumerator / gcd, _lDenominator / gcd, true );
+        }
+        _reduced = true;
+        return this;
+      }
       BigInteger gcd = _numerator.gcd( _denominator );
       if( gcd.compareTo( BigInteger.ONE ) > 0 )
       {
@@ -169,20 +241,29 @@ final public class Rational extends Number implements ISequenceable<Rational, Ra
 
   public BigInteger getNumerator()
   {
-    return _numerator;
+    return _numerator == null ? BigInteger.valueOf( _lNumerator ) : _numerator;
   }
 
   public BigInteger getDenominator()
   {
-    return _denominator;
+    return _denominator == null ? BigInteger.valueOf( _lDenominator ) : _denominator;
   }
 
   public BigInteger wholePart() {
+    if( _numerator == null )
+    {
+      return BigInteger.valueOf( _lNumerator / _lDenominator );
+    }
     return _numerator.divide( _denominator );
   }
 
   public Rational fractionPart()
   {
+    if( _numerator == null )
+    {
+      long remainder = _lNumerator % _lDenominator;
+      return remainder == 0 ? ZERO : get( remainder, _lDenominator, false );
+    }
     BigInteger remainder = _numerator.remainder( _denominator );
     if( remainder.signum() == 0 )
     {
@@ -194,12 +275,20 @@ final public class Rational extends Number implements ISequenceable<Rational, Ra
   @Override
   public int intValue()
   {
+    if( _numerator == null )
+    {
+      return (int)(_lNumerator / _lDenominator);
+    }
     return _numerator.divide( _denominator ).intValue();
   }
 
   @Override
   public long longValue()
   {
+    if( _numerator == null )
+    {
+      return _lNumerator / _lDenominator;
+    }
     return _numerator.divide( _denominator ).longValue();
   }
 
@@ -227,14 +316,20 @@ final public class Rational extends Number implements ISequenceable<Rational, Ra
 
   public BigDecimal toBigDecimal( MathContext mc )
   {
-    return equals( ZERO )
-           ? BigDecimal.ZERO
-           : new BigDecimal( _numerator ).divide( new BigDecimal( _denominator ), mc );
+    if( equals( ZERO ) )
+    {
+      return BigDecimal.ZERO;
+    }
+    if( _numerator == null )
+    {
+      return BigDecimal.valueOf( _lNumerator ).divide( BigDecimal.valueOf( _lDenominator ), mc );
+    }
+    return new BigDecimal( _numerator ).divide( new BigDecimal( _denominator ), mc );
   }
 
   public boolean isInteger()
   {
-    return _denominator.equals( BigInteger.ONE );
+    return _numerator == null ? _lDenominator == 1 : _denominator.equals( BigInteger.ONE );
   }
 
   public Rational add( int i )
@@ -268,9 +363,15 @@ final public class Rational extends Number implements ISequenceable<Rational, Ra
       return this;
     }
 
-    return bg.equals( BigInteger.ZERO )
-           ? this
-           : get( _numerator.add( _denominator.multiply( bg ) ), _denominator );
+    if( _numerator == null && isLong( bg ) )
+    {
+      Rational sum = addWhole( bg.longValue() );
+      if( sum != null )
+      {
+        return sum;
+      }
+    }
+    return get( getNumerator().add( getDenominator().multiply( bg ) ), getDenominator() );
   }
 
   public Rational add( BigDecimal bd )
@@ -289,18 +390,27 @@ final public class Rational extends Number implements ISequenceable<Rational, Ra
       return rational;
     }
 
+    if( _numerator == null && rational._numerator == null )
+    {
+      Rational sum = add( _lNumerator, _lDenominator, rational._lNumerator, rational._lDenominator );
+      if( sum != null )
+      {
+        return sum;
+      }
+    }
+
     BigInteger numerator;
     BigInteger denominator;
 
-    if( _denominator.equals( rational._denominator ) )
+    if( getDenominator().equals( rational.getDenominator() ) )
     {
-      numerator = _numerator.add( rational._numerator );
-      denominator = _denominator;
+      numerator = getNumerator().add( rational.getNumerator() );
+      denominator = getDenominator();
     }
     else
     {
-      numerator = (_numerator.multiply( rational._denominator )).add( (rational._numerator).multiply( _denominator ) );
-      denominator = _denominator.multiply( rational._denominator );
+      numerator = (getNumerator().multiply( rational.getDenominator() )).add( (rational.getNumerator()).multiply( getDenominator() ) );
+      denominator = getDenominator().multiply( rational.getDenominator() );
     }
 
     return numerator.signum() == 0
@@ -310,11 +420,19 @@ final public class Rational extends Number implements ISequenceable<Rational, Ra
 
   public Rational subtract( int i )
   {
-    return subtract( BigInteger.valueOf( i ) );
+    return subtract( (long)i );
   }
 
   public Rational subtract( long l )
   {
+    if( _numerator == null && l != OVERFLOW && l != 0 && signum() != 0 )
+    {
+      Rational difference = addWhole( -l );
+      if( difference != null )
+      {
+        return difference;
+      }
+    }
     return subtract( BigInteger.valueOf( l ) );
   }
 
@@ -338,7 +456,15 @@ final public class Rational extends Number implements ISequenceable<Rational, Ra
     {
       return get( bi.negate() );
     }
-    return get( _numerator.subtract( _denominator.multiply( bi ) ), _denominator );
+    if( _numerator == null && isLong( bi ) )
+    {
+      Rational difference = addWhole( -bi.longValue() );
+      if( difference != null )
+      {
+        return difference;
+      }
+    }
+    return get( getNumerator().subtract( getDenominator().multiply( bi ) ), getDenominator() );
   }
 
   public Rational subtract( BigDecimal bd )
@@ -357,17 +483,26 @@ final public class Rational extends Number implements ISequenceable<Rational, Ra
       return rational.negate();
     }
 
+    if( _numerator == null && rational._numerator == null )
+    {
+      Rational difference = add( _lNumerator, _lDenominator, -rational._lNumerator, rational._lDenominator );
+      if( difference != null )
+      {
+        return difference;
+      }
+    }
+
     BigInteger numerator;
     BigInteger denominator;
-    if( _denominator.equals( rational._denominator ) )
+    if( getDenominator().equals( rational.getDenominator() ) )
     {
-      numerator = _numerator.subtract( rational._numerator );
-      denominator = _denominator;
+      numerator = getNumerator().subtract( rational.getNumerator() );
+      denominator = getDenominator();
     }
     else
     {
-      numerator = (_numerator.multiply( rational._denominator )).subtract( (rational._numerator).multiply( _denominator ) );
-      denominator = _denominator.multiply( rational._denominator );
+      numerator = (getNumerator().multiply( rational.getDenominator() )).subtract( (rational.getNumerator()).multiply( getDenominator() ) );
+      denominator = getDenominator().multiply( rational.getDenominator() );
     }
     return numerator.signum() == 0
            ? ZERO
@@ -389,6 +524,14 @@ final public class Rational extends Number implements ISequenceable<Rational, Ra
     {
       return ZERO;
     }
+    if( _numerator == null )
+    {
+      long numerator = multiply( _lNumerator, l );
+      if( numerator != OVERFLOW )
+      {
+        return get( numerator, _lDenominator, false );
+      }
+    }
     return multiply( BigInteger.valueOf( l ) );
   }
 
@@ -416,7 +559,15 @@ final public class Rational extends Number implements ISequenceable<Rational, Ra
     {
       return ZERO;
     }
-    return get( bi.multiply( _numerator ), _denominator );
+    if( _numerator == null && isLong( bi ) )
+    {
+      long numerator = multiply( _lNumerator, bi.longValue() );
+      if( numerator != OVERFLOW )
+      {
+        return get( numerator, _lDenominator, false );
+      }
+    }
+    return get( bi.multiply( getNumerator() ), getDenominator() );
   }
 
   public Rational multiply( BigDecimal bd )
@@ -434,17 +585,33 @@ final public class Rational extends Number implements ISequenceable<Rational, Ra
     {
       return ZERO;
     }
-    return get( _numerator.multiply( rational._numerator ),
-                _denominator.multiply( rational._denominator ) );
+    if( _numerator == null && rational._numerator == null )
+    {
+      Rational product = multiply( _lNumerator, _lDenominator, rational._lNumerator, rational._lDenominator );
+      if( product != null )
+      {
+        return product;
+      }
+    }
+    return get( getNumerator().multiply( rational.getNumerator() ),
+                getDenominator().multiply( rational.getDenominator() ) );
   }
 
   public Rational divide( int i )
   {
-    return divide( BigInteger.valueOf( i ) );
+    return divide( (long)i );
   }
 
   public Rational divide( long l )
   {
+    if( _numerator == null && l != 0 && signum() != 0 )
+    {
+      long denominator = multiply( _lDenominator, l );
+      if( denominator != OVERFLOW )
+      {
+        return get( _lNumerator, denominator, false );
+      }
+    }
     return divide( BigInteger.valueOf( l ) );
   }
 
@@ -468,7 +635,15 @@ final public class Rational extends Number implements ISequenceable<Rational, Ra
     {
       return ZERO;
     }
-    return get( _numerator, _denominator.multiply( bi ) );
+    if( _numerator == null && isLong( bi ) )
+    {
+      long denominator = multiply( _lDenominator, bi.longValue() );
+      if( denominator != OVERFLOW )
+      {
+        return get( _lNumerator, denominator, false );
+      }
+    }
+    return get( getNumerator(), getDenominator().multiply( bi ) );
   }
 
   public Rational divide( BigDecimal bd )
@@ -494,6 +669,17 @@ final public class Rational extends Number implements ISequenceable<Rational, Ra
     {
       return ZERO;
     }
+    if( _numerator == null && rational._numerator == null )
+    {
+      // Same as multiplying by the inverse, whose sign moves to the numerator
+      Rational quotient = rational._lNumerator < 0
+                          ? multiply( _lNumerator, _lDenominator, -rational._lDenominator, -rational._lNumerator )
+                          : multiply( _lNumerator, _lDenominator, rational._lDenominator, rational._lNumerator );
+      if( quotient != null )
+      {
+        return quotient;
+      }
+    }
     return multiply( rational.invert() );
   }
 
@@ -543,11 +729,19 @@ final public class Rational extends Number implements ISequenceable<Rational, Ra
 
   public Rational negate()
   {
+    if( _numerator == null )
+    {
+      return get( -_lNumerator, _lDenominator, false );
+    }
     return get( _numerator.negate(), _denominator );
   }
 
   public Rational invert()
   {
+    if( _numerator == null )
+    {
+      return get( _lDenominator, _lNumerator, false );
+    }
     return get( _denominator, _numerator );
   }
 
@@ -562,7 +756,16 @@ final public class Rational extends Number implements ISequenceable<Rational, Ra
     {
       return exponent == 0 ? ONE : this;
     }
-    return Rational.get( _numerator.pow( exponent ), _denominator.pow( exponent ) );
+    if( _numerator == null && exponent >= 0 )
+    {
+      long numerator = pow( _lNumerator, exponent );
+      long denominator = pow( _lDenominator, exponent );
+      if( numerator != OVERFLOW && denominator != OVERFLOW )
+      {
+        return get( numerator, denominator, false );
+      }
+    }
+    return Rational.get( getNumerator().pow( exponent ), getDenominator().pow( exponent ) );
   }
 
   public Rational root( int iRoot )
@@ -640,14 +843,23 @@ final public class Rational extends Number implements ISequenceable<Rational, Ra
     {
       return thisSign - thatSign;
     }
-    BigInteger crossNum = _numerator.multiply( that._denominator );
-    BigInteger crossDen = _denominator.multiply( that._numerator );
+    if( _numerator == null && that._numerator == null )
+    {
+      long crossNum = multiply( _lNumerator, that._lDenominator );
+      long crossDen = multiply( _lDenominator, that._lNumerator );
+      if( crossNum != OVERFLOW && crossDen != OVERFLOW )
+      {
+        return Long.compare( crossNum, crossDen );
+      }
+    }
+    BigInteger crossNum = getNumerator().multiply( that.getDenominator() );
+    BigInteger crossDen = getDenominator().multiply( that.getNumerator() );
     return crossNum.compareTo( crossDen );
   }
 
   public int signum()
   {
-    return _numerator.signum();
+    return _numerator == null ? Long.signum( _lNumerator ) : _numerator.signum();
   }
 
   @Override
@@ -663,6 +875,13 @@ final public class Rational extends Number implements ISequenceable<Rational, Ra
     }
 
     Rational rational = (Rational)that;
+    if( _numerator == null )
+    {
+      // A value that fits in longs is never held in BigIntegers
+      return rational._numerator == null &&
+             _lDenominator == rational._lDenominator &&
+             _lNumerator == rational._lNumerator;
+    }
     if( !_denominator.equals( rational._denominator ) )
     {
       return false;
@@ -673,18 +892,35 @@ final public class Rational extends Number implements ISequenceable<Rational, Ra
   @Override
   public int hashCode()
   {
+    if( _numerator == null )
+    {
+      int result = hashCode( _lNumerator );
+      result = 31 * result + hashCode( _lDenominator );
+      return result;
+    }
     int result = _numerator.hashCode();
     result = 31 * result + _denominator.hashCode();
     return result;
   }
 
+  /**
+   * BigInteger.valueOf( l ).hashCode() without the BigInteger
+   */
+  private static int hashCode( long l )
+  {
+    long magnitude = Math.abs( l );
+    int high = (int)(magnitude >>> 32);
+    int low = (int)magnitude;
+    return (high == 0 ? low : 31 * high + low) * Long.signum( l );
+  }
+
   public String toFractionString()
   {
     if( !_reduced )
     {
       return reduce().toFractionString();
     }
-    return _numerator + "/" + _denominator;
+    return _numerator == null ? _lNumerator + "/" + _lDenominator : _numerator + "/" + _denominator;
   }
 
   public String toMixedString()
@@ -694,9 +930,9 @@ final public class Rational extends Number implements ISequenceable<Rational, Ra
       return reduce().toMixedString();
     }
 
-    if( _denominator.equals( BigInteger.ONE ) )
+    if( isInteger() )
     {
-      return _numerator.toString();
+      return getNumerator().toString();
     }
     BigInteger whole = wholePart();
     if( whole.signum() == 0  )
@@ -717,7 +953,99 @@ final public class Rational extends Number implements ISequenceable<Rational, Ra
   @Override
   public String toString()
   {
-    return _numerator + " / " + _denominator;
+    return _numerator == null ? _lNumerator + " / " + _lDenominator : _numerator + " / " + _denominator;
+  }
+
+  /**
+   * n1/d1 + n2/d2 in longs, null if that overflows
+   */
+  private static Rational add( long n1, long d1, long n2, long d2 )
+  {
+    long numerator;
+    long denominator;
+    if( d1 == d2 )
+    {
+      numerator = add( n1, n2 );
+      denominator = d1;
+    }
+    else
+    {
+      numerator = add( multiply( n1, d2 ), multiply( n2, d1 ) );
+      denominator = multiply( d1, d2 );
+    }
+    return numerator == OVERFLOW || denominator == OVERFLOW ? null : get( numerator, denominator, false );
+  }
+
+  /**
+   * n1/d1 * n2/d2 in longs, null if that overflows
+   */
+  private static Rational multiply( long n1, long d1, long n2, long d2 )
+  {
+    long numerator = multiply( n1, n2 );
+    long denominator = multiply( d1, d2 );
+    return numerator == OVERFLOW || denominator == OVERFLOW ? null : get( numerator, denominator, false );
+  }
+
+  /**
+   * this + whole, for a long valued this, null if that overflows
+   */
+  private Rational addWhole( long whole )
+  {
+    long numerator = add( _lNumerator, multiply( _lDenominator, whole ) );
+    return numerator == OVERFLOW ? null : get( numerator, _lDenominator, false );
+  }
+
+  private static long add( long a, long b )
+  {
+    long result = a + b;
+    if( a == OVERFLOW || b == OVERFLOW || ((a ^ result) & (b ^ result)) < 0 )
+    {
+      return OVERFLOW;
+    }
+    return result;
+  }
+
+  private static long multiply( long a, long b )
+  {
+    if( a == OVERFLOW || b == OVERFLOW )
+    {
+      return OVERFLOW;
+    }
+    long result = a * b;
+    if( ((Math.abs( a ) | Math.abs( b )) >>> 31) != 0 && b != 0 && result / b != a )
+    {
+      return OVERFLOW;
+    }
+    return result;
+  }
+
+  private static long pow( long base, int exponent )
+  {
+    long result = 1;
+    while( exponent > 0 && result != OVERFLOW )
+    {
+      if( (exponent & 1) != 0 )
+      {
+        result = multiply( result, base );
+      }
+      exponent >>= 1;
+      if( exponent > 0 )
+      {
+        base = multiply( base, base );
+      }
+    }
+    return result;
+  }
+
+  private static long gcd( long a, long b )
+  {
+    while( b != 0 )
+    {
+      long t = a % b;
+      a = b;
+      b = t;
+    }
+    return a;
   }
 
   private Object writeReplace()
@@ -742,8 +1070,8 @@ final public class Rational extends Number implements ISequenceable<Rational, Ra
     public void writeExternal( ObjectOutput out ) throws IOException
     {
       out.writeInt( VERSION_1 );
-      out.writeObject( _rational._numerator );
-      out.writeObject( _rational._denominator );
+      out.writeObject( _rational.getNumerator() );
+      out.writeObject( _rational.getDenominator() );
       out.writeBoolean( _rational._reduced );
     }
 
@@ -5,7 +5,6 @@
 package gw.util.cache;
 
 import gw.internal.gosu.parser.StringCache;
-import gw.lang.parser.TypeSystemAwareCache;
 import gw.util.DynamicArray;
 import gw.util.Predicate;
 
@@ -15,8 +14,7 @@ import java.util.List;
 import java.util.Set;
 
 public class FqnCache<T> implements IFqnCache<T> {
-  private static final TypeSystemAwareCache<String, String[]> PARTS_CACHE =
-     TypeSystemAwareCache.make( "Fqn Parts Cache", 10000, FqnCache::split );
+  private static final int NO_MORE_PARTS = -1;
 
   private FqnCacheNode<T> _root = new FqnCacheNode<>( "root", null );
 
@@ -26,12 +24,12 @@ public class FqnCache<T> implements IFqnCache<T> {
 
   public FqnCacheNode<T> getNode(String fqn) {
     FqnCacheNode<T> n = _root;
-    for (String part : getParts(fqn)) {
-      n = n.getChild(part);
-      if (n == null) {
-        break;
-      }
-    }
+    int start = 0;
+    do {
+      long part = nextPart(fqn, start);
+      n = n.getChild(fqn, start, partEnd(part));
+      start = nextStart(part);
+    } while (n != null && start != NO_MORE_PARTS);
     return n;
   }
 
@@ -54,9 +52,13 @@ public class FqnCache<T> implements IFqnCache<T> {
   @Override
   public void add( String fqn, T userData ) {
     FqnCacheNode<T> n = _root;
-    for (String part : getParts(fqn)) {
-      n = n.getOrCreateChild(part);
-    }
+    int start = 0;
+    do {
+      long part = nextPart(fqn, start);
+      FqnCacheNode<T> child = n.getChild(fqn, start, partEnd(part));
+      n = child != null ? child : n.getOrCreateChild(StringCache.get(fqn.substring(start, partEnd(part))));
+      start = nextStart(part);
+    } while (start != NO_MORE_PARTS);
     n.setUserData(userData);
   }
 
@@ -69,12 +71,9 @@ public class FqnCache<T> implements IFqnCache<T> {
 
   @Override
   public boolean remove( String fqn ) {
-    FqnCacheNode<T> n = _root;
-    for (String part : getParts(fqn)) {
-      n = n.getChild(part);
-      if( n == null ) {
-        return false;
-      }
+    FqnCacheNode<T> n = getNode(fqn);
+    if( n == null ) {
+      return false;
     }
     n.delete();
     return true;
@@ -117,57 +116,72 @@ public class FqnCache<T> implements IFqnCache<T> {
     }
   }
 
-  private static String[] split( String fqn ) {
-    String theRest = fqn;
-    DynamicArray<String> parts = new DynamicArray<>();
-    while( theRest != null ) {
-      int iParam = theRest.indexOf( '<' );
-      int iDot = theRest.indexOf( '.' );
-      int iArray = theRest.indexOf( '[' );
-      String part;
-      if( iParam == 0 ) {
-        if( iArray > 0 ) {
-          part = theRest.substring( 0, iArray );
-          theRest = iArray < theRest.length() ? theRest.substring( iArray ) : null;
-        }
-        else {
-          if( theRest.charAt( theRest.length()-1 ) != '>' ) {
-            throw new RuntimeException( "\"" + theRest + "\" does not end with '>'" );
-          }
-          part = theRest;
-          theRest = null;
+  /**
+   * Finds the part of <code>fqn</code> starting at <code>start</code>.  Parts are separated by dots, except that type
+   * parameters and array brackets are parts of their own, e.g. "java.util.List<java.lang.String>[]" has the parts
+   * "java", "util", "List", "<java.lang.String>" and "[]".
+   *
+   * @return the end of the part in the high int and the start of the next part in the low int, which is
+   *   {@link #NO_MORE_PARTS} if this is the last part
+   */
+  private static long nextPart( String fqn, int start ) {
+    int length = fqn.length();
+    char first = start < length ? fqn.charAt( start ) : 0;
+    if( first == '<' ) {
+      // type parameters, up to any array brackets
+      for( int i = start + 1; i < length; i++ ) {
+        if( fqn.charAt( i ) == '[' ) {
+          return part( i, i );
         }
       }
-      else if( iArray == 0 ) {
-        part = theRest.substring( 0, 2 );
-        theRest = part.length() == theRest.length() ? null : theRest.substring( 2 );
+      if( fqn.charAt( length - 1 ) != '>' ) {
+        throw new RuntimeException( "\"" + fqn.substring( start ) + "\" does not end with '>'" );
       }
-      else if( iParam > 0 ) {
-        if( iDot > 0 && iDot < iParam ) {
-          part = theRest.substring( 0, iDot );
-          theRest = iDot + 1 < theRest.length() ? theRest.substring( iDot + 1 ) : null;
-        }
-        else {
-          part = theRest.substring( 0, iParam );
-          theRest = iParam < theRest.length() ? theRest.substring( iParam ) : null;
-        }
+      return part( length, NO_MORE_PARTS );
+    }
+    if( first == '[' ) {
+      int end = start + 2;
+      if( end > length ) {
+        throw new StringIndexOutOfBoundsException( end );
       }
-      else if( iDot > 0 ) {
-        part = theRest.substring( 0, iDot );
-        theRest = iDot + 1 < theRest.length() ? theRest.substring( iDot + 1 ) : null;
+      return part( end, end == length ? NO_MORE_PARTS : end );
+    }
+    // a leading dot doesn't separate anything, only type parameters end the part then
+    boolean bDotSeparates = first != '.';
+    for( int i = start + 1; i < length; i++ ) {
+      char c = fqn.charAt( i );
+      if( c == '<' ) {
+        return part( i, i );
       }
-      else {
-        part = theRest;
-        theRest = null;
+      if( c == '.' && bDotSeparates ) {
+        // a trailing dot is dropped
+        return part( i, i + 1 < length ? i + 1 : NO_MORE_PARTS );
       }
-      parts.add( StringCache.get( part ) );
     }
+    return part( length, NO_MORE_PARTS );
+  }
+
+  private static long part( int end, int nextStart ) {
+    return ((long)end << 32) | (nextStart & 0xFFFFFFFFL);
+  }
+
+  private static int partEnd( long part ) {
+    return (int)(part >>> 32);
+  }
 
-    return parts.toArray(new String[parts.size()]);
+  private static int nextStart( long part ) {
+    return (int)part;
   }
 
   public static String[] getParts( String fqn ) {
-    return PARTS_CACHE.get( fqn );
+    DynamicArray<String> parts = new DynamicArray<>();
+    int start = 0;
+    do {
+      long part = nextPart( fqn, start );
+      parts.add( StringCache.get( fqn.substring( start, partEnd( part ) ) ) );
+      start = nextStart( part );
+    } while( start != NO_MORE_PARTS );
+    return parts.toArray( new String[parts.size()] );
   }
 
 }
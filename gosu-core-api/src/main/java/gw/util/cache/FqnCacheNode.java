@@ -10,41 +10,69 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
+/**
+ * A node of an {@link FqnCache} trie.  Children are kept in an open addressed table keyed by the String hash of their
+ * names, so a child can be looked up by a range of chars of a larger name without first cutting the range out as a
+ * String.  Lookups don't lock; adding and removing children is synchronized on the parent node.
+ */
 public class FqnCacheNode<K> {
   private final String name;
+  private final int hash;
   private final FqnCacheNode<K> parent;
   private K userData;
-  private Map<String, FqnCacheNode<K>> children;
+  private volatile Children<K> children;
 
   public FqnCacheNode( String text, FqnCacheNode<K> parent ) {
     this.name = text;
+    this.hash = text.hashCode();
     this.parent = parent;
   }
 
   public final FqnCacheNode<K> getChild( String segment ) {
-    if (children != null) {
-      return children.get(segment);
-    } else {
+    return getChild( segment, 0, segment.length() );
+  }
+
+  /**
+   * @return the child named by the chars of <code>fqn</code> from <code>start</code> to <code>end</code>, or null
+   */
+  public final FqnCacheNode<K> getChild( CharSequence fqn, int start, int end ) {
+    Children<K> table = children;
+    if (table == null) {
       return null;
     }
+    int h = 0;
+    for (int i = start; i < end; i++) {
+      h = 31 * h + fqn.charAt(i);
+    }
+    return table.get(h, fqn, start, end);
   }
 
-  public final void clear() {
+  public final synchronized void clear() {
     children = null;
   }
 
   public FqnCacheNode<K> getOrCreateChild( String segment ) {
-    if (children == null) {
-      children = new ConcurrentHashMap<String, FqnCacheNode<K>>(2);
-    }
-    FqnCacheNode<K> node = children.get(segment);
+    FqnCacheNode<K> node = getChild(segment);
     if (node == null) {
-      node = new FqnCacheNode<K>(segment, this);
-      children.put(segment, node);
+      synchronized (this) {
+        node = getChild(segment);
+        if (node == null) {
+          node = new FqnCacheNode<K>(segment, this);
+          Children<K> table = children;
+          if (table == null) {
+            children = table = new Children<K>(2);
+          }
+          if (!table.add(node)) {
+            // the table is full, publish a bigger one
+            table = table.copy(table.size() * 2, null);
+            table.add(node);
+            children = table;
+          }
+        }
+      }
     }
     return node;
   }
@@ -53,12 +81,11 @@ public class FqnCacheNode<K> {
     parent.deleteChild(this);
   }
 
-  private void deleteChild(FqnCacheNode<K> child) {
-    if (children != null) {
-      children.remove(child.name);
-      if (children.isEmpty()) {
-        children = null;
-      }
+  private synchronized void deleteChild(FqnCacheNode<K> child) {
+    Children<K> table = children;
+    if (table != null && table.get(child.hash, child.name, 0, child.name.length()) == child) {
+      // entries are never moved within a published table, lookups in flight would miss them
+      children = table.size() == 1 ? null : table.copy(table.size() - 1, child);
     }
   }
 
@@ -71,12 +98,14 @@ public class FqnCacheNode<K> {
   }
 
   public final boolean isLeaf() {
-    return children == null || children.isEmpty();
+    Children<K> table = children;
+    return table == null || table.size() == 0;
   }
 
   public void collectNames( Set<String> names, String s ) {
-    if (children != null) {
-      for (FqnCacheNode<K> child : children.values()) {
+    Children<K> table = children;
+    if (table != null) {
+      for (FqnCacheNode<K> child : table.values()) {
         String path = s.length() == 0
                       ? child.name
                       : s + child.separator() + child.name;
@@ -89,17 +118,22 @@ public class FqnCacheNode<K> {
     }
   }
 
+  /**
+   * @return a snapshot of the children
+   */
   public final Collection<FqnCacheNode<K>> getChildren() {
-    if (children != null) {
-      return children.values();
+    Children<K> table = children;
+    if (table != null) {
+      return table.values();
     } else {
       return Collections.emptySet();
     }
   }
 
   public final boolean visitDepthFirst( Predicate<K> visitor ) {
-    if (children != null) {
-      List<FqnCacheNode<K>> copy = new ArrayList<FqnCacheNode<K>>( children.values() );
+    Children<K> table = children;
+    if (table != null) {
+      List<FqnCacheNode<K>> copy = table.values();
       for( FqnCacheNode<K> child: copy ) {
         if( !child.visitDepthFirst( visitor ) ) {
           return false;
@@ -110,8 +144,9 @@ public class FqnCacheNode<K> {
   }
 
   public final boolean visitNodeDepthFirst( Predicate<FqnCacheNode> visitor ) {
-    if (children != null) {
-      List<FqnCacheNode<K>> copy = new ArrayList<FqnCacheNode<K>>( children.values() );
+    Children<K> table = children;
+    if (table != null) {
+      List<FqnCacheNode<K>> copy = table.values();
       for( FqnCacheNode<K> child: copy ) {
         if( !child.visitNodeDepthFirst( visitor ) ) {
           return false;
@@ -125,8 +160,9 @@ public class FqnCacheNode<K> {
     if( !visitor.evaluate( getUserData() ) ) {
       return false;
     }
-    if (children != null) {
-      List<FqnCacheNode<K>> copy = new ArrayList<FqnCacheNode<K>>( children.values() );
+    Children<K> table = children;
+    if (table != null) {
+      List<FqnCacheNode<K>> copy = table.values();
       for( FqnCacheNode<K> child: copy ) {
         child.visitBreadthFirst( visitor );
       }
@@ -138,8 +174,9 @@ public class FqnCacheNode<K> {
     if( !visitor.evaluate( this ) ) {
       return false;
     }
-    if( children != null ) {
-      List<FqnCacheNode<K>> copy = new ArrayList<FqnCacheNode<K>>( children.values() );
+    Children<K> table = children;
+    if( table != null ) {
+      List<FqnCacheNode<K>> copy = table.values();
       for( FqnCacheNode<K> child: copy ) {
         child.visitNodeBreadthFirst( visitor );
       }
@@ -171,4 +208,90 @@ public class FqnCacheNode<K> {
   public String toString() {
     return name;
   }
+
+  /**
+   * Linear probing table of child nodes, at most half full.  Slots are only ever filled, so a lookup racing with an add
+   * sees either the new node or an empty slot; removal publishes a new table instead.
+   */
+  private static final class Children<K> {
+    private final AtomicReferenceArray<FqnCacheNode<K>> _slots;
+    private final int _mask;
+    private volatile int _size;
+
+    Children( int capacity ) {
+      int length = Integer.highestOneBit( Math.max( 2, capacity ) * 2 - 1 ) * 2;
+      _slots = new AtomicReferenceArray<>( length );
+      _mask = length - 1;
+    }
+
+    int size() {
+      return _size;
+    }
+
+    FqnCacheNode<K> get( int hash, CharSequence fqn, int start, int end ) {
+      for( int i = spread( hash ) & _mask; ; i = (i + 1) & _mask ) {
+        FqnCacheNode<K> node = _slots.get( i );
+        if( node == null ) {
+          return null;
+        }
+        if( node.hash == hash && matches( node.name, fqn, start, end ) ) {
+          return node;
+        }
+      }
+    }
+
+    /**
+     * @return false if there is no room for the node
+     */
+    boolean add( FqnCacheNode<K> node ) {
+      if( (_size + 1) * 2 > _slots.length() ) {
+        return false;
+      }
+      int i = spread( node.hash ) & _mask;
+      while( _slots.get( i ) != null ) {
+        i = (i + 1) & _mask;
+      }
+      _slots.set( i, node );
+      _size++;
+      return true;
+    }
+
+    Children<K> copy( int capacity, FqnCacheNode<K> without ) {
+      Children<K> copy = new Children<>( capacity );
+      for( int i = 0; i < _slots.length(); i++ ) {
+        FqnCacheNode<K> node = _slots.get( i );
+        if( node != null && node != without ) {
+          copy.add( node );
+        }
+      }
+      return copy;
+    }
+
+    List<FqnCacheNode<K>> values() {
+      List<FqnCacheNode<K>> values = new ArrayList<>( _size );
+      for( int i = 0; i < _slots.length(); i++ ) {
+        FqnCacheNode<K> node = _slots.get( i );
+        if( node != null ) {
+          values.add( node );
+        }
+      }
+      return values;
+    }
+
+    private static int spread( int hash ) {
+      return hash ^ (hash >>> 16);
+    }
+
+    private static boolean matches( String name, CharSequence fqn, int start, int end ) {
+      if( name.length() != end - start ) {
+        return false;
+      }
+      for( int i = 0; i < name.length(); i++ ) {
+        if( name.charAt( i ) != fqn.charAt( start + i ) ) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
 }
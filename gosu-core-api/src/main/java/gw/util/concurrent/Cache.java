@@ -4,41 +4,72 @@
 
 package gw.util.concurrent;
 
-import java.io.Serializable;
-import java.util.AbstractMap;
-import java.util.AbstractSet;
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.Iterator;
-import java.util.List;
-import java.util.Set;
+import java.math.BigDecimal;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
-import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
 
-import gw.util.concurrent.Cache.ConcurrentLinkedHashMap.Node.State;
 import gw.util.ILogger;
 
 /**
  * static var MY_CACHE = new Cache<Foo, Bar>( 1000, \ foo -> getBar( foo ) )
+ * <p/>
+ * Loading is single-flight: threads missing the same key at the same time wait for one of them to load it, rather
+ * than all loading it.  A thread doesn't wait when the wait would close a cycle of threads waiting on each other's
+ * loads, nor when {@link #setMayBlock(BooleanSupplier)} says it may not block, e.g. it holds a lock loaders need;
+ * it loads the value itself, as every miss used to.  Nor does it wait longer than {@link #MAX_LOAD_WAIT_MILLIS}, so
+ * a load that needs some other lock the waiting thread holds, like a class loading lock, delays it but can't
+ * deadlock it.
+ * <p/>
+ * Eviction follows W-TinyLFU.  A new entry goes into a small LRU window.  When it leaves the window, it's admitted to
+ * the main space only if it's been used more often than the entry it would replace, going by a count-min sketch of
+ * recent use.  So a run of one-off lookups can't flush out the hot entries of a skewed workload, like type lookups.
+ * <p/>
+ * Hits don't contend on shared counters: statistics are kept in LongAdders, and reads are recorded for the eviction
+ * policy in lossy striped buffers that are replayed under the policy lock.
+ * <p/>
+ * A cache made with a {@link Weigher} bounds the total weight of its entries instead of their number.
  */
 public class Cache<K, V> {
-
-  private ConcurrentLinkedHashMap<K, V> _cacheImpl;
+  /**
+   * How long a miss waits for another thread's load of the same key before loading the value itself
+   */
+  public static final long MAX_LOAD_WAIT_MILLIS = 500;
+  private static final int READ_BUFFER_STRIPES = Math.min( 64, Integer.highestOneBit( Runtime.getRuntime().availableProcessors() * 4 - 1 ) << 1 );
+  // the load each thread is waiting for, for any cache
+  private static final ConcurrentHashMap<Thread, Load<?>> WAITING = new ConcurrentHashMap<Thread, Load<?>>();
+  private static volatile BooleanSupplier g_mayBlock = () -> true;
+
+  private final ConcurrentHashMap<K, Node<K, V>> _data = new ConcurrentHashMap<K, Node<K, V>>();
+  private final ConcurrentHashMap<K, Load<V>> _loads = new ConcurrentHashMap<K, Load<V>>();
   private final MissHandler<K,V> _missHandler;
+  private final Weigher<? super K, ? super V> _weigher;
   private final String _name;
   private final int _size;
+  private final long _maxWeight;
+
+  // eviction policy, guarded by _policyLock
+  private final ReentrantLock _policyLock = new ReentrantLock();
+  private final Policy _policy;
+  private final Consumer<Node<K, V>> _onRead;
+  private final ReadBuffer<K, V>[] _readBuffers;
+  // changed by clear(), so loads started before it don't store their values
+  private volatile int _generation;
 
   //statistics
-  private final AtomicInteger _requests = new AtomicInteger();
-  private final AtomicInteger _misses = new AtomicInteger();
-  private final AtomicInteger _hits = new AtomicInteger();
+  private final LongAdder _misses = new LongAdder();
+  private final LongAdder _hits = new LongAdder();
+  private final LongAdder _sharedLoads = new LongAdder();
+  private final LongAdder _evictions = new LongAdder();
 
   private ScheduledFuture<?> _loggingTask;
 
@@ -49,14 +80,36 @@ public class Cache<K, V> {
    * @param missHandler how to handle misses, this is required not to be null
    */
   public Cache( String name, int size, MissHandler<K, V> missHandler) {
+    this(name, size, size, null, missHandler);
+  }
+
+  /** This will create a new cache bounded by the total weight of its entries
+   *
+   * @param name the name of the cache for logging
+   * @param maxWeight the maximum total weight of the entries
+   * @param weigher weighs each entry as it's added, weights must not be negative
+   * @param missHandler how to handle misses, this is required not to be null
+   */
+  public Cache( String name, long maxWeight, Weigher<? super K, ? super V> weigher, MissHandler<K, V> missHandler) {
+    this(name, (int) Math.min(maxWeight, Integer.MAX_VALUE), maxWeight, weigher, missHandler);
+  }
+
+  @SuppressWarnings("unchecked")
+  private Cache( String name, int size, long maxWeight, Weigher<? super K, ? super V> weigher, MissHandler<K, V> missHandler) {
+    if (maxWeight < 0) {
+      throw new IllegalArgumentException("Negative size for cache " + name + ": " + maxWeight);
+    }
     _name = name;
     _size = size;
-    clearCacheImpl();
+    _maxWeight = maxWeight;
+    _weigher = weigher;
     _missHandler = missHandler;
-  }
-
-  private void clearCacheImpl() {
-    _cacheImpl = new ConcurrentLinkedHashMap<K,V>(ConcurrentLinkedHashMap.EvictionPolicy.SECOND_CHANCE, _size);
+    _policy = new Policy();
+    _onRead = _policy::onRead;
+    _readBuffers = new ReadBuffer[READ_BUFFER_STRIPES];
+    for (int i = 0; i < _readBuffers.length; i++) {
+      _readBuffers[i] = new ReadBuffer<K, V>();
+    }
   }
 
   /** This will evict a specific key from the cache.
@@ -65,7 +118,17 @@ public class Cache<K, V> {
    * @return the current value for that key
    */
   public V evict(K key) {
-    return _cacheImpl.remove(key);
+    _policyLock.lock();
+    try {
+      Node<K, V> node = _data.remove(key);
+      if (node == null) {
+        return null;
+      }
+      _policy.remove(node);
+      return node._value;
+    } finally {
+      _policyLock.unlock();
+    }
   }
 
   /** This will put a specific entry in the cache
@@ -75,7 +138,22 @@ public class Cache<K, V> {
    * @return the old value for this key
    */
   public V put(K key, V value) {
-    return _cacheImpl.put(key, value);
+    if (value == null) {
+      throw new IllegalArgumentException();
+    }
+    Node<K, V> node = new Node<K, V>(key, value, weigh(key, value));
+    _policyLock.lock();
+    try {
+      drainReadBuffers();
+      Node<K, V> old = _data.put(key, node);
+      if (old != null) {
+        _policy.remove(old);
+      }
+      _policy.add(node);
+      return old == null ? null : old._value;
+    } finally {
+      _policyLock.unlock();
+    }
   }
 
   /** This will get a specific entry, it will call the missHandler if it is not found.
@@ -84,36 +162,116 @@ public class Cache<K, V> {
    * @return the found object (may be null)
    */
   public V get(K key) {
-    V value = _cacheImpl.get(key);
-    _requests.incrementAndGet();
-    if (value == null) {
-      value = _missHandler.load(key);
-      _cacheImpl.put(key, value);
-      _misses.incrementAndGet();
-    } else {
-      _hits.incrementAndGet();
+    Node<K, V> node = _data.get(key);
+    if (node != null) {
+      _hits.increment();
+      afterRead(node);
+      return node._value;
+    }
+    _misses.increment();
+    return load(key);
+  }
+
+  private V load(K key) {
+    Load<V> load = new Load<V>();
+    Load<V> inFlight = _loads.putIfAbsent(key, load);
+    if (inFlight != null) {
+      if (inFlight.await()) {
+        _sharedLoads.increment();
+        return inFlight._value;
+      }
+      return loadAndStore(key);
+    }
+
+    try {
+      V value = loadAndStore(key);
+      load.complete(value);
+      return value;
+    } finally {
+      load.release();
+      _loads.remove(key, load);
+    }
+  }
+
+  private V loadAndStore(K key) {
+    int generation = _generation;
+    V value = _missHandler.load(key);
+    if (value != null && generation == _generation) {
+      put(key, value);
     }
     return value;
   }
 
+  private int weigh(K key, V value) {
+    if (_weigher == null) {
+      return 1;
+    }
+    int weight = _weigher.weigh(key, value);
+    if (weight < 0) {
+      throw new IllegalArgumentException("Negative weight for " + key + " in cache " + _name + ": " + weight);
+    }
+    return weight;
+  }
+
+  private void afterRead(Node<K, V> node) {
+    int stripe = ((int) Thread.currentThread().getId() * 0x9E3779B9 >>> 16) & (_readBuffers.length - 1);
+    if (_readBuffers[stripe].offer(node) && _policyLock.tryLock()) {
+      try {
+        drainReadBuffers();
+      } finally {
+        _policyLock.unlock();
+      }
+    }
+  }
+
+  private void drainReadBuffers() {
+    for (ReadBuffer<K, V> buffer : _readBuffers) {
+      buffer.drainTo(_onRead);
+    }
+  }
+
   public int getConfiguredSize() {
     return _size;
   }
 
   public int getUtilizedSize() {
-    return _cacheImpl.size();
+    return _data.size();
+  }
+
+  public long getConfiguredWeight() {
+    return _maxWeight;
+  }
+
+  public long getUtilizedWeight() {
+    _policyLock.lock();
+    try {
+      return _policy._windowWeight + _policy._mainWeight;
+    } finally {
+      _policyLock.unlock();
+    }
   }
 
   public int getRequests() {
-    return _requests.get();
+    return getHits() + getMisses();
   }
 
   public int getMisses() {
-    return _misses.get();
+    return (int) _misses.sum();
   }
 
   public int getHits() {
-    return _hits.get();
+    return (int) _hits.sum();
+  }
+
+  /**
+   * @return how many misses waited for another thread's load of the same key instead of loading it again
+   */
+  public long getSharedLoads() {
+    return _sharedLoads.sum();
+  }
+
+  public long getEvictions() {
+    return _evictions.sum();
   }
 
   public double getHitRate() {
@@ -154,763 +312,431 @@ public class Cache<K, V> {
     }
   }
 
+  /**
+   * Sets the check a cache miss makes before waiting for another thread's load of the same key.  When it answers
+   * false the current thread loads the value itself.  The type system sets one that answers false while the current
+   * thread holds its lock, which loaders commonly need.
+   */
+  public static void setMayBlock(BooleanSupplier mayBlock) {
+    g_mayBlock = mayBlock;
+  }
+
   public interface MissHandler<L, W> {
     public W load(L key);
   }
 
+  public interface Weigher<L, W> {
+    public int weigh(L key, W value);
+  }
+
   public void clear() {
-    clearCacheImpl();
-    _hits.set(0);
-    _misses.set(0);
-    _requests.set(0);
+    _policyLock.lock();
+    try {
+      _generation++;
+      for (ReadBuffer<K, V> buffer : _readBuffers) {
+        buffer.drainTo(null);
+      }
+      _data.clear();
+      _policy.clear();
+    } finally {
+      _policyLock.unlock();
+    }
+    _hits.reset();
+    _misses.reset();
+    _sharedLoads.reset();
+    _evictions.reset();
   }
 
   @Override
   public String toString() {
-    return "Cache \"" + _name + "\"( Hits:" + getHits() + ", Misses:" + getMisses() + ", Requests:" + getRequests() + ", Hit rate:" + BigDecimal.valueOf(getHitRate() * 100.0).setScale(2, BigDecimal.ROUND_DOWN) + "% )";
+    return "Cache \"" + _name + "\"( Hits:" + getHits() + ", Misses:" + getMisses() + ", Requests:" + getRequests() + ", Hit rate:" + BigDecimal.valueOf(getHitRate() * 100.0).setScale(2, BigDecimal.ROUND_DOWN) + "%, Shared loads:" + getSharedLoads() + ", Evictions:" + getEvictions() + " )";
   }
 
   public static <K, V> Cache<K, V> make(String name, int size, MissHandler<K, V> handler) {
     return new Cache<K, V>(name, size, handler);
   }
 
+  public static <K, V> Cache<K, V> make(String name, long maxWeight, Weigher<? super K, ? super V> weigher, MissHandler<K, V> handler) {
+    return new Cache<K, V>(name, maxWeight, weigher, handler);
+  }
+
   /**
-   * A {@link ConcurrentMap} with a doubly-linked list running through its entries.
-   * <p/>
-   * This class provides the same semantics as a {@link ConcurrentHashMap} in terms of
-   * iterators, acceptable keys, and concurrency characteristics, but perform slightly
-   * worse due to the added expense of maintaining the linked list. It differs from
-   * {@link java.util.LinkedHashMap} in that it does not provide predictable iteration
-   * order.
-   * <p/>
-   * This map is intended to be used for caches and provides the following eviction policies:
-   * <ul>
-   * <li> First-in, First-out: Also known as insertion order. This policy has excellent
-   * concurrency characteristics and an adequate hit rate.
-   * <li> Second-chance: An enhanced FIFO policy that marks entries that have been retrieved
-   * and saves them from being evicted until the next pass. This enhances the FIFO policy
-   * by making it aware of "hot" entries, which increases its hit rate to be equal to an
-   * LRU's under normal workloads. In the worst case, where all entries have been saved,
-   * this policy degrades to a FIFO.
-   * <li> Least Recently Used: An eviction policy based on the observation that entries that
-   * have been used recently will likely be used again soon. This policy provides a good
-   * approximation of an optimal algorithm, but suffers by being expensive to maintain.
-   * The cost of reordering entries on the list during every access operation reduces
-   * the concurrency and performance characteristics of this policy.
-   * </ul>
-   * <p/>
-   * The <i>Second Chance</i> eviction policy is recommended for common use cases as it provides
-   * the best mix of performance and efficiency of the supported replacement policies.
-   * <p/>
-   * If the <i>Least Recently Used</i> policy is chosen then the sizing should compensate for the
-   * proliferation of dead nodes on the linked list. While the values are removed immediately, the
-   * nodes are evicted only when they reach the head of the list. Under FIFO-based policies, dead
-   * nodes occur when explicit removals are requested and does not normally produce a noticeable
-   * impact on the map's hit rate. The LRU policy creates a dead node on every successful retrieval
-   * and a new node is placed at the tail of the list. For this reason, the LRU's efficiency cannot
-   * be compared directly to a {@link java.util.LinkedHashMap} evicting in access order.
-   *
-   * <a href="mailto:ben.manes@reardencommerce.com">Ben Manes</a>
+   * A load in progress, for other threads missing the same key to wait on.
    */
-  static class ConcurrentLinkedHashMap<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V>, Serializable {
-    private static final long serialVersionUID = 8350170357874293408L;
-    final List<EvictionListener<K, V>> listeners;
-    final ConcurrentMap<K, Node<K, V>> data;
-    final AtomicInteger capacity;
-    final EvictionPolicy policy;
-    final AtomicInteger length;
-    final Node<K, V> head;
-    final Node<K, V> tail;
+  private static final class Load<V> {
+    private final Thread _loader = Thread.currentThread();
+    private final CountDownLatch _done = new CountDownLatch(1);
+    private volatile V _value;
+    private volatile boolean _bLoaded;
 
-    /**
-     * Creates a new, empty, unbounded map with the specified maximum capacity and the default
-     * concurrencyLevel.
-     *
-     * @param policy          The eviction policy to apply when the size exceeds the maximum capacity.
-     * @param maximumCapacity The maximum capacity to coerces to. The size may exceed it temporarily.
-     * @param listeners       The listeners registered for notification when an entry is evicted.
-     */
-    public ConcurrentLinkedHashMap(EvictionPolicy policy, int maximumCapacity, EvictionListener<K, V>... listeners) {
-      this(policy, maximumCapacity, 16, listeners);
+    void complete(V value) {
+      _value = value;
+      _bLoaded = true;
     }
 
-    /**
-     * Creates a new, empty, unbounded map with the specified maximum capacity and concurrency level.
-     *
-     * @param policy           The eviction policy to apply when the size exceeds the maximum capacity.
-     * @param maximumCapacity  The maximum capacity to coerces to. The size may exceed it temporarily.
-     * @param concurrencyLevel The estimated number of concurrently updating threads. The implementation
-     *                         performs internal sizing to try to accommodate this many threads.
-     * @param listeners        The listeners registered for notification when an entry is evicted.
-     */
-    public ConcurrentLinkedHashMap(EvictionPolicy policy, int maximumCapacity, int concurrencyLevel, EvictionListener<K, V>... listeners) {
-      if ((policy == null) || (maximumCapacity < 0) || (concurrencyLevel <= 0)) {
-        throw new IllegalArgumentException();
-      }
-      this.listeners = (listeners == null) ? Collections.<EvictionListener<K, V>>emptyList() : Arrays.asList(listeners);
-      this.data = new ConcurrentHashMap<K, Node<K, V>>(maximumCapacity, 0.75f, concurrencyLevel);
-      this.capacity = new AtomicInteger(maximumCapacity);
-      this.length = new AtomicInteger();
-      this.head = new Node<K, V>();
-      this.tail = new Node<K, V>();
-      this.policy = policy;
-
-      head.setPrev(head);
-      head.setNext(tail);
-      tail.setPrev(head);
-      tail.setNext(tail);
+    void release() {
+      _done.countDown();
     }
 
     /**
-     * Determines whether the map has exceeded its capacity.
-     *
-     * @return Whether the map has overflowed and an entry should be evicted.
+     * @return true if the value was loaded, false if the load failed, waiting could deadlock or the wait timed out,
+     *   in which case the caller has to load the value itself
      */
-    private boolean isOverflow() {
-      return length.get() > capacity();
+    boolean await() {
+      if (!g_mayBlock.getAsBoolean()) {
+        return false;
+      }
+      Thread current = Thread.currentThread();
+      // registered before looking for a cycle, so of two threads closing one at least one sees it
+      WAITING.put(current, this);
+      try {
+        if (isWaitingOn(current)) {
+          return false;
+        }
+        if (!_done.await(MAX_LOAD_WAIT_MILLIS, TimeUnit.MILLISECONDS)) {
+          return false;
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return false;
+      } finally {
+        WAITING.remove(current);
+      }
+      return _bLoaded;
     }
 
     /**
-     * Sets the maximum capacity of the map and eagerly evicts entries until the
-     * it shrinks to the appropriate size.
-     *
-     * @param capacity The maximum capacity of the map.
+     * @return true if this load's thread is the given thread, or is waiting, directly or through other loads, for a
+     *   load by it
      */
-    public void setCapacity(int capacity) {
-      if (capacity < 0) {
-        throw new IllegalArgumentException();
-      }
-      this.capacity.set(capacity);
-      while (isOverflow()) {
-        evict();
+    private boolean isWaitingOn(Thread thread) {
+      Thread loader = _loader;
+      // a cycle not involving the given thread is broken by its own threads
+      for (int i = WAITING.size(); i >= 0; i--) {
+        if (loader == thread) {
+          return true;
+        }
+        Load<?> load = WAITING.get(loader);
+        if (load == null) {
+          return false;
+        }
+        loader = load._loader;
       }
+      return false;
     }
+  }
 
-    /**
-     * Retrieves the maximum capacity of the map.
-     *
-     * @return The maximum capacity.
-     */
-    public int capacity() {
-      return capacity.get();
-    }
+  /**
+   * A cache entry, also a node on one of the policy's lists.
+   */
+  private static final class Node<K, V> {
+    static final int WINDOW = 0;
+    static final int PROBATION = 1;
+    static final int PROTECTED = 2;
 
-    /**
-     * {@inheritDoc}
-     */
-    @Override
-    public int size() {
-      return data.size();
-    }
+    final K _key;
+    final V _value;
+    final int _weight;
 
-    /**
-     * {@inheritDoc}
-     */
-    @Override
-    public void clear() {
-      for (K key : keySet()) {
-        remove(key);
-      }
-    }
+    // guarded by the policy lock
+    int _queue;
+    boolean _bRemoved;
+    Node<K, V> _prev;
+    Node<K, V> _next;
 
-    /**
-     * {@inheritDoc}
-     */
-    @Override
-    public boolean containsKey(Object key) {
-      return data.containsKey(key);
+    Node(K key, V value, int weight) {
+      _key = key;
+      _value = value;
+      _weight = weight;
     }
 
-    /**
-     * {@inheritDoc}
-     */
-    @Override
-    public boolean containsValue(Object value) {
-      return data.containsValue(new Node<Object, Object>(null, value));
+    static <K, V> Node<K, V> makeSentinel() {
+      Node<K, V> sentinel = new Node<K, V>(null, null, 0);
+      sentinel._prev = sentinel;
+      sentinel._next = sentinel;
+      return sentinel;
     }
 
-    /**
-     * Evicts a single entry if the map exceeds the maximum capacity.
-     */
-    private void evict() {
-      while (isOverflow()) {
-        Node<K, V> node = poll();
-        if (node == null) {
-          return;
-        } else if (policy.onEvict(this, node)) {
-          V value = node.getValue();
-          if (value != null) {
-            K key = node.getKey();
-            data.remove(key);
-            notifyEviction(key, value);
-          }
-          length.decrementAndGet();
-          return;
-        }
-        offer(node);
-      }
+    boolean isEmptyList() {
+      return _next == this;
     }
 
-    /**
-     * Notifies the listeners that an entry was evicted from the map.
-     *
-     * @param key   The entry's key.
-     * @param value The entry's value.
-     */
-    private void notifyEviction(K key, V value) {
-      for (int i = 0; i < listeners.size(); i++) {
-        EvictionListener<K, V> listener = listeners.get(i);
-        listener.onEviction(key, value);
-      }
+    void unlink() {
+      _prev._next = _next;
+      _next._prev = _prev;
+      _prev = null;
+      _next = null;
     }
 
+    void linkLast(Node<K, V> node) {
+      node._prev = _prev;
+      node._next = this;
+      _prev._next = node;
+      _prev = node;
+    }
+  }
 
-    /**
-     * Retrieves and removes the first node on the list or <tt>null</tt> if empty.
-     *
-     * @return The first node on the list or <tt>null</tt> if empty.
-     */
-    private Node<K, V> poll() {
-      for (; ;) {
-        Node<K, V> node = head.getNext();
-        if (head.casNext(node, node.getNext())) {
-          for (; ;) {
-            if (node.casState(State.LINKED, State.UNLINKING)) {
-              node.getNext().setPrev(head);
-              node.setState(State.UNLINKED);
-              return node;
-            }
-            State state = node.getState();
-            if (state == State.SENTINEL) {
-              return null;
-            }
-          }
-        }
+  /**
+   * The W-TinyLFU policy: a window LRU for new entries in front of a segmented LRU, probation then protected, for
+   * the main space.  Weights are counted per list.
+   */
+  private final class Policy {
+    private final long _windowMax;
+    private final long _mainMax;
+    private final long _protectedMax;
+    private final FrequencySketch _sketch;
+    private final Node<K, V> _window = Node.makeSentinel();
+    private final Node<K, V> _probation = Node.makeSentinel();
+    private final Node<K, V> _protected = Node.makeSentinel();
+    private long _windowWeight;
+    private long _mainWeight;
+    private long _protectedWeight;
+
+    Policy() {
+      _windowMax = Math.min(_maxWeight, Math.max(1, _maxWeight / 100));
+      _mainMax = _maxWeight - _windowMax;
+      _protectedMax = _mainMax * 4 / 5;
+      _sketch = new FrequencySketch(_maxWeight);
+    }
+
+    void clear() {
+      clearList(_window);
+      clearList(_probation);
+      clearList(_protected);
+      _windowWeight = 0;
+      _mainWeight = 0;
+      _protectedWeight = 0;
+    }
+
+    private void clearList(Node<K, V> list) {
+      // readers can still hold the nodes, so they're marked removed to be ignored if they show up in a read buffer
+      for (Node<K, V> node = list._next; node != list; node = node._next) {
+        node._bRemoved = true;
+      }
+      list._prev = list;
+      list._next = list;
+    }
+
+    void onRead(Node<K, V> node) {
+      if (node._bRemoved) {
+        return;
+      }
+      _sketch.increment(node._key);
+      if (node._queue == Node.WINDOW) {
+        node.unlink();
+        _window.linkLast(node);
+      } else if (node._queue == Node.PROBATION) {
+        node.unlink();
+        node._queue = Node.PROTECTED;
+        _protected.linkLast(node);
+        _protectedWeight += node._weight;
+        demoteProtected();
+      } else {
+        node.unlink();
+        _protected.linkLast(node);
+      }
+    }
+
+    private void demoteProtected() {
+      while (_protectedWeight > _protectedMax) {
+        Node<K, V> demoted = _protected._next;
+        demoted.unlink();
+        _protectedWeight -= demoted._weight;
+        demoted._queue = Node.PROBATION;
+        _probation.linkLast(demoted);
+      }
+    }
+
+    void add(Node<K, V> node) {
+      _sketch.increment(node._key);
+      node._queue = Node.WINDOW;
+      _window.linkLast(node);
+      _windowWeight += node._weight;
+      while (_windowWeight > _windowMax) {
+        Node<K, V> candidate = _window._next;
+        candidate.unlink();
+        _windowWeight -= candidate._weight;
+        admit(candidate);
       }
     }
 
     /**
-     * Inserts the specified node on to the tail of the list.
-     *
-     * @param node An unlinked node to append to the tail of the list.
+     * Moves an entry leaving the window to the main space, if it's used more often than the entries it would evict
      */
-    private void offer(Node<K, V> node) {
-      node.setState(State.LINKING);
-      node.setNext(tail);
-      for (; ;) {
-        Node<K, V> prev = tail.getPrev();
-        node.setPrev(prev);
-        if (prev.casNext(tail, node)) {
-          Node<K, V> next = tail;
-          for (; ;) {
-            if (next.casPrev(prev, node)) {
-              node.setState(State.LINKED);
-              return;
-            }
-            // walk up the list until a node can be linked
-            next = next.getPrev();
-          }
+    private void admit(Node<K, V> candidate) {
+      if (candidate._weight > _mainMax) {
+        evict(candidate);
+        return;
+      }
+      int candidateFrequency = _sketch.frequency(candidate._key);
+      while (_mainWeight + candidate._weight > _mainMax) {
+        Node<K, V> victim = _probation.isEmptyList() ? _protected._next : _probation._next;
+        if (candidateFrequency <= _sketch.frequency(victim._key)) {
+          evict(candidate);
+          return;
         }
+        removeFromMain(victim);
+        evict(victim);
       }
+      candidate._queue = Node.PROBATION;
+      _probation.linkLast(candidate);
+      _mainWeight += candidate._weight;
     }
 
-    /**
-     * Adds a node to the list and data store if it does not already exist.
-     *
-     * @param node An unlinked node to add.
-     * @return The previous value in the data store.
-     */
-    private Node<K, V> putIfAbsent(Node<K, V> node) {
-      Node<K, V> old = data.putIfAbsent(node.getKey(), node);
-      if (old == null) {
-        length.incrementAndGet();
-        offer(node);
-        evict();
+    private void removeFromMain(Node<K, V> node) {
+      node.unlink();
+      _mainWeight -= node._weight;
+      if (node._queue == Node.PROTECTED) {
+        _protectedWeight -= node._weight;
       }
-      return old;
     }
 
-    /**
-     * {@inheritDoc}
-     */
-    @Override
-    public V get(Object key) {
-      Node<K, V> node = data.get(key);
-      if (node != null) {
-        V value = node.getValue();
-        policy.onGet(this, node);
-        return value;
+    private void evict(Node<K, V> node) {
+      node._bRemoved = true;
+      if (_data.remove(node._key, node)) {
+        _evictions.increment();
       }
-      return null;
     }
 
-    /**
-     * {@inheritDoc}
-     */
-    public V put(K key, V value) {
-      if (value == null) {
-        throw new IllegalArgumentException();
+    void remove(Node<K, V> node) {
+      if (node._bRemoved) {
+        return;
       }
-      Node<K, V> old = putIfAbsent(new Node<K, V>(key, value));
-      return (old == null) ? null : old.getAndSetValue(value);
-    }
-
-    /**
-     * {@inheritDoc}
-     */
-    public V putIfAbsent(K key, V value) {
-      if (value == null) {
-        throw new IllegalArgumentException();
+      node._bRemoved = true;
+      if (node._queue == Node.WINDOW) {
+        node.unlink();
+        _windowWeight -= node._weight;
+      } else {
+        removeFromMain(node);
       }
-      Node<K, V> old = putIfAbsent(new Node<K, V>(key, value));
-      return (old == null) ? null : old.getValue();
     }
+  }
 
-    /**
-     * {@inheritDoc}
-     */
-    public V remove(Object key) {
-      Node<K, V> node = data.remove(key);
-      if (node != null) {
-        V value = node.getValue();
-        policy.onRemove(this, node);
-        return value;
-      }
-      return null;
-    }
+  /**
+   * Reads recorded for the policy by one stripe of threads.  Recording is lossy: a read is dropped if the buffer is
+   * full or another thread is recording at the same moment, which costs the policy a little accuracy and the reader
+   * nothing.
+   */
+  private static final class ReadBuffer<K, V> {
+    private static final int SIZE = 16;
 
-    /**
-     * {@inheritDoc}
-     */
-    public boolean remove(Object key, Object value) {
-      Node<K, V> node = data.get(key);
-      if ((node != null) && node.value.equals(value) && data.remove(key, node)) {
-        policy.onRemove(this, node);
-        return true;
-      }
-      return false;
-    }
+    private final AtomicReferenceArray<Node<K, V>> _slots = new AtomicReferenceArray<Node<K, V>>(SIZE);
+    private final AtomicLong _writes = new AtomicLong();
+    // advanced under the policy lock
+    private volatile long _reads;
 
     /**
-     * {@inheritDoc}
+     * @return true if the buffer should be drained
      */
-    public V replace(K key, V value) {
-      if (value == null) {
-        throw new IllegalArgumentException();
+    boolean offer(Node<K, V> node) {
+      long writes = _writes.get();
+      long pending = writes - _reads;
+      if (pending >= SIZE) {
+        return true;
       }
-      Node<K, V> node = data.get(key);
-      return (node == null) ? null : node.getAndSetValue(value);
-    }
-
-    /**
-     * {@inheritDoc}
-     */
-    public boolean replace(K key, V oldValue, V newValue) {
-      if (newValue == null) {
-        throw new IllegalArgumentException();
+      if (_writes.compareAndSet(writes, writes + 1)) {
+        _slots.lazySet((int) writes & (SIZE - 1), node);
+        return pending + 1 >= SIZE / 2;
       }
-      Node<K, V> node = data.get(key);
-      return (node != null) && node.casValue(oldValue, newValue);
-    }
-
-    /**
-     * {@inheritDoc}
-     */
-    public Set<Entry<K, V>> entrySet() {
-      return new EntrySetAdapter();
-    }
-
-    /**
-     * A listener registered for notification when an entry is evicted.
-     */
-    public interface EvictionListener<K, V> {
-
-      /**
-       * A call-back notification that the entry was evicted.
-       *
-       * @param key   The evicted key.
-       * @param value The evicted value.
-       */
-      void onEviction(K key, V value);
+      return false;
     }
 
     /**
-     * The replacement policy to apply to determine which entry to discard to when the capacity has been reached.
+     * @param policy null to discard the recorded reads
      */
-    public enum EvictionPolicy {
-
-      /**
-       * Evicts entries based on insertion order.
-       */
-      FIFO() {
-        <K, V> void onGet(ConcurrentLinkedHashMap<K, V> map, Node<K, V> node) {
-          // do nothing
-        }
-        <K, V> boolean onEvict(ConcurrentLinkedHashMap<K, V> map, Node<K, V> node) {
-          return true;
-        }
-      },
-
-      /**
-       * Evicts entries based on insertion order, but gives an entry a "second chance" if it has been requested recently.
-       */
-      SECOND_CHANCE() {
-        <K, V> void onGet(ConcurrentLinkedHashMap<K, V> map, Node<K, V> node) {
-          node.setMarked(true);
-        }
-        <K, V> void onRemove(ConcurrentLinkedHashMap<K, V> map, Node<K, V> node) {
-          super.onRemove(map, node);
-          node.setMarked(false);
-        }
-        <K, V> boolean onEvict(ConcurrentLinkedHashMap<K, V> map, Node<K, V> node) {
-          if (node.isMarked()) {
-            node.setMarked(false);
-            return false;
-          }
-          return true;
+    void drainTo(Consumer<Node<K, V>> policy) {
+      long reads = _reads;
+      long writes = _writes.get();
+      while (reads < writes) {
+        int index = (int) reads & (SIZE - 1);
+        Node<K, V> node = _slots.get(index);
+        if (node == null) {
+          // not published yet
+          break;
         }
-      },
-
-
-      /**
-       * Evicts entries based on how recently they are used, with the least recent evicted first.
-       */
-      LRU() {
-        <K, V> void onGet(ConcurrentLinkedHashMap<K, V> map, Node<K, V> node) {
-          Node<K, V> newNode = new Node<K, V>(node.getKey(), node.getValue());
-          if (map.data.replace(node.getKey(), node, newNode)) {
-            map.length.incrementAndGet();
-            onRemove(map, node);
-            map.offer(newNode);
-            map.evict();
-          }
+        _slots.lazySet(index, null);
+        if (policy != null) {
+          policy.accept(node);
         }
-        <K, V> boolean onEvict(ConcurrentLinkedHashMap<K, V> map, Node<K, V> node) {
-          return true;
-        }
-      };
-
-      /**
-       * Performs any operations required by the policy after a node was successfully retrieved.
-       * @param map the map to for this listener
-       * @param node the specific node
-       */
-      abstract <K, V> void onGet(ConcurrentLinkedHashMap<K, V> map, Node<K, V> node);
-
-      /**
-       * Expires a node so that, for all intents and purposes, it is a dead on the list. The
-       * caller of this method should have already removed the node from the mapping so that
-       * no key can look it up. When the node reaches the head of the list it will be evicted.
-       * @param map the map to for this listener
-       * @param node the specific node
-       */
-      <K, V> void onRemove(ConcurrentLinkedHashMap<K, V> map, Node<K, V> node) {
-        node.setValue(null);
+        reads++;
       }
-
-      /**
-       * Determines whether to evict the node at the head of the list. If false, the node is offered
-       * to the tail.
-       * @param map the map to for this listener
-       * @param node the specific node
-       * @return whether this node is to be evicted
-       */
-      abstract <K, V> boolean onEvict(ConcurrentLinkedHashMap<K, V> map, Node<K, V> node);
+      _reads = reads;
     }
+  }
 
-    /**
-     * A node on the double-linked list. This list cross-cuts the data store.
-     */
-    @SuppressWarnings("unchecked")
-    static final class Node<K, V> implements Serializable {
-      private static final long serialVersionUID = 1461281468985304519L;
-      private static final AtomicReferenceFieldUpdater<Node, Object> valueUpdater =
-              AtomicReferenceFieldUpdater.newUpdater(Node.class, Object.class, "value");
-      private static final AtomicReferenceFieldUpdater<Node, State> stateUpdater =
-              AtomicReferenceFieldUpdater.newUpdater(Node.class, State.class, "state");
-      private static final AtomicReferenceFieldUpdater<Node, Node> prevUpdater =
-              AtomicReferenceFieldUpdater.newUpdater(Node.class, Node.class, "prev");
-      private static final AtomicReferenceFieldUpdater<Node, Node> nextUpdater =
-              AtomicReferenceFieldUpdater.newUpdater(Node.class, Node.class, "next");
-
-      public static enum State {
-        SENTINEL, UNLINKED, UNLINKING, LINKING, LINKED
-      }
-
-      private final K key;
-      private volatile V value;
-      private volatile State state;
-      private volatile boolean marked;
-      private volatile Node<K, V> prev = null;
-      private volatile Node<K, V> next = null;
-
-      /**
-       * Creates a sentinel node.
-       */
-      public Node() {
-        this.key = null;
-        this.state = State.SENTINEL;
-      }
-
-      /**
-       * Creates a new, unlinked node.
-       * @param key the key
-       * @param value the value
-       */
-      public Node(K key, V value) {
-        this.key = key;
-        this.value = value;
-        this.state = State.UNLINKED;
-      }
-
-      public K getKey() {
-        return key;
-      }
-
-      public V getValue() {
-        return value;
-      }
-
-      public void setValue(V value) {
-        valueUpdater.set(this, value);
-      }
-
-      public V getAndSetValue(V value) {
-        return (V) valueUpdater.getAndSet(this, value);
-      }
-
-      public boolean casValue(V expect, V update) {
-        return valueUpdater.compareAndSet(this, expect, update);
-      }
-
-      public Node<K, V> getPrev() {
-        return prev;
-      }
-
-      public void setPrev(Node<K, V> node) {
-        prevUpdater.set(this, node);
-      }
-
-      public boolean casPrev(Node<K, V> expect, Node<K, V> update) {
-        return prevUpdater.compareAndSet(this, expect, update);
-      }
-
-      public Node<K, V> getNext() {
-        return next;
-      }
-
-      public void setNext(Node<K, V> node) {
-        nextUpdater.set(this, node);
-      }
-
-      public boolean casNext(Node<K, V> expect, Node<K, V> update) {
-        return nextUpdater.compareAndSet(this, expect, update);
-      }
-
-      public boolean isMarked() {
-        return marked;
-      }
-
-      public void setMarked(boolean marked) {
-        this.marked = marked;
-      }
-
-      public State getState() {
-        return state;
-      }
-
-      public void setState(State state) {
-        stateUpdater.set(this, state);
-      }
-
-      public boolean casState(State expect, State update) {
-        return stateUpdater.compareAndSet(this, expect, update);
-      }
-
-      /**
-       * Only ensures that the values are equal, as the key may be <tt>null</tt> for look-ups.
-       */
-      @Override
-      public boolean equals(Object obj) {
-        if (obj == this) {
-          return true;
-        } else if (!(obj instanceof Node)) {
-          return false;
-        }
-        V value = getValue();
-        Node<?, ?> node = (Node<?, ?>) obj;
-        return (value == null) ? (node.getValue() == null) : value.equals(node.getValue());
-      }
+  /**
+   * A count-min sketch of how often keys are used, with four 4-bit counters per key.  Counts are halved every
+   * so often, so the sketch follows what's used recently.
+   */
+  static final class FrequencySketch {
+    private static final long[] SEEDS = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final long ONE_MASK = 0x1111111111111111L;
+    // weighted caches can be bounded far beyond their entry count, so the table stops growing at 512K
+    private static final int MAX_TABLE_SIZE = 1 << 16;
 
-      /**
-       * {@inheritDoc}
-       */
-      @Override
-      public int hashCode() {
-        return ((key == null) ? 0 : key.hashCode()) ^
-                ((value == null) ? 0 : value.hashCode());
-      }
+    private final long[] _table;
+    private final int _sampleSize;
+    private int _size;
 
-      @Override
-      public String toString() {
-        return String.format("Node[state=%s, marked=%b, key=%s, value=%s]", getState(), isMarked(), getKey(), getValue());
-      }
+    FrequencySketch(long expectedSize) {
+      int capacity = (int) Math.max(16, Math.min(expectedSize, MAX_TABLE_SIZE));
+      _table = new long[Integer.highestOneBit(capacity - 1) << 1];
+      _sampleSize = 10 * _table.length;
     }
 
-    /**
-     * An adapter to represent the data store's entry set in the external type.
-     */
-    private final class EntrySetAdapter extends AbstractSet<Entry<K, V>> {
-      private final ConcurrentLinkedHashMap<K, V> map = ConcurrentLinkedHashMap.this;
-
-      /**
-       * {@inheritDoc}
-       */
-      @Override
-      public void clear() {
-        map.clear();
-      }
-
-      /**
-       * {@inheritDoc}
-       */
-      public int size() {
-        return map.size();
-      }
-
-      /**
-       * {@inheritDoc}
-       */
-      public Iterator<Entry<K, V>> iterator() {
-        return new EntryIteratorAdapter(map.data.entrySet().iterator());
-      }
-
-      /**
-       * {@inheritDoc}
-       */
-      @Override
-      public boolean contains(Object obj) {
-        if (!(obj instanceof Entry)) {
-          return false;
-        }
-        Entry<?, ?> entry = (Entry<?, ?>) obj;
-        Node<K, V> node = map.data.get(entry.getKey());
-        return (node != null) && (node.value.equals(entry.getValue()));
-      }
-
-
-      /**
-       * {@inheritDoc}
-       */
-      @Override
-      public boolean add(Entry<K, V> entry) {
-        return (map.putIfAbsent(entry.getKey(), entry.getValue()) == null);
-      }
-
-      /**
-       * {@inheritDoc}
-       */
-      @Override
-      public boolean remove(Object obj) {
-        if (!(obj instanceof Entry)) {
-          return false;
-        }
-        Entry<?, ?> entry = (Entry<?, ?>) obj;
-        return map.remove(entry.getKey(), entry.getValue());
+    int frequency(Object key) {
+      int hash = spread(key.hashCode());
+      int start = (hash & 3) << 2;
+      int frequency = Integer.MAX_VALUE;
+      for (int i = 0; i < 4; i++) {
+        int count = (int) ((_table[indexOf(hash, i)] >>> ((start + i) << 2)) & 0xfL);
+        frequency = Math.min(frequency, count);
       }
+      return frequency;
     }
 
-    /**
-     * An adapter to represent the data store's entry iterator in the external type.
-     */
-    private final class EntryIteratorAdapter implements Iterator<Entry<K, V>> {
-      private final Iterator<Entry<K, Node<K, V>>> iterator;
-      private Entry<K, Node<K, V>> current;
-
-      public EntryIteratorAdapter(Iterator<Entry<K, Node<K, V>>> iterator) {
-        this.iterator = iterator;
+    void increment(Object key) {
+      int hash = spread(key.hashCode());
+      int start = (hash & 3) << 2;
+      boolean bAdded = false;
+      for (int i = 0; i < 4; i++) {
+        bAdded |= incrementAt(indexOf(hash, i), start + i);
       }
-
-      /**
-       * {@inheritDoc}
-       */
-      public boolean hasNext() {
-        return iterator.hasNext();
-      }
-
-      /**
-       * {@inheritDoc}
-       */
-      public Entry<K, V> next() {
-        current = iterator.next();
-        K key = current.getKey();
-        Node<K, V> node = current.getValue();
-        V value = node == null ? null : node.getValue();
-        return new SimpleEntry<K, V>( key, value );
-      }
-
-      /**
-       * {@inheritDoc}
-       */
-      public void remove() {
-        if (current == null) {
-          throw new IllegalStateException();
-        }
-        ConcurrentLinkedHashMap.this.remove(current.getKey(), current.getValue());
-        current = null;
+      if (bAdded && ++_size == _sampleSize) {
+        reset();
       }
     }
 
-    /**
-     * This duplicates {@link java.util.AbstractMap.SimpleEntry} until the class is made accessible.
-     * Update: SimpleEntry is public in JDK 6.
-     */
-    private static final class SimpleEntry<K, V> implements Entry<K, V> {
-      private final K key;
-      private V value;
-
-      public SimpleEntry(K key, V value) {
-        this.key = key;
-        this.value = value;
-      }
-
-      public K getKey() {
-        return key;
-      }
-
-      public V getValue() {
-        return value;
-      }
-
-      public V setValue(V value) {
-        V oldValue = this.value;
-        this.value = value;
-        return oldValue;
-      }
-
-      public boolean equals(Object obj) {
-        if (obj == this) {
-          return true;
-        } else if (!(obj instanceof Entry)) {
-          return false;
-        }
-        Entry<?, ?> entry = (Entry<?, ?>) obj;
-        return eq(key, entry.getKey()) && eq(value, entry.getValue());
+    private boolean incrementAt(int index, int counter) {
+      int offset = counter << 2;
+      long mask = 0xfL << offset;
+      if ((_table[index] & mask) != mask) {
+        _table[index] += 1L << offset;
+        return true;
       }
+      return false;
+    }
 
-      public int hashCode() {
-        return ((key == null) ? 0 : key.hashCode()) ^
-                ((value == null) ? 0 : value.hashCode());
+    private void reset() {
+      int odd = 0;
+      for (int i = 0; i < _table.length; i++) {
+        odd += Long.bitCount(_table[i] & ONE_MASK);
+        _table[i] = (_table[i] >>> 1) & RESET_MASK;
       }
+      _size = (_size >>> 1) - (odd >>> 2);
+    }
 
-      public String toString() {
-        return key + "=" + value;
-      }
+    private int indexOf(int hash, int i) {
+      long h = (hash + SEEDS[i]) * SEEDS[i];
+      h += h >>> 32;
+      return (int) h & (_table.length - 1);
+    }
 
-      private static boolean eq(Object o1, Object o2) {
-        return (o1 == null) ? (o2 == null) : o1.equals(o2);
-      }
+    private static int spread(int x) {
+      x = ((x >>> 16) ^ x) * 0x45d9f3b;
+      x = ((x >>> 16) ^ x) * 0x45d9f3b;
+      return (x >>> 16) ^ x;
     }
   }
-
 }
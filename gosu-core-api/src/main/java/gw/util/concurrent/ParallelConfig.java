@@ -0,0 +1,61 @@
+/*
+ * Copyright 2014 Guidewire Software, Inc.
+ */
+
+package gw.util.concurrent;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Settings for the parallel* collection enhancements, e.g. List.parallelMap().  Work is split in halves until a
+ * piece has no more than {@link #getThreshold()} elements; smaller inputs run sequentially on the calling thread.
+ * The pieces run on {@link #getPool()}, unless the call itself comes from a fork/join worker, in which case they
+ * run in that worker's pool.
+ * <p/>
+ * The threshold defaults to the system property gosu.parallel.threshold, or 1024.
+ */
+public final class ParallelConfig
+{
+  private static final int DEFAULT_THRESHOLD = 1024;
+
+  private static volatile ForkJoinPool g_pool;
+  private static volatile int g_iThreshold = Math.max( 1, Integer.getInteger( "gosu.parallel.threshold", DEFAULT_THRESHOLD ) );
+
+  private ParallelConfig()
+  {
+  }
+
+  /**
+   * @return the pool parallel enhancements run on, the common pool unless {@link #setPool(ForkJoinPool)} was called
+   */
+  public static ForkJoinPool getPool()
+  {
+    ForkJoinPool pool = g_pool;
+    return pool == null ? ForkJoinPool.commonPool() : pool;
+  }
+
+  /**
+   * @param pool the pool to run on, or null for the common pool
+   */
+  public static void setPool( ForkJoinPool pool )
+  {
+    g_pool = pool;
+  }
+
+  /**
+   * @return the largest number of elements processed as one sequential piece
+   */
+  public static int getThreshold()
+  {
+    return g_iThreshold;
+  }
+
+  public static void setThreshold( int iThreshold )
+  {
+    if( iThreshold < 1 )
+    {
+      throw new IllegalArgumentException( "The threshold must be greater than 0: " + iThreshold );
+    }
+    g_iThreshold = iThreshold;
+  }
+}
@@ -2,106 +2,48 @@ package gw.lang.reflect.json;
 
 import org.junit.Test;
 
-import java.io.BufferedReader;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
+import javax.script.Bindings;
+import javax.script.ScriptException;
 import java.io.IOException;
-import java.io.StringReader;
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.math.BigInteger;
-import java.net.URISyntaxException;
-import java.net.URL;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 public class ParserTest {
-  //@Test
-  public void readBigFile() throws URISyntaxException, IOException {
-    URL url = getResource("citylots.json");
-    String bigJson = new String(Files.readAllBytes(Paths.get(url.toURI())), StandardCharsets.UTF_8);
-    long times = 10;
-    long before = System.currentTimeMillis();
-    int errors = 0;
-    for(int i = 0; i < times; i++) {
-      Tokenizer tokenizer = new Tokenizer(new StringReader(bigJson));
-      SimpleParserImpl p = new SimpleParserImpl(tokenizer, false);
-      p.parse();
-      errors = p.getErrors().size();
-    }
-    long after = System.currentTimeMillis();
-    System.out.println("readBigFile Time: " + ((after - before) / (double) times) + " ms");
-    assertEquals(0, errors);
-  }
-
-  //@Test
-  public void readValueFromBigFile() throws FileNotFoundException {
-    URL url = getResource("citylots.json");
-    long times = 10;
-    long before = System.currentTimeMillis();
-    int errors = 0;
-    for(int i = 0; i < times; i++) {
-      Tokenizer tokenizer = new Tokenizer(new BufferedReader(new FileReader(url.getPath())));
-      SimpleParserImpl p = new SimpleParserImpl(tokenizer, false);
-      p.advance();
-      p.skipMember();
-      for(int k = 0; k < 4; k++) {
-        p.advance();
-      }
-      for(int k = 0; k < 206559; k++) {
-        p.skipValue();
-        p.advance();
-      }
-      p.advance();
-      p.skipMember();
-      p.advance();
-      HashMap val = new HashMap();
-      p.parseMember(val);
-      assertEquals(((Map) val.get("properties")).get("MAPBLKLOT"), "VACSTWIL");
-      assertEquals(0, p.getErrors().size());
-    }
-    long after = System.currentTimeMillis();
-    System.out.println("readValueFromBigFile Time: " + ((after - before) / (double) times) + " ms");
-    assertEquals(0, errors);
-  }
+  private static final String SAMPLE = "{\n" +
+    "  \"firstName\": \"John\",\n" +
+    "  \"lastName\": \"Smith\",\n" +
+    "  \"age\": 25,\n" +
+    "  \"address\": {\n" +
+    "    \"streetAddress\": \"21 2nd Street\",\n" +
+    "    \"city\": \"New York\",\n" +
+    "    \"state\": \"NY\",\n" +
+    "    \"postalCode\": \"10021\"\n" +
+    "  },\n" +
+    "  \"etc\": [true, false, null, 3.14, [\"a\", 8]]\n" +
+    "}";
 
   @Test
-  public void testGitHub() {
-    SimpleParserImpl parser = makeParser("github.json");
-    Object o = parser.parse();
-    assertEquals(0, parser.getErrors().size());
+  public void testGitHub() throws IOException {
+    assertEquals(JsonReader.Event.END, readResource("github.json"));
   }
 
   @Test
-  public void testYahoo() {
-    SimpleParserImpl parser = makeParser("yahoo.json");
-    Object o = parser.parse();
-    assertEquals(0, parser.getErrors().size());
+  public void testYahoo() throws IOException {
+    assertEquals(JsonReader.Event.END, readResource("yahoo.json"));
   }
 
   @Test
-  public void testSample() {
-    String sample = "{\n" +
-      "  \"firstName\": \"John\",\n" +
-      "  \"lastName\": \"Smith\",\n" +
-      "  \"age\": 25,\n" +
-      "  \"address\": {\n" +
-      "    \"streetAddress\": \"21 2nd Street\",\n" +
-      "    \"city\": \"New York\",\n" +
-      "    \"state\": \"NY\",\n" +
-      "    \"postalCode\": \"10021\"\n" +
-      "  },\n" +
-      "  \"etc\": [true, false, null, 3.14, [\"a\", 8]]\n" +
-      "}";
+  public void testSample() throws ScriptException {
     HashMap expected = new HashMap();
     expected.put("firstName", "John");
     expected.put("lastName", "Smith");
@@ -115,40 +57,28 @@ public class ParserTest {
 
     expected.put("address", address);
     expected.put("etc", Arrays.asList(true, false, null, 3.14, Arrays.asList("a", 8)));
-    Tokenizer tokenizer = new Tokenizer(new StringReader(sample));
-    SimpleParserImpl p = new SimpleParserImpl(tokenizer, false);
-    Object val = p.parse();
-    assertEquals(0, p.getErrors().size());
-    assertEquals(expected, val);
+    Bindings val = DefaultParser.instance().parseJson(SAMPLE);
+    assertEquals(expected, new HashMap(val));
   }
 
   @Test
   public void testSampleStreaming() {
-    String sample = "{\n" +
-      "  \"firstName\": \"John\",\n" +
-      "  \"lastName\": \"Smith\",\n" +
-      "  \"age\": 25,\n" +
-      "  \"address\": {\n" +
-      "    \"streetAddress\": \"21 2nd Street\",\n" +
-      "    \"city\": \"New York\",\n" +
-      "    \"state\": \"NY\",\n" +
-      "    \"postalCode\": \"10021\"\n" +
-      "  },\n" +
-      "  \"etc\": [true, false, null, 3.14, [\"a\", 8]]\n" +
-      "}";
-    Tokenizer tokenizer = new Tokenizer(new StringReader(sample));
-    SimpleParserImpl p = new SimpleParserImpl(tokenizer, false);
-    assertEquals(TokenType.LCURLY, p.currentToken().getType());
-    p.advance();
-    while(!p.currentToken().getString().equals("etc")) { p.skipMember(); p.advance(); }
-    p.advance();
-    assertEquals(TokenType.COLON, p.currentToken().getType());
-    p.advance();
-    assertEquals(TokenType.LSQUARE, p.currentToken().getType());
-    p.advance();
-    for(int i = 0; i < 3; i++) { p.skipValue(); p.advance(); }
-    assertEquals(0, p.getErrors().size());
-    assertEquals(3.14, (double)p.parseValue(), 0.001);
+    JsonReader reader = reader(SAMPLE);
+    assertEquals(JsonReader.Event.BEGIN_OBJECT, reader.next());
+    while(reader.next() == JsonReader.Event.NAME && !reader.getString().equals("etc")) {
+      reader.skipValue();
+    }
+    assertEquals("etc", reader.getString());
+    assertEquals(JsonReader.Event.BEGIN_ARRAY, reader.next());
+    for(int i = 0; i < 3; i++) {
+      reader.skipValue();
+    }
+    assertEquals(JsonReader.Event.DOUBLE, reader.next());
+    assertEquals(3.14, reader.getDouble(), 0.001);
+    reader.skipValue();
+    assertEquals(JsonReader.Event.END_ARRAY, reader.next());
+    assertEquals(JsonReader.Event.END_OBJECT, reader.next());
+    assertEquals(JsonReader.Event.END, reader.next());
   }
 
   @Test
@@ -165,20 +95,13 @@ public class ParserTest {
       "  },\n" +
       "  \"etc\": [true, false, null, 3.14, [\"a\", 8]]\n" +
       "}";
-    HashMap expected = new HashMap();
-    expected.put("firstName", "John");
-    expected.put("lastName", "Smith");
-    expected.put("age", 25);
-    HashMap address = new HashMap();
-    address.put("streetAddress", "21 2nd Street");
-    address.put("city", null);
-    expected.put("address", address);
-    expected.put("etc", Arrays.asList(true, false, null, 3.14, Arrays.asList("a", 8)));
-    Tokenizer tokenizer = new Tokenizer(new StringReader(sample));
-    SimpleParserImpl p = new SimpleParserImpl(tokenizer, false);
-    Object val = p.parse();
-    assertEquals("[[6:21] expecting ':', found 'BUG', [7:13] Unexpected token 'New', [7:17] expecting '}', found 'York']", p.getErrors().toString());
-    assertEquals(expected, val);
+    try {
+      DefaultParser.instance().parseJson(sample);
+      fail();
+    } catch(ScriptException e) {
+      // the parser stops at the first error
+      assertEquals("Found errors:\n[6:21] expecting ':', found 'B'\n", e.getMessage());
+    }
   }
 
   @Test
@@ -197,14 +120,13 @@ public class ParserTest {
 
     // complex single
     assertEquals(map("foo", map("foo", "bar")), parse("{\"foo\" : {\"foo\":\"bar\"}}"));
-    assertEquals(map("foo", list("foo", "bar")), parse("{\"foo\" : [\"foo\", \"bar\"}]"));
+    assertEquals(map("foo", list("foo", "bar")), parse("{\"foo\" : [\"foo\", \"bar\"]}"));
 
     // simple multi
     assertEquals(map("foo", "bar", "doh", "rey"), parse("{\"foo\":\"bar\", \"doh\":\"rey\"}"));
     assertEquals(map("foo", "rey"), parse("{\"foo\":\"bar\", \"foo\":\"rey\"}"));
   }
 
-
   @Test
   public void testParseArray() {
     assertEquals(list(), parse("[]"));
@@ -219,18 +141,21 @@ public class ParserTest {
     // strings
     assertEquals("", parse("\"\""));
     assertEquals("foo", parse("\"foo\""));
+    assertEquals("foo", parse("'foo'"));
     assertEquals("foo\"bar", parse("\"foo\\\"bar\""));
+    assertEquals("\\/\b\f\n\r\t", parse("\"\\\\\\/\\b\\f\\n\\r\\t\""));
+    assertEquals("\u263A", parse("\"\\u263A\""));
 
     // numbers
     assertEquals(0, parse("0"));
     assertEquals(1, parse("1"));
     assertEquals(123, parse("123"));
-    assertEquals(123456789, (int) parse("123456789"));
-    assertEquals(12345678999L, (long) parse("12345678999"));
-    assertEquals(0, parse("12345678954654654654656545"));
-    assertEquals(new BigInteger("12345678954654654654656545"), (BigInteger) parseBig("12345678954654654654656545"));
+    assertEquals(123456789, parse("123456789"));
+    assertEquals(12345678999L, parse("12345678999"));
+    assertEquals(new BigInteger("12345678954654654654656545"), parse("12345678954654654654656545"));
+    assertEquals(new BigInteger("12345678954654654654656545"), parseBig("12345678954654654654656545"));
     assertEquals(-1, parse("-1"));
-    assertEquals(-0, parse("-0"));
+    assertEquals(0, parse("-0"));
     assertEquals(-123456789, parse("-123456789"));
     assertEquals(1.1, parse("1.1"));
     assertEquals(123456789.1, parse("123456789.1"));
@@ -238,16 +163,16 @@ public class ParserTest {
     assertEquals(-1.1, parse("-1.1"));
     assertEquals(-123456789.1, parse("-123456789.1"));
     assertEquals(-123456.123456, (double) parse("-123456.123456"), 0.01);
-    assertEquals(new BigDecimal("-123456.123456"), (BigDecimal) parseBig("-123456.123456"));
+    assertEquals(new BigDecimal("-123456.123456"), parseBig("-123456.123456"));
     assertEquals(1e1, parse("1e1"));
     assertEquals(123456789e1, parse("123456789e1"));
     assertEquals(1e+1, parse("1e+1"));
-    assertEquals(1e+1, parse("1e+1"));
     assertEquals(1e-1, parse("1e-1"));
     assertEquals(1E1, parse("1E1"));
     assertEquals(1E+1, parse("1E+1"));
     assertEquals(1E-1, parse("1E-1"));
     assertEquals(-0.1E4, parse("-0.1E4"));
+    assertEquals(-3E+4, parse("-3E+4"));
 
     // literals
     assertEquals(true, parse("true"));
@@ -255,6 +180,35 @@ public class ParserTest {
     assertEquals(null, parse("null"));
   }
 
+  @Test
+  public void testEvents() {
+    assertEventsAre("  true  ", JsonReader.Event.TRUE, JsonReader.Event.END);
+    assertEventsAre("{\"type\": [1, 2.5, 'a', null], \"b\" : {}}",
+      JsonReader.Event.BEGIN_OBJECT, JsonReader.Event.NAME, JsonReader.Event.BEGIN_ARRAY, JsonReader.Event.INTEGER,
+      JsonReader.Event.DOUBLE, JsonReader.Event.STRING, JsonReader.Event.NULL, JsonReader.Event.END_ARRAY,
+      JsonReader.Event.NAME, JsonReader.Event.BEGIN_OBJECT, JsonReader.Event.END_OBJECT, JsonReader.Event.END_OBJECT,
+      JsonReader.Event.END);
+
+    JsonReader reader = reader("[-2E-4, 3E4]");
+    reader.next();
+    assertEquals(JsonReader.Event.DOUBLE, reader.next());
+    assertEquals("-2E-4", reader.getString());
+    assertEquals(JsonReader.Event.DOUBLE, reader.next());
+    assertEquals("3E4", reader.getString());
+  }
+
+  @Test
+  public void testCharSource() {
+    String src = "{'caf\u00e9': [\"\ud83d\ude00\", \"a\\nb\"],\n \"n\": -12.5e1}";
+    Bindings fromBytes = (Bindings)reader(src).readValue(false);
+    Bindings fromChars = (Bindings)new JsonReader(src).readValue(false);
+    assertEquals(new HashMap<>(fromBytes), new HashMap<>(fromChars));
+    assertEquals(list("\ud83d\ude00", "a\nb"), fromChars.get("caf\u00e9"));
+
+    String bad = "{\n  \"a\": [1,\n  x]}";
+    assertEquals(syntaxError(reader(bad)), syntaxError(new JsonReader(bad)));
+    assertTrue(syntaxError(new JsonReader("['abc")) != null);
+  }
 
   @Test
   public void testErrors() {
@@ -272,6 +226,8 @@ public class ParserTest {
     // bad strings
     assertTrue(hasErrors("\""));
     assertTrue(hasErrors("\"foo"));
+    assertTrue(hasErrors("'foo\""));
+    assertTrue(hasErrors("\"\\u263G\""));
 
     // bad numbers
     assertTrue(hasErrors(".1"));
@@ -306,22 +262,68 @@ public class ParserTest {
     assertTrue(hasErrors("badToken"));
     assertTrue(hasErrors("True"));
     assertTrue(hasErrors("nil"));
+    assertTrue(hasErrors("truel"));
+
+    // more than one value
+    assertTrue(hasErrors("1 2"));
+  }
+
+  private void assertEventsAre(String src, JsonReader.Event... events) {
+    JsonReader reader = reader(src);
+    for(JsonReader.Event event : events) {
+      assertEquals(event, reader.next());
+    }
   }
 
   private boolean hasErrors(String src) {
-    SimpleParserImpl parser = new SimpleParserImpl(new Tokenizer(new StringReader(src)), false);
-    parser.parse();
-    return parser.getErrors().size() != 0;
+    try {
+      JsonReader reader = reader(src);
+      reader.skipValue();
+      reader.next();
+      return false;
+    } catch(RuntimeException e) {
+      return JsonReader.getSyntaxError(e) != null;
+    }
+  }
+
+  private String syntaxError(JsonReader reader) {
+    try {
+      reader.skipValue();
+      return null;
+    } catch(RuntimeException e) {
+      return JsonReader.getSyntaxError(e).getMessage();
+    }
   }
 
   private Object parse(String src) {
-    return new SimpleParserImpl(new Tokenizer(new StringReader(src)), false).parse();
+    return read(src, false);
   }
 
   private Object parseBig(String src) {
-    return new SimpleParserImpl(new Tokenizer(new StringReader(src)), true).parse();
+    return read(src, true);
+  }
+
+  private Object read(String src, boolean big) {
+    JsonReader reader = reader(src);
+    Object value = reader.readValue(big);
+    assertEquals(JsonReader.Event.END, reader.next());
+    return value;
+  }
+
+  private JsonReader reader(String src) {
+    return new JsonReader(src.getBytes(StandardCharsets.UTF_8));
   }
 
+  private JsonReader.Event readResource(String res) throws IOException {
+    InputStream in = getClass().getClassLoader().getResourceAsStream(res);
+    if(in == null) {
+      fail("Unable to load '" + res + "'");
+    }
+    try(JsonReader reader = new JsonReader(in)) {
+      reader.skipValue();
+      return reader.next();
+    }
+  }
 
   private List list(Object... listVals) {
     return Arrays.asList(listVals);
@@ -335,23 +337,4 @@ public class ParserTest {
     }
     return m;
   }
-
-  URL getResource(String res) {
-    URL url = getClass().getClassLoader().getResource(res);
-    if(url == null) {
-      fail("Unable to load '" + res + "'");
-    }
-    return url;
-  }
-
-  SimpleParserImpl makeParser(String res) {
-    SimpleParserImpl p = null;
-    try {
-      Tokenizer tokenizer = new Tokenizer(new BufferedReader(new FileReader(getResource(res).getPath())));
-      p = new SimpleParserImpl(tokenizer, false);
-    } catch (FileNotFoundException e) {
-      fail("Unable to create a parser for '" + res + "'");
-    }
-    return p;
-  }
 }
@@ -4,8 +4,11 @@
 
 package gw.internal.gosu.compiler;
 
+import gw.lang.parser.IBlockClass;
+import gw.lang.reflect.IType;
 import gw.lang.reflect.TypeSystem;
 import gw.lang.reflect.java.IJavaType;
+import gw.lang.reflect.java.JavaTypes;
 import gw.lang.function.IBlock;
 
 public class FunctionClassUtil extends ClassLoader
@@ -15,6 +18,10 @@ public class FunctionClassUtil extends ClassLoader
   public static final String PROCEDURE_CLASS_PREFIX = FUNCTION_PACKAGE + ".Procedure";
   public static final String FUNCTION_INTERFACE_PREFIX = FUNCTION_PACKAGE + ".IFunction";
   public static final String PROCEDURE_INTERFACE_PREFIX = FUNCTION_PACKAGE + ".IProcedure";
+  /**
+   * Blocks with more parameters than this never get a primitive interface, see {@link #getPrimitiveFunctionInterface}
+   */
+  public static final int MAX_PRIMITIVE_ARITY = 2;
   private static final Class[][] ARGS = new Class[IBlock.MAX_ARGS + 1][];
   static
   {
@@ -54,4 +61,92 @@ public class FunctionClassUtil extends ClassLoader
   {
     return ARGS[i];
   }
+
+  /**
+   * A block returning int, long or double, whose parameters are each either that same primitive or a reference,
+   * also implements a primitive interface such as IIntFunction2_IO.  Its body is compiled into that interface's
+   * invokeInt/invokeLong/invokeDouble method, and invoke() unboxes its arguments and calls through to it, so
+   * callers that know the block's type can call it without boxing.
+   *
+   * @return the primitive interface for a block of this signature, or null if there is none
+   */
+  public static IJavaType getPrimitiveFunctionInterface( IType returnType, IType[] paramTypes )
+  {
+    String strName = getPrimitiveName( returnType );
+    if( strName == null || paramTypes.length > MAX_PRIMITIVE_ARITY )
+    {
+      return null;
+    }
+    StringBuilder sb = new StringBuilder( FUNCTION_PACKAGE ).append( ".I" ).append( strName ).append( "Function" ).append( paramTypes.length );
+    if( paramTypes.length > 0 )
+    {
+      sb.append( '_' );
+    }
+    for( IType paramType : paramTypes )
+    {
+      if( paramType == returnType )
+      {
+        sb.append( strName.charAt( 0 ) );
+      }
+      else if( paramType.isPrimitive() )
+      {
+        return null;
+      }
+      else
+      {
+        sb.append( 'O' );
+      }
+    }
+    return (IJavaType)TypeSystem.getByFullNameIfValid( sb.toString(), TypeSystem.getGlobalModule() );
+  }
+
+  /**
+   * @return the name of the primitive interface's method, e.g. invokeInt, for a block returning this type
+   */
+  public static String getPrimitiveInvokeMethodName( IType returnType )
+  {
+    return IBlockClass.INVOKE_METHOD_NAME + getPrimitiveName( returnType );
+  }
+
+  /**
+   * @return the parameter classes of the primitive interface's method: the primitive, or Object for a reference
+   */
+  public static Class[] getPrimitiveArgArray( IType returnType, IType[] paramTypes )
+  {
+    Class primitive = returnType == JavaTypes.pINT() ? int.class : returnType == JavaTypes.pLONG() ? long.class : double.class;
+    Class[] classes = new Class[paramTypes.length];
+    for( int i = 0; i < paramTypes.length; i++ )
+    {
+      classes[i] = paramTypes[i] == returnType ? primitive : Object.class;
+    }
+    return classes;
+  }
+
+  /**
+   * @return true for the name of a block's invoke method, either the generic or a primitive one
+   */
+  public static boolean isBlockInvokeMethodName( String strName )
+  {
+    return strName.equals( IBlockClass.INVOKE_METHOD_NAME ) ||
+           strName.equals( getPrimitiveInvokeMethodName( JavaTypes.pINT() ) ) ||
+           strName.equals( getPrimitiveInvokeMethodName( JavaTypes.pLONG() ) ) ||
+           strName.equals( getPrimitiveInvokeMethodName( JavaTypes.pDOUBLE() ) );
+  }
+
+  private static String getPrimitiveName( IType type )
+  {
+    if( type == JavaTypes.pINT() )
+    {
+      return "Int";
+    }
+    if( type == JavaTypes.pLONG() )
+    {
+      return "Long";
+    }
+    if( type == JavaTypes.pDOUBLE() )
+    {
+      return "Double";
+    }
+    return null;
+  }
 }
@@ -14,6 +14,7 @@ import gw.internal.gosu.parser.IGosuProgramInternal;
 import gw.internal.gosu.parser.JavaMethodCache;
 import gw.internal.gosu.parser.ModuleClassLoader;
 import gw.internal.gosu.parser.TypeLord;
+import gw.lang.parser.IBlockClass;
 import gw.lang.parser.TypeSystemAwareCache;
 import gw.lang.reflect.IGosuClassLoadingObserver;
 import gw.lang.reflect.IHasJavaClass;
@@ -22,7 +23,9 @@ import gw.lang.reflect.TypeSystem;
 import gw.lang.reflect.gs.BytecodeOptions;
 import gw.lang.reflect.gs.GosuClassPathThing;
 import gw.lang.reflect.gs.ICompilableType;
+import gw.lang.reflect.gs.IGosuClass;
 import gw.lang.reflect.gs.IGosuClassLoader;
+import gw.lang.reflect.gs.IGosuFragment;
 import gw.lang.reflect.gs.IGosuProgram;
 import gw.lang.reflect.gs.UrlClassLoaderWrapper;
 import gw.lang.reflect.java.IJavaBackedType;
@@ -35,10 +38,13 @@ import java.io.IOException;
 import java.lang.ref.WeakReference;
 import java.lang.reflect.Method;
 import java.net.URLClassLoader;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 public class GosuClassLoader implements IGosuClassLoader
 {
@@ -366,9 +372,98 @@ public class GosuClassLoader implements IGosuClassLoader
     }
   }
 
-  private static byte[] compileClass( ICompilableType type, boolean debug )
+  static byte[] compileClass( ICompilableType type, boolean debug )
   {
-    return TransformingCompiler.compileClass( type, debug );
+    if( !debug && type instanceof IGosuClassInternal )
+    {
+      byte[] bytes = ((IGosuClassInternal)type).getCompiledBytes();
+      if( bytes != null )
+      {
+        // The class is defined from these, drop them so they don't outlive it.  Asking again parses the tree again.
+        ((IGosuClassInternal)type).setCompiledBytes( null );
+        return bytes;
+      }
+    }
+
+    byte[] bytes = PersistentClassCache.getOrCompile( type, debug, () -> TransformingCompiler.compileClass( type, debug ) );
+    if( !debug && shouldDiscardDefinitions( type ) )
+    {
+      compileNestAndDiscardDefinitions( (IGosuClassInternal)type );
+    }
+    return bytes;
+  }
+
+  private static boolean shouldDiscardDefinitions( ICompilableType type )
+  {
+    if( !ExecutionEnvironment.isRuntimeOnly() ||
+        !(type instanceof IGosuClassInternal) ||
+        type instanceof IGosuProgram ||
+        type instanceof IGosuFragment ||
+        type instanceof IBlockClass )
+    {
+      return false;
+    }
+    IGosuClassInternal gsClass = (IGosuClassInternal)type;
+    return gsClass.getEnclosingType() == null &&
+           !gsClass.isParameterizedType() &&
+           gsClass.isDefinitionsCompiled() &&
+           !gsClass.isDefinitionsDiscarded();
+  }
+
+  /**
+   * Runtime-only mode.  The JVM loads nested classes and blocks lazily, and compiling one needs the enclosing class's
+   * parse tree, so the whole nest is compiled before the tree is dropped.  Compiling a class can add inner classes,
+   * hence the loop.  Each nested class keeps its bytes until the JVM asks for them; the top-level class's bytes are
+   * being returned to the loader now, so it keeps none.
+   */
+  private static void compileNestAndDiscardDefinitions( IGosuClassInternal gsClass )
+  {
+    TypeSystem.lock();
+    try
+    {
+      Set<IGosuClassInternal> compiled = new HashSet<>();
+      boolean bCompiledAny;
+      do
+      {
+        bCompiledAny = false;
+        List<IGosuClassInternal> nest = new ArrayList<>();
+        addNestedClasses( gsClass, nest );
+        for( IGosuClassInternal nested : nest )
+        {
+          if( compiled.add( nested ) )
+          {
+            nested.setCompiledBytes( PersistentClassCache.getOrCompile( nested, false, () -> TransformingCompiler.compileClass( nested, false ) ) );
+            bCompiledAny = true;
+          }
+        }
+      }
+      while( bCompiledAny );
+
+      gsClass.discardDefinitions();
+    }
+    catch( RuntimeException e )
+    {
+      // Leave the class as it was; a nested class that fails to compile reports the error when the JVM loads it
+      List<IGosuClassInternal> nest = new ArrayList<>();
+      addNestedClasses( gsClass, nest );
+      for( IGosuClassInternal nested : nest )
+      {
+        nested.setCompiledBytes( null );
+      }
+    }
+    finally
+    {
+      TypeSystem.unlock();
+    }
+  }
+
+  private static void addNestedClasses( IGosuClassInternal gsClass, List<IGosuClassInternal> nest )
+  {
+    for( IGosuClass innerClass : gsClass.getKnownInnerClassesWithoutCompiling().values() )
+    {
+      nest.add( (IGosuClassInternal)innerClass );
+      addNestedClasses( (IGosuClassInternal)innerClass, nest );
+    }
   }
 
   private boolean isThrowawayProgram( ICompilableType gsClass ) {
@@ -0,0 +1,597 @@
+/*
+ * Copyright 2014 Guidewire Software, Inc.
+ */
+
+package gw.internal.gosu.compiler;
+
+import gw.fs.IFile;
+import gw.internal.ext.org.objectweb.asm.ClassReader;
+import gw.internal.gosu.parser.TypeLord;
+import gw.lang.Gosu;
+import gw.lang.parser.IParsedElement;
+import gw.lang.parser.ITypeUsesMap;
+import gw.lang.parser.expressions.IMemberAccessExpression;
+import gw.lang.parser.statements.IClassStatement;
+import gw.lang.reflect.IFeatureInfo;
+import gw.lang.reflect.IMetaType;
+import gw.lang.reflect.IType;
+import gw.lang.reflect.TypeSystem;
+import gw.lang.reflect.gs.BytecodeOptions;
+import gw.lang.reflect.gs.ICompilableType;
+import gw.lang.reflect.gs.IGosuClass;
+import gw.lang.reflect.gs.IGosuProgram;
+import gw.lang.reflect.gs.ISourceFileHandle;
+import gw.util.fingerprint.FP64;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.JarURLConnection;
+import java.net.URL;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * An opt-in, on-disk cache of the bytecode Gosu compiles at runtime.  Set -Dgosu.class.cache.dir=&lt;dir&gt; to
+ * enable it; a JVM restart then defines unchanged classes straight from the cached bytes instead of parsing and
+ * transforming them again.
+ * <p/>
+ * An entry is stored under &lt;dir&gt;/&lt;java class name&gt;/&lt;key&gt; where the key is an FP64 fingerprint of the
+ * cache format, the Gosu and Java versions, the class name and the text of the class's source file.  Each entry
+ * also records a fingerprint for every type the bytecode depends on: the types in its constant pool, the owners
+ * of constants it inlined and the types of feature literals in its uses statements.  A Gosu dependency is
+ * fingerprinted by its source text and, transitively, its supertypes'; a Java dependency by the size and time
+ * stamp of its class file or jar.  An entry is loaded only if the key matches and every dependency fingerprint
+ * still matches; otherwise it is deleted and the class compiles as usual.
+ * <p/>
+ * Entries are replaced atomically, so several JVMs can share a directory.  Once the directory grows past
+ * -Dgosu.class.cache.maxMB (default 512) the least recently used entries are deleted.
+ */
+public class PersistentClassCache
+{
+  public static final String DIR_SYSTEM_PROP = "gosu.class.cache.dir";
+  public static final String MAX_MB_SYSTEM_PROP = "gosu.class.cache.maxMB";
+
+  private static final int MAGIC = 0x47534343; // GSCC
+  private static final int FORMAT_VERSION = 1;
+  private static final String[] JDK_PACKAGES = {"java.", "javax.", "sun.", "jdk.", "com.sun."};
+
+  private static File DIR = makeDir( System.getProperty( DIR_SYSTEM_PROP ) );
+  private static long MAX_BYTES = Long.getLong( MAX_MB_SYSTEM_PROP, 512 ) * 1024 * 1024;
+  private static final String VERSION = FORMAT_VERSION + ":" + Gosu.getVersion() + ":" + System.getProperty( "java.version" );
+
+  // Fingerprints of dependencies (and source files) are stable until the type system refreshes
+  private static final Map<String, Long> FINGERPRINTS = new ConcurrentHashMap<>();
+  private static volatile int g_iFingerprintChecksum = -1;
+  private static final AtomicLong g_size = new AtomicLong( -1 );
+
+  public static boolean isEnabled()
+  {
+    return DIR != null;
+  }
+
+  public static File getDir()
+  {
+    return DIR;
+  }
+
+  /**
+   * @param dir The cache directory, or null to disable the cache
+   */
+  public static void setDir( File dir )
+  {
+    DIR = dir == null ? null : makeDir( dir.getPath() );
+    g_size.set( -1 );
+    FINGERPRINTS.clear();
+  }
+
+  public static void setMaxBytes( long lMaxBytes )
+  {
+    MAX_BYTES = lMaxBytes;
+  }
+
+  private static File makeDir( String strDir )
+  {
+    if( strDir == null || strDir.isEmpty() )
+    {
+      return null;
+    }
+    File dir = new File( strDir );
+    //noinspection ResultOfMethodCallIgnored
+    dir.mkdirs();
+    return dir.isDirectory() ? dir : null;
+  }
+
+  /**
+   * Answers the bytecode for the type from the cache, or compiles it and caches the result.
+   */
+  static byte[] getOrCompile( ICompilableType type, boolean debug, Supplier<byte[]> compiler )
+  {
+    File dir = DIR;
+    if( dir == null || debug || !isCacheable( type ) )
+    {
+      return compiler.get();
+    }
+    Long key = makeKey( type );
+    if( key == null )
+    {
+      return compiler.get();
+    }
+    File entryDir = new File( dir, type.getJavaName() );
+    File entry = new File( entryDir, Long.toHexString( key ) );
+    byte[] bytes = read( entry, key, type.getJavaName() );
+    if( bytes != null )
+    {
+      return bytes;
+    }
+    bytes = compiler.get();
+    if( bytes != null )
+    {
+      Map<String, Long> dependencies = findDependencies( type, bytes );
+      if( dependencies != null )
+      {
+        write( dir, entryDir, entry, key, type.getJavaName(), dependencies, bytes );
+      }
+    }
+    return bytes;
+  }
+
+  private static boolean isCacheable( ICompilableType type )
+  {
+    if( type instanceof IGosuProgram ||
+        type.getName().startsWith( Gosu.GOSU_SCRATCHPAD_FQN ) ||
+        BytecodeOptions.shouldDebug( type.getName() ) ||
+        DebugFlag.getDebugFlags().contains( DebugFlag.TRACE ) )
+    {
+      return false;
+    }
+    ICompilableType outer = getOuterMostType( type );
+    return outer instanceof IGosuClass && getSourceFile( outer ) != null;
+  }
+
+  private static Long makeKey( ICompilableType type )
+  {
+    Long sourceFp = getSourceFingerprint( getOuterMostType( type ) );
+    if( sourceFp == null )
+    {
+      return null;
+    }
+    return new FP64( VERSION ).extend( type.getJavaName() ).extend( sourceFp ).getRawFingerprint();
+  }
+
+  private static byte[] read( File entry, long key, String javaName )
+  {
+    if( !entry.isFile() )
+    {
+      return null;
+    }
+    try( DataInputStream in = new DataInputStream( new FileInputStream( entry ) ) )
+    {
+      if( in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION || in.readLong() != key || !javaName.equals( in.readUTF() ) )
+      {
+        throw new IOException( "Bad header" );
+      }
+      int iDeps = in.readInt();
+      for( int i = 0; i < iDeps; i++ )
+      {
+        String dependency = in.readUTF();
+        long fp = in.readLong();
+        Long current = getDependencyFingerprint( dependency );
+        if( current == null || current != fp )
+        {
+          throw new IOException( "Stale dependency: " + dependency );
+        }
+      }
+      byte[] bytes = new byte[in.readInt()];
+      in.readFully( bytes );
+      if( in.readLong() != new FP64( bytes ).getRawFingerprint() )
+      {
+        throw new IOException( "Corrupt bytecode" );
+      }
+      //noinspection ResultOfMethodCallIgnored
+      entry.setLastModified( System.currentTimeMillis() );
+      return bytes;
+    }
+    catch( IOException | RuntimeException e )
+    {
+      delete( entry );
+      return null;
+    }
+  }
+
+  private static void write( File dir, File entryDir, File entry, long key, String javaName, Map<String, Long> dependencies, byte[] bytes )
+  {
+    try
+    {
+      ByteArrayOutputStream buffer = new ByteArrayOutputStream( bytes.length + 256 );
+      DataOutputStream out = new DataOutputStream( buffer );
+      out.writeInt( MAGIC );
+      out.writeInt( FORMAT_VERSION );
+      out.writeLong( key );
+      out.writeUTF( javaName );
+      out.writeInt( dependencies.size() );
+      for( Map.Entry<String, Long> dependency : dependencies.entrySet() )
+      {
+        out.writeUTF( dependency.getKey() );
+        out.writeLong( dependency.getValue() );
+      }
+      out.writeInt( bytes.length );
+      out.write( bytes );
+      out.writeLong( new FP64( bytes ).getRawFingerprint() );
+      out.flush();
+
+      // Older versions of the class are stale, only one entry per class is kept
+      File[] stale = entryDir.listFiles();
+      if( stale != null )
+      {
+        for( File file : stale )
+        {
+          if( !file.equals( entry ) )
+          {
+            delete( file );
+          }
+        }
+      }
+      //noinspection ResultOfMethodCallIgnored
+      entryDir.mkdirs();
+      File temp = File.createTempFile( entry.getName(), ".tmp", entryDir );
+      try( FileOutputStream fileOut = new FileOutputStream( temp ) )
+      {
+        buffer.writeTo( fileOut );
+      }
+      try
+      {
+        Files.move( temp.toPath(), entry.toPath(), StandardCopyOption.ATOMIC_MOVE );
+      }
+      catch( AtomicMoveNotSupportedException e )
+      {
+        Files.move( temp.toPath(), entry.toPath(), StandardCopyOption.REPLACE_EXISTING );
+      }
+      addSize( dir, buffer.size() );
+    }
+    catch( IOException | RuntimeException e )
+    {
+      // The cache is only an optimization
+    }
+  }
+
+  private static void delete( File file )
+  {
+    long lLength = file.length();
+    if( file.delete() )
+    {
+      g_size.accumulateAndGet( lLength, ( size, length ) -> size < 0 ? size : size - length );
+    }
+  }
+
+  private static void addSize( File dir, long lLength )
+  {
+    if( g_size.get() < 0 )
+    {
+      g_size.compareAndSet( -1, sizeOf( dir ) );
+    }
+    else
+    {
+      g_size.addAndGet( lLength );
+    }
+    if( g_size.get() > MAX_BYTES )
+    {
+      evict( dir );
+    }
+  }
+
+  private static long sizeOf( File dir )
+  {
+    long lSize = 0;
+    for( File entry : listEntries( dir ) )
+    {
+      lSize += entry.length();
+    }
+    return lSize;
+  }
+
+  /**
+   * Deletes least recently used entries until the cache is back to 3/4 of its maximum size.
+   */
+  private static synchronized void evict( File dir )
+  {
+    List<File> entries = listEntries( dir );
+    long lSize = 0;
+    for( File entry : entries )
+    {
+      lSize += entry.length();
+    }
+    entries.sort( ( e1, e2 ) -> Long.compare( e1.lastModified(), e2.lastModified() ) );
+    long lTarget = MAX_BYTES / 4 * 3;
+    for( int i = 0; i < entries.size() && lSize > lTarget; i++ )
+    {
+      File entry = entries.get( i );
+      long lLength = entry.length();
+      if( entry.delete() )
+      {
+        lSize -= lLength;
+        //noinspection ResultOfMethodCallIgnored
+        entry.getParentFile().delete(); // only if empty
+      }
+    }
+    g_size.set( lSize );
+  }
+
+  private static List<File> listEntries( File dir )
+  {
+    List<File> entries = new ArrayList<>();
+    File[] entryDirs = dir.listFiles();
+    if( entryDirs != null )
+    {
+      for( File entryDir : entryDirs )
+      {
+        File[] files = entryDir.listFiles();
+        if( files != null )
+        {
+          entries.addAll( Arrays.asList( files ) );
+        }
+      }
+    }
+    return entries;
+  }
+
+  /**
+   * @return The fingerprints of the types the bytecode depends on, or null if they can't all be determined
+   */
+  private static Map<String, Long> findDependencies( ICompilableType type, byte[] bytes )
+  {
+    Set<String> names = new HashSet<>();
+    ClassReader reader = new ClassReader( bytes );
+    char[] buf = new char[reader.getMaxStringLength()];
+    for( int i = 1; i < reader.getItemCount(); i++ )
+    {
+      int iOffset = reader.getItem( i );
+      if( iOffset > 0 && reader.b[iOffset - 1] == 7 /*CONSTANT_Class*/ )
+      {
+        addDependency( names, reader.readUTF8( iOffset, buf ) );
+      }
+    }
+
+    IClassStatement classStmt = type instanceof IGosuClass
+                                ? ((IGosuClass)type).getClassStatementWithoutCompile()
+                                : null;
+    if( classStmt == null )
+    {
+      return null;
+    }
+    // Constants from other types are inlined, so they don't show up in the constant pool
+    List<IMemberAccessExpression> memberAccesses = new ArrayList<>();
+    classStmt.getContainedParsedElementsByType( IMemberAccessExpression.class, memberAccesses );
+    for( IParsedElement memberAccess : memberAccesses )
+    {
+      if( memberAccess.isCompileTimeConstant() )
+      {
+        addDependency( names, ((IMemberAccessExpression)memberAccess).getRootType() );
+      }
+    }
+    ITypeUsesMap typeUses = getOuterMostType( type ).getTypeUsesMap();
+    if( typeUses != null )
+    {
+      for( IFeatureInfo feature : typeUses.getFeatureLiterals() )
+      {
+        addDependency( names, feature.getOwnersType() );
+      }
+    }
+
+    names.remove( getOuterMostType( type ).getName() );
+    List<String> sorted = new ArrayList<>( names );
+    Collections.sort( sorted );
+    Map<String, Long> dependencies = new LinkedHashMap<>();
+    for( String name : sorted )
+    {
+      Long fp = getDependencyFingerprint( name );
+      if( fp == null )
+      {
+        return null;
+      }
+      dependencies.put( name, fp );
+    }
+    return dependencies;
+  }
+
+  private static void addDependency( Set<String> names, IType type )
+  {
+    if( type instanceof IMetaType )
+    {
+      type = ((IMetaType)type).getType();
+    }
+    if( type != null )
+    {
+      addDependency( names, TypeLord.getOuterMostEnclosingClass( TypeLord.getPureGenericType( type ) ).getName() );
+    }
+  }
+
+  private static void addDependency( Set<String> names, String internalName )
+  {
+    String name = internalName.replace( '/', '.' );
+    if( name.startsWith( "[" ) )
+    {
+      int iStart = name.lastIndexOf( '[' ) + 1;
+      if( name.charAt( iStart ) != 'L' )
+      {
+        return; // primitive array
+      }
+      name = name.substring( iStart + 1, name.length() - 1 );
+    }
+    int iDollar = name.indexOf( '$' );
+    if( iDollar > 0 )
+    {
+      name = name.substring( 0, iDollar );
+    }
+    for( String jdkPackage : JDK_PACKAGES )
+    {
+      if( name.startsWith( jdkPackage ) )
+      {
+        return; // covered by the Java version in the key
+      }
+    }
+    names.add( name );
+  }
+
+  private static Long getDependencyFingerprint( String name )
+  {
+    clearFingerprintsIfStale();
+    Long fp = FINGERPRINTS.get( name );
+    if( fp == null )
+    {
+      fp = makeDependencyFingerprint( name, new HashSet<>() );
+      if( fp != null )
+      {
+        FINGERPRINTS.put( name, fp );
+      }
+    }
+    return fp;
+  }
+
+  private static Long makeDependencyFingerprint( String name, Set<String> visited )
+  {
+    if( !visited.add( name ) )
+    {
+      return 0L;
+    }
+    IType type = TypeSystem.getByFullNameIfValidNoJava( name );
+    if( type instanceof ICompilableType )
+    {
+      Long sourceFp = getSourceFingerprint( (ICompilableType)type );
+      if( sourceFp == null )
+      {
+        return null;
+      }
+      // The bytecode may bind to members inherited from the dependency's supertypes
+      FP64 fp = new FP64().extend( sourceFp );
+      List<IType> supertypes = new ArrayList<>( Arrays.asList( type.getInterfaces() ) );
+      supertypes.add( type.getSupertype() );
+      for( IType supertype : supertypes )
+      {
+        if( supertype != null )
+        {
+          Set<String> superNames = new HashSet<>();
+          addDependency( superNames, supertype );
+          for( String superName : superNames )
+          {
+            Long superFp = makeDependencyFingerprint( superName, visited );
+            if( superFp == null )
+            {
+              return null;
+            }
+            fp.extend( superName ).extend( superFp );
+          }
+        }
+      }
+      return fp.getRawFingerprint();
+    }
+    return getClassFileFingerprint( name );
+  }
+
+  /**
+   * A Java class is fingerprinted by the size and time stamp of its class file, or the jar containing it.  A
+   * class without a class file or jar, e.g., one generated at runtime, can't be fingerprinted, so classes that
+   * depend on it aren't cached.
+   */
+  private static Long getClassFileFingerprint( String name )
+  {
+    URL url = TypeSystem.getGosuClassLoader().getActualLoader().getResource( name.replace( '.', '/' ) + ".class" );
+    if( url == null )
+    {
+      return null;
+    }
+    try
+    {
+      File file;
+      if( "file".equals( url.getProtocol() ) )
+      {
+        file = new File( url.toURI() );
+      }
+      else if( "jar".equals( url.getProtocol() ) )
+      {
+        URL jarUrl = ((JarURLConnection)url.openConnection()).getJarFileURL();
+        file = "file".equals( jarUrl.getProtocol() ) ? new File( jarUrl.toURI() ) : null;
+      }
+      else
+      {
+        return null;
+      }
+      if( file == null )
+      {
+        return null;
+      }
+      return new FP64( file.getPath() ).extend( file.length() ).extend( file.lastModified() ).getRawFingerprint();
+    }
+    catch( Exception e )
+    {
+      return null;
+    }
+  }
+
+  private static Long getSourceFingerprint( ICompilableType type )
+  {
+    IFile file = getSourceFile( getOuterMostType( type ) );
+    if( file == null )
+    {
+      return null;
+    }
+    clearFingerprintsIfStale();
+    String strKey = "source:" + file.getPath().getFileSystemPathString();
+    Long fp = FINGERPRINTS.get( strKey );
+    if( fp == null )
+    {
+      try( InputStream in = file.openInputStream() )
+      {
+        fp = new FP64( in ).getRawFingerprint();
+      }
+      catch( IOException e )
+      {
+        return null;
+      }
+      FINGERPRINTS.put( strKey, fp );
+    }
+    return fp;
+  }
+
+  private static IFile getSourceFile( ICompilableType type )
+  {
+    ISourceFileHandle sfh = type.getSourceFileHandle();
+    return sfh == null ? null : sfh.getFile();
+  }
+
+  private static ICompilableType getOuterMostType( ICompilableType type )
+  {
+    while( type.getEnclosingType() != null )
+    {
+      type = type.getEnclosingType();
+    }
+    return type;
+  }
+
+  private static void clearFingerprintsIfStale()
+  {
+    int iChecksum = TypeSystem.getRefreshChecksum();
+    if( g_iFingerprintChecksum != iChecksum )
+    {
+      FINGERPRINTS.clear();
+      g_iFingerprintChecksum = iChecksum;
+    }
+  }
+}
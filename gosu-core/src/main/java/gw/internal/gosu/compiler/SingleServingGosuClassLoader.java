@@ -4,7 +4,6 @@
 
 package gw.internal.gosu.compiler;
 
-import gw.internal.gosu.ir.TransformingCompiler;
 import gw.lang.Gosu;
 import gw.lang.reflect.IType;
 import gw.lang.reflect.TypeSystem;
@@ -159,7 +158,7 @@ public class SingleServingGosuClassLoader extends ClassLoader implements IGosuCl
 
   private byte[] compileClass( ICompilableType type, boolean debug )
   {
-    return TransformingCompiler.compileClass( type, debug );
+    return GosuClassLoader.compileClass( type, debug );
   }
 
   @Override
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2014 Guidewire Software, Inc.
+ */
+
+package gw.internal.gosu.ir.compiler.bytecode.expression;
+
+import gw.internal.ext.org.objectweb.asm.Handle;
+import gw.internal.ext.org.objectweb.asm.Opcodes;
+import gw.internal.ext.org.objectweb.asm.Type;
+import gw.internal.gosu.ir.compiler.bytecode.AbstractBytecodeCompiler;
+import gw.internal.gosu.ir.compiler.bytecode.IRBytecodeCompiler;
+import gw.internal.gosu.ir.compiler.bytecode.IRBytecodeContext;
+import gw.lang.ir.IRExpression;
+import gw.lang.ir.IRType;
+import gw.lang.ir.expression.IRInvokeDynamicExpression;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.List;
+
+public class IRInvokeDynamicExpressionCompiler extends AbstractBytecodeCompiler {
+
+  public static void compile( IRInvokeDynamicExpression expression, IRBytecodeContext context ) {
+    for( IRExpression arg : expression.getArgs() ) {
+      IRBytecodeCompiler.compileIRExpression( arg, context );
+    }
+
+    StringBuilder descriptor = new StringBuilder();
+    descriptor.append( "(" );
+    for( IRType param : expression.getParameterTypes() ) {
+      descriptor.append( param.getDescriptor() );
+    }
+    descriptor.append( ")" );
+    descriptor.append( expression.getReturnType().getDescriptor() );
+
+    List<Object> bootstrapArgs = expression.getBootstrapArgs();
+    Handle bootstrap = new Handle( Opcodes.H_INVOKESTATIC,
+                                   expression.getBootstrapOwner().getSlashName(),
+                                   expression.getBootstrapMethodName(),
+                                   makeBootstrapDescriptor( bootstrapArgs ) );
+    context.getMv().visitInvokeDynamicInsn( expression.getName(),
+                                            descriptor.toString(),
+                                            bootstrap,
+                                            bootstrapArgs.toArray() );
+  }
+
+  private static String makeBootstrapDescriptor( List<Object> bootstrapArgs ) {
+    Type[] params = new Type[3 + bootstrapArgs.size()];
+    params[0] = Type.getType( MethodHandles.Lookup.class );
+    params[1] = Type.getType( String.class );
+    params[2] = Type.getType( MethodType.class );
+    for( int i = 0; i < bootstrapArgs.size(); i++ ) {
+      params[3 + i] = getConstantType( bootstrapArgs.get( i ) );
+    }
+    return Type.getMethodDescriptor( Type.getType( CallSite.class ), params );
+  }
+
+  private static Type getConstantType( Object constant ) {
+    if( constant instanceof String ) {
+      return Type.getType( String.class );
+    }
+    if( constant instanceof Integer ) {
+      return Type.INT_TYPE;
+    }
+    if( constant instanceof Long ) {
+      return Type.LONG_TYPE;
+    }
+    if( constant instanceof Float ) {
+      return Type.FLOAT_TYPE;
+    }
+    if( constant instanceof Double ) {
+      return Type.DOUBLE_TYPE;
+    }
+    throw new IllegalArgumentException( "Unsupported bootstrap argument: " + constant );
+  }
+}
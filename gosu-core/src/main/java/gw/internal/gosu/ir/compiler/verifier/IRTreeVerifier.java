@@ -20,6 +20,7 @@ import gw.lang.ir.expression.IRFieldGetExpression;
 import gw.lang.ir.expression.IREqualityExpression;
 import gw.lang.ir.expression.IRCompositeExpression;
 import gw.lang.ir.expression.IRMethodCallExpression;
+import gw.lang.ir.expression.IRInvokeDynamicExpression;
 import gw.lang.ir.expression.IRNullLiteral;
 import gw.lang.ir.expression.IRPrimitiveTypeConversion;
 import gw.lang.ir.expression.IRTernaryExpression;
@@ -325,6 +326,8 @@ public class IRTreeVerifier {
       verifyIRIdentifier((IRIdentifier) expression);
     } else if (expression instanceof IRMethodCallExpression) {
       verifyIRMethodCallExpression((IRMethodCallExpression) expression);
+    } else if (expression instanceof IRInvokeDynamicExpression) {
+      verifyIRInvokeDynamicExpression((IRInvokeDynamicExpression) expression);
     } else if (expression instanceof IRNullLiteral) {
       verifyIRNullLiteral((IRNullLiteral) expression);
     } else if (expression instanceof IRPrimitiveTypeConversion) {
@@ -486,6 +489,13 @@ public class IRTreeVerifier {
   private void verifyIRIdentifier(IRIdentifier irIdentifier) {
   }
 
+  private void verifyIRInvokeDynamicExpression(IRInvokeDynamicExpression irInvokeDynamicExpression) {
+    verifyTypeAgreement(irInvokeDynamicExpression.getParameterTypes(), irInvokeDynamicExpression.getArgs(), irInvokeDynamicExpression);
+    for (IRExpression arg : irInvokeDynamicExpression.getArgs()) {
+      verifyIRExpression(arg);
+    }
+  }
+
   private void verifyIRMethodCallExpression(IRMethodCallExpression irMethodCallExpression) {
     verifyTypeAgreement(irMethodCallExpression.getParameterTypes(), irMethodCallExpression.getArgs(), irMethodCallExpression);
     if (irMethodCallExpression.getRoot() != null && !verifyExpressionIsOfType(irMethodCallExpression.getOwnersType(), irMethodCallExpression.getRoot())) {
@@ -57,6 +57,7 @@ import gw.lang.ir.expression.IRCompositeExpression;
 import gw.lang.ir.expression.IREqualityExpression;
 import gw.lang.ir.expression.IRFieldGetExpression;
 import gw.lang.ir.expression.IRIdentifier;
+import gw.lang.ir.expression.IRInvokeDynamicExpression;
 import gw.lang.ir.expression.IRLazyTypeMethodCallExpression;
 import gw.lang.ir.expression.IRMethodCallExpression;
 import gw.lang.ir.expression.IRNegationExpression;
@@ -210,6 +211,40 @@ public abstract class AbstractElementTransformer<T extends IParsedElement>
     return callMethod( cls, strMethod, paramTypes, null, args );
   }
 
+  /**
+   * @return true if a dynamic feature access on the named member should compile to an invokedynamic call site.
+   * The member name is the call site name, so it must be a legal JVM method name.
+   */
+  protected boolean shouldDispatchDynamically( String memberName )
+  {
+    if( !BytecodeOptions.isInvokeDynamicDispatch() || memberName == null || memberName.isEmpty() )
+    {
+      return false;
+    }
+    for( int i = 0; i < memberName.length(); i++ )
+    {
+      char c = memberName.charAt( i );
+      if( c == '.' || c == ';' || c == '[' || c == '/' || c == '<' || c == '>' )
+      {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  public IRExpression invokeDynamic( Class bootstrapOwner, String bootstrapMethod, String name, Class returnType, Class[] paramTypes, List<IRExpression> args )
+  {
+    List<IRType> irParamTypes = new ArrayList<IRType>();
+    List<IRExpression> convertedArgs = new ArrayList<IRExpression>();
+    for( int i = 0; i < paramTypes.length; i++ )
+    {
+      IRType paramType = getDescriptor( paramTypes[i] );
+      irParamTypes.add( paramType );
+      convertedArgs.add( IRArgConverter.castOrConvertIfNecessary( paramType, args.get( i ) ) );
+    }
+    return new IRInvokeDynamicExpression( name, getDescriptor( bootstrapOwner ), bootstrapMethod, getDescriptor( returnType ), irParamTypes, convertedArgs );
+  }
+
   //TODO-sm Remove this method.
   public IRExpression callMethod( Class cls, String strMethod, Class[] paramTypes, IRExpression root, List<IRExpression> args )
   {
@@ -2181,6 +2216,11 @@ public abstract class AbstractElementTransformer<T extends IParsedElement>
 
   protected IRExpression pushOuter()
   {
+    if( _cc().compilingLambdaBody() )
+    {
+      // the block's body is a method on its enclosing class
+      return pushThis();
+    }
     if( _cc().getCurrentFunction() != null && _cc().getCurrentFunction().isConstructor() )
     {
       return identifier( _cc().getSymbol( _cc().getOuterThisParamName() ) );
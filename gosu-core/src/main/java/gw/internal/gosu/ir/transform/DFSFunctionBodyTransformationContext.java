@@ -5,7 +5,7 @@
 package gw.internal.gosu.ir.transform;
 
 import gw.internal.gosu.parser.DynamicFunctionSymbol;
-import gw.internal.gosu.parser.BlockClass;
+import gw.internal.gosu.compiler.FunctionClassUtil;
 
 public class DFSFunctionBodyTransformationContext extends FunctionBodyTransformationContext {
 
@@ -18,7 +18,7 @@ public class DFSFunctionBodyTransformationContext extends FunctionBodyTransforma
 
   public boolean isBlockInvoke()
   {
-    return _dfs.getDisplayName().equals( BlockClass.INVOKE_METHOD_NAME ) && _context.compilingBlock();
+    return FunctionClassUtil.isBlockInvokeMethodName( _dfs.getDisplayName() ) && _context.compilingBlock();
   }
 
   public DynamicFunctionSymbol getCurrentDFS()
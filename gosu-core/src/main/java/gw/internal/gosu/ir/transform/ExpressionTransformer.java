@@ -109,7 +109,8 @@ public class ExpressionTransformer
 {
   private IExpression _expr;
   private TopLevelTransformationContext _cc;
-  private static Map<IExpression, IRSymbol> _tempSymbolsForCompoundAssignment = new HashMap<IExpression, IRSymbol>();
+  // Per thread, classes may be transformed on several threads at once (see gosuc -j)
+  private static final ThreadLocal<Map<IExpression, IRSymbol>> _tempSymbolsForCompoundAssignment = ThreadLocal.withInitial( HashMap::new );
 
   public static IRExpression compile( IExpression expr, TopLevelTransformationContext cc )
   {
@@ -125,12 +126,12 @@ public class ExpressionTransformer
 
   public static void addTempSymbolForCompoundAssignment( IExpression e, IRSymbol s )
   {
-    _tempSymbolsForCompoundAssignment.put( e, s );
+    _tempSymbolsForCompoundAssignment.get().put( e, s );
   }
 
   public static void clearTempSymbolForCompoundAssignment()
   {
-    _tempSymbolsForCompoundAssignment.clear();
+    _tempSymbolsForCompoundAssignment.get().clear();
   }
 
   private ExpressionTransformer( IExpression expr, TopLevelTransformationContext cc )
@@ -141,7 +142,8 @@ public class ExpressionTransformer
 
   private IRExpression compile()
   {                    // size check for perf, this is called a lot and this is mostly 0 length, mostly
-    IRSymbol symbol = _tempSymbolsForCompoundAssignment.size() > 0 ? _tempSymbolsForCompoundAssignment.get( _expr ) : null;
+    Map<IExpression, IRSymbol> tempSymbols = _tempSymbolsForCompoundAssignment.get();
+    IRSymbol symbol = tempSymbols.size() > 0 ? tempSymbols.get( _expr ) : null;
     if(  symbol != null ) {
       return new IRIdentifier( symbol );
     }
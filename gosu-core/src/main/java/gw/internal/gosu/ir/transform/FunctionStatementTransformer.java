@@ -168,7 +168,10 @@ public class FunctionStatementTransformer extends AbstractElementTransformer<Fun
       if( terminalStmt == null || !bAbsolute[0] )
       {
         //visit a label
-        IRReturnStatement returnStatement = new IRReturnStatement( null, returnType != JavaTypes.pVOID() ? nullLiteral() : null );
+        IRExpression returnValue = returnType == JavaTypes.pVOID()
+                                   ? null
+                                   : returnType.isPrimitive() ? getDefaultConstIns( returnType ) : nullLiteral();
+        IRReturnStatement returnStatement = new IRReturnStatement( null, returnValue );
         returnStatement.setLineNumber( statement.getLineNum() );
         statements.add( returnStatement );
       }
@@ -268,14 +271,20 @@ public class FunctionStatementTransformer extends AbstractElementTransformer<Fun
       IRSymbol properlyTypedSymbol = new IRSymbol( paramSym.getName() + (paramSym.isValueBoxed() ? "$$unboxedParam" : ""), getDescriptor(actualType), false );
       _cc().putSymbol( properlyTypedSymbol );
 
+      IRSymbol blockParamSymbol = _cc().getSymbol( paramSym.getName() + "$$blockParam" );
       IRExpression value;
-      if( actualType.isPrimitive() )
+      if( blockParamSymbol.getType().isPrimitive() )
       {
-        value = unboxValueToType( actualType, identifier( _cc().getSymbol( paramSym.getName() + "$$blockParam" ) ) );
+        // already unboxed, see BlockClass.convertToObjectSymbols()
+        value = identifier( blockParamSymbol );
+      }
+      else if( actualType.isPrimitive() )
+      {
+        value = unboxValueToType( actualType, identifier( blockParamSymbol ) );
       }
       else
       {
-        value = checkCast( actualType, identifier( _cc().getSymbol( paramSym.getName() + "$$blockParam" ) ) );
+        value = checkCast( actualType, identifier( blockParamSymbol ) );
       }
       statements.add( buildAssignment( properlyTypedSymbol, value ) );
     }
@@ -10,6 +10,7 @@ import gw.internal.gosu.parser.IGosuClassInternal;
 import gw.lang.ir.IRExpression;
 import gw.lang.ir.IRStatement;
 import gw.lang.ir.IRType;
+import gw.lang.ir.statement.IRMethodStatement;
 import gw.lang.parser.IBlockClass;
 import gw.lang.parser.Keyword;
 import gw.lang.reflect.IRelativeTypeInfo;
@@ -116,7 +117,8 @@ public class GosuClassTransformationContext extends TransformationContextBase {
 
   @Override
   public IRType getIRTypeForCurrentClass() {
-    return GosuClassIRType.get( _gsClass );
+    IGosuClassInternal lambdaHost = _classTransformer.getLambdaHostClass();
+    return GosuClassIRType.get( lambdaHost != null ? lambdaHost : _gsClass );
   }
 
   @Override
@@ -166,4 +168,16 @@ public class GosuClassTransformationContext extends TransformationContextBase {
   {
     return getGosuClass() instanceof IBlockClass;
   }
+
+  @Override
+  public IRMethodStatement compileLambdaBlock( IBlockClass blockClass )
+  {
+    return _classTransformer.compileLambdaBlock( blockClass );
+  }
+
+  @Override
+  public boolean compilingLambdaBody()
+  {
+    return _classTransformer.getLambdaHostClass() != null;
+  }
 }
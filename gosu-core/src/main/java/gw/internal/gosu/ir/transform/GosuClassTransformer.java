@@ -7,6 +7,7 @@ package gw.internal.gosu.ir.transform;
 import gw.internal.ext.org.objectweb.asm.Opcodes;
 import gw.internal.gosu.ir.nodes.GosuClassIRType;
 import gw.internal.gosu.ir.nodes.IRMethod;
+import gw.internal.gosu.compiler.FunctionClassUtil;
 import gw.internal.gosu.ir.nodes.IRMethodFactory;
 import gw.internal.gosu.ir.nodes.JavaClassIRType;
 import gw.internal.gosu.ir.transform.statement.AssertStatementTransformer;
@@ -15,7 +16,6 @@ import gw.internal.gosu.ir.transform.util.AccessibilityUtil;
 import gw.internal.gosu.ir.transform.util.IRTypeResolver;
 import gw.internal.gosu.ir.transform.util.NameResolver;
 import gw.internal.gosu.parser.AbstractDynamicSymbol;
-import gw.internal.gosu.parser.BlockClass;
 import gw.internal.gosu.parser.DynamicFunctionSymbol;
 import gw.internal.gosu.parser.EnhancementDynamicFunctionSymbol;
 import gw.internal.gosu.parser.EnumCodePropertySymbol;
@@ -69,6 +69,7 @@ import gw.lang.ir.statement.IRTryCatchFinallyStatement;
 import gw.lang.parser.ICapturedSymbol;
 import gw.lang.parser.IDynamicFunctionSymbol;
 import gw.lang.parser.IDynamicPropertySymbol;
+import gw.lang.parser.IBlockClass;
 import gw.lang.parser.IExpression;
 import gw.lang.parser.IProgramClassFunctionSymbol;
 import gw.lang.parser.IReducedDynamicFunctionSymbol;
@@ -113,6 +114,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -131,6 +133,10 @@ public class GosuClassTransformer extends AbstractElementTransformer<ClassStatem
   private IRClass _irClass;
   private GosuClassTransformationContext _context;
   private boolean _bHasAsserts;
+  // Set while compiling a block's body into its enclosing class, see compileLambdaBlock()
+  private GosuClassTransformer _lambdaHost;
+  // Blocks already compiled into this class; a null method means the block needs a class of its own
+  private Map<IBlockClass, IRMethodStatement> _lambdaBlocks;
 
   public static IRClass compile( IGosuClassInternal gsClass )
   {
@@ -923,6 +929,10 @@ public class GosuClassTransformer extends AbstractElementTransformer<ClassStatem
       {
         compileBridgeMethods( (DynamicFunctionSymbol)idfs );
       }
+      if( isPrimitiveBlockInvoke( (DynamicFunctionSymbol)idfs ) )
+      {
+        compilePrimitiveBlockInvokeBridge( (DynamicFunctionSymbol)idfs );
+      }
 
 //      if( idfs.getType().isGenericType() &&
 //          !Modifier.isPrivate( _gsClass.getModifiers() ) &&
@@ -1465,6 +1475,116 @@ public class GosuClassTransformer extends AbstractElementTransformer<ClassStatem
     }
   }
 
+  IGosuClassInternal getLambdaHostClass()
+  {
+    return _lambdaHost == null ? null : _lambdaHost._gsClass;
+  }
+
+  /**
+   * Compiles a block's invoke method to a private synthetic method on this class, once per block, so the block
+   * can be created with LambdaMetafactory instead of being loaded as a class of its own.
+   *
+   * @return the method, or null if the block's body needs members of the block class
+   */
+  IRMethodStatement compileLambdaBlock( IBlockClass blockClass )
+  {
+    if( _lambdaBlocks == null )
+    {
+      _lambdaBlocks = new IdentityHashMap<IBlockClass, IRMethodStatement>();
+    }
+    if( !_lambdaBlocks.containsKey( blockClass ) )
+    {
+      GosuClassTransformer blockCompiler = new GosuClassTransformer( (IGosuClassInternal)blockClass );
+      blockCompiler._lambdaHost = this;
+      IRMethodStatement method = blockCompiler.compileLambdaBody();
+      if( method != null )
+      {
+        _irClass.addMethod( method );
+      }
+      _lambdaBlocks.put( blockClass, method );
+    }
+    return _lambdaBlocks.get( blockClass );
+  }
+
+  private IRMethodStatement compileLambdaBody()
+  {
+    _irClass = new IRClass();
+    _cc().setIrClass( _irClass );
+
+    DynamicFunctionSymbol dfs = null;
+    for( IDynamicFunctionSymbol idfs : _gsClass.getMemberFunctions() )
+    {
+      if( isBlockInvoke( (DynamicFunctionSymbol)idfs ) )
+      {
+        dfs = (DynamicFunctionSymbol)idfs;
+      }
+    }
+
+    List<IRSymbol> parameters = new ArrayList<IRSymbol>();
+    for( ISymbol param : dfs.getArgs() )
+    {
+      parameters.add( makeParamSymbol( dfs, param ) );
+    }
+
+    // A static block never refers to an outer instance, so its body needs no 'this'
+    boolean bStatic = _gsClass.isStatic();
+    _context.initBodyContext( bStatic, dfs );
+    _context.pushScope( !bStatic );
+    _context.putSymbols( parameters );
+    IRStatement methodBody = new FunctionStatementTransformer( dfs, _context ).compile();
+
+    if( !_irClass.getMethods().isEmpty() || !_irClass.getFields().isEmpty() )
+    {
+      // e.g. a lazy type resolver method, which is referenced through the block class
+      return null;
+    }
+
+    String strBlock = _gsClass.getName();
+    return new IRMethodStatement( methodBody,
+                                  "lambda$" + strBlock.substring( strBlock.lastIndexOf( '.' ) + 1 ),
+                                  Opcodes.ACC_PRIVATE | Opcodes.ACC_SYNTHETIC | (bStatic ? Opcodes.ACC_STATIC : 0),
+                                  false,
+                                  getDescriptor( dfs.getReturnType() ),
+                                  parameters );
+  }
+
+  /**
+   * A block with a primitive interface has its body in e.g. invokeInt().  The IFunctionN invoke() method unboxes
+   * its arguments, calls through to it and boxes the result.
+   */
+  private void compilePrimitiveBlockInvokeBridge( DynamicFunctionSymbol dfs )
+  {
+    IType[] argTypes = dfs.getArgTypes();
+    List<IRSymbol> parameters = new ArrayList<IRSymbol>();
+    for( int i = 0; i < argTypes.length; i++ )
+    {
+      parameters.add( new IRSymbol( "arg" + i, IRTypeConstants.OBJECT(), false ) );
+    }
+
+    setUpFunctionContext( true, parameters );
+
+    List<IRExpression> args = new ArrayList<IRExpression>();
+    for( int i = 0; i < argTypes.length; i++ )
+    {
+      IRExpression arg = identifier( parameters.get( i ) );
+      args.add( argTypes[i].isPrimitive() ? unboxValueToType( argTypes[i], arg ) : arg );
+    }
+
+    IRMethod irMethod = IRMethodFactory.createIRMethod( _gsClass, NameResolver.getFunctionName( dfs ), dfs.getReturnType(), argTypes, AccessibilityUtil.forSymbol( dfs ), false );
+    IRExpression methodCall = boxValue( dfs.getReturnType(), callMethod( irMethod, pushThis(), args ) );
+
+    IRStatementList methodBody = new IRStatementList( true );
+    methodBody.addStatement( new IRReturnStatement( null, methodCall ) );
+
+    _irClass.addMethod( new IRMethodStatement(
+      methodBody,
+      IBlockClass.INVOKE_METHOD_NAME,
+      getModifiers( dfs ),
+      dfs.isInternal(),
+      IRTypeConstants.OBJECT(),
+      parameters ) );
+  }
+
   private IType[] getParamsIncludingTypeParams( DynamicFunctionSymbol dfs )
   {
     if( dfs.isReified() )
@@ -2238,6 +2358,11 @@ public class GosuClassTransformer extends AbstractElementTransformer<ClassStatem
 
   public void setHasAsserts()
   {
+    if( _lambdaHost != null )
+    {
+      _lambdaHost.setHasAsserts();
+      return;
+    }
     if( _bHasAsserts )
     {
       return;
@@ -2281,9 +2406,14 @@ public class GosuClassTransformer extends AbstractElementTransformer<ClassStatem
 
   // ------------------------------------------- Additions
 
+  private boolean isPrimitiveBlockInvoke( DynamicFunctionSymbol dfs )
+  {
+    return isBlockInvoke( dfs ) && !dfs.getDisplayName().equals( IBlockClass.INVOKE_METHOD_NAME );
+  }
+
   public boolean isBlockInvoke( DynamicFunctionSymbol dfs )
   {
-    return dfs.getDisplayName().equals( BlockClass.INVOKE_METHOD_NAME ) && _context.compilingBlock();
+    return FunctionClassUtil.isBlockInvokeMethodName( dfs.getDisplayName() ) && _context.compilingBlock();
   }
 
   private void setUpFunctionContext( boolean instanceMethod, List<IRSymbol> params )
@@ -13,6 +13,8 @@ import gw.lang.ir.IRStatement;
 import gw.lang.ir.IRExpression;
 import gw.lang.ir.IRSymbol;
 import gw.lang.ir.IRType;
+import gw.lang.ir.statement.IRMethodStatement;
+import gw.lang.parser.IBlockClass;
 import gw.lang.reflect.IType;
 import gw.lang.reflect.IRelativeTypeInfo;
 import gw.lang.parser.IStatement;
@@ -120,4 +122,17 @@ public interface TopLevelTransformationContext {
   DynamicFunctionSymbol getCurrentFunction();
 
   int incrementLazyTypeMethodCount();
+
+  /**
+   * Compiles the block's body to a private synthetic method on the class being compiled, see
+   * BytecodeOptions.isLambdaBlocks().
+   *
+   * @return the method, or null if the block needs a class of its own
+   */
+  IRMethodStatement compileLambdaBlock( IBlockClass blockClass );
+
+  /**
+   * @return true while compiling a block's body into its enclosing class, where the block's outer instance is 'this'
+   */
+  boolean compilingLambdaBody();
 }
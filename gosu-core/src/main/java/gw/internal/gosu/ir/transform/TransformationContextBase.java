@@ -14,6 +14,7 @@ import gw.lang.ir.IRSymbol;
 import gw.lang.ir.IRType;
 import gw.lang.ir.IRStatement;
 import gw.lang.ir.IRExpression;
+import gw.lang.ir.statement.IRMethodStatement;
 import gw.lang.parser.IStatement;
 import gw.lang.parser.IBlockClass;
 import gw.lang.reflect.IType;
@@ -65,6 +66,18 @@ public abstract class TransformationContextBase implements TopLevelTransformatio
     return false;
   }
 
+  @Override
+  public IRMethodStatement compileLambdaBlock( IBlockClass blockClass )
+  {
+    return null;
+  }
+
+  @Override
+  public boolean compilingLambdaBody()
+  {
+    return false;
+  }
+
   @Override
   public ICompilableTypeInternal getGosuClass() {
     return _compilingType;
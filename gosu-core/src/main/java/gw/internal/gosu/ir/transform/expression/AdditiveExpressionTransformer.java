@@ -15,6 +15,8 @@ import gw.internal.gosu.runtime.GosuRuntimeMethods;
 import gw.lang.IDimension;
 import gw.lang.ir.IRExpression;
 import gw.lang.ir.IRSymbol;
+import gw.lang.ir.IRType;
+import gw.lang.ir.IRTypeConstants;
 import gw.lang.ir.expression.IRArithmeticExpression;
 import gw.lang.ir.expression.IRStringLiteralExpression;
 import gw.lang.ir.statement.IRAssignmentStatement;
@@ -24,6 +26,7 @@ import gw.lang.parser.IParseTree;
 import gw.lang.parser.IParsedElement;
 import gw.lang.reflect.IType;
 import gw.lang.reflect.TypeSystem;
+import gw.lang.reflect.gs.BytecodeOptions;
 import gw.lang.reflect.java.IJavaType;
 import gw.lang.reflect.java.JavaTypes;
 
@@ -36,6 +39,7 @@ import java.util.Collections;
 public class AdditiveExpressionTransformer extends ArithmeticExpressionTransformer<AdditiveExpression>
 {
   private final StringBuilderHandle _stringBuilderFromParent;
+  private final IndyStringConcat _concatFromParent;
 
   public static IRExpression compile( TopLevelTransformationContext cc, AdditiveExpression expr )
   {
@@ -43,14 +47,15 @@ public class AdditiveExpressionTransformer extends ArithmeticExpressionTransform
   }
   public static IRExpression compile( TopLevelTransformationContext cc, AdditiveExpression expr, StringBuilderHandle stringBuilder )
   {
-    AdditiveExpressionTransformer gen = new AdditiveExpressionTransformer( cc, expr, stringBuilder );
+    AdditiveExpressionTransformer gen = new AdditiveExpressionTransformer( cc, expr, stringBuilder, null );
     return gen.compile();
   }
 
-  private AdditiveExpressionTransformer( TopLevelTransformationContext cc, AdditiveExpression expr, StringBuilderHandle stringBuilderFromParent )
+  private AdditiveExpressionTransformer( TopLevelTransformationContext cc, AdditiveExpression expr, StringBuilderHandle stringBuilderFromParent, IndyStringConcat concatFromParent )
   {
     super( cc, expr );
     _stringBuilderFromParent = stringBuilderFromParent;
+    _concatFromParent = concatFromParent;
   }
 
   protected IRExpression compile_impl()
@@ -183,6 +188,19 @@ public class AdditiveExpressionTransformer extends ArithmeticExpressionTransform
   }
 
   private IRExpression stringConcatenation() {
+    if( _concatFromParent != null ) {
+      // Flattened into the parent's invokedynamic
+      addIndyConcatOperand( _concatFromParent, _expr().getLHS() );
+      addIndyConcatOperand( _concatFromParent, _expr().getRHS() );
+      return null;
+    }
+    if( _stringBuilderFromParent == null && BytecodeOptions.isIndyStringConcat() ) {
+      IndyStringConcat concat = new IndyStringConcat();
+      addIndyConcatOperand( concat, _expr().getLHS() );
+      addIndyConcatOperand( concat, _expr().getRHS() );
+      return concat.build();
+    }
+
     StringBuilderHandle sbHandle = _stringBuilderFromParent;
     if( sbHandle == null ) {
       sbHandle = new StringBuilderHandle();
@@ -248,6 +266,57 @@ public class AdditiveExpressionTransformer extends ArithmeticExpressionTransform
     }
   }
 
+  private void addIndyConcatOperand( IndyStringConcat concat, Expression operand ) {
+    IType operandType = operand.getType();
+    IRExpression expr;
+    if( operand instanceof AdditiveExpression && operandType == JavaTypes.STRING() ) {
+      expr = new AdditiveExpressionTransformer( _cc(), (AdditiveExpression)operand, null, concat ).compile();
+      if( expr == null ) {
+        // its operands were added to concat
+        return;
+      }
+    }
+    else {
+      expr = ExpressionTransformer.compile( operand, _cc() );
+    }
+    addIndyConcatOperand( concat, operandType, expr );
+  }
+
+  // Converts the operand the way handleConcatOperand() would append it
+  private void addIndyConcatOperand( IndyStringConcat concat, IType operandType, IRExpression expr ) {
+    if( expr instanceof IRStringLiteralExpression && ((IRStringLiteralExpression)expr).getValue() != null ) {
+      concat.addText( ((IRStringLiteralExpression)expr).getValue() );
+    }
+    else if( operandType.isPrimitive() ) {
+      IRType irType = getDescriptor( operandType );
+      if( irType.getJavaClass() == void.class ) {
+        // 'null' literal
+        concat.addText( "null" );
+      }
+      else {
+        concat.addArg( expr, irType );
+      }
+    }
+    else if( operandType == JavaTypes.STRING() ) {
+      concat.addArg( expr, IRTypeConstants.STRING() );
+    }
+    else if( JavaTypes.pCHAR().getArrayType().isAssignableFrom( operandType ) ) {
+      concat.addArg( callStaticMethod( String.class, "valueOf", new Class[]{char[].class}, Collections.singletonList( expr ) ), IRTypeConstants.STRING() );
+    }
+    else if( JavaTypes.CHAR_SEQUENCE().isAssignableFrom( operandType ) ||
+             ILanguageLevel.Util.STANDARD_GOSU() ||
+             !isHandledByCustomCoercion( operandType ) ) {
+      // Convert now, not when all the operands are in: a later operand may change this one, e.g., sb + sb.append( "b" )
+      concat.addArg( callStaticMethod( String.class, "valueOf", new Class[]{Object.class}, Collections.singletonList( expr ) ), IRTypeConstants.STRING() );
+    }
+    else { // see handleConcatOperand()
+      concat.addArg( callMethod( ICoercionManager.class, "makeStringFrom", new Class[]{Object.class},
+                                 callStaticMethod( CommonServices.class, "getCoercionManager", new Class[]{}, Collections.<IRExpression>emptyList() ),
+                                 Collections.singletonList( expr ) ),
+                     IRTypeConstants.STRING() );
+    }
+  }
+
   private boolean isStringConcatenation() {
     return _expr().getType() == JavaTypes.STRING();
   }
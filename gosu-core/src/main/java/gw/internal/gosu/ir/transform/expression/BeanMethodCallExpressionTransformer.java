@@ -14,6 +14,7 @@ import gw.internal.gosu.parser.expressions.BeanMethodCallExpression;
 import gw.internal.gosu.parser.expressions.Identifier;
 import gw.internal.gosu.parser.expressions.SuperAccess;
 import gw.internal.gosu.parser.statements.BeanMethodCallStatement;
+import gw.internal.gosu.runtime.DynamicDispatchBootstrap;
 import gw.internal.gosu.runtime.GosuRuntimeMethods;
 import gw.lang.ir.IRElement;
 import gw.lang.ir.IRExpression;
@@ -243,13 +244,26 @@ public class BeanMethodCallExpressionTransformer extends AbstractExpressionTrans
       irRoot = irRootExpr;
     }
 
-    IRExpression miCall = callStaticMethod( GosuRuntimeMethods.class, "invokeMethodInfo", new Class[]{IType.class, String.class, IType[].class, Object.class, Object[].class},
-            exprList(
-                    pushType( mi.getOwnersType(), true ),
-                    pushConstant( mi.getDisplayName() ),
-                    pushParamTypes( mi.getParameters() ),
-                    irRoot,
-                    pushArgumentsAsArray( explicitArgs ) ) );
+    IRExpression miCall;
+    if( shouldDispatchDynamically( mi.getDisplayName() ) )
+    {
+      miCall = invokeDynamic( DynamicDispatchBootstrap.class, "bootstrapInvokeMethod", mi.getDisplayName(), Object.class, new Class[]{IType.class, IType[].class, Object.class, Object[].class},
+              exprList(
+                      pushType( mi.getOwnersType(), true ),
+                      pushParamTypes( mi.getParameters() ),
+                      irRoot,
+                      pushArgumentsAsArray( explicitArgs ) ) );
+    }
+    else
+    {
+      miCall = callStaticMethod( GosuRuntimeMethods.class, "invokeMethodInfo", new Class[]{IType.class, String.class, IType[].class, Object.class, Object[].class},
+              exprList(
+                      pushType( mi.getOwnersType(), true ),
+                      pushConstant( mi.getDisplayName() ),
+                      pushParamTypes( mi.getParameters() ),
+                      irRoot,
+                      pushArgumentsAsArray( explicitArgs ) ) );
+    }
     miCall = unboxValueToType( mi.getReturnType(), miCall );
     if( callElements.size() > 0 )
     {
@@ -4,14 +4,28 @@
 
 package gw.internal.gosu.ir.transform.expression;
 
+import gw.internal.gosu.compiler.FunctionClassUtil;
+import gw.internal.gosu.ir.transform.AbstractElementTransformer;
+import gw.internal.gosu.parser.IGosuClassInternal;
+import gw.internal.gosu.parser.IGosuEnhancementInternal;
+import gw.internal.gosu.parser.IGosuTemplateInternal;
 import gw.internal.gosu.parser.expressions.BlockExpression;
+import gw.internal.gosu.runtime.LambdaBlockBootstrap;
+import gw.lang.function.IBlock;
+import gw.lang.ir.expression.IRInvokeDynamicExpression;
+import gw.lang.ir.statement.IRMethodStatement;
 import gw.lang.parser.IBlockClass;
 import gw.internal.gosu.ir.transform.TopLevelTransformationContext;
 import gw.lang.ir.IRExpression;
+import gw.lang.ir.IRSymbol;
 import gw.lang.ir.IRType;
+import gw.lang.parser.IDynamicFunctionSymbol;
 import gw.lang.parser.expressions.IBlockExpression;
 import gw.lang.reflect.IType;
+import gw.lang.reflect.gs.BytecodeOptions;
+import gw.lang.reflect.gs.IGosuProgram;
 
+import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Arrays;
@@ -30,6 +44,15 @@ public class BlockExpressionTransformer extends AbstractExpressionTransformer<IB
 
     IBlockClass blockClazz = blk.getBlockGosuClass();
 
+    if( canCompileAsLambda( blockClazz ) )
+    {
+      IRMethodStatement lambda = _cc().compileLambdaBlock( blockClazz );
+      if( lambda != null )
+      {
+        return compileLambda( blockClazz, lambda );
+      }
+    }
+
     List<IRExpression> args = new ArrayList<IRExpression>();
     if( !blockClazz.isStatic() )
     {
@@ -46,6 +69,72 @@ public class BlockExpressionTransformer extends AbstractExpressionTransformer<IB
     return newExpr;
   }
 
+  /**
+   * With lambda blocks enabled, a block compiles to a private method on its enclosing class if it captures no local
+   * variables, has no type variables of its own or of an enclosing generic function, and encloses no other blocks
+   * or classes.  Blocks in programs, templates, enhancements and interfaces keep their classes.
+   */
+  private static boolean canCompileAsLambda( IBlockClass blockClazz )
+  {
+    if( !BytecodeOptions.isLambdaBlocks() )
+    {
+      return false;
+    }
+    IType enclosingType = blockClazz.getEnclosingType();
+    if( !(enclosingType instanceof IGosuClassInternal) ||
+        enclosingType instanceof IBlockClass ||
+        enclosingType instanceof IGosuProgram ||
+        enclosingType instanceof IGosuTemplateInternal ||
+        enclosingType instanceof IGosuEnhancementInternal ||
+        enclosingType.isInterface() )
+    {
+      return false;
+    }
+    IGosuClassInternal gsClass = (IGosuClassInternal)blockClazz;
+    if( blockClazz.getBlock().getArgs().size() >= IBlock.MAX_ARGS ||
+        (gsClass.getCapturedSymbols() != null && !gsClass.getCapturedSymbols().isEmpty()) ||
+        !gsClass.getInnerClasses().isEmpty() ||
+        blockClazz.isParameterizedType() || blockClazz.isGenericType() )
+    {
+      return false;
+    }
+    IDynamicFunctionSymbol dfs = AbstractElementTransformer.getEnclosingDFS( blockClazz );
+    return dfs == null || AbstractElementTransformer.getTypeVarsForDFS( dfs ).isEmpty();
+  }
+
+  /**
+   * invokedynamic LambdaBlockBootstrap.bootstrap( lambda$block_N_, descriptor, block class ) [outer this]
+   */
+  private IRExpression compileLambda( IBlockClass blockClazz, IRMethodStatement lambda )
+  {
+    List<IRType> paramTypes = new ArrayList<IRType>();
+    List<IRExpression> args = new ArrayList<IRExpression>();
+    if( !Modifier.isStatic( lambda.getModifiers() ) )
+    {
+      paramTypes.add( getDescriptor( blockClazz.getEnclosingType() ) );
+      args.add( pushThisOrOuter( blockClazz.getEnclosingType() ) );
+    }
+
+    StringBuilder descriptor = new StringBuilder( "(" );
+    for( IRSymbol param : lambda.getParameters() )
+    {
+      descriptor.append( param.getType().getDescriptor() );
+    }
+    descriptor.append( ')' ).append( lambda.getReturnType().getDescriptor() );
+
+    boolean bHasReturn = !lambda.getReturnType().getDescriptor().equals( "V" );
+    IType functionInterface = FunctionClassUtil.getFunctionInterfaceForArity( bHasReturn, lambda.getParameters().size() );
+    IRExpression newExpr = new IRInvokeDynamicExpression( IBlockClass.INVOKE_METHOD_NAME,
+                                                          getDescriptor( LambdaBlockBootstrap.class ),
+                                                          "bootstrap",
+                                                          Arrays.<Object>asList( lambda.getName(), descriptor.toString(), blockClazz.getName() ),
+                                                          getDescriptor( functionInterface ),
+                                                          paramTypes,
+                                                          args );
+    newExpr.setImplicit( true );
+    return newExpr;
+  }
+
   public static IRExpression compile( TopLevelTransformationContext cc, BlockExpression blockExpression )
   {
     BlockExpressionTransformer compiler = new BlockExpressionTransformer( cc, blockExpression );
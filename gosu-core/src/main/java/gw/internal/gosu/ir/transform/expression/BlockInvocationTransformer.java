@@ -7,11 +7,15 @@ package gw.internal.gosu.ir.transform.expression;
 import gw.internal.gosu.parser.expressions.BlockInvocation;
 import gw.lang.ir.IRElement;
 import gw.lang.ir.IRExpression;
+import gw.lang.ir.IRSymbol;
 import gw.internal.gosu.ir.transform.ExpressionTransformer;
 import gw.internal.gosu.ir.transform.TopLevelTransformationContext;
 import gw.internal.gosu.compiler.FunctionClassUtil;
 import gw.lang.ir.expression.IRCompositeExpression;
+import gw.lang.ir.expression.IRInstanceOfExpression;
+import gw.lang.ir.expression.IRTernaryExpression;
 import gw.lang.parser.IExpression;
+import gw.lang.reflect.IFunctionType;
 import gw.lang.reflect.IType;
 import gw.lang.reflect.java.IJavaType;
 
@@ -34,6 +38,12 @@ public class BlockInvocationTransformer extends AbstractExpressionTransformer<Bl
 
   protected IRExpression compile_impl()
   {
+    IJavaType primitiveInterface = getPrimitiveFunctionInterface();
+    if( primitiveInterface != null )
+    {
+      return compilePrimitiveInvocation( primitiveInterface );
+    }
+
     List<IRExpression> explicitArgs = boxArgs();
     List<IRElement> callElements = handleNamedArgs( explicitArgs, _expr().getNamedArgOrder() );
 
@@ -60,6 +70,74 @@ public class BlockInvocationTransformer extends AbstractExpressionTransformer<Bl
     return call;
   }
 
+  /**
+   * If the block type is one of the int, long or double shapes in FunctionClassUtil, a block compiled against it
+   * is called without boxing:
+   * <pre>
+   *   temp instanceof IIntFunction1_I ? ((IIntFunction1_I)temp).invokeInt( arg ) : ((IFunction1)temp).invoke( box( arg ) )
+   * </pre>
+   * Blocks from elsewhere, e.g. coerced from a Java interface, still take the generic path.
+   */
+  private IJavaType getPrimitiveFunctionInterface()
+  {
+    IType rootType = _expr().getRoot().getType();
+    if( !(rootType instanceof IFunctionType) || _expr().getNamedArgOrder() != null )
+    {
+      return null;
+    }
+    IFunctionType funcType = (IFunctionType)rootType;
+    IType returnType = funcType.getReturnType();
+    IType[] paramTypes = funcType.getParameterTypes();
+    if( !returnType.equals( _expr().getType() ) || paramTypes.length != _expr().getArgs().size() )
+    {
+      return null;
+    }
+    for( int i = 0; i < paramTypes.length; i++ )
+    {
+      if( paramTypes[i].isPrimitive() && !paramTypes[i].equals( _expr().getArgs().get( i ).getType() ) )
+      {
+        return null;
+      }
+    }
+    return FunctionClassUtil.getPrimitiveFunctionInterface( returnType, paramTypes );
+  }
+
+  private IRExpression compilePrimitiveInvocation( IJavaType primitiveInterface )
+  {
+    IType returnType = _expr().getType();
+    IType[] paramTypes = ((IFunctionType)_expr().getRoot().getType()).getParameterTypes();
+    List<IRElement> elements = new ArrayList<>();
+
+    IRExpression root = ExpressionTransformer.compile( _expr().getRoot(), _cc() );
+    IRSymbol tempRoot = _cc().makeAndIndexTempSymbol( root.getType() );
+    elements.add( buildAssignment( tempRoot, root ) );
+
+    List<IRExpression> args = new ArrayList<>();
+    List<IRExpression> boxedArgs = new ArrayList<>();
+    for( int i = 0; i < paramTypes.length; i++ )
+    {
+      IExpression arg = _expr().getArgs().get( i );
+      IRExpression irArg = ExpressionTransformer.compile( arg, _cc() );
+      IRSymbol tempArg = _cc().makeAndIndexTempSymbol( irArg.getType() );
+      elements.add( buildAssignment( tempArg, irArg ) );
+      args.add( identifier( tempArg ) );
+      boxedArgs.add( boxValue( arg.getType(), identifier( tempArg ) ) );
+    }
+
+    IRExpression primitiveCall = callMethod( primitiveInterface.getBackingClassInfo(),
+                                             FunctionClassUtil.getPrimitiveInvokeMethodName( returnType ),
+                                             FunctionClassUtil.getPrimitiveArgArray( returnType, paramTypes ),
+                                             checkCast( primitiveInterface, identifier( tempRoot ) ), args );
+    IJavaType interfaceForArity = FunctionClassUtil.getFunctionInterfaceForArity( true, paramTypes.length );
+    IRExpression genericCall = unboxValueToType( returnType,
+                                                 callMethod( interfaceForArity.getBackingClassInfo(), "invoke",
+                                                             FunctionClassUtil.getArgArrayForArity( paramTypes.length ),
+                                                             identifier( tempRoot ), boxedArgs ) );
+    elements.add( new IRTernaryExpression( new IRInstanceOfExpression( identifier( tempRoot ), getDescriptor( primitiveInterface ) ),
+                                           primitiveCall, genericCall, getDescriptor( returnType ) ) );
+    return new IRCompositeExpression( elements );
+  }
+
   private List<IRExpression> boxArgs()
   {
     List<IRExpression> irArgs = new ArrayList<>();
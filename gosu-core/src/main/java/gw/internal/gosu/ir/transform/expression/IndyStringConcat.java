@@ -0,0 +1,125 @@
+/*
+ * Copyright 2014 Guidewire Software, Inc.
+ */
+
+package gw.internal.gosu.ir.transform.expression;
+
+import gw.internal.gosu.ir.transform.AbstractElementTransformer;
+import gw.internal.gosu.runtime.StringConcatBootstrap;
+import gw.lang.ir.IRExpression;
+import gw.lang.ir.IRType;
+import gw.lang.ir.IRTypeConstants;
+import gw.lang.ir.expression.IRInvokeDynamicExpression;
+import gw.lang.ir.expression.IRStringLiteralExpression;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Collects the pieces of a string concatenation and compiles them to a single invokedynamic bootstrapped by
+ * StringConcatBootstrap.  Literal text goes in the recipe; everything else is an argument.  A concatenation with
+ * more arguments than one site can take is split into a chain of sites, each taking the previous one's result as
+ * its first argument.
+ * <p/>
+ * The recipe is a single constant pool string, so its encoded length can't exceed 65535 bytes.  Text that would
+ * push a site's recipe past that limit is passed as a constant argument instead.
+ */
+class IndyStringConcat
+{
+  private static final int MAX_RECIPE_BYTES = 0xFFFF;
+
+  private final List<String> _texts = new ArrayList<String>();
+  private final List<IRExpression> _args = new ArrayList<IRExpression>();
+  private final List<IRType> _argTypes = new ArrayList<IRType>();
+
+  void addText( String strText )
+  {
+    if( strText.indexOf( StringConcatBootstrap.TAG_ARG ) >= 0 || strText.indexOf( StringConcatBootstrap.TAG_CONST ) >= 0 )
+    {
+      // The tags can't appear as text in a recipe
+      addArg( new IRStringLiteralExpression( strText ), IRTypeConstants.STRING() );
+    }
+    else
+    {
+      _texts.add( strText );
+      _args.add( null );
+      _argTypes.add( null );
+    }
+  }
+
+  void addArg( IRExpression arg, IRType type )
+  {
+    _texts.add( null );
+    _args.add( arg );
+    _argTypes.add( type );
+  }
+
+  IRExpression build()
+  {
+    IRExpression result = null;
+    int iPiece = 0;
+    while( result == null || iPiece < _args.size() )
+    {
+      List<IRExpression> args = new ArrayList<IRExpression>();
+      List<IRType> argTypes = new ArrayList<IRType>();
+      StringBuilder recipe = new StringBuilder();
+      // leave room for a tag per slot
+      int iRecipeBytes = StringConcatBootstrap.MAX_SLOTS;
+      int iSlots = 0;
+      if( result != null )
+      {
+        args.add( result );
+        argTypes.add( IRTypeConstants.STRING() );
+        recipe.append( StringConcatBootstrap.TAG_ARG );
+        iSlots++;
+      }
+      for( ; iPiece < _args.size(); iPiece++ )
+      {
+        IRExpression arg = _args.get( iPiece );
+        IRType type = _argTypes.get( iPiece );
+        String strText = _texts.get( iPiece );
+        if( strText != null )
+        {
+          int iTextBytes = utf8Length( strText );
+          if( iRecipeBytes + iTextBytes <= MAX_RECIPE_BYTES )
+          {
+            recipe.append( strText );
+            iRecipeBytes += iTextBytes;
+            continue;
+          }
+          arg = new IRStringLiteralExpression( strText );
+          type = IRTypeConstants.STRING();
+        }
+        String strDescriptor = type.getDescriptor();
+        int iArgSlots = strDescriptor.equals( "J" ) || strDescriptor.equals( "D" ) ? 2 : 1;
+        if( iSlots + iArgSlots > StringConcatBootstrap.MAX_SLOTS )
+        {
+          break;
+        }
+        iSlots += iArgSlots;
+        recipe.append( StringConcatBootstrap.TAG_ARG );
+        args.add( arg );
+        argTypes.add( type );
+      }
+      result = new IRInvokeDynamicExpression( "concat", AbstractElementTransformer.getDescriptor( StringConcatBootstrap.class ), "bootstrap",
+                                              Collections.<Object>singletonList( recipe.toString() ),
+                                              IRTypeConstants.STRING(), argTypes, args );
+    }
+    return result;
+  }
+
+  /**
+   * @return The length of the string in the class file's modified UTF-8
+   */
+  private static int utf8Length( String str )
+  {
+    int iLength = 0;
+    for( int i = 0; i < str.length(); i++ )
+    {
+      char c = str.charAt( i );
+      iLength += c >= 0x0001 && c <= 0x007F ? 1 : c <= 0x07FF ? 2 : 3;
+    }
+    return iLength;
+  }
+}
@@ -22,6 +22,7 @@ import gw.internal.gosu.parser.expressions.MemberExpansionAccess;
 import gw.internal.gosu.parser.expressions.SuperAccess;
 import gw.internal.gosu.parser.expressions.TypeLiteral;
 import gw.internal.gosu.parser.optimizer.SinglePropertyMemberAccessRuntime;
+import gw.internal.gosu.runtime.DynamicDispatchBootstrap;
 import gw.internal.gosu.runtime.GosuRuntimeMethods;
 import gw.lang.Autocreate;
 import gw.lang.ShortCircuitingProperty;
@@ -471,8 +472,17 @@ public class MemberAccessTransformer extends AbstractExpressionTransformer<Membe
       {
         throw new IllegalArgumentException( "Cannot invoke a static property reflectively on a placeholder type" );
       }
-      result = callStaticMethod( GosuRuntimeMethods.class, "getProperty", new Class[]{Object.class, IType.class, String.class},
-                                 exprList( root, pushType( rootType ), pushPropertyName( pi ) ) );
+      String propertyName = getPropertyName( pi );
+      if( shouldDispatchDynamically( propertyName ) )
+      {
+        result = invokeDynamic( DynamicDispatchBootstrap.class, "bootstrapGetProperty", propertyName, Object.class, new Class[]{Object.class, IType.class},
+                                exprList( root, pushType( rootType ) ) );
+      }
+      else
+      {
+        result = callStaticMethod( GosuRuntimeMethods.class, "getProperty", new Class[]{Object.class, IType.class, String.class},
+                                   exprList( root, pushType( rootType ), pushPropertyName( pi ) ) );
+      }
     }
     else
     {
@@ -551,13 +561,7 @@ public class MemberAccessTransformer extends AbstractExpressionTransformer<Membe
   {
     if( pi != null )
     {
-      if ( pi instanceof IUncacheableFeature ) {
-        // In the case of snapshot types, the property's name is garbage, so we need to go back to
-        // the name from the member access itself
-        return pushConstant( _expr().getMemberName() );
-      } else {
-        return pushConstant( pi.getName() );
-      }
+      return pushConstant( getPropertyName( pi ) );
     }
     else
     {
@@ -565,6 +569,21 @@ public class MemberAccessTransformer extends AbstractExpressionTransformer<Membe
     }
   }
 
+  private String getPropertyName( IPropertyInfo pi )
+  {
+    if( pi == null )
+    {
+      return null;
+    }
+    if ( pi instanceof IUncacheableFeature ) {
+      // In the case of snapshot types, the property's name is garbage, so we need to go back to
+      // the name from the member access itself
+      return _expr().getMemberName();
+    } else {
+      return pi.getName();
+    }
+  }
+
   private IRExpression pushRootExpression( IType rootType, IExpression rootExpr, IRProperty pi )
   {
     // Push the root expression value
@@ -4,7 +4,13 @@
 
 package gw.internal.gosu.ir.transform.expression;
 
+import gw.internal.gosu.ir.transform.ExpressionTransformer;
+import gw.internal.gosu.parser.Expression;
+import gw.internal.gosu.template.TemplateGenerator;
+import gw.internal.gosu.parser.expressions.MethodCallExpression;
 import gw.internal.gosu.parser.expressions.TemplateStringLiteral;
+import gw.internal.gosu.parser.statements.MethodCallStatement;
+import gw.internal.gosu.parser.statements.StatementList;
 import gw.lang.ir.IRExpression;
 import gw.lang.ir.IRSymbol;
 import gw.lang.ir.IRType;
@@ -16,9 +22,13 @@ import gw.lang.ir.expression.IRCompositeExpression;
 import gw.lang.ir.statement.IRAssignmentStatement;
 import gw.internal.gosu.ir.transform.TopLevelTransformationContext;
 import gw.lang.parser.expressions.IProgram;
+import gw.lang.parser.IStatement;
+import gw.lang.reflect.gs.BytecodeOptions;
 import gw.util.Stack;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 
 /**
  */
@@ -44,6 +54,15 @@ public class TemplateStringLiteralTransformer extends AbstractExpressionTransfor
 
     if( iProgram != null )
     {
+      if( BytecodeOptions.isIndyStringConcat() )
+      {
+        IRExpression concat = compileIndyConcat( iProgram.getMainStatement() );
+        if( concat != null )
+        {
+          return concat;
+        }
+      }
+
       IRCompositeExpression template = new IRCompositeExpression();
       IRType sbType = getDescriptor( StringBuilder.class );
       IRSymbol symbol = _cc().makeAndIndexTempSymbol( sbType );
@@ -79,6 +98,48 @@ public class TemplateStringLiteralTransformer extends AbstractExpressionTransfor
     }
   }
 
+  /**
+   * A template with no scriptlets is a list of printContent() calls, one for each piece of text or ${} expression.
+   * Such a template compiles to a single invokedynamic concatenation.  Returns null for any other template.
+   */
+  private IRExpression compileIndyConcat( IStatement mainStatement )
+  {
+    IStatement[] statements = mainStatement instanceof StatementList
+                             ? ((StatementList)mainStatement).getStatements()
+                             : new IStatement[] {mainStatement};
+    List<Expression> contents = new ArrayList<>();
+    for( IStatement statement : statements )
+    {
+      if( !(statement instanceof MethodCallStatement) )
+      {
+        return null;
+      }
+      MethodCallExpression call = ((MethodCallStatement)statement).getMethodCall();
+      if( call.getFunctionSymbol() != TemplateGenerator.PRINT_CONTENT_SYMBOL.get() )
+      {
+        return null;
+      }
+      contents.add( call.getArgs()[0] );
+    }
+
+    IndyStringConcat concat = new IndyStringConcat();
+    for( Expression content : contents )
+    {
+      IRExpression expr = ExpressionTransformer.compile( content, _cc() );
+      if( expr instanceof IRStringLiteralExpression && ((IRStringLiteralExpression)expr).getValue() != null )
+      {
+        concat.addText( ((IRStringLiteralExpression)expr).getValue() );
+      }
+      else
+      {
+        concat.addArg( expr, IRTypeConstants.STRING() );
+      }
+    }
+    IRExpression result = concat.build();
+    result.setImplicit( true );
+    return result;
+  }
+
   private static Stack<IRSymbol> getThreadLocalStack()
   {
     Stack<IRSymbol> symbolStack = SYMBOL_STACK.get();
@@ -9,11 +9,14 @@ import gw.internal.gosu.ir.compiler.bytecode.expression.IRMethodCallExpressionCo
 import gw.internal.gosu.ir.nodes.JavaClassIRType;
 import gw.internal.gosu.ir.transform.ExpressionTransformer;
 import gw.internal.gosu.ir.transform.TopLevelTransformationContext;
+import gw.internal.gosu.parser.Expression;
 import gw.internal.gosu.parser.Symbol;
+import gw.internal.gosu.parser.expressions.IntervalExpression;
 import gw.internal.gosu.parser.statements.ForEachStatement;
 import gw.lang.ir.IRExpression;
 import gw.lang.ir.IRStatement;
 import gw.lang.ir.IRSymbol;
+import gw.lang.ir.IRType;
 import gw.lang.ir.IRTypeConstants;
 import gw.lang.ir.statement.IRAssignmentStatement;
 import gw.lang.ir.statement.IRForEachStatement;
@@ -25,8 +28,10 @@ import gw.lang.reflect.interval.IntegerInterval;
 import gw.lang.reflect.interval.LongInterval;
 import gw.lang.reflect.java.JavaTypes;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 import java.util.NoSuchElementException;
 
 /**
@@ -52,11 +57,22 @@ public class ForEachStatementTransformer extends AbstractStatementTransformer<Fo
     _cc().pushScope( false );
     try
     {
-      IRForEachStatement forLoop = makeLoopImpl( _cc(), ExpressionTransformer.compile( _stmt().getInExpression(), _cc() ),
-                                                 _stmt().getInExpression().getType(),
-                                                 _stmt().getIdentifier(),
-                                                 _stmt().getIndexIdentifier(),
-                                                 _stmt().getIteratorIdentifier() );
+      IRForEachStatement forLoop;
+      if( isCountedIntervalLiteral( _stmt().getInExpression() ) )
+      {
+        // Count straight over the endpoints, the interval is never created
+        forLoop = new IRForEachStatement();
+        makeIntervalLiteralLoop( _cc(), (IntervalExpression)_stmt().getInExpression(), forLoop, _stmt().getIdentifier() );
+        addIndex( forLoop, _stmt().getIndexIdentifier() );
+      }
+      else
+      {
+        forLoop = makeLoopImpl( _cc(), ExpressionTransformer.compile( _stmt().getInExpression(), _cc() ),
+                                _stmt().getInExpression().getType(),
+                                _stmt().getIdentifier(),
+                                _stmt().getIndexIdentifier(),
+                                _stmt().getIteratorIdentifier() );
+      }
       forLoop.setBody( _cc().compile( _stmt().getStatement() ) );
       return forLoop;
     }
@@ -92,11 +108,21 @@ public class ForEachStatementTransformer extends AbstractStatementTransformer<Fo
     {
       makeIntLoop( cc, rootExpression, forLoop, identifier );
     }
+    else if( iteratorIdentifier == null && isCountedInterval( rootExpression.getType(), identifier ) )
+    {
+      makeIntervalLoop( cc, rootExpression, forLoop, identifier );
+    }
     else
     {
       makeIteratorLoop( cc, rootExpression, forLoop, identifier, iteratorIdentifier );
     }
 
+    addIndex( forLoop, indexSymbol );
+    return forLoop;
+  }
+
+  private void addIndex( IRForEachStatement forLoop, Symbol indexSymbol )
+  {
     if( indexSymbol != null )
     {
       // index variable init
@@ -116,8 +142,168 @@ public class ForEachStatementTransformer extends AbstractStatementTransformer<Fo
         forLoop.addIncrementor( buildAssignment( indexIRSymbol, increment ) );
       }
     }
+  }
 
-    return forLoop;
+  private boolean isCountedIntervalLiteral( Expression inExpression )
+  {
+    if( !(inExpression instanceof IntervalExpression) || _stmt().getIteratorIdentifier() != null )
+    {
+      return false;
+    }
+    IntervalExpression interval = (IntervalExpression)inExpression;
+    IType valueType = _stmt().getIdentifier().getType();
+    return (interval.getType() == JavaTypes.INTEGER_INTERVAL() && valueType == JavaTypes.pINT() ||
+            interval.getType() == JavaTypes.LONG_INTERVAL() && valueType == JavaTypes.pLONG()) &&
+           isIntegralEndpoint( interval.getLHS().getType() ) &&
+           isIntegralEndpoint( interval.getRHS().getType() );
+  }
+
+  private static boolean isIntegralEndpoint( IType type )
+  {
+    return isIntType( type ) || isBoxedIntType( type ) || type == JavaTypes.pLONG() || type == JavaTypes.LONG();
+  }
+
+  private static boolean isCountedInterval( IRType rootType, Symbol identifier )
+  {
+    return rootType == JavaClassIRType.get( IntegerInterval.class ) && identifier.getType() == JavaTypes.pINT() ||
+           rootType == JavaClassIRType.get( LongInterval.class ) && identifier.getType() == JavaTypes.pLONG();
+  }
+
+  private void makeIntervalLiteralLoop( TopLevelTransformationContext cc, IntervalExpression interval, IRForEachStatement forLoop, Symbol identifier )
+  {
+    // Same values the interval would iterate: from the lhs toward the rhs with a step of one.  A reversed interval
+    // (lhs > rhs) keeps its closed flags on the sorted endpoints, see IntervalExpressionTransformer._makeIntegerInterval,
+    // so there the flag written on the left applies to the rhs and vice versa
+    IRSymbol lhs = initTemp( cc, forLoop, IRTypeConstants.pLONG(), makeIntervalEndpoint( interval.getLHS() ) );
+    IRSymbol rhs = initTemp( cc, forLoop, IRTypeConstants.pLONG(), makeIntervalEndpoint( interval.getRHS() ) );
+    makeCountedLoop( cc, forLoop, identifier,
+                     identifier( lhs ),
+                     identifier( rhs ),
+                     numericLiteral( 1L ),
+                     makeLiteralClosed( lhs, rhs, interval.isLeftClosed(), interval.isRightClosed() ),
+                     makeLiteralClosed( lhs, rhs, interval.isRightClosed(), interval.isLeftClosed() ) );
+  }
+
+  private IRExpression makeLiteralClosed( IRSymbol lhs, IRSymbol rhs, boolean bClosed, boolean bReverseClosed )
+  {
+    if( bClosed == bReverseClosed )
+    {
+      return pushConstant( bClosed );
+    }
+    return buildTernary( buildGreaterThan( identifier( lhs ), identifier( rhs ) ),
+                         pushConstant( bReverseClosed ), pushConstant( bClosed ), IRTypeConstants.pBOOLEAN() );
+  }
+
+  private IRExpression makeIntervalEndpoint( Expression endpoint )
+  {
+    IRExpression value = unboxValueFromType( endpoint.getType(), ExpressionTransformer.compile( endpoint, _cc() ) );
+    return numberConvert( value.getType(), IRTypeConstants.pLONG(), value );
+  }
+
+  private void makeIntervalLoop( TopLevelTransformationContext cc, IRExpression rootExpression, IRForEachStatement forLoop, Symbol identifier )
+  {
+    Class intervalClass = rootExpression.getType() == JavaClassIRType.get( IntegerInterval.class ) ? IntegerInterval.class : LongInterval.class;
+
+    // interval temporary variable init
+    IRSymbol interval = initTemp( cc, forLoop, rootExpression.getType(), rootExpression );
+
+    // null check the interval
+    forLoop.setIdentifierToNullCheck( identifier( interval ) );
+
+    // read the interval once, in iteration order; the initializers run before the null check, so a null interval
+    // reads as an empty one
+    IRSymbol reverse = initTemp( cc, forLoop, IRTypeConstants.pBOOLEAN(),
+                                 buildNullCheckTernary( identifier( interval ), booleanLiteral( false ),
+                                                        callIntervalMethod( intervalClass, "isReverse", interval ) ) );
+    makeCountedLoop( cc, forLoop, identifier,
+                     getIntervalValue( intervalClass, interval, reverse, "getRightEndpoint", "getLeftEndpoint", numericLiteral( 0L ) ),
+                     getIntervalValue( intervalClass, interval, reverse, "getLeftEndpoint", "getRightEndpoint", numericLiteral( 0L ) ),
+                     getIntervalValue( intervalClass, interval, reverse, "getStep", "getStep", numericLiteral( 1L ) ),
+                     getIntervalValue( intervalClass, interval, reverse, "isRightClosed", "isLeftClosed", booleanLiteral( false ) ),
+                     getIntervalValue( intervalClass, interval, reverse, "isLeftClosed", "isRightClosed", booleanLiteral( false ) ) );
+  }
+
+  private IRExpression getIntervalValue( Class intervalClass, IRSymbol interval, IRSymbol reverse, String strReverseMethod, String strMethod, IRExpression ifNull )
+  {
+    IRExpression reverseValue = callIntervalMethod( intervalClass, strReverseMethod, interval );
+    IRExpression value = callIntervalMethod( intervalClass, strMethod, interval );
+    return buildNullCheckTernary( identifier( interval ), ifNull,
+                                  buildTernary( identifier( reverse ), reverseValue, value, value.getType() ) );
+  }
+
+  private IRExpression callIntervalMethod( Class intervalClass, String strMethod, IRSymbol interval )
+  {
+    IRExpression value = callMethod( intervalClass, strMethod, new Class[0], identifier( interval ), Collections.<IRExpression>emptyList() );
+    if( value.getType().isBoolean() )
+    {
+      return value;
+    }
+    // endpoints and step are erased to Comparable and Object
+    return buildMethodCall( Number.class, "longValue", long.class, new Class[0], checkCast( Number.class, value ), Collections.<IRExpression>emptyList() );
+  }
+
+  /**
+   * Counts from start toward end in long arithmetic, so int intervals can't overflow.  The loop holds the value
+   * before the next one and stops once it reaches the last value, which the interval{Step,Last,BeforeFirst} helpers
+   * compute before the loop, once.
+   */
+  private void makeCountedLoop( TopLevelTransformationContext cc, IRForEachStatement forLoop, Symbol identifier,
+                                IRExpression start, IRExpression end, IRExpression step,
+                                IRExpression startClosed, IRExpression endClosed )
+  {
+    IRSymbol[] bounds = {
+      initTemp( cc, forLoop, IRTypeConstants.pLONG(), start ),
+      initTemp( cc, forLoop, IRTypeConstants.pLONG(), end ),
+      initTemp( cc, forLoop, IRTypeConstants.pLONG(), step ),
+      initTemp( cc, forLoop, IRTypeConstants.pBOOLEAN(), startClosed ),
+      initTemp( cc, forLoop, IRTypeConstants.pBOOLEAN(), endClosed )};
+    Class[] boundsTypes = {long.class, long.class, long.class, boolean.class, boolean.class};
+    IRSymbol increment = initTemp( cc, forLoop, IRTypeConstants.pLONG(),
+                                   callStaticMethod( ForEachStatementTransformer.class, "intervalStep", new Class[]{long.class, long.class, long.class},
+                                                     exprList( identifier( bounds[0] ), identifier( bounds[1] ), identifier( bounds[2] ) ) ) );
+    IRSymbol last = initTemp( cc, forLoop, IRTypeConstants.pLONG(),
+                              callStaticMethod( ForEachStatementTransformer.class, "intervalLast", boundsTypes, identifiers( bounds ) ) );
+    IRSymbol csr = initTemp( cc, forLoop, IRTypeConstants.pLONG(),
+                             callStaticMethod( ForEachStatementTransformer.class, "intervalBeforeFirst", boundsTypes, identifiers( bounds ) ) );
+
+    // loop variable init
+    IRAssignmentStatement loopInitializer = initLocalVarWithDefault( identifier );
+    forLoop.addInitializer( loopInitializer );
+    IRSymbol loopIdentifier = loopInitializer.getSymbol();
+
+    // loop test
+    forLoop.setLoopTest( buildNotEquals( identifier( csr ), identifier( last ) ) );
+
+    // increment the counter
+    forLoop.addIncrementor( buildAssignment( csr, buildAddition( identifier( csr ), identifier( increment ) ) ) );
+
+    // update loop variable
+    IRExpression nextValue = numberConvert( IRTypeConstants.pLONG(), getDescriptor( identifier.getType() ), identifier( csr ) );
+    if( identifier.isValueBoxed() )
+    {
+      forLoop.addIncrementor( buildAssignment( loopIdentifier, buildInitializedArray( getDescriptor( identifier.getType() ), Collections.singletonList( nextValue ) ) ) );
+    }
+    else
+    {
+      forLoop.addIncrementor( buildAssignment( loopIdentifier, nextValue ) );
+    }
+  }
+
+  private IRSymbol initTemp( TopLevelTransformationContext cc, IRForEachStatement forLoop, IRType type, IRExpression value )
+  {
+    IRAssignmentStatement temp = buildAssignment( cc.makeAndIndexTempSymbol( type ), value );
+    forLoop.addInitializer( temp );
+    return temp.getSymbol();
+  }
+
+  private List<IRExpression> identifiers( IRSymbol[] symbols )
+  {
+    List<IRExpression> identifiers = new ArrayList<IRExpression>( symbols.length );
+    for( IRSymbol symbol : symbols )
+    {
+      identifiers.add( identifier( symbol ) );
+    }
+    return identifiers;
   }
 
   private void makeIteratorLoop( TopLevelTransformationContext cc, IRExpression rootExpression, IRForEachStatement forLoop, Symbol identifier, Symbol iteratorIdentifier )
@@ -318,6 +504,56 @@ public class ForEachStatementTransformer extends AbstractStatementTransformer<Fo
     return Collections.nCopies( 1, obj ).iterator();
   }
 
+  /**
+   * The signed distance between consecutive values of a counted interval loop running from start toward end.
+   */
+  @SuppressWarnings({"UnusedDeclaration"})
+  public static long intervalStep( long lStart, long lEnd, long lStep )
+  {
+    if( lStep <= 0 )
+    {
+      throw new IllegalArgumentException( "The step must be greater than 0: " + lStep );
+    }
+    return lEnd >= lStart ? lStep : -lStep;
+  }
+
+  /**
+   * The last value of a counted interval loop.  If the loop is empty this is just the value
+   * #intervalBeforeFirst returns.
+   */
+  @SuppressWarnings({"UnusedDeclaration"})
+  public static long intervalLast( long lStart, long lEnd, long lStep, boolean bStartClosed, boolean bEndClosed )
+  {
+    // Distances and offsets are unsigned, a long interval can span more than Long.MAX_VALUE
+    long lDistance = lEnd >= lStart ? lEnd - lStart : lStart - lEnd;
+    long lLastOffset = Long.divideUnsigned( bEndClosed ? lDistance : lDistance - 1, lStep ) * lStep;
+    return lEnd >= lStart ? lStart + lLastOffset : lStart - lLastOffset;
+  }
+
+  /**
+   * The value one step before the first value of a counted interval loop, or #intervalLast if there are no values.
+   */
+  @SuppressWarnings({"UnusedDeclaration"})
+  public static long intervalBeforeFirst( long lStart, long lEnd, long lStep, boolean bStartClosed, boolean bEndClosed )
+  {
+    long lLast = intervalLast( lStart, lEnd, lStep, bStartClosed, bEndClosed );
+    long lDistance = lEnd >= lStart ? lEnd - lStart : lStart - lEnd;
+    if( lDistance == 0
+        ? !bStartClosed || !bEndClosed
+        : !bStartClosed && (Long.compareUnsigned( lStep, lDistance ) > 0 || (!bEndClosed && lStep == lDistance)) )
+    {
+      return lLast;
+    }
+
+    long lBeforeFirst = bStartClosed ? lStart - intervalStep( lStart, lEnd, lStep ) : lStart;
+    if( lBeforeFirst == lLast )
+    {
+      // Only a long interval stepping through all 2^64 values can wrap around to where it started
+      throw new ArithmeticException( "Too many values to count from " + lStart + " to " + lEnd + " step " + lStep );
+    }
+    return lBeforeFirst;
+  }
+
   static final class ArrayIterator implements Iterator
   {
     private int _iCsr;
@@ -18,11 +18,13 @@ import gw.internal.gosu.parser.JavaPropertyInfo;
 import gw.internal.gosu.parser.expressions.Identifier;
 import gw.internal.gosu.parser.expressions.SuperAccess;
 import gw.internal.gosu.parser.statements.MemberAssignmentStatement;
+import gw.internal.gosu.runtime.DynamicDispatchBootstrap;
 import gw.internal.gosu.runtime.GosuRuntimeMethods;
 import gw.lang.ir.IRExpression;
 import gw.lang.ir.IRStatement;
 import gw.lang.ir.IRSymbol;
 import gw.lang.ir.IRType;
+import gw.lang.ir.expression.IRStringLiteralExpression;
 import gw.lang.ir.statement.IRAssignmentStatement;
 import gw.lang.ir.statement.IRStatementList;
 import gw.lang.parser.IExpression;
@@ -206,6 +208,12 @@ public class MemberAssignmentStatementTransformer extends AbstractStatementTrans
       setter = callStaticMethod( GosuRuntimeMethods.class, "setPropertyDynamically", new Class[]{Object.class, String.class, Object.class},
                                  exprList( root, propertyName, value ) );
     }
+    else if( propertyName instanceof IRStringLiteralExpression &&
+             shouldDispatchDynamically( ((IRStringLiteralExpression)propertyName).getValue() ) ) {
+      setter = invokeDynamic( DynamicDispatchBootstrap.class, "bootstrapSetProperty", ((IRStringLiteralExpression)propertyName).getValue(),
+                              void.class, new Class[]{Object.class, IType.class, Object.class},
+                              exprList( root, pushType( type ), value ) );
+    }
     else {
       // Everything else should dispatch to the statically-determined property
       setter = callStaticMethod( GosuRuntimeMethods.class, "setProperty", new Class[]{Object.class, IType.class, String.class, Object.class},
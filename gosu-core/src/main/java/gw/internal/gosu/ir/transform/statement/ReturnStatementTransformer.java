@@ -96,6 +96,15 @@ public class ReturnStatementTransformer extends AbstractStatementTransformer<Ret
     // Compile the return value expression
     IRExpression expression = ExpressionTransformer.compile( _stmt().getValue(), _cc() );
 
+    // a block compiled against a primitive function interface returns its value unboxed
+    IType functionReturnType = _cc().getCurrentFunctionReturnType();
+    if( _cc().isBlockInvoke() && functionReturnType != null && functionReturnType.isPrimitive() )
+    {
+      return retType.isPrimitive()
+             ? numberConvert( retType, functionReturnType, expression )
+             : unboxValueToType( functionReturnType, expression );
+    }
+
     // handle implicit boxing/unbocking in block invoke methods or 
     if( (_cc().isBlockInvoke() || _cc().isFragmentEvaluation() ) && retType.isPrimitive() )
     {
@@ -87,6 +87,14 @@ public abstract class AbstractTypeRef extends ITypeRef implements Serializable
     return this;
   }
 
+  /**
+   * @return true if {@link #_setType(IType)} would leave this ref as is
+   */
+  boolean _isCurrent( IType type )
+  {
+    return _type == type && !_bStale && _mdChecksum == TypeSystem.getRefreshChecksum();
+  }
+
   void _setType( IType type )
   {
     if( type == null )
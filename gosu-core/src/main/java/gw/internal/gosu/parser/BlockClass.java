@@ -67,6 +67,11 @@ public class BlockClass extends SyntheticClass implements IBlockClassInternal
       IType returnType = block.getBlockReturnType();
       IType functionClassForArity = FunctionClassUtil.getFunctionClassForArity( returnType != null && returnType != JavaTypes.pVOID(), block.getArgs().size());
       setSuperType(functionClassForArity);
+      IType primitiveInterface = getPrimitiveFunctionInterface( block );
+      if( primitiveInterface != null )
+      {
+        addInterface( primitiveInterface );
+      }
     }
     else
     {
@@ -91,6 +96,10 @@ public class BlockClass extends SyntheticClass implements IBlockClassInternal
   {
     BlockExpression block = getBlock();
     IParsedElement body = block.getBody();
+    // a block with a primitive interface has its body in that interface's method; invoke() calls through to it
+    String strInvoke = getPrimitiveFunctionInterface( block ) == null
+                       ? INVOKE_METHOD_NAME
+                       : FunctionClassUtil.getPrimitiveInvokeMethodName( block.getBlockReturnType() );
     DynamicFunctionSymbol value;
     if( body instanceof Expression )
     {
@@ -102,7 +111,7 @@ public class BlockClass extends SyntheticClass implements IBlockClassInternal
         exprStmt.setSynthetic( true );
         exprStmt.initLocation( expression.getLocation().getOffset(), expression.getLocation().getLength(),
                                      expression.getLineNum(), expression.getColumn(), expression.getLocation().getScriptPartId() );
-        value = new DynamicFunctionSymbol( null, INVOKE_METHOD_NAME, convertToObjectSignature( block ), convertToObjectSymbols( block ), exprStmt );
+        value = new DynamicFunctionSymbol( null, strInvoke, convertToObjectSignature( block ), convertToObjectSymbols( block ), exprStmt );
       }
       else
       {
@@ -110,12 +119,12 @@ public class BlockClass extends SyntheticClass implements IBlockClassInternal
         syntheticReturnStatement.setValue( expression );
         syntheticReturnStatement.initLocation( expression.getLocation().getOffset(), expression.getLocation().getLength(),
                                                expression.getLineNum(), expression.getColumn(), expression.getLocation().getScriptPartId() );
-        value = new DynamicFunctionSymbol( null, INVOKE_METHOD_NAME, convertToObjectSignature( block ), convertToObjectSymbols( block ), syntheticReturnStatement );
+        value = new DynamicFunctionSymbol( null, strInvoke, convertToObjectSignature( block ), convertToObjectSymbols( block ), syntheticReturnStatement );
       }
     }
     else
     {
-      value = new DynamicFunctionSymbol( null, INVOKE_METHOD_NAME, convertToObjectSignature(block), convertToObjectSymbols(block), (IStatement)body );
+      value = new DynamicFunctionSymbol( null, strInvoke, convertToObjectSignature( block ), convertToObjectSymbols( block ), (IStatement)body );
     }
     value.setClassMember( true );
     value.setPublic( true );
@@ -142,14 +151,39 @@ public class BlockClass extends SyntheticClass implements IBlockClassInternal
   private IFunctionType convertToObjectSignature( BlockExpression blk )
   {
     IFunctionType functionType = blk.getType();
+    boolean bPrimitive = getPrimitiveFunctionInterface( blk ) != null;
     IType[] iTypes = new IType[functionType.getParameterTypes().length];
     for( int i = 0; i < iTypes.length; i++ )
     {
-      iTypes[i] = JavaTypes.OBJECT();
+      iTypes[i] = bPrimitive ? toPrimitiveSignatureType( blk, blk.getArgs().get( i ).getType() ) : JavaTypes.OBJECT();
+    }
+    IType returnType = blk.getBlockReturnType() == null  || blk.getBlockReturnType() == JavaTypes.pVOID()
+                       ? JavaTypes.pVOID()
+                       : bPrimitive ? blk.getBlockReturnType() : JavaTypes.OBJECT();
+    return new FunctionType( blk.getFunctionName(), returnType, iTypes );
+  }
+
+  /**
+   * In a primitive invoke method, parameters of the block's primitive type keep it; everything else is Object
+   */
+  private IType toPrimitiveSignatureType( BlockExpression blk, IType type )
+  {
+    return type == blk.getBlockReturnType() ? type : JavaTypes.OBJECT();
+  }
+
+  private static IType getPrimitiveFunctionInterface( BlockExpression blk )
+  {
+    IType returnType = blk.getBlockReturnType();
+    if( returnType == null || blk.getArgs().size() > FunctionClassUtil.MAX_PRIMITIVE_ARITY )
+    {
+      return null;
+    }
+    IType[] paramTypes = new IType[blk.getArgs().size()];
+    for( int i = 0; i < paramTypes.length; i++ )
+    {
+      paramTypes[i] = blk.getArgs().get( i ).getType();
     }
-    return new FunctionType( blk.getFunctionName(), blk.getBlockReturnType() == null  || blk.getBlockReturnType() == JavaTypes.pVOID()
-                                                    ? JavaTypes.pVOID()
-                                                    : JavaTypes.OBJECT(), iTypes );
+    return FunctionClassUtil.getPrimitiveFunctionInterface( returnType, paramTypes );
   }
 
   @Override
@@ -170,11 +204,12 @@ public class BlockClass extends SyntheticClass implements IBlockClassInternal
 
   private List<ISymbol> convertToObjectSymbols( BlockExpression blk )
   {
+    boolean bPrimitive = getPrimitiveFunctionInterface( blk ) != null;
     List<ISymbol> syms = new ArrayList<ISymbol>();
     for( ISymbol iSymbol : blk.getArgs() )
     {
       Symbol symbol = new Symbol( (Symbol)iSymbol );
-      symbol.setType( JavaTypes.OBJECT() );
+      symbol.setType( bPrimitive ? toPrimitiveSignatureType( blk, iSymbol.getType() ) : JavaTypes.OBJECT() );
       syms.add( symbol );
     }
     return syms;
@@ -148,7 +148,8 @@ public class DynamicFunctionSymbol extends AbstractDynamicSymbol implements IDyn
       stmts = (IParsedElement)getValueDirectly();
     }
 
-    IGosuClass gsClass = findGosuClassOrProgram( stmts );
+    // In runtime-only mode the class may have discarded the body
+    IGosuClass gsClass = stmts == null ? getGosuClass() : findGosuClassOrProgram( stmts );
     if( gsClass == null )
     {
       throw new IllegalStateException( "Did not find Gosu Class/Program" );
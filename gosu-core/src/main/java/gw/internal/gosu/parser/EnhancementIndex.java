@@ -4,6 +4,7 @@
 
 package gw.internal.gosu.parser;
 
+import gw.fs.IFile;
 import gw.lang.parser.CICS;
 import gw.lang.parser.ISource;
 import gw.lang.parser.StandardCoercionManager;
@@ -187,13 +188,24 @@ public class EnhancementIndex implements IEnhancementIndex
 
   private Set<String> indexEnhancements( RefreshRequest request )
   {
+    Set<String> enhancementNames = new HashSet<>();
+    for( IFile file : request.files )
+    {
+      if( file.getExtension().equals( "gsx" ) )
+      {
+        for( String typeName : request.types )
+        {
+          // request type can be an inner class or block, avoid processing those as enhancements
+          if( file.getBaseName().equals( getSimpleName( typeName ) ) )
+          {
+            enhancementNames.add( typeName );
+          }
+        }
+      }
+    }
     Set<String> enhancedTypes = new HashSet<>();
-    if( request.file != null &&
-        request.file.getExtension().equals( "gsx" ) &&
-        // request type can be an inner class or block, avoid processing those as enhancements
-        request.file.getBaseName().equals( getSimpleName( request.types[0] ) ) )
+    for( String enhancementName : enhancementNames )
     {
-      String enhancementName = request.types[0];
       _currentEnhName = enhancementName;
       IType enh = TypeSystem.getByFullNameIfValidNoJava( enhancementName );
       if( enh instanceof IGosuEnhancement )
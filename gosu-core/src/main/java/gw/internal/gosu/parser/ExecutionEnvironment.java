@@ -63,6 +63,8 @@ public class ExecutionEnvironment implements IExecutionEnvironment
   private static final Map<Object, ExecutionEnvironment> INSTANCES = new WeakHashMap<Object, ExecutionEnvironment>();
   private static ExecutionEnvironment THE_ONE;
   public static final String CLASS_REDEFINER_THREAD = "Gosu class redefiner";
+  public static final String RUNTIME_ONLY_SYSTEM_PROP = "gosu.runtime.only";
+  private static boolean RUNTIME_ONLY = Boolean.getBoolean( RUNTIME_ONLY_SYSTEM_PROP );
 
   /**
    * "Special" java classes that will be used to locate "special" JARs which should be
@@ -124,6 +126,25 @@ public class ExecutionEnvironment implements IExecutionEnvironment
 
     return instance( DEFAULT_PROJECT );
   }
+
+  /**
+   * Runtime-only mode, -Dgosu.runtime.only=true, trades tooling support for memory.  Once a Gosu class and everything
+   * nested in it are compiled to bytecode, the class drops its parse trees and function bodies and keeps just its
+   * declarations and type info.  If a debugger or other tool later asks for the class statement the definitions are
+   * parsed again.
+   *
+   * @return true if runtime-only mode is on and Gosu is executing in runtime mode
+   */
+  public static boolean isRuntimeOnly()
+  {
+    return RUNTIME_ONLY && ExecutionMode.isRuntime();
+  }
+
+  public static void setRuntimeOnly( boolean bRuntimeOnly )
+  {
+    RUNTIME_ONLY = bRuntimeOnly;
+  }
+
   public static ExecutionEnvironment instance( IProject project )
   {
     if( project == null )
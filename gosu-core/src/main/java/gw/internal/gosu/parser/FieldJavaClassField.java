@@ -11,16 +11,35 @@ import gw.lang.reflect.java.IJavaClassInfo;
 import gw.lang.reflect.java.IJavaClassType;
 import gw.lang.reflect.module.IModule;
 
+import gw.util.GosuExceptionUtil;
+
 import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.Field;
 
 public class FieldJavaClassField implements IJavaClassField {
   private Field _field;
   private IModule _module;
+  private final MethodHandleAccessors.LazyHandle _getter;
+  private final MethodHandleAccessors.LazyHandle _setter;
 
   public FieldJavaClassField(Field field, IModule module) {
     _field = field;
     _module = module;
+    _getter = new MethodHandleAccessors.LazyHandle() {
+      protected MethodHandle makeHandle() {
+        return MethodHandleAccessors.makeGetter(_field);
+      }
+    };
+    _setter = new MethodHandleAccessors.LazyHandle() {
+      protected MethodHandle makeHandle() {
+        return MethodHandleAccessors.makeSetter(_field);
+      }
+    };
+  }
+
+  public Field getField() {
+    return _field;
   }
 
   @Override
@@ -89,11 +108,42 @@ public class FieldJavaClassField implements IJavaClassField {
   }
 
   public Object get(Object o) throws IllegalAccessException {
-    return _field.get(o);
+    MethodHandle getter = _getter.get();
+    if (getter == null) {
+      return _field.get(o);
+    }
+    try {
+      return (Object)getter.invokeExact(o);
+    }
+    catch (ClassCastException e) {
+      throw new IllegalArgumentException("Can not get field " + _field + " on " + o, e);
+    }
+    catch (Throwable t) {
+      throw GosuExceptionUtil.forceThrow(t);
+    }
   }
 
   public void set(Object o, Object value) throws IllegalAccessException {
-    _field.set(o, value);
+    MethodHandle setter = _setter.get();
+    if (setter == null) {
+      _field.set(o, value);
+      return;
+    }
+    try {
+      setter.invokeExact(o, value);
+    }
+    catch (ClassCastException e) {
+      throw new IllegalArgumentException("Can not set field " + _field + " to " + value, e);
+    }
+    catch (NullPointerException e) {
+      if (value == null && _field.getType().isPrimitive()) {
+        throw new IllegalArgumentException("Can not set field " + _field + " to null", e);
+      }
+      throw e;
+    }
+    catch (Throwable t) {
+      throw GosuExceptionUtil.forceThrow(t);
+    }
   }
 
   public String toString() {
@@ -136,6 +136,8 @@ public class GosuClass extends InnerClassCapableType implements IGosuClassIntern
   transient private boolean _bInitializing;
   transient private List<IGosuClass> _blocks;
   transient private LockingLazyVar<Boolean> _valid;
+  transient volatile private boolean _bDefinitionsDiscarded;
+  transient private byte[] _compiledBytes;
   transient private ITypeRef _typeRef;
   transient private List<ITypeVariableDefinition> _typeVarDefs;
   transient private GenericTypeVariable[] _genTypeVar;
@@ -953,6 +955,100 @@ public class GosuClass extends InnerClassCapableType implements IGosuClassIntern
     return _valid.get();
   }
 
+  public void discardDefinitions()
+  {
+    TypeSystem.lock();
+    try
+    {
+      // Set first so a reader checking without the lock waits for restoreDefinitions() instead of using the tree
+      _bDefinitionsDiscarded = true;
+      discardNestDefinitions();
+    }
+    finally
+    {
+      TypeSystem.unlock();
+    }
+  }
+
+  private void discardNestDefinitions()
+  {
+    getParseInfo().discardDefinitions();
+    for( IGosuClassInternal innerClass : _mapInnerClasses.values() )
+    {
+      ((GosuClass)innerClass.dontEverCallThis()).discardNestDefinitions();
+    }
+  }
+
+  public boolean isDefinitionsDiscarded()
+  {
+    return _bDefinitionsDiscarded;
+  }
+
+  public void restoreDefinitions()
+  {
+    if( isParameterizedType() )
+    {
+      getGenericType().restoreDefinitions();
+      return;
+    }
+    if( getEnclosingType() instanceof IGosuClassInternal )
+    {
+      ((IGosuClassInternal)getEnclosingType()).restoreDefinitions();
+      return;
+    }
+    if( !_bDefinitionsDiscarded )
+    {
+      return;
+    }
+
+    TypeSystem.lock();
+    try
+    {
+      if( _bDefinitionsDiscarded )
+      {
+        _bDefinitionsDiscarded = false;
+        resetNestDefinitions();
+        compileDefinitionsIfNeeded();
+      }
+    }
+    finally
+    {
+      TypeSystem.unlock();
+    }
+  }
+
+  private void resetNestDefinitions()
+  {
+    // Anonymous classes and blocks are made again as the definitions are parsed, with the same names.  Those the JVM
+    // has loaded already keep their classes.
+    for( Iterator<IGosuClassInternal> iter = _mapInnerClasses.values().iterator(); iter.hasNext(); )
+    {
+      IGosuClassInternal innerClass = iter.next();
+      if( innerClass.isAnonymous() || innerClass instanceof IBlockClass )
+      {
+        iter.remove();
+      }
+      else
+      {
+        ((GosuClass)innerClass.dontEverCallThis()).resetNestDefinitions();
+      }
+    }
+    _blocks = Collections.emptyList();
+    getParseInfo().resetDefinitions();
+    getCompilationState().clearDefinitionCompiled();
+    _valid.clear();
+  }
+
+  public void setCompiledBytes( byte[] bytes )
+  {
+    _compiledBytes = bytes;
+  }
+
+  public byte[] getCompiledBytes()
+  {
+    return _compiledBytes;
+  }
+
   public boolean isStatic()
   {
     return Modifier.isStatic(getModifiers());
@@ -1468,6 +1564,7 @@ public class GosuClass extends InnerClassCapableType implements IGosuClassIntern
   public ClassStatement getClassStatement()
   {
     compileDeclarationsIfNeeded();
+    restoreDefinitions();
 
     return getParseInfo().getClassStatement();
   }
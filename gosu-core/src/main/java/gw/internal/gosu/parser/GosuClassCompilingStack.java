@@ -41,6 +41,27 @@ public class GosuClassCompilingStack
     return null;
   }
 
+  /**
+   * @return true if a type compiling on this thread is named <code>typeName</code>, or encloses a type by that name
+   */
+  public static boolean isCompilingTypeOrEnclosed( String typeName )
+  {
+    List<IType> list = g_compilingClassStack.get();
+    if( list != null )
+    {
+      for( int i = 0; i < list.size(); i++ )
+      {
+        String name = list.get( i ).getName();
+        if( typeName.startsWith( name ) &&
+            (typeName.length() == name.length() || typeName.charAt( name.length() ) == '.') )
+        {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
   public static void pushCompilingType( IType gsClass )
   {
     LinkedList<IType> list = g_compilingClassStack.get();
@@ -549,21 +549,7 @@ public class GosuClassParseInfo {
       TypeSystem.lock();
       try {
         if (!_gosuClass.getTypeLoader().shouldKeepDebugInfo(_gosuClass)) {
-          clearDebugInfoOnFields(_mapStaticFields.values());
-          clearDebugInfoOnFields(_mapMemberFields.values());
-          clearDebugInfoOnProperties(_listStaticProperties);
-          clearDebugInfoOnProperties(_mapMemberProperties.values());
-          clearDebugInfoOnFunctions(_mapMemberFunctions.values());
-          clearDebugInfoOnFunctions(_listStaticFunctions);
-          clearDebugInfoOnFunctions(_mapConstructorFunctions.values());
-          clearDebugInfoOnAnnotations(_gosuClass.getModifierInfo().getAnnotations());
-          getClassStatement().clearParseTreeInformation();
-          Set<IUsesStatement> usesStatements = _gosuClass.getTypeUsesMap() == null ? null : _gosuClass.getTypeUsesMap().getUsesStatements();
-          if (usesStatements != null) {
-            for (IUsesStatement usesStatement : usesStatements) {
-              usesStatement.clearParseTreeInformation();
-            }
-          }
+          clearDebugInfo();
         }
       } finally {
         TypeSystem.unlock();
@@ -571,6 +557,67 @@ public class GosuClassParseInfo {
     }
   }
 
+  private void clearDebugInfo() {
+    clearDebugInfoOnFields(_mapStaticFields.values());
+    clearDebugInfoOnFields(_mapMemberFields.values());
+    clearDebugInfoOnProperties(_listStaticProperties);
+    clearDebugInfoOnProperties(_mapMemberProperties.values());
+    clearDebugInfoOnFunctions(_mapMemberFunctions.values());
+    clearDebugInfoOnFunctions(_listStaticFunctions);
+    clearDebugInfoOnFunctions(_mapConstructorFunctions.values());
+    clearDebugInfoOnAnnotations(_gosuClass.getModifierInfo().getAnnotations());
+    getClassStatement().clearParseTreeInformation();
+    Set<IUsesStatement> usesStatements = _gosuClass.getTypeUsesMap() == null ? null : _gosuClass.getTypeUsesMap().getUsesStatements();
+    if (usesStatements != null) {
+      for (IUsesStatement usesStatement : usesStatements) {
+        usesStatement.clearParseTreeInformation();
+      }
+    }
+  }
+
+  /**
+   * Drops the parse trees and function bodies the definitions compile produced, keeping the declarations.  Field
+   * initializers are kept since other classes may inline them as constants.
+   */
+  public void discardDefinitions() {
+    clearDebugInfo();
+    discardBodies(_mapMemberFunctions.values());
+    discardBodies(_listStaticFunctions);
+    discardBodies(_mapConstructorFunctions.values());
+    discardAccessorBodies(_listStaticProperties);
+    discardAccessorBodies(_mapMemberProperties.values());
+  }
+
+  /**
+   * Readies the fields for the definitions compile to parse them again.
+   */
+  public void resetDefinitions() {
+    for (VarStatement field : _mapStaticFields.values()) {
+      field.setDefinitionParsed(false);
+    }
+    for (VarStatement field : _mapMemberFields.values()) {
+      field.setDefinitionParsed(false);
+    }
+  }
+
+  private void discardBodies(Collection<DynamicFunctionSymbol> functions) {
+    for (DynamicFunctionSymbol function : functions) {
+      function.setValueDirectly(null);
+    }
+  }
+
+  private void discardAccessorBodies(Collection<DynamicPropertySymbol> properties) {
+    for (DynamicPropertySymbol property : properties) {
+      // Not getGetterDfs(), which may answer the super property's accessor
+      if (property.getImmediateGetterDfs() != null) {
+        property.getImmediateGetterDfs().setValueDirectly(null);
+      }
+      if (property.getImmediateSetterDfs() != null) {
+        property.getImmediateSetterDfs().setValueDirectly(null);
+      }
+    }
+  }
+
   public void updateSource( String source ) {
     _sourceFingerprint = CommonServices.getPlatformHelper().getExecutionMode() == ExecutionMode.IDE
                          ? new FP64(source).getRawFingerprint() // only really matters inside an IDE
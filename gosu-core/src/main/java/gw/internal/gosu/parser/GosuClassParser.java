@@ -578,7 +578,10 @@ public class GosuClassParser extends ParserBase implements IGosuClassParser, ITo
       return;
     }
 
-    List<Token> tokens = getOwner().getTokenizer().getTokens().toList();
+    // The parse tree keeps the token store, so drop its spare capacity
+    TokenStore tokenStore = getOwner().getTokenizer().getTokens();
+    tokenStore.trimToSize();
+    List<Token> tokens = tokenStore.toList();
     classStmt.getClassFileStatement().assignTokens( tokens );
 
 //## todo: handle programs (see GosuAstTransformer)
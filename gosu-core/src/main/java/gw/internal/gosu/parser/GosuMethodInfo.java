@@ -32,6 +32,7 @@ import gw.lang.reflect.java.JavaTypes;
 import gw.util.GosuExceptionUtil;
 import gw.util.GosuStringUtil;
 
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
@@ -234,6 +235,8 @@ public class GosuMethodInfo extends AbstractGenericMethodInfo implements IGosuMe
 
   private class GosuMethodCallHandler implements IMethodCallHandler
   {
+    private volatile ResolvedMethod _resolved;
+
     public Object handleCall( Object gsClassInstance, Object... args )
     {
       ReducedDynamicFunctionSymbol dfs = getDfs();
@@ -294,14 +297,23 @@ public class GosuMethodInfo extends AbstractGenericMethodInfo implements IGosuMe
           args = argList.toArray();
         }
         Class clazz = dfsClass.getBackingClass();
-        IRMethodFromMethodInfo irMethod = IRMethodFactory.createIRMethod(GosuMethodInfo.this, (IFunctionType) dfs.getType());
-        List<IRType> allParameterTypes = irMethod.getAllParameterTypes();
-        Class[] paramClasses = new Class[allParameterTypes.size()];
-        for (int i = 0; i < allParameterTypes.size(); i++) {
-          paramClasses[i] = IRElement.maybeEraseStructuralType( allParameterTypes.get( i ) ).getJavaClass();
+        ResolvedMethod resolved = _resolved;
+        if( resolved == null || resolved._backingClass != clazz )
+        {
+          IRMethodFromMethodInfo irMethod = IRMethodFactory.createIRMethod(GosuMethodInfo.this, (IFunctionType) dfs.getType());
+          List<IRType> allParameterTypes = irMethod.getAllParameterTypes();
+          Class[] paramClasses = new Class[allParameterTypes.size()];
+          for (int i = 0; i < allParameterTypes.size(); i++) {
+            paramClasses[i] = IRElement.maybeEraseStructuralType( allParameterTypes.get( i ) ).getJavaClass();
+          }
+          _resolved = resolved = new ResolvedMethod( clazz, getMethod( clazz, NameResolver.getFunctionName( dfs ), paramClasses ) );
         }
-        Method method = getMethod( clazz, NameResolver.getFunctionName( dfs ), paramClasses );
-        return method.invoke( gsClassInstance, args );
+        MethodHandle invoker = resolved._invoker.get();
+        if( invoker == null )
+        {
+          return resolved._method.invoke( gsClassInstance, args );
+        }
+        return invokeHandle( invoker, resolved._method, gsClassInstance, args );
       }
       catch( IllegalAccessException e )
       {
@@ -314,6 +326,49 @@ public class GosuMethodInfo extends AbstractGenericMethodInfo implements IGosuMe
     }
   }
 
+  private static Object invokeHandle( MethodHandle invoker, Method method, Object ctx, Object[] args )
+  {
+    try
+    {
+      return (Object)invoker.invokeExact( ctx, args );
+    }
+    catch( ClassCastException | NullPointerException e )
+    {
+      if( !MethodHandleAccessors.isCompatible( method.getParameterTypes(), args ) )
+      {
+        throw new IllegalArgumentException( "argument type mismatch", e );
+      }
+      throw e;
+    }
+    catch( Throwable t )
+    {
+      throw GosuExceptionUtil.forceThrow( t );
+    }
+  }
+
+  /**
+   * The backing class method a Gosu method resolves to, kept until the class is reloaded
+   */
+  private static class ResolvedMethod
+  {
+    private final Class _backingClass;
+    private final Method _method;
+    private final MethodHandleAccessors.LazyHandle _invoker;
+
+    ResolvedMethod( Class backingClass, final Method method )
+    {
+      _backingClass = backingClass;
+      _method = method;
+      _invoker = new MethodHandleAccessors.LazyHandle()
+      {
+        protected MethodHandle makeHandle()
+        {
+          return MethodHandleAccessors.makeInvoker( method );
+        }
+      };
+    }
+  }
+
   private class ReflectiveMethodCallHandler implements IMethodCallHandler {
     @Override
     public Object handleCall( Object ctx, Object... args )
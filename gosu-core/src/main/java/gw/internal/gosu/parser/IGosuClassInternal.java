@@ -155,6 +155,31 @@ public interface IGosuClassInternal extends IGosuClass, ICompilableTypeInternal
 
   void compileDefinitionsIfNeeded( boolean bForce );
 
+  /**
+   * In runtime-only mode (see ExecutionEnvironment#isRuntimeOnly()), drops the parse trees and function bodies of
+   * this top-level class and everything nested in it.  The bytecode of every nested class must already be compiled
+   * and set with setCompiledBytes().
+   */
+  void discardDefinitions();
+
+  /**
+   * @return true if this class's definitions were discarded and haven't been parsed again since
+   */
+  boolean isDefinitionsDiscarded();
+
+  /**
+   * Parses the definitions of this class's outermost enclosing class again if they were discarded.
+   */
+  void restoreDefinitions();
+
+  void setCompiledBytes( byte[] bytes );
+
+  /**
+   * @return the bytecode kept for this nested class when its outermost enclosing class discarded its definitions,
+   *   or null once the class loader has taken it
+   */
+  byte[] getCompiledBytes();
+
   void compileDeclarationsIfNeeded();
 
   void compileHeaderIfNeeded();
@@ -14,6 +14,7 @@ import gw.lang.reflect.RefreshKind;
 import gw.lang.reflect.module.ITypeLoaderStack;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  */
@@ -31,5 +32,11 @@ public interface ITypeLoaderStackInternal extends ITypeLoaderStack {
 
   boolean refresh(IResource file, String typeName, RefreshKind refreshKind);
 
+  /**
+   * Refreshes many changed resources of this module at once, with one batched request per type loader and kind of
+   * change.
+   */
+  boolean refresh(Map<IResource, RefreshKind> changes);
+
   void clearFromCaches(RefreshRequest typesToClear);
 }
@@ -6,6 +6,7 @@ package gw.internal.gosu.parser;
 
 import gw.config.CommonServices;
 
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 
@@ -23,12 +24,20 @@ public class MethodCallAdapter implements IMethodCallHandler
 {
   private Method _method = null;
   private Class[] _argTypes = null;
+  private final MethodHandleAccessors.LazyHandle _handle;
 
   public MethodCallAdapter( Method method )
   {
     _method = method;
     _argTypes = method.getParameterTypes(); // Cache this so we don't have to create a copy every time
     _method.setAccessible( true );
+    _handle = new MethodHandleAccessors.LazyHandle()
+    {
+      protected MethodHandle makeHandle()
+      {
+        return MethodHandleAccessors.makeInvoker( _method );
+      }
+    };
   }
 
   public Object handleCall( Object ctx, Object... argValues )
@@ -60,6 +69,24 @@ public class MethodCallAdapter implements IMethodCallHandler
         Thread.currentThread().setContextClassLoader( TypeSystem.getGosuClassLoader().getActualLoader() ); //_method.getDeclaringClass().getClassLoader() );
       }
     }
+    try
+    {
+      MethodHandle handle = _handle.get();
+      return handle == null
+             ? invokeReflectively( ctx, argValues )
+             : invokeHandle( handle, ctx, argValues );
+    }
+    finally
+    {
+      if( !bMethodOnThread )
+      {
+        Thread.currentThread().setContextClassLoader( previousClassLoader );
+      }
+    }
+  }
+
+  private Object invokeReflectively( Object ctx, Object[] argValues )
+  {
     try
     {
       return _method.invoke( ctx, argValues );
@@ -70,20 +97,47 @@ public class MethodCallAdapter implements IMethodCallHandler
     }
     catch( IllegalArgumentException ie )
     {
-      GosuExceptionUtil.throwArgMismatchException( ie, "method \"" + GosuClassUtil.getShortClassName( _method.getDeclaringClass() ) + "#" + _method.getName() + "\"", _method.getParameterTypes(), argValues );
+      throwArgMismatch( ie, argValues );
       return null;
     }
     catch( Throwable t )
     {
       throw makeMethodCallEvaluationException( _method, t );
     }
-    finally
+  }
+
+  private Object invokeHandle( MethodHandle handle, Object ctx, Object[] argValues )
+  {
+    try
     {
-      if( !bMethodOnThread )
-      {
-        Thread.currentThread().setContextClassLoader( previousClassLoader );
-      }
+      return (Object)handle.invokeExact( ctx, argValues );
+    }
+    catch( ClassCastException e )
+    {
+      throw maybeArgMismatch( e, argValues );
+    }
+    catch( NullPointerException e )
+    {
+      throw maybeArgMismatch( e, argValues );
+    }
+    catch( Throwable t )
+    {
+      throw GosuExceptionUtil.forceThrow( t );
+    }
+  }
+
+  private RuntimeException maybeArgMismatch( RuntimeException e, Object[] argValues )
+  {
+    if( !MethodHandleAccessors.isCompatible( _argTypes, argValues ) )
+    {
+      throwArgMismatch( new IllegalArgumentException( "argument type mismatch", e ), argValues );
     }
+    return e;
+  }
+
+  private void throwArgMismatch( IllegalArgumentException ie, Object[] argValues )
+  {
+    GosuExceptionUtil.throwArgMismatchException( ie, "method \"" + GosuClassUtil.getShortClassName( _method.getDeclaringClass() ) + "#" + _method.getName() + "\"", _method.getParameterTypes(), argValues );
   }
 
   public Method getMethod()
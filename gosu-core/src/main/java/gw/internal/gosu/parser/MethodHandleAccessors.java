@@ -0,0 +1,233 @@
+/*
+ * Copyright 2014 Guidewire Software, Inc.
+ */
+
+package gw.internal.gosu.parser;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * Builds MethodHandle-based replacements for the reflective Method/Field calls made by feature call handlers
+ * and property accessors (MethodCallAdapter, JavaPropertyInfo, JavaFieldPropertyInfo, GosuMethodInfo).
+ * <p/>
+ * A handler counts its reflective calls and asks for a handle once it has been called more than
+ * {@link #getThreshold()} times, so features touched only once or twice never pay for handle creation.
+ * <p/>
+ * The handle lives in a volatile field of the handler, one per feature, so it is not a constant the JIT can fold:
+ * every call loads the field and invokes a handle the call site can't see through.  The handle saves the access
+ * and argument checks Method.invoke() and Field.get() make on each call; it does not make the target inlinable
+ * into the caller.  AccessorBenchmark in gosu-benchmarks compares the two paths.
+ * <p/>
+ * Set -Dgosu.methodhandle.accessors=false (or call {@link #setEnabled(boolean)}) to keep the plain reflective
+ * path, e.g., when debugging through Method.invoke().
+ */
+public class MethodHandleAccessors
+{
+  public static final String ENABLED_SYSTEM_PROP = "gosu.methodhandle.accessors";
+  public static final String THRESHOLD_SYSTEM_PROP = "gosu.methodhandle.accessors.threshold";
+
+  private static final MethodType INVOKER_TYPE = MethodType.methodType( Object.class, Object.class, Object[].class );
+  private static final MethodType GETTER_TYPE = MethodType.methodType( Object.class, Object.class );
+  private static final MethodType SETTER_TYPE = MethodType.methodType( void.class, Object.class, Object.class );
+
+  private static boolean ENABLED = !"false".equalsIgnoreCase( System.getProperty( ENABLED_SYSTEM_PROP ) );
+  private static int THRESHOLD = Integer.getInteger( THRESHOLD_SYSTEM_PROP, 16 );
+
+  public static boolean isEnabled()
+  {
+    return ENABLED;
+  }
+
+  public static void setEnabled( boolean bEnabled )
+  {
+    ENABLED = bEnabled;
+  }
+
+  public static int getThreshold()
+  {
+    return THRESHOLD;
+  }
+
+  public static void setThreshold( int iThreshold )
+  {
+    THRESHOLD = iThreshold;
+  }
+
+  /**
+   * Counts calls and makes its handle once the count passes the threshold.  Answers null while the feature is
+   * still cold, when handles are disabled, or when a handle can't be made.
+   */
+  public static abstract class LazyHandle
+  {
+    private int _iCalls;
+    private volatile MethodHandle _handle;
+    private boolean _bUnavailable;
+
+    protected abstract MethodHandle makeHandle();
+
+    public MethodHandle get()
+    {
+      if( !ENABLED )
+      {
+        return null;
+      }
+      MethodHandle handle = _handle;
+      if( handle == null && !_bUnavailable && ++_iCalls > THRESHOLD )
+      {
+        handle = makeHandle();
+        _bUnavailable = handle == null;
+        _handle = handle;
+      }
+      return handle;
+    }
+  }
+
+  /**
+   * @return A handle of type (Object ctx, Object[] args)Object that invokes the method, or null if a handle
+   * can't be made for it.  The ctx argument is ignored for static methods.  A void method returns null.
+   */
+  public static MethodHandle makeInvoker( Method method )
+  {
+    try
+    {
+      MethodHandle mh = MethodHandles.lookup().unreflect( method );
+      if( Modifier.isStatic( method.getModifiers() ) )
+      {
+        mh = MethodHandles.dropArguments( mh, 0, Object.class );
+      }
+      int iParams = method.getParameterTypes().length;
+      return mh.asType( mh.type().generic() )
+        .asSpreader( Object[].class, iParams )
+        .asType( INVOKER_TYPE );
+    }
+    catch( Exception e )
+    {
+      return null;
+    }
+  }
+
+  /**
+   * @return A handle of type (Object ctx)Object that reads the field, or null.
+   */
+  public static MethodHandle makeGetter( Field field )
+  {
+    try
+    {
+      MethodHandle mh = MethodHandles.lookup().unreflectGetter( field );
+      if( Modifier.isStatic( field.getModifiers() ) )
+      {
+        mh = MethodHandles.dropArguments( mh, 0, Object.class );
+      }
+      return mh.asType( GETTER_TYPE );
+    }
+    catch( Exception e )
+    {
+      return null;
+    }
+  }
+
+  /**
+   * @return A handle of type (Object ctx, Object value)void that writes the field, or null.
+   */
+  public static MethodHandle makeSetter( Field field )
+  {
+    if( Modifier.isFinal( field.getModifiers() ) )
+    {
+      // Field.set() has its own rules for final fields, leave those to reflection
+      return null;
+    }
+    try
+    {
+      MethodHandle mh = MethodHandles.lookup().unreflectSetter( field );
+      if( Modifier.isStatic( field.getModifiers() ) )
+      {
+        mh = MethodHandles.dropArguments( mh, 0, Object.class );
+      }
+      return mh.asType( SETTER_TYPE );
+    }
+    catch( Exception e )
+    {
+      return null;
+    }
+  }
+
+  /**
+   * A handle reports an argument mismatch as a ClassCastException or NullPointerException where reflection
+   * throws IllegalArgumentException.  Callers use this to tell a mismatch from an exception thrown by the
+   * target itself.
+   */
+  public static boolean isCompatible( Class[] paramTypes, Object[] args )
+  {
+    int iArgs = args == null ? 0 : args.length;
+    if( paramTypes.length != iArgs )
+    {
+      return false;
+    }
+    for( int i = 0; i < iArgs; i++ )
+    {
+      if( !isCompatible( paramTypes[i], args[i] ) )
+      {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  public static boolean isCompatible( Class paramType, Object arg )
+  {
+    if( !paramType.isPrimitive() )
+    {
+      return arg == null || paramType.isInstance( arg );
+    }
+    if( arg == null )
+    {
+      return false;
+    }
+    Class argClass = arg.getClass();
+    if( paramType == boolean.class )
+    {
+      return argClass == Boolean.class;
+    }
+    if( paramType == char.class )
+    {
+      return argClass == Character.class;
+    }
+    // char widens like int i.e., to int, long, float and double
+    int iArgRank = argClass == Character.class ? getWideningRank( int.class ) : getWideningRank( argClass );
+    return iArgRank >= 0 && iArgRank <= getWideningRank( paramType );
+  }
+
+  private static int getWideningRank( Class c )
+  {
+    if( c == byte.class || c == Byte.class )
+    {
+      return 0;
+    }
+    if( c == short.class || c == Short.class )
+    {
+      return 1;
+    }
+    if( c == int.class || c == Integer.class )
+    {
+      return 2;
+    }
+    if( c == long.class || c == Long.class )
+    {
+      return 3;
+    }
+    if( c == float.class || c == Float.class )
+    {
+      return 4;
+    }
+    if( c == double.class || c == Double.class )
+    {
+      return 5;
+    }
+    return -1;
+  }
+}
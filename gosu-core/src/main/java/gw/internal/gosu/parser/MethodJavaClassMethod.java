@@ -14,6 +14,7 @@ import gw.lang.reflect.gs.IGenericTypeVariable;
 import gw.lang.reflect.java.Parameter;
 import gw.lang.reflect.module.IModule;
 
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.*;
 import java.lang.annotation.Annotation;
 import java.util.ArrayList;
@@ -24,10 +25,16 @@ import java.util.List;
 public class MethodJavaClassMethod implements IJavaClassMethod, IJavaClassBytecodeMethod {
   private Method _method;
   private IModule _module;
+  private final MethodHandleAccessors.LazyHandle _invoker;
 
   public MethodJavaClassMethod(Method method, IModule module) {
     _method = method;
     _module = module;
+    _invoker = new MethodHandleAccessors.LazyHandle() {
+      protected MethodHandle makeHandle() {
+        return MethodHandleAccessors.makeInvoker(_method);
+      }
+    };
   }
 
   @Override
@@ -138,7 +145,29 @@ public class MethodJavaClassMethod implements IJavaClassMethod, IJavaClassByteco
 
   @Override
   public Object invoke(Object ctx, Object[] args) throws InvocationTargetException, IllegalAccessException {
-    return _method.invoke(ctx, args);
+    MethodHandle invoker = _invoker.get();
+    if (invoker == null) {
+      return _method.invoke(ctx, args);
+    }
+    try {
+      return (Object)invoker.invokeExact(ctx, args);
+    }
+    catch (ClassCastException | NullPointerException e) {
+      // Keep Method.invoke()'s contract: a bad receiver or argument is reported directly, anything else
+      // came from the method itself
+      boolean bStatic = Modifier.isStatic(_method.getModifiers());
+      if (ctx == null && !bStatic) {
+        throw e;
+      }
+      if ((!bStatic && !_method.getDeclaringClass().isInstance(ctx)) ||
+          !MethodHandleAccessors.isCompatible(_method.getParameterTypes(), args)) {
+        throw new IllegalArgumentException("argument type mismatch", e);
+      }
+      throw new InvocationTargetException(e);
+    }
+    catch (Throwable t) {
+      throw new InvocationTargetException(t);
+    }
   }
 
   @Override
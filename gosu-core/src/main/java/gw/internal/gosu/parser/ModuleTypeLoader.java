@@ -36,12 +36,16 @@ import gw.util.cache.WeakFqnCache;
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  */
@@ -65,6 +69,10 @@ public class ModuleTypeLoader implements ITypeLoaderStackInternal {
 
   private ITypeRefFactory _typeRefFactory;
 
+  // Bloom filter of the names of the loaders with complete type names, built on the first lookup that needs it
+  private TypeNameIndex _typeNameIndex;
+  private boolean _bTypeNameIndexBuilt;
+
   public ModuleTypeLoader( IModule module, List<ITypeLoader> loaderStack )
   {
     _module = module;
@@ -84,11 +92,12 @@ public class ModuleTypeLoader implements ITypeLoaderStackInternal {
   }
 
   private void initMaps() {
-    _globalStack = new ArrayList<ITypeLoader>();
+    _globalStack = new CopyOnWriteArrayList<ITypeLoader>();
     _loadersByPrefix = new HashMap<String, ITypeLoader>();
     _typesByName = new WeakFqnCache<IType>();
     _namespaceTypesByName = new HashMap<String, IType>();
     _typesByCaseInsensitiveName = new HashMap<String, IType>();
+    dropTypeNameIndex();
   }
 
   public ModuleTypeLoader( IModule module, DefaultTypeLoader defaultTypeLoader)
@@ -122,6 +131,7 @@ public class ModuleTypeLoader implements ITypeLoaderStackInternal {
   public void pushTypeLoader( ITypeLoader typeLoader )
   {
     TypeSystem.lock();
+    TypeSystem.beginRefresh();
     try
     {
       clearErrorTypes();
@@ -148,10 +158,12 @@ public class ModuleTypeLoader implements ITypeLoaderStackInternal {
         String handledPrefix = handledPrefixes.get( i );
         _loadersByPrefix.put( handledPrefix, typeLoader );
       }
+      dropTypeNameIndex();
       CommonServices.getEntityAccess().getLogger().debug("TypeLoader added: " + GosuClassUtil.getShortClassName(typeLoader.getClass()));
     }
     finally
     {
+      TypeSystem.endRefresh();
       TypeSystem.unlock();
     }
     CommonServices.getEntityAccess().getLogger().debug( "TypeLoader added: " + GosuClassUtil.getShortClassName( typeLoader.getClass() ) );
@@ -211,6 +223,7 @@ public class ModuleTypeLoader implements ITypeLoaderStackInternal {
   public void removeTypeLoader( Class<? extends ITypeLoader> loaderType )
   {
     TypeSystem.lock();
+    TypeSystem.beginRefresh();
     try
     {
       ITypeLoader typeLoader = getTypeLoader( loaderType );
@@ -229,6 +242,7 @@ public class ModuleTypeLoader implements ITypeLoaderStackInternal {
     }
     finally
     {
+      TypeSystem.endRefresh();
       TypeSystem.unlock();
     }
   }
@@ -237,12 +251,14 @@ public class ModuleTypeLoader implements ITypeLoaderStackInternal {
   public void clearFromCaches( RefreshRequest request)
   {
     TypeSystem.lock();
+    TypeSystem.beginRefresh();
     try
     {
       for (String fullyQualifiedTypeName : request.types) {
         clearFromCaches(fullyQualifiedTypeName);
       }
       clearNamespaces(request); // Clear namespace types that might be affected.
+      addToTypeNameIndex(request);
 
       DefaultTypeLoader defaultTypeLoader = getTypeLoader(DefaultTypeLoader.class);
       if (defaultTypeLoader != null) {
@@ -254,6 +270,7 @@ public class ModuleTypeLoader implements ITypeLoaderStackInternal {
     }
     finally
     {
+      TypeSystem.endRefresh();
       TypeSystem.unlock();
     }
   }
@@ -269,6 +286,42 @@ public class ModuleTypeLoader implements ITypeLoaderStackInternal {
     }
   }
 
+  private void addToTypeNameIndex(RefreshRequest request) {
+    // deleted types stay in the index, it can only tell that a name is certainly missing
+    if (_typeNameIndex != null && request.kind != RefreshKind.DELETION) {
+      for (String fullyQualifiedTypeName : request.types) {
+        _typeNameIndex.add(fullyQualifiedTypeName);
+      }
+      if (_typeNameIndex.isFull()) {
+        dropTypeNameIndex();
+      }
+    }
+  }
+
+  private void dropTypeNameIndex() {
+    _typeNameIndex = null;
+    _bTypeNameIndexBuilt = false;
+  }
+
+  /**
+   * @return the index if the loaders it covers certainly don't have the type, otherwise null
+   */
+  private TypeNameIndex getIndexOfMiss(String fullyQualifiedName) {
+    if (!_bTypeNameIndexBuilt) {
+      // set first, the loaders may load types while they list their names
+      _bTypeNameIndexBuilt = true;
+      _typeNameIndex = TypeNameIndex.build(_globalStack);
+      // try again later if no loader could be indexed yet
+      _bTypeNameIndexBuilt = _typeNameIndex != null;
+    }
+    TypeNameIndex index = _typeNameIndex;
+    if (index != null && index.isCertainMiss(fullyQualifiedName) &&
+        !GosuClassCompilingStack.isCompilingTypeOrEnclosed(fullyQualifiedName)) {
+      return index;
+    }
+    return null;
+  }
+
   public Set<TypeName> getTypeNames(String namespace) {
     Set<TypeName> names = new HashSet<TypeName>();
     for (ITypeLoader loader : _globalStack) {
@@ -280,24 +333,17 @@ public class ModuleTypeLoader implements ITypeLoaderStackInternal {
   @Override
   public <T extends ITypeLoader> T getTypeLoader( Class<? extends T> loaderType )
   {
-    TypeSystem.lock();
-    try
+    // _globalStack is copy-on-write, no need to lock
+    for( ITypeLoader loader : _globalStack )
     {
-      for( ITypeLoader loader : _globalStack )
+      // Note, this MUST be equals(). It must be an exact match, not an assignable match.
+      if( loader.getClass().equals( loaderType ) )
       {
-        // Note, this MUST be equals(). It must be an exact match, not an assignable match.
-        if( loader.getClass().equals( loaderType ) )
-        {
-          //noinspection unchecked
-          return (T)loader;
-        }
+        //noinspection unchecked
+        return (T)loader;
       }
-      return null;
-    }
-    finally
-    {
-      TypeSystem.unlock();
     }
+    return null;
   }
 
   @Override
@@ -397,9 +443,11 @@ public class ModuleTypeLoader implements ITypeLoaderStackInternal {
     // strip off all trailing array brackets "[]"
     String fqnNoArrays = stripArrayBrackets(fullyQualifiedName);
 
-    // First, look for the type in the map by name
+    // First, look for the type in the map by name.  This is the lock-free path for loaded types, it falls back
+    // to the global lock if a refresh overlaps the lookup
+    long stamp = TypeSystem.tryOptimisticRead();
     IType foundType = findInCache( fqnNoArrays );
-    if( foundType == null )
+    if( foundType == null || !TypeSystem.validateRead( stamp ) )
     {
       TypeSystem.lock();
       try
@@ -555,6 +603,7 @@ public class ModuleTypeLoader implements ITypeLoaderStackInternal {
     try
     {
       clearCaches();
+      dropTypeNameIndex();
       for (ITypeLoader loader : _globalStack) {
         loader.refreshed();
       }
@@ -591,8 +640,14 @@ public class ModuleTypeLoader implements ITypeLoaderStackInternal {
       }
     }
 
+    TypeNameIndex indexOfMiss = getIndexOfMiss(fullyQualifiedName);
     for( ITypeLoader loader : _globalStack )
     {
+      if( indexOfMiss != null && indexOfMiss.covers( loader ) )
+      {
+        // the loader doesn't have the type, don't make it look
+        continue;
+      }
       if(loader instanceof IGosuObject) {
         if(((IGosuObject)loader).getIntrinsicType().getName().equals(fullyQualifiedName) ||
             GosuClassCompilingStack.getCompilingType(((IGosuObject)loader).getIntrinsicType().getName()) != null) {
@@ -725,6 +780,7 @@ public class ModuleTypeLoader implements ITypeLoaderStackInternal {
   public boolean refresh(IResource file, String typeName, RefreshKind refreshKind) {
     TypeSystem.pushModule(getModule());
     TypeSystem.lock();
+    TypeSystem.beginRefresh();
     try {
       if (file instanceof IFile) {
         return refreshFile((IFile) file, typeName, refreshKind);
@@ -734,11 +790,160 @@ public class ModuleTypeLoader implements ITypeLoaderStackInternal {
         throw new RuntimeException("Unknown resource: " + file);
       }
     } finally {
+      TypeSystem.endRefresh();
       TypeSystem.unlock();
       TypeSystem.popModule(getModule());
     }
   }
 
+  public boolean refresh(Map<IResource, RefreshKind> changes) {
+    TypeSystem.pushModule(getModule());
+    TypeSystem.lock();
+    TypeSystem.beginRefresh();
+    try {
+      boolean processed = false;
+      Map<Pair<ITypeLoader, RefreshKind>, FileBatch> batches = new LinkedHashMap<Pair<ITypeLoader, RefreshKind>, FileBatch>();
+      for (Map.Entry<IResource, RefreshKind> change : changes.entrySet()) {
+        IResource resource = change.getKey();
+        if (resource instanceof IFile) {
+          processed |= addToBatches((IFile) resource, change.getValue(), batches);
+        } else if (resource instanceof IDirectory) {
+          processed |= refreshDirectory((IDirectory) resource, change.getValue());
+        } else {
+          throw new RuntimeException("Unknown resource: " + resource);
+        }
+      }
+      if (!batches.isEmpty()) {
+        // find the subtypes before the batches make their supertypes stale
+        Map<ITypeLoader, Set<String>> subtypes = findLoadedSubtypes(batches.values());
+        for (FileBatch batch : batches.values()) {
+          TypeLoaderAccess.instance().refreshTypes(batch.makeRequest());
+        }
+        for (Map.Entry<ITypeLoader, Set<String>> entry : subtypes.entrySet()) {
+          Set<String> names = entry.getValue();
+          TypeLoaderAccess.instance().refreshTypes(
+            new RefreshRequest(names.toArray(new String[names.size()]), new IFile[0], entry.getKey(), RefreshKind.MODIFICATION));
+        }
+      }
+      return processed;
+    } finally {
+      TypeSystem.endRefresh();
+      TypeSystem.unlock();
+      TypeSystem.popModule(getModule());
+    }
+  }
+
+  private boolean addToBatches(IFile file, RefreshKind kind, Map<Pair<ITypeLoader, RefreshKind>, FileBatch> batches) {
+    boolean processed = false;
+    for (ITypeLoader typeLoader : _globalStack) {
+      if (typeLoader.handlesFile(file)) {
+        String[] types = typeLoader.getTypesForFile(file);
+        RefreshKind loaderKind = typeLoader.refreshedFile(file, types, kind);
+        if (types != null && types.length != 0) {
+          Pair<ITypeLoader, RefreshKind> key = new Pair<ITypeLoader, RefreshKind>(typeLoader, loaderKind);
+          FileBatch batch = batches.get(key);
+          if (batch == null) {
+            batch = new FileBatch(typeLoader, loaderKind);
+            batches.put(key, batch);
+          }
+          batch.add(file, types);
+        }
+        processed = true;
+      }
+    }
+    return processed;
+  }
+
+  /**
+   * Finds the loaded Gosu classes that extend or implement a modified or deleted type, directly or through one another.
+   * They are refreshed with the batch, since their compiled state depends on the supertypes that are changing.
+   * Classes whose headers aren't compiled yet don't need it; they'll see the new supertypes when they compile.
+   */
+  private Map<ITypeLoader, Set<String>> findLoadedSubtypes(Collection<FileBatch> batches) {
+    Set<String> supertypes = new HashSet<String>();
+    for (FileBatch batch : batches) {
+      if (batch.kind != RefreshKind.CREATION) {
+        supertypes.addAll(batch.types);
+      }
+    }
+    Map<ITypeLoader, Set<String>> subtypes = new LinkedHashMap<ITypeLoader, Set<String>>();
+    if (supertypes.isEmpty()) {
+      return subtypes;
+    }
+
+    List<IGosuClassInternal> candidates = new ArrayList<IGosuClassInternal>();
+    Set<ITypeRefFactory> factories = new HashSet<ITypeRefFactory>();
+    for (IModule module : TypeSystem.getExecutionEnvironment().getModules()) {
+      ITypeRefFactory factory = module.getModuleTypeLoader().getTypeRefFactory();
+      if (factory instanceof TypeRefFactory && factories.add(factory)) {
+        for (ITypeRef ref : ((TypeRefFactory) factory).getLoadedGosuClassRefs()) {
+          IGosuClassInternal gsClass = (IGosuClassInternal) ((IGosuClassInternal) ref).dontEverCallThis();
+          if (gsClass.isHeaderCompiled() && !gsClass.isParameterizedType() && !supertypes.contains(gsClass.getName())) {
+            candidates.add(gsClass);
+          }
+        }
+      }
+    }
+
+    // a subtype found in one pass can be the supertype of a candidate checked earlier in that pass
+    boolean bFoundAny = true;
+    while (bFoundAny) {
+      bFoundAny = false;
+      for (Iterator<IGosuClassInternal> iterator = candidates.iterator(); iterator.hasNext(); ) {
+        IGosuClassInternal gsClass = iterator.next();
+        if (extendsAny(gsClass, supertypes)) {
+          iterator.remove();
+          supertypes.add(gsClass.getName());
+          Set<String> names = subtypes.get(gsClass.getTypeLoader());
+          if (names == null) {
+            names = new LinkedHashSet<String>();
+            subtypes.put(gsClass.getTypeLoader(), names);
+          }
+          names.add(gsClass.getName());
+          bFoundAny = true;
+        }
+      }
+    }
+    return subtypes;
+  }
+
+  private boolean extendsAny(IGosuClassInternal gsClass, Set<String> typeNames) {
+    IType supertype = gsClass.getSupertype();
+    if (supertype != null && typeNames.contains(TypeLord.getPureGenericType(supertype).getName())) {
+      return true;
+    }
+    for (IType iface : gsClass.getInterfaces()) {
+      if (typeNames.contains(TypeLord.getPureGenericType(iface).getName())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * The files of a batched refresh that have the same type loader and kind of change, and their types
+   */
+  private static class FileBatch {
+    private final ITypeLoader typeLoader;
+    private final RefreshKind kind;
+    private final List<IFile> files = new ArrayList<IFile>();
+    private final Set<String> types = new LinkedHashSet<String>();
+
+    FileBatch(ITypeLoader typeLoader, RefreshKind kind) {
+      this.typeLoader = typeLoader;
+      this.kind = kind;
+    }
+
+    void add(IFile file, String[] fileTypes) {
+      files.add(file);
+      Collections.addAll(types, fileTypes);
+    }
+
+    RefreshRequest makeRequest() {
+      return new RefreshRequest(types.toArray(new String[types.size()]), files.toArray(new IFile[files.size()]), typeLoader, kind);
+    }
+  }
+
   private boolean refreshDirectory(IDirectory directory, RefreshKind kind) {
     boolean processed = false;
 
@@ -749,6 +954,10 @@ public class ModuleTypeLoader implements ITypeLoaderStackInternal {
         if (namespace != null) {
           refreshNamespaceCaches(namespace, typeLoader, kind);
           typeLoader.refreshedNamespace(namespace, directory, kind);
+          if (kind == RefreshKind.DELETION && !directory.exists()) {
+            // nothing left to list, the directory's files are only known by the types loaded from them
+            refreshLoadedTypes(namespace, typeLoader, kind);
+          }
         }
         processed = true;
       }
@@ -765,6 +974,25 @@ public class ModuleTypeLoader implements ITypeLoaderStackInternal {
     return processed;
   }
 
+  /**
+   * Refreshes the loaded types the type loader has in the namespace and the namespaces under it
+   */
+  private void refreshLoadedTypes(String namespace, ITypeLoader typeLoader, RefreshKind kind) {
+    List<String> types = new ArrayList<String>();
+    for (String typeName : _typeRefFactory.getTypesWithPrefix(namespace, "")) {
+      if (typeName.startsWith(namespace + '.')) {
+        ITypeRef ref = _typeRefFactory.get(typeName);
+        if (ref != null && ref.getTypeLoaderDirectly() == typeLoader) {
+          types.add(typeName);
+        }
+      }
+    }
+    if (!types.isEmpty()) {
+      TypeLoaderAccess.instance().refreshTypes(
+        new RefreshRequest(types.toArray(new String[types.size()]), new IFile[0], typeLoader, kind));
+    }
+  }
+
   private void refreshNamespaceCaches( String namespace, ITypeLoader typeLoader, RefreshKind kind ) {
     if (kind == RefreshKind.CREATION) {
       _namespaceTypesByName.remove(namespace);
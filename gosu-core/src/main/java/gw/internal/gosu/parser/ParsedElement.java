@@ -33,6 +33,7 @@ import gw.lang.reflect.module.IModule;
 import gw.util.GosuObjectUtil;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -60,7 +61,12 @@ public abstract class ParsedElement implements IParsedElement
   private int _iColumn;
   private LikelyNullFields _lnf;
   private IGosuProgramInternal _gosuProgram;
-  protected List<IToken> _tokens;
+  // Assigned tokens as indexes into their tokenizer's store, only in editor mode
+  private TokenStore _tokenStore;
+  private int[] _tokenIndexes;
+  private int _iTokenCount;
+  // The token views once getTokens() has made them, or the tokens themselves if some token isn't in the store
+  private List<IToken> _tokens;
 
   private static class LikelyNullFields
   {
@@ -72,7 +78,6 @@ public abstract class ParsedElement implements IParsedElement
 
   ParsedElement()
   {
-    _tokens = new ArrayList<IToken>( 2 );
   }
 
   public IGosuProgramInternal getGosuProgram()
@@ -1160,14 +1165,54 @@ public abstract class ParsedElement implements IParsedElement
   protected void addToken( IToken token, IParseTree after )
   {
     token.setAfter( after );
-    if( !containsToken( _tokens, token ) )
+    Token storedToken = (Token)token;
+    if( _tokens == null && storedToken._store != null && (_tokenStore == null || storedToken._store == _tokenStore) )
     {
-      _tokens.add( token );
+      _tokenStore = storedToken._store;
+      if( !containsToken( storedToken._iIndex ) )
+      {
+        if( _tokenIndexes == null )
+        {
+          _tokenIndexes = new int[2];
+        }
+        else if( _iTokenCount == _tokenIndexes.length )
+        {
+          _tokenIndexes = Arrays.copyOf( _tokenIndexes, _iTokenCount * 2 );
+        }
+        _tokenIndexes[_iTokenCount++] = storedToken._iIndex;
+      }
+      return;
+    }
+
+    // Not a token from the store e.g., a prior token made on the fly, keep a list instead
+    List<IToken> tokens = getTokenList();
+    if( !containsToken( tokens, token ) )
+    {
+      tokens.add( token );
     }
   }
 
   public List<IToken> getTokens()
   {
+    if( _tokens == null && _tokenIndexes == null )
+    {
+      return Collections.emptyList();
+    }
+    return getTokenList();
+  }
+
+  private List<IToken> getTokenList()
+  {
+    if( _tokens == null )
+    {
+      _tokens = new ArrayList<IToken>( Math.max( 2, _iTokenCount ) );
+      for( int i = 0; i < _iTokenCount; i++ )
+      {
+        _tokens.add( _tokenStore.get( _tokenIndexes[i] ) );
+      }
+      _tokenIndexes = null;
+      _iTokenCount = 0;
+    }
     return _tokens;
   }
 
@@ -1268,6 +1313,29 @@ public abstract class ParsedElement implements IParsedElement
     return -1;
   }
 
+  private boolean containsToken( int iTarget ) {
+    if( _tokenIndexes == null ) {
+      return false;
+    }
+    int iStart = 0;
+    int iEnd = _iTokenCount - 1;
+    int iIndex;
+    while( iStart <= iEnd ) {
+      iIndex = (iStart + iEnd) / 2;
+      int iToken = _tokenIndexes[iIndex];
+      if( iToken == iTarget ) {
+        return true;
+      }
+      else if( iToken < iTarget ) {
+        iStart = iIndex + 1;
+      }
+      else {
+        iEnd = iIndex - 1;
+      }
+    }
+    return false;
+  }
+
   private boolean containsToken( List<IToken> tokens, IToken target ) {
     int iStart = 0;
     int iEnd = tokens.size() - 1;
@@ -1276,7 +1344,7 @@ public abstract class ParsedElement implements IParsedElement
     while( iStart <= iEnd ) {
       iIndex = (iStart + iEnd) / 2;
       IToken token = tokens.get( iIndex );
-      if( token == target ) {
+      if( isSameToken( token, target ) ) {
         return true;
       }
       else if( token.getTokenStart() < iOffset ) {
@@ -1289,6 +1357,15 @@ public abstract class ParsedElement implements IParsedElement
     return false;
   }
 
+  private static boolean isSameToken( IToken token, IToken target ) {
+    if( token == target ) {
+      return true;
+    }
+    Token t1 = (Token)token;
+    Token t2 = (Token)target;
+    return t1._store != null && t1._store == t2._store && t1._iIndex == t2._iIndex;
+  }
+
   private boolean isDescendent( IParseTree after )
   {
     if( after == null )
@@ -168,7 +168,7 @@ final public class SourceCodeTokenizer implements ISourceCodeTokenizer
 
   final public Token getCurrentToken()
   {
-    Stack<Token> tokens = _internal.getTokens();
+    TokenStore tokens = _internal.getTokens();
     int count = tokens.size();
     if( _state == count )
     {
@@ -201,29 +201,39 @@ final public class SourceCodeTokenizer implements ISourceCodeTokenizer
 
   public IToken getTokenAtPosition( int docPosition )
   {
-    for( Token tok: getTokens() )
+    TokenStore tokens = getTokens();
+    for( int i = 0; i < tokens.size(); i++ )
     {
-      if( tok.getTokenStart() <= docPosition && tok.getTokenEnd() > docPosition )
+      if( tokens.getTokenStart( i ) <= docPosition && tokens.getTokenEnd( i ) > docPosition )
       {
-        return tok;
+        return tokens.get( i );
       }
     }
     return null;
   }
 
+  /**
+   * @return True if positioned on a token in the store, as opposed to before the first token or at EOF.  The
+   * accessors below read such a token's state straight from the store rather than creating a Token.
+   */
+  private boolean isOnStoredToken()
+  {
+    return _state >= 0 && _state < _internal.getTokens().size();
+  }
+
   public int getLineNumber()
   {
-    return getCurrentToken().getLine();
+    return isOnStoredToken() ? getTokens().getLine( _state ) : getCurrentToken().getLine();
   }
 
   public int getLineOffset()
   {
-    return getCurrentToken().getLineOffset();
+    return isOnStoredToken() ? getTokens().getLineOffset() : getCurrentToken().getLineOffset();
   }
 
   public int getTokenColumn()
   {
-    return getCurrentToken().getTokenColumn();
+    return isOnStoredToken() ? getTokens().getTokenColumn( _state ) : getCurrentToken().getTokenColumn();
   }
 
   public void wordChars( int iLow, int iHigh )
@@ -307,11 +317,10 @@ final public class SourceCodeTokenizer implements ISourceCodeTokenizer
 
   public DocCommentBlock popLastComment()
   {
-    Stack<Token> tokens = _internal.getTokens();
+    TokenStore tokens = _internal.getTokens();
     for( int i = _state, j = 0; i >= 0 && j < 5; i--, j++ )
     {
-      Token token = tokens.get( i );
-      DocCommentBlock turd = token.getTurd();
+      DocCommentBlock turd = tokens.getTurd( i );
       if( turd != null )
       {
         return turd;
@@ -322,12 +331,12 @@ final public class SourceCodeTokenizer implements ISourceCodeTokenizer
 
   public int getTokenStart()
   {
-    return getCurrentToken().getTokenStart();
+    return isOnStoredToken() ? getTokens().getTokenStart( _state ) : getCurrentToken().getTokenStart();
   }
 
   public int getTokenEnd()
   {
-    return getCurrentToken().getTokenEnd();
+    return isOnStoredToken() ? getTokens().getTokenEnd( _state ) : getCurrentToken().getTokenEnd();
   }
 
   public String getTokenAsString()
@@ -391,7 +400,7 @@ final public class SourceCodeTokenizer implements ISourceCodeTokenizer
     return _state;
   }
 
-  final public Stack<Token> getTokens()
+  final public TokenStore getTokens()
   {
     return _internal.getTokens();
   }
@@ -403,7 +412,7 @@ final public class SourceCodeTokenizer implements ISourceCodeTokenizer
       _internal.rip();
     }
 
-    Stack<Token> tokens = _internal.getTokens();
+    TokenStore tokens = _internal.getTokens();
     int count = tokens.size();
     if( _state == count )
     {
@@ -413,7 +422,7 @@ final public class SourceCodeTokenizer implements ISourceCodeTokenizer
     _state = maybeSkipWhitespaceAndComments( _state + 1, tokens, count );
   }
 
-  private int maybeSkipWhitespaceAndComments( int state, Stack<Token> tokens, int count )
+  private int maybeSkipWhitespaceAndComments( int state, TokenStore tokens, int count )
   {
     boolean bKeepComments = isCommentsSignificant();
     boolean bKeepWhitespace = isWhitespaceSignificant();
@@ -424,7 +433,7 @@ final public class SourceCodeTokenizer implements ISourceCodeTokenizer
         return state;
       }
 
-      int tokType = tokens.get( state ).getType();
+      int tokType = tokens.getType( state );
       if( (!bKeepWhitespace && tokType == TT_WHITESPACE) ||
           (!bKeepComments && tokType == TT_COMMENT) )
       {
@@ -439,7 +448,7 @@ final public class SourceCodeTokenizer implements ISourceCodeTokenizer
 
   public String getStringValue()
   {
-    return getCurrentToken().getStringValue();
+    return isOnStoredToken() ? getTokens().getStringValue( _state ) : getCurrentToken().getStringValue();
   }
 
   @Override
@@ -548,7 +557,7 @@ final public class SourceCodeTokenizer implements ISourceCodeTokenizer
            ? TT_EOF
            : isNOTHING()
              ? TT_NOTHING
-             : getCurrentToken().getType();
+             : getTokens().getType( _state );
   }
 
   public boolean isEOF()
@@ -594,7 +603,7 @@ final public class SourceCodeTokenizer implements ISourceCodeTokenizer
       return false;
     }
 
-    return getPriorToken( false ).isAnalyzingSeparately();
+    return getTokens().isAnalyzingSeparately( getPriorTokenIndex( false, false ) );
   }
 
   @Override
@@ -605,7 +614,7 @@ final public class SourceCodeTokenizer implements ISourceCodeTokenizer
       return false;
     }
 
-    return getPriorToken( false ).isAnalyzingDirective();
+    return getTokens().isAnalyzingDirective( getPriorTokenIndex( false, false ) );
   }
 
   @Override
@@ -631,16 +640,21 @@ final public class SourceCodeTokenizer implements ISourceCodeTokenizer
     {
       return new Token();
     }
+    return getTokens().get( getPriorTokenIndex( bSkipWhitespace, bSkipComments ) );
+  }
+  private int getPriorTokenIndex( boolean bSkipWhitespace, boolean bSkipComments )
+  {
+    TokenStore tokens = getTokens();
     for( int i = _state-1; i >= 0; i-- )
     {
-      Token t = getTokens().get( i );
-      if( (!bSkipWhitespace || t.getType() != TT_WHITESPACE) &&
-          (!bSkipComments || t.getType() != TT_COMMENT))
+      int iType = tokens.getType( i );
+      if( (!bSkipWhitespace || iType != TT_WHITESPACE) &&
+          (!bSkipComments || iType != TT_COMMENT))
       {
-        return t;
+        return i;
       }
     }
-    return getTokens().get( 0 );
+    return 0;
   }
 
   public int lookaheadType( int iTokens, boolean bSkipSpaces )
@@ -663,7 +677,7 @@ final public class SourceCodeTokenizer implements ISourceCodeTokenizer
     }
     if( iPos < getTokens().size() )
     {
-      return getTokens().get( iPos ).getType();
+      return getTokens().getType( iPos );
     }
 
     return TT_EOF;
@@ -675,7 +689,7 @@ final public class SourceCodeTokenizer implements ISourceCodeTokenizer
     iPos++;
     while( iPos < getTokens().size() && type == TT_WHITESPACE )
     {
-      type = getTokens().get( iPos ).getType();
+      type = getTokens().getType( iPos );
       iPos++;
     }
     return type != TT_WHITESPACE ?  iPos-1 : -1;
@@ -31,6 +31,9 @@ public class Token extends IToken
 
   IParseTree _after;
 
+  // Set when this token is a view of a TokenStore entry
+  TokenStore _store;
+  int _iIndex;
 
   public Token()
   {
@@ -182,12 +185,16 @@ public class Token extends IToken
   public void setAfter( IParseTree after )
   {
     _after = after;
+    if( _store != null )
+    {
+      _store.setAfter( _iIndex, after );
+    }
   }
 
   @Override
   public IParseTree getAfter()
   {
-    return _after;
+    return _store != null ? _store.getAfter( _iIndex ) : _after;
   }
 
   @Override
@@ -197,12 +204,17 @@ public class Token extends IToken
   }
 
   protected String getMyTextFromSource( SourceCodeReader document )
+  {
+    return getTextFromSource( document, _iDocPosition, _iDocLength );
+  }
+
+  static String getTextFromSource( SourceCodeReader document, int iDocPosition, int iDocLength )
   {
     String strText = "";
-    if( _iDocLength > 0 )
+    if( iDocLength > 0 )
     {
-      int iTokenEnd = Math.min( _iDocPosition + _iDocLength, document.getLength() );
-      strText = document.subsequence( _iDocPosition, iTokenEnd ).toString();
+      int iTokenEnd = Math.min( iDocPosition + iDocLength, document.getLength() );
+      strText = document.subsequence( iDocPosition, iTokenEnd ).toString();
       strText = StringCache.get(strText);
     }
     return strText;
@@ -0,0 +1,557 @@
+/*
+ * Copyright 2014 Guidewire Software, Inc.
+ */
+
+package gw.internal.gosu.parser;
+
+import gw.lang.parser.IParseTree;
+import gw.lang.parser.Keyword;
+import gw.lang.parser.SourceCodeReader;
+import gw.util.Stack;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EmptyStackException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * The tokens of a SourceCodeTokenizer, packed into parallel arrays rather than held as one Token object per lexeme.
+ * Token text is interned via StringCache.  Columns that are nearly always empty (invalid char positions, doc
+ * comments, string literal text, the parse tree a token follows) are only allocated once a token needs them.
+ * <p/>
+ * Token objects are views created on demand; the tokenizer reads the arrays directly where it can.  A view's state
+ * is a snapshot except for its parse tree, which reads and writes through to the store.  This class is a
+ * {@link Stack} so existing callers of {@link SourceCodeTokenizer#getTokens()} keep working.
+ */
+public final class TokenStore extends Stack<Token>
+{
+  private static final int INITIAL_CAPACITY = 64;
+
+  private static final int FLAG_UNTERMINATED = 1;
+  private static final int FLAG_ANALYZING_SEPARATELY = 2;
+  private static final int FLAG_ANALYZING_DIRECTIVE = 4;
+  private static final int FLAG_STRING = 8;
+
+  private int _iSize;
+  private int[] _types;
+  private int[] _starts;
+  private int[] _lengths;
+  private int[] _lines;
+  private int[] _columns;
+  private int[] _flags;
+  private String[] _values;
+  private Keyword[] _keywords;
+  private int[] _invalidCharPositions;
+  private String[] _literals;
+  private DocCommentBlock[] _turds;
+  private IParseTree[] _afters;
+  private int _iLineOffset;
+
+  private int _iLastView = -1;
+  private Token _lastView;
+
+  public TokenStore()
+  {
+    super( new ArrayList<Token>( 0 ) );
+    _types = new int[INITIAL_CAPACITY];
+    _starts = new int[INITIAL_CAPACITY];
+    _lengths = new int[INITIAL_CAPACITY];
+    _lines = new int[INITIAL_CAPACITY];
+    _columns = new int[INITIAL_CAPACITY];
+    _flags = new int[INITIAL_CAPACITY];
+    _values = new String[INITIAL_CAPACITY];
+    _keywords = new Keyword[INITIAL_CAPACITY];
+  }
+
+  /**
+   * Adds a token straight from the tokenizer's state, without creating a Token.
+   */
+  void add( int iType,
+            int iInvalidCharPos,
+            int iTokenStart,
+            int iTokenEnd,
+            int iTokenColumn,
+            int iLine,
+            int iLineOffset,
+            boolean bUnterminatedString,
+            String strValue,
+            Keyword keyword,
+            boolean bAnalyzingSeparately,
+            boolean bAnalyzingDirective,
+            SourceCodeReader document,
+            DocCommentBlock turd )
+  {
+    boolean bString = iType == '\'' || iType == '"';
+    int iLength = iTokenEnd - iTokenStart;
+    String strText = strValue == null && !bString ? null : Token.getTextFromSource( document, iTokenStart, iLength );
+    add( _iSize, iType, iInvalidCharPos, iTokenStart, iLength, iTokenColumn, iLine, iLineOffset,
+         (bUnterminatedString ? FLAG_UNTERMINATED : 0) |
+         (bAnalyzingSeparately ? FLAG_ANALYZING_SEPARATELY : 0) |
+         (bAnalyzingDirective ? FLAG_ANALYZING_DIRECTIVE : 0) |
+         (bString ? FLAG_STRING : 0),
+         bString ? StringCache.get( strValue ) : strText,
+         keyword, bString ? strText : null, turd, null );
+  }
+
+  private void add( int iIndex, int iType, int iInvalidCharPos, int iTokenStart, int iLength, int iTokenColumn, int iLine,
+                    int iLineOffset, int iFlags, String strValue, Keyword keyword, String strLiteral,
+                    DocCommentBlock turd, IParseTree after )
+  {
+    ensureCapacity( _iSize + 1 );
+    if( iIndex < _iSize )
+    {
+      shift( iIndex, 1 );
+    }
+    _iSize++;
+    _iLastView = -1;
+    _lastView = null;
+
+    _types[iIndex] = iType;
+    _starts[iIndex] = iTokenStart;
+    _lengths[iIndex] = iLength;
+    _lines[iIndex] = iLine;
+    _columns[iIndex] = iTokenColumn;
+    _flags[iIndex] = iFlags;
+    _values[iIndex] = strValue;
+    _keywords[iIndex] = keyword;
+    _iLineOffset = iLineOffset;
+    if( iInvalidCharPos >= 0 || _invalidCharPositions != null )
+    {
+      if( _invalidCharPositions == null )
+      {
+        _invalidCharPositions = new int[_types.length];
+        Arrays.fill( _invalidCharPositions, -1 );
+      }
+      _invalidCharPositions[iIndex] = iInvalidCharPos;
+    }
+    if( strLiteral != null || _literals != null )
+    {
+      _literals = _literals == null ? new String[_types.length] : _literals;
+      _literals[iIndex] = strLiteral;
+    }
+    if( turd != null || _turds != null )
+    {
+      _turds = _turds == null ? new DocCommentBlock[_types.length] : _turds;
+      _turds[iIndex] = turd;
+    }
+    if( after != null || _afters != null )
+    {
+      _afters = _afters == null ? new IParseTree[_types.length] : _afters;
+      _afters[iIndex] = after;
+    }
+  }
+
+  public int getType( int i )
+  {
+    checkIndex( i );
+    return _types[i];
+  }
+
+  public int getTokenStart( int i )
+  {
+    checkIndex( i );
+    return _starts[i];
+  }
+
+  public int getTokenEnd( int i )
+  {
+    checkIndex( i );
+    return _starts[i] + _lengths[i];
+  }
+
+  public int getLine( int i )
+  {
+    checkIndex( i );
+    return _lines[i];
+  }
+
+  public int getTokenColumn( int i )
+  {
+    checkIndex( i );
+    return _columns[i];
+  }
+
+  public int getLineOffset()
+  {
+    return _iLineOffset;
+  }
+
+  public String getStringValue( int i )
+  {
+    checkIndex( i );
+    return _values[i];
+  }
+
+  public Keyword getKeyword( int i )
+  {
+    checkIndex( i );
+    return _keywords[i];
+  }
+
+  public boolean isAnalyzingSeparately( int i )
+  {
+    checkIndex( i );
+    return (_flags[i] & FLAG_ANALYZING_SEPARATELY) != 0;
+  }
+
+  public boolean isAnalyzingDirective( int i )
+  {
+    checkIndex( i );
+    return (_flags[i] & FLAG_ANALYZING_DIRECTIVE) != 0;
+  }
+
+  public DocCommentBlock getTurd( int i )
+  {
+    checkIndex( i );
+    return _turds == null ? null : _turds[i];
+  }
+
+  public IParseTree getAfter( int i )
+  {
+    checkIndex( i );
+    return _afters == null ? null : _afters[i];
+  }
+
+  public void setAfter( int i, IParseTree after )
+  {
+    checkIndex( i );
+    if( _afters == null )
+    {
+      if( after == null )
+      {
+        return;
+      }
+      _afters = new IParseTree[_types.length];
+    }
+    _afters[i] = after;
+  }
+
+  /**
+   * @return A view of the token at index i.  Consecutive calls for the same index return the same view.
+   */
+  @Override
+  public Token get( int i )
+  {
+    if( i == _iLastView )
+    {
+      return _lastView;
+    }
+    Token token = makeView( i );
+    _iLastView = i;
+    _lastView = token;
+    return token;
+  }
+
+  private Token makeView( int i )
+  {
+    checkIndex( i );
+    Token token;
+    if( (_flags[i] & FLAG_STRING) != 0 )
+    {
+      StringToken stringToken = new StringToken();
+      stringToken._strStringLiteralValue = _literals == null ? null : _literals[i];
+      token = stringToken;
+    }
+    else
+    {
+      token = new Token();
+    }
+    token._iType = _types[i];
+    token._strValue = _values[i];
+    token._keyword = _keywords[i];
+    token._iInvalidCharPos = _invalidCharPositions == null ? -1 : _invalidCharPositions[i];
+    token._iDocPosition = _starts[i];
+    token._iDocLength = _lengths[i];
+    token._iColumn = _columns[i];
+    token._iLine = _lines[i];
+    token._iLineOffset = _iLineOffset;
+    token._bUnterminated = (_flags[i] & FLAG_UNTERMINATED) != 0;
+    token._bAnalyzingSeparately = (_flags[i] & FLAG_ANALYZING_SEPARATELY) != 0;
+    token._bAnalyzingDirective = (_flags[i] & FLAG_ANALYZING_DIRECTIVE) != 0;
+    token._turd = _turds == null ? null : _turds[i];
+    token._after = _afters == null ? null : _afters[i];
+    token._store = this;
+    token._iIndex = i;
+    return token;
+  }
+
+  @Override
+  public boolean push( Token token )
+  {
+    insert( token, _iSize );
+    return true;
+  }
+
+  @Override
+  public void insert( Token token, int iPos )
+  {
+    if( iPos < 0 || iPos > _iSize )
+    {
+      throw new IndexOutOfBoundsException( "Index: " + iPos + ", Size: " + _iSize );
+    }
+    boolean bString = token instanceof StringToken;
+    add( iPos, token._iType, token._iInvalidCharPos, token._iDocPosition, token._iDocLength, token._iColumn, token._iLine,
+         token._iLineOffset,
+         (token._bUnterminated ? FLAG_UNTERMINATED : 0) |
+         (token._bAnalyzingSeparately ? FLAG_ANALYZING_SEPARATELY : 0) |
+         (token._bAnalyzingDirective ? FLAG_ANALYZING_DIRECTIVE : 0) |
+         (bString ? FLAG_STRING : 0),
+         token._strValue, token._keyword, bString ? ((StringToken)token)._strStringLiteralValue : null,
+         token._turd, token.getAfter() );
+  }
+
+  @Override
+  public Token pop()
+  {
+    Token token = peek();
+    token._store = null;
+    _iSize--;
+    clearSlot( _iSize );
+    return token;
+  }
+
+  @Override
+  public Token peek()
+  {
+    if( _iSize == 0 )
+    {
+      throw new EmptyStackException();
+    }
+    return get( _iSize - 1 );
+  }
+
+  @Override
+  public Token getBase()
+  {
+    if( _iSize == 0 )
+    {
+      throw new EmptyStackException();
+    }
+    return get( 0 );
+  }
+
+  @Override
+  public boolean contains( Token token )
+  {
+    return indexOf( token ) >= 0;
+  }
+
+  @Override
+  public int indexOf( Token token )
+  {
+    if( token != null && token._store == this )
+    {
+      return token._iIndex;
+    }
+    return -1;
+  }
+
+  @Override
+  public Iterator<Token> iterator()
+  {
+    return new Iterator<Token>()
+    {
+      private int _i;
+
+      @Override
+      public boolean hasNext()
+      {
+        return _i < _iSize;
+      }
+
+      @Override
+      public Token next()
+      {
+        if( _i >= _iSize )
+        {
+          throw new NoSuchElementException();
+        }
+        return makeView( _i++ );
+      }
+
+      @Override
+      public void remove()
+      {
+        throw new UnsupportedOperationException();
+      }
+    };
+  }
+
+  @Override
+  public void clear()
+  {
+    for( int i = 0; i < _iSize; i++ )
+    {
+      clearSlot( i );
+    }
+    _iSize = 0;
+  }
+
+  @Override
+  public int size()
+  {
+    return _iSize;
+  }
+
+  @Override
+  public boolean isEmpty()
+  {
+    return _iSize == 0;
+  }
+
+  @Override
+  public boolean equals( Object o )
+  {
+    return this == o;
+  }
+
+  @Override
+  public int hashCode()
+  {
+    return System.identityHashCode( this );
+  }
+
+  /**
+   * @return Views of all the tokens, each distinct.
+   */
+  @Override
+  public List<Token> toList()
+  {
+    List<Token> list = new ArrayList<Token>( _iSize );
+    for( int i = 0; i < _iSize; i++ )
+    {
+      list.add( makeView( i ) );
+    }
+    return list;
+  }
+
+  private void checkIndex( int i )
+  {
+    if( i < 0 || i >= _iSize )
+    {
+      throw new IndexOutOfBoundsException( "Index: " + i + ", Size: " + _iSize );
+    }
+  }
+
+  private void clearSlot( int i )
+  {
+    _values[i] = null;
+    _keywords[i] = null;
+    if( _literals != null )
+    {
+      _literals[i] = null;
+    }
+    if( _turds != null )
+    {
+      _turds[i] = null;
+    }
+    if( _afters != null )
+    {
+      _afters[i] = null;
+    }
+    _iLastView = -1;
+    _lastView = null;
+  }
+
+  private void shift( int iIndex, int iBy )
+  {
+    int iCount = _iSize - iIndex;
+    System.arraycopy( _types, iIndex, _types, iIndex + iBy, iCount );
+    System.arraycopy( _starts, iIndex, _starts, iIndex + iBy, iCount );
+    System.arraycopy( _lengths, iIndex, _lengths, iIndex + iBy, iCount );
+    System.arraycopy( _lines, iIndex, _lines, iIndex + iBy, iCount );
+    System.arraycopy( _columns, iIndex, _columns, iIndex + iBy, iCount );
+    System.arraycopy( _flags, iIndex, _flags, iIndex + iBy, iCount );
+    System.arraycopy( _values, iIndex, _values, iIndex + iBy, iCount );
+    System.arraycopy( _keywords, iIndex, _keywords, iIndex + iBy, iCount );
+    if( _invalidCharPositions != null )
+    {
+      System.arraycopy( _invalidCharPositions, iIndex, _invalidCharPositions, iIndex + iBy, iCount );
+    }
+    if( _literals != null )
+    {
+      System.arraycopy( _literals, iIndex, _literals, iIndex + iBy, iCount );
+    }
+    if( _turds != null )
+    {
+      System.arraycopy( _turds, iIndex, _turds, iIndex + iBy, iCount );
+    }
+    if( _afters != null )
+    {
+      System.arraycopy( _afters, iIndex, _afters, iIndex + iBy, iCount );
+    }
+  }
+
+  private void ensureCapacity( int iMinCapacity )
+  {
+    int iCapacity = _types.length;
+    if( iMinCapacity <= iCapacity )
+    {
+      return;
+    }
+    int iNewCapacity = Math.max( iCapacity + (iCapacity >> 1), iMinCapacity );
+    _types = Arrays.copyOf( _types, iNewCapacity );
+    _starts = Arrays.copyOf( _starts, iNewCapacity );
+    _lengths = Arrays.copyOf( _lengths, iNewCapacity );
+    _lines = Arrays.copyOf( _lines, iNewCapacity );
+    _columns = Arrays.copyOf( _columns, iNewCapacity );
+    _flags = Arrays.copyOf( _flags, iNewCapacity );
+    _values = Arrays.copyOf( _values, iNewCapacity );
+    _keywords = Arrays.copyOf( _keywords, iNewCapacity );
+    if( _invalidCharPositions != null )
+    {
+      int iOldLength = _invalidCharPositions.length;
+      _invalidCharPositions = Arrays.copyOf( _invalidCharPositions, iNewCapacity );
+      Arrays.fill( _invalidCharPositions, iOldLength, iNewCapacity, -1 );
+    }
+    if( _literals != null )
+    {
+      _literals = Arrays.copyOf( _literals, iNewCapacity );
+    }
+    if( _turds != null )
+    {
+      _turds = Arrays.copyOf( _turds, iNewCapacity );
+    }
+    if( _afters != null )
+    {
+      _afters = Arrays.copyOf( _afters, iNewCapacity );
+    }
+  }
+
+  /**
+   * Trims the arrays to the number of tokens, e.g. once tokenizing is done and the store is kept with a parse tree.
+   */
+  public void trimToSize()
+  {
+    if( _types.length == _iSize )
+    {
+      return;
+    }
+    _types = Arrays.copyOf( _types, _iSize );
+    _starts = Arrays.copyOf( _starts, _iSize );
+    _lengths = Arrays.copyOf( _lengths, _iSize );
+    _lines = Arrays.copyOf( _lines, _iSize );
+    _columns = Arrays.copyOf( _columns, _iSize );
+    _flags = Arrays.copyOf( _flags, _iSize );
+    _values = Arrays.copyOf( _values, _iSize );
+    _keywords = Arrays.copyOf( _keywords, _iSize );
+    if( _invalidCharPositions != null )
+    {
+      _invalidCharPositions = Arrays.copyOf( _invalidCharPositions, _iSize );
+    }
+    if( _literals != null )
+    {
+      _literals = Arrays.copyOf( _literals, _iSize );
+    }
+    if( _turds != null )
+    {
+      _turds = Arrays.copyOf( _turds, _iSize );
+    }
+    if( _afters != null )
+    {
+      _afters = Arrays.copyOf( _afters, _iSize );
+    }
+  }
+}
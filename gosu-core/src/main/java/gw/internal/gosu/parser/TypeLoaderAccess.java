@@ -62,6 +62,7 @@ import gw.util.IdentitySet;
 import gw.util.concurrent.LockingLazyVar;
 
 import java.io.FileNotFoundException;
+import java.lang.invoke.SwitchPoint;
 import java.lang.ref.WeakReference;
 import java.lang.reflect.Proxy;
 import java.util.ArrayList;
@@ -70,6 +71,7 @@ import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -103,6 +105,8 @@ public class TypeLoaderAccess extends BaseService implements ITypeSystem
   // is curent or not
   private int _iRefreshChecksum = 0;
   private int _iSingleRefreshChecksum = 0;
+  // Invalidated along with the single refresh checksum, for code that links against types e.g., invokedynamic sites
+  private static volatile SwitchPoint g_refreshSwitchPoint = new SwitchPoint();
 
   //------------------------------------------------------------
   // Type system caches
@@ -183,6 +187,7 @@ public class TypeLoaderAccess extends BaseService implements ITypeSystem
   public TypeLoaderAccess()
   {
     _listeners = new CopyOnWriteArrayList<WeakReference<ITypeLoaderListener>>();
+    invalidateRefreshSwitchPoint();
     addShutdownListener(new TypeSystemShutdownListener() {
       public void shutdown() {
         GosuShop.clearThreadLocal(g_moduleStack);
@@ -265,6 +270,7 @@ public class TypeLoaderAccess extends BaseService implements ITypeSystem
       }
     }
     ((Module)module).getModuleTypeLoader().pushTypeLoader(typeLoader);
+    invalidateRefreshSwitchPoint();
   }
 
   public void removeTypeLoader( final Class<? extends ITypeLoader> loaderType )
@@ -272,6 +278,7 @@ public class TypeLoaderAccess extends BaseService implements ITypeSystem
     for (IModule module : getExecutionEnv().getModules()) {
       ((ModuleTypeLoader)module.getModuleTypeLoader()).removeTypeLoader(loaderType);
     }
+    invalidateRefreshSwitchPoint();
   }
 
   private List<ITypeLoaderListener> getListeners() {
@@ -466,12 +473,13 @@ public class TypeLoaderAccess extends BaseService implements ITypeSystem
     // dlank: should an exception be thrown if the server is not in dev mode?
     pushModule(globalModule);
     TypeSystem.lock();
+    TypeSystem.beginRefresh();
     try
     {
       dumpMaps();
 
       ++_iRefreshChecksum;
-      ++_iSingleRefreshChecksum;
+      incrementSingleRefreshChecksum();
 
       for (IModule module : getExecutionEnv().getModules()) {
         module.getModuleTypeLoader().refreshed();
@@ -495,6 +503,7 @@ public class TypeLoaderAccess extends BaseService implements ITypeSystem
     }
     finally
     {
+      TypeSystem.endRefresh();
       TypeSystem.unlock();
       popModule(globalModule);
     }
@@ -529,8 +538,9 @@ public class TypeLoaderAccess extends BaseService implements ITypeSystem
     TypeRefFactory typeRefFactory = (TypeRefFactory) request.module.getModuleTypeLoader().getTypeRefFactory();
     pushModule(request.module);
     TypeSystem.lock();
+    TypeSystem.beginRefresh();
     try {
-      ++_iSingleRefreshChecksum;
+      incrementSingleRefreshChecksum();
 
       CommonServices.getMemoryMonitor().reclaimMemory(request);
 
@@ -658,6 +668,7 @@ public class TypeLoaderAccess extends BaseService implements ITypeSystem
         listener.refreshedTypes(request);
       }
     } finally {
+      TypeSystem.endRefresh();
       TypeSystem.unlock();
       popModule(request.module);
     }
@@ -753,7 +764,29 @@ public class TypeLoaderAccess extends BaseService implements ITypeSystem
 
   public void incrementChecksums() {
     _iRefreshChecksum++;
+    incrementSingleRefreshChecksum();
+  }
+
+  private void incrementSingleRefreshChecksum()
+  {
     _iSingleRefreshChecksum++;
+    invalidateRefreshSwitchPoint();
+  }
+
+  /**
+   * @return A switch point that is invalidated the next time the single refresh checksum or the type loader
+   *   stack changes
+   */
+  public static SwitchPoint getRefreshSwitchPoint()
+  {
+    return g_refreshSwitchPoint;
+  }
+
+  private static synchronized void invalidateRefreshSwitchPoint()
+  {
+    SwitchPoint old = g_refreshSwitchPoint;
+    g_refreshSwitchPoint = new SwitchPoint();
+    SwitchPoint.invalidateAll( new SwitchPoint[] {old} );
   }
 
   private static ExecutionEnvironment getExecutionEnv()
@@ -1086,6 +1119,7 @@ public class TypeLoaderAccess extends BaseService implements ITypeSystem
     // dlank: should an exception be thrown if the server is not in dev mode?
     pushModule(module);
     TypeSystem.lock();
+    TypeSystem.beginRefresh();
     try
     {
       if (module instanceof IJreModule) {
@@ -1093,7 +1127,7 @@ public class TypeLoaderAccess extends BaseService implements ITypeSystem
       }
 
       ++_iRefreshChecksum;
-      ++_iSingleRefreshChecksum;
+      incrementSingleRefreshChecksum();
 
       getGlobalModuleTypeLoader().refreshed();
 
@@ -1109,6 +1143,7 @@ public class TypeLoaderAccess extends BaseService implements ITypeSystem
     }
     finally
     {
+      TypeSystem.endRefresh();
       TypeSystem.unlock();
       popModule(module);
     }
@@ -1123,6 +1158,37 @@ public class TypeLoaderAccess extends BaseService implements ITypeSystem
     }
   }
 
+  @Override
+  public void refreshed(Map<? extends IResource, RefreshKind> changes) {
+    Map<IModule, Map<IResource, RefreshKind>> changesByModule = new LinkedHashMap<IModule, Map<IResource, RefreshKind>>();
+    for (Map.Entry<? extends IResource, RefreshKind> change : changes.entrySet()) {
+      IModule module = ExecutionEnvironment.instance().getModule(change.getKey());
+      // The module will be null for files that are not part of any source root
+      if (module != null) {
+        Map<IResource, RefreshKind> moduleChanges = changesByModule.get(module);
+        if (moduleChanges == null) {
+          moduleChanges = new LinkedHashMap<IResource, RefreshKind>();
+          changesByModule.put(module, moduleChanges);
+        }
+        moduleChanges.put(change.getKey(), change.getValue());
+      }
+    }
+    if (changesByModule.isEmpty()) {
+      return;
+    }
+
+    TypeSystem.lock();
+    TypeSystem.beginRefresh();
+    try {
+      for (Map.Entry<IModule, Map<IResource, RefreshKind>> entry : changesByModule.entrySet()) {
+        ((ITypeLoaderStackInternal) entry.getKey().getModuleTypeLoader()).refresh(entry.getValue());
+      }
+    } finally {
+      TypeSystem.endRefresh();
+      TypeSystem.unlock();
+    }
+  }
+
   @Override
   public String[] getTypesForFile(IModule module, IFile file) {
     if (module != null) {
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2014 Guidewire Software, Inc.
+ */
+
+package gw.internal.gosu.parser;
+
+import gw.internal.gosu.parser.fragments.GosuFragment;
+import gw.lang.reflect.ITypeLoader;
+import gw.lang.reflect.gs.GosuClassTypeLoader;
+import gw.lang.reflect.gs.IGosuClass;
+import gw.lang.reflect.gs.IGosuProgram;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A Bloom filter of the type names of a module's loaders that know all their types, see
+ * {@link ITypeLoader#hasCompleteTypeNames()}.  Much of parsing is speculative lookups of names that don't exist, such
+ * as package prefixes and relative names tried against each <code>uses</code> package.  The filter answers most of
+ * those without asking the indexed loaders, which would otherwise check their source paths.
+ * <p/>
+ * A name is a certain miss if neither it nor any of its dotted prefixes, which could be enclosing types, may be in
+ * the filter.  Names can only be added; removed types stay as false positives until the filter is rebuilt.
+ */
+final class TypeNameIndex
+{
+  private static final int BITS_PER_NAME = 10;
+  private static final int HASHES = 7;
+  private static final int MIN_CAPACITY = 1024;
+
+  private final List<ITypeLoader> _loaders;
+  private final long[] _bits;
+  private final int _mask;
+  private final int _capacity;
+  private int _size;
+
+  /**
+   * @param capacity the number of names the filter holds before {@link #isFull()}
+   */
+  TypeNameIndex( List<ITypeLoader> loaders, int capacity )
+  {
+    _loaders = loaders;
+    _capacity = Math.max( MIN_CAPACITY, capacity );
+    int words = Integer.highestOneBit( (int)Math.min( (long)_capacity * BITS_PER_NAME / 64 * 2 - 1, 1 << 20 ) );
+    _bits = new long[words];
+    _mask = words * 64 - 1;
+  }
+
+  /**
+   * @return an index of the initialized loaders in the stack that have complete type names, or null if there are none
+   */
+  static TypeNameIndex build( List<ITypeLoader> stack )
+  {
+    List<ITypeLoader> loaders = new ArrayList<>();
+    int count = 0;
+    for( ITypeLoader loader : stack )
+    {
+      if( loader.handlesNonPrefixLoads() && loader.isInited() && loader.hasCompleteTypeNames() )
+      {
+        loaders.add( loader );
+        count += loader.getAllTypeNames().size();
+      }
+    }
+    if( loaders.isEmpty() )
+    {
+      return null;
+    }
+    // room to grow by refreshes before the index has to be rebuilt
+    TypeNameIndex index = new TypeNameIndex( loaders, count * 2 );
+    for( ITypeLoader loader : loaders )
+    {
+      for( CharSequence name : loader.getAllTypeNames() )
+      {
+        index.add( name );
+      }
+    }
+    return index;
+  }
+
+  boolean covers( ITypeLoader loader )
+  {
+    return _loaders.contains( loader );
+  }
+
+  /**
+   * @return true if more names were added than the filter was sized for, so it answers too few misses
+   */
+  boolean isFull()
+  {
+    return _size > _capacity;
+  }
+
+  void add( CharSequence name )
+  {
+    int h1 = 0;
+    int h2 = 0;
+    for( int i = 0; i < name.length(); i++ )
+    {
+      char c = name.charAt( i );
+      h1 = 31 * h1 + c;
+      h2 = (h2 ^ c) * 0x01000193;
+    }
+    for( int i = 0; i < HASHES; i++ )
+    {
+      int bit = bit( h1, h2, i );
+      _bits[bit >>> 6] |= 1L << bit;
+    }
+    _size++;
+  }
+
+  /**
+   * @return true if no indexed loader can have a type named <code>fqn</code>
+   */
+  boolean isCertainMiss( String fqn )
+  {
+    if( !isIndexable( fqn ) )
+    {
+      return false;
+    }
+    // the hashes of each dotted prefix are the running hashes at its end
+    int h1 = 0;
+    int h2 = 0;
+    for( int i = 0; i < fqn.length(); i++ )
+    {
+      char c = fqn.charAt( i );
+      if( c == '.' && mightContain( h1, h2 ) )
+      {
+        return false;
+      }
+      h1 = 31 * h1 + c;
+      h2 = (h2 ^ c) * 0x01000193;
+    }
+    return !mightContain( h1, h2 );
+  }
+
+  private boolean mightContain( int h1, int h2 )
+  {
+    for( int i = 0; i < HASHES; i++ )
+    {
+      int bit = bit( h1, h2, i );
+      if( (_bits[bit >>> 6] & (1L << bit)) == 0 )
+      {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private int bit( int h1, int h2, int i )
+  {
+    int h = (h1 + i * (h2 | 1)) * 0x9E3779B9;
+    return (h ^ (h >>> 16)) & _mask;
+  }
+
+  /**
+   * Only plain dotted names can be ruled out.  Java style inner class names, parameterized names and the names of
+   * generated types are found in other ways.
+   */
+  private static boolean isIndexable( String fqn )
+  {
+    if( fqn.isEmpty() || fqn.startsWith( IGosuClass.PROXY_PREFIX ) ||
+        fqn.contains( IGosuProgram.NAME_PREFIX ) || fqn.contains( GosuFragment.FRAGMENT_NAME_PREFIX ) ||
+        (fqn.endsWith( GosuClassTypeLoader.BLOCK_POSTFIX ) && fqn.contains( GosuClassTypeLoader.INNER_BLOCK_PREFIX )) )
+    {
+      return false;
+    }
+    for( int i = 0; i < fqn.length(); i++ )
+    {
+      char c = fqn.charAt( i );
+      if( c != '.' && (c == '$' || !Character.isJavaIdentifierPart( c )) )
+      {
+        return false;
+      }
+    }
+    return true;
+  }
+}
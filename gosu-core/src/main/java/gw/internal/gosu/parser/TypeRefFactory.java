@@ -115,6 +115,13 @@ public class TypeRefFactory implements ITypeRefFactory
   }
 
   private ITypeRef getRefTheSafeWay(IType type, String strTypeName) {
+    // Most calls find the existing, current ref; that needs no lock as long as no refresh overlaps it
+    long stamp = TypeSystem.tryOptimisticRead();
+    AbstractTypeRef existingRef = getRef(_refByName, strTypeName, type);
+    if (existingRef != null && existingRef._isCurrent(type) && TypeSystem.validateRead(stamp)) {
+      return existingRef;
+    }
+
     TypeSystem.lock();
     try {
       AbstractTypeRef ref = getRef(_refByName, strTypeName, type);
@@ -580,6 +587,7 @@ public class TypeRefFactory implements ITypeRefFactory
   {
     setClearing( true );
     TypeSystem.lock();
+    TypeSystem.beginRefresh();
     try {
       // Invalidate types, inner types first
       _refByName.visitDepthFirst(
@@ -608,6 +616,7 @@ public class TypeRefFactory implements ITypeRefFactory
           }
         } );
     } finally {
+      TypeSystem.endRefresh();
       TypeSystem.unlock();
       setClearing( false );
     }
@@ -981,6 +990,24 @@ public class TypeRefFactory implements ITypeRefFactory
     return types;
   }
 
+  /**
+   * @return the live, non-stale references to Gosu classes, so a refresh can find the loaded subtypes of the types it
+   *   refreshes without loading anything
+   */
+  public List<ITypeRef> getLoadedGosuClassRefs() {
+    final List<ITypeRef> types = new ArrayList<ITypeRef>();
+    _refByName.visitDepthFirst(
+      new Predicate<AbstractTypeRef>() {
+        public boolean evaluate( AbstractTypeRef typeRef ) {
+          if( typeRef instanceof IGosuClassInternal && !typeRef.isStale() ) {
+            types.add( typeRef );
+          }
+          return true;
+        }
+      } );
+    return types;
+  }
+
   public List<String> getTypesWithPrefix(String namespace, final String prefix) {
     FqnCacheNode<WeakReference<AbstractTypeRef>> node = _refByName.getNode( namespace );
     final List<String> types = new ArrayList<String>();
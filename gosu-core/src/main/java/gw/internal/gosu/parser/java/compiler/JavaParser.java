@@ -6,22 +6,31 @@ import com.sun.source.util.SourcePositions;
 import com.sun.source.util.Trees;
 import com.sun.tools.javac.api.JavacTaskImpl;
 import com.sun.tools.javac.api.JavacTool;
+import gw.fs.IFile;
 import gw.fs.IResource;
 import gw.lang.javac.ClassJavaFileObject;
 import gw.lang.javac.IJavaParser;
 import gw.lang.javac.StringJavaFileObject;
 import gw.lang.reflect.TypeSystem;
+import gw.lang.reflect.gs.ISourceFileHandle;
 import gw.lang.reflect.module.IModule;
 import gw.util.Pair;
+import gw.util.concurrent.Cache;
+import java.io.File;
 import java.io.IOException;
 import java.io.StringWriter;
+import java.net.URI;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import javax.tools.Diagnostic;
 import javax.tools.DiagnosticCollector;
 import javax.tools.JavaCompiler;
 import javax.tools.JavaFileObject;
@@ -37,6 +46,8 @@ import javax.tools.StandardLocation;
 public class JavaParser implements IJavaParser
 {
   private static final JavaParser INSTANCE = new JavaParser();
+  private static final int MAX_PARSED_FILES = 1000;
+
   public static JavaParser instance()
   {
     return INSTANCE;
@@ -45,6 +56,7 @@ public class JavaParser implements IJavaParser
   private JavaCompiler _javac;
   private StandardJavaFileManager _fileManager;
   private GosuJavaFileManager _gfm;
+  private final Cache<String, ParsedFile> _parsedFiles = new Cache<>( "Parsed Java Files", MAX_PARSED_FILES, path -> null );
 
   private JavaParser()
   {
@@ -138,6 +150,109 @@ public class JavaParser implements IJavaParser
     return true;
   }
 
+  /**
+   * Parses the Java source of the file.  If the file was parsed before and its timestamp and text haven't changed since,
+   * e.g., ahead of time by {@link #parseFiles(Collection)}, the trees of that parse are used instead and its
+   * diagnostics are reported again to the error handler.
+   */
+  public boolean parseFile( ISourceFileHandle src, List<CompilationUnitTree> trees, Consumer<SourcePositions> sourcePositions, Consumer<DocTrees> docTrees, DiagnosticCollector<JavaFileObject> errorHandler )
+  {
+    ParsedFile file = new ParsedFile( src );
+    ParsedFile parsed = file._path == null ? null : _parsedFiles.get( file._path );
+    if( parsed == null || !parsed.isCurrent( file ) )
+    {
+      if( !parse( Collections.singletonList( file ) ) )
+      {
+        return false;
+      }
+      parsed = file;
+    }
+    parsed.replay( trees, sourcePositions, docTrees, errorHandler );
+    return true;
+  }
+
+  /**
+   * Parses the Java sources of the files in a single javac task and keeps the trees for {@link #parseFile}.  Files
+   * that are already parsed and haven't changed are skipped.
+   */
+  public void parseFiles( Collection<ISourceFileHandle> files )
+  {
+    List<ParsedFile> pending = new ArrayList<>();
+    for( ISourceFileHandle src : files )
+    {
+      ParsedFile file = new ParsedFile( src );
+      if( file._path != null )
+      {
+        ParsedFile parsed = _parsedFiles.get( file._path );
+        if( parsed == null || !parsed.isCurrent( file ) )
+        {
+          pending.add( file );
+        }
+      }
+    }
+    if( !pending.isEmpty() )
+    {
+      parse( pending );
+    }
+  }
+
+  private boolean parse( List<ParsedFile> files )
+  {
+    Map<URI, ParsedFile> byUri = new HashMap<>();
+    try
+    {
+      init();
+
+      List<JavaFileObject> javaStringObjects = new ArrayList<>();
+      for( ParsedFile file : files )
+      {
+        // distinct names, trees and diagnostics are matched to their files by uri
+        JavaFileObject fileObject = new StringJavaFileObject( "sample" + javaStringObjects.size(), file._text );
+        javaStringObjects.add( fileObject );
+        byUri.put( fileObject.toUri(), file );
+      }
+      DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+      StringWriter errors = new StringWriter();
+      JavaCompiler.CompilationTask task = _javac.getTask( errors, _fileManager, diagnostics, Arrays.asList( "-proc:none" ), null, javaStringObjects );
+      JavacTaskImpl javacTask = (JavacTaskImpl)task;
+      SourcePositions sourcePositions = Trees.instance( javacTask ).getSourcePositions();
+      DocTrees docTrees = DocTrees.instance( javacTask );
+      for( CompilationUnitTree tree : javacTask.parse() )
+      {
+        ParsedFile file = byUri.get( tree.getSourceFile().toUri() );
+        if( file != null )
+        {
+          file.parsed( tree, sourcePositions, docTrees );
+        }
+      }
+      for( Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics() )
+      {
+        ParsedFile file = diagnostic.getSource() == null ? null : byUri.get( diagnostic.getSource().toUri() );
+        if( file != null )
+        {
+          file._diagnostics.add( diagnostic );
+        }
+      }
+    }
+    catch( Exception e )
+    {
+      return false;
+    }
+    boolean bParsed = true;
+    for( ParsedFile file : files )
+    {
+      if( file._tree == null )
+      {
+        bParsed = false;
+      }
+      else if( file._path != null )
+      {
+        _parsedFiles.put( file._path, file );
+      }
+    }
+    return bParsed;
+  }
+
   /**
    * Compiles specified Java class name.  Maintains cache between calls to this method, therefore subsequent calls to this
    * method will consult the cache and return the previously compiled class if cached.
@@ -239,6 +354,7 @@ public class JavaParser implements IJavaParser
   @Override
   public void clear()
   {
+    _parsedFiles.clear();
     _javac = null;
     try
     {
@@ -249,4 +365,67 @@ public class JavaParser implements IJavaParser
       throw new RuntimeException( e );
     }
   }
+
+  /**
+   * The trees of a parsed source file.  The trees of files parsed together share the javac task, and with it the source
+   * positions and doc comments.
+   */
+  private static class ParsedFile
+  {
+    private final String _path;
+    private final long _timestamp;
+    private final String _text;
+    private final List<Diagnostic<? extends JavaFileObject>> _diagnostics = new ArrayList<>();
+    private CompilationUnitTree _tree;
+    private SourcePositions _sourcePositions;
+    private DocTrees _docTrees;
+
+    ParsedFile( ISourceFileHandle src )
+    {
+      IFile file = src.getFile();
+      if( file != null && file.isJavaFile() )
+      {
+        File javaFile = file.toJavaFile();
+        _path = javaFile.getAbsolutePath();
+        _timestamp = javaFile.lastModified();
+      }
+      else
+      {
+        // not a file on disk, e.g., an editor buffer, nothing to key it by
+        _path = null;
+        _timestamp = 0;
+      }
+      _text = src.getSource().getSource().replace( "\r\n", "\n" );
+    }
+
+    boolean isCurrent( ParsedFile file )
+    {
+      // the text too, a handle may have content that isn't saved to the file
+      return _timestamp == file._timestamp && _text.equals( file._text );
+    }
+
+    void parsed( CompilationUnitTree tree, SourcePositions sourcePositions, DocTrees docTrees )
+    {
+      _tree = tree;
+      _sourcePositions = sourcePositions;
+      _docTrees = docTrees;
+    }
+
+    void replay( List<CompilationUnitTree> trees, Consumer<SourcePositions> sourcePositions, Consumer<DocTrees> docTrees, DiagnosticCollector<JavaFileObject> errorHandler )
+    {
+      trees.add( _tree );
+      if( sourcePositions != null )
+      {
+        sourcePositions.accept( _sourcePositions );
+      }
+      if( docTrees != null )
+      {
+        docTrees.accept( _docTrees );
+      }
+      if( errorHandler != null )
+      {
+        _diagnostics.forEach( errorHandler::report );
+      }
+    }
+  }
 }
@@ -0,0 +1,423 @@
+/*
+ * Copyright 2014 Guidewire Software, Inc.
+ */
+
+package gw.internal.gosu.runtime;
+
+import gw.internal.gosu.parser.TypeLoaderAccess;
+import gw.lang.reflect.IDefaultTypeLoader;
+import gw.lang.reflect.IExtendedTypeLoader;
+import gw.lang.reflect.IMethodCallHandler;
+import gw.lang.reflect.IMethodInfo;
+import gw.lang.reflect.IParameterInfo;
+import gw.lang.reflect.IPropertyAccessor;
+import gw.lang.reflect.IType;
+import gw.lang.reflect.ITypeLoader;
+import gw.lang.reflect.ReflectUtil;
+import gw.lang.reflect.TypeSystem;
+import gw.lang.reflect.gs.IGosuObject;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.MutableCallSite;
+import java.lang.invoke.SwitchPoint;
+
+/**
+ * Bootstrap methods for the invokedynamic call sites the compiler emits for dynamic property access and
+ * reflective method calls (see {@link GosuRuntimeMethods#getProperty}, {@link GosuRuntimeMethods#setProperty}
+ * and {@link GosuRuntimeMethods#invokeMethodInfo}).
+ * <p/>
+ * Each call site keeps a small polymorphic inline cache of resolved features keyed by the receiver's Java class
+ * and the static type passed to the site.  Where the class alone does not determine the receiver's type, e.g.,
+ * Gosu objects of parameterized classes or instances claimed by an extended type loader, an entry also checks
+ * the type {@link TypeSystem#getFromObject} resolves.  Method call sites key on the arguments the same way when
+ * overload resolution depends on them.  A site that sees more than {@link #MAX_ENTRIES} shapes goes megamorphic
+ * and calls straight into GosuRuntimeMethods.  The call site is guarded by the type system's refresh switch
+ * point (see {@link TypeLoaderAccess#getRefreshSwitchPoint}), so a refresh drops the entries and the megamorphic
+ * state without the hit path checking anything.
+ */
+public class DynamicDispatchBootstrap
+{
+  static final int MAX_ENTRIES = 4;
+
+  private static final MethodType GET_PROPERTY = MethodType.methodType( Object.class, Object.class, IType.class );
+  private static final MethodType SET_PROPERTY = MethodType.methodType( void.class, Object.class, IType.class, Object.class );
+  private static final MethodType INVOKE_METHOD = MethodType.methodType( Object.class, IType.class, IType[].class, Object.class, Object[].class );
+  private static final MethodHandle RELINK;
+  static
+  {
+    try
+    {
+      RELINK = MethodHandles.lookup().findVirtual( InlineCacheSite.class, "relink", MethodType.methodType( MethodHandle.class ) );
+    }
+    catch( ReflectiveOperationException e )
+    {
+      throw new ExceptionInInitializerError( e );
+    }
+  }
+
+  @SuppressWarnings("UnusedDeclaration")
+  public static CallSite bootstrapGetProperty( MethodHandles.Lookup caller, String propertyName, MethodType type ) throws ReflectiveOperationException
+  {
+    return makeCallSite( new GetPropertySite( propertyName ), "getProperty", GET_PROPERTY, type );
+  }
+
+  @SuppressWarnings("UnusedDeclaration")
+  public static CallSite bootstrapSetProperty( MethodHandles.Lookup caller, String propertyName, MethodType type ) throws ReflectiveOperationException
+  {
+    return makeCallSite( new SetPropertySite( propertyName ), "setProperty", SET_PROPERTY, type );
+  }
+
+  @SuppressWarnings("UnusedDeclaration")
+  public static CallSite bootstrapInvokeMethod( MethodHandles.Lookup caller, String methodName, MethodType type ) throws ReflectiveOperationException
+  {
+    return makeCallSite( new InvokeMethodSite( methodName ), "invokeMethod", INVOKE_METHOD, type );
+  }
+
+  private static CallSite makeCallSite( InlineCacheSite site, String methodName, MethodType siteType, MethodType callType ) throws ReflectiveOperationException
+  {
+    MethodHandle target = MethodHandles.lookup().findVirtual( site.getClass(), methodName, siteType ).bindTo( site );
+    MutableCallSite callSite = new MutableCallSite( callType );
+    site.link( callSite, target.asType( callType ) );
+    return callSite;
+  }
+
+  private static Class<?> runtimeClass( Object value )
+  {
+    return value == null ? null : value.getClass();
+  }
+
+  private static IType runtimeType( Object value )
+  {
+    return value == null ? null : TypeSystem.getFromObject( value );
+  }
+
+  /**
+   * @return The runtime type of the value if its Java class alone does not determine it, otherwise null
+   */
+  private static IType runtimeTypeUnlessImpliedByClass( Object value )
+  {
+    if( value == null )
+    {
+      return null;
+    }
+    if( value instanceof IGosuObject || value instanceof IType )
+    {
+      return TypeSystem.getFromObject( value );
+    }
+    for( ITypeLoader loader : TypeSystem.getAllTypeLoaders() )
+    {
+      if( loader instanceof IExtendedTypeLoader && !(loader instanceof IDefaultTypeLoader) )
+      {
+        return TypeSystem.getFromObject( value );
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Common inline cache bookkeeping.  Entries are replaced copy-on-write so the hit path is a plain scan of
+   * an immutable array.
+   */
+  static abstract class InlineCacheSite
+  {
+    final String _name;
+    private MutableCallSite _callSite;
+    private MethodHandle _target;
+    private volatile SwitchPoint _switchPoint;
+    private volatile Entry[] _entries = new Entry[0];
+    private volatile boolean _bMegamorphic;
+
+    InlineCacheSite( String name )
+    {
+      _name = name;
+    }
+
+    void link( MutableCallSite callSite, MethodHandle target )
+    {
+      _callSite = callSite;
+      _target = target;
+      relink();
+    }
+
+    /**
+     * Called when the refresh switch point guarding the call site is invalidated.  Drops the entries and guards
+     * the call site with the current switch point.
+     *
+     * @return The call site's new target
+     */
+    synchronized MethodHandle relink()
+    {
+      SwitchPoint switchPoint = TypeLoaderAccess.getRefreshSwitchPoint();
+      if( switchPoint != _switchPoint )
+      {
+        _switchPoint = switchPoint;
+        _entries = new Entry[0];
+        _bMegamorphic = false;
+        MethodHandle fallback = MethodHandles.foldArguments( MethodHandles.exactInvoker( _callSite.type() ), RELINK.bindTo( this ) );
+        _callSite.setTarget( switchPoint.guardWithTest( _target, fallback ) );
+      }
+      return _callSite.getTarget();
+    }
+
+    Entry[] getEntries()
+    {
+      return _entries;
+    }
+
+    /**
+     * @return The switch point entries resolved now belong to, pass it to {@link #addEntry}
+     */
+    SwitchPoint getSwitchPoint()
+    {
+      return _switchPoint;
+    }
+
+    boolean isMegamorphic()
+    {
+      return _bMegamorphic;
+    }
+
+    synchronized void addEntry( Entry entry, SwitchPoint switchPoint )
+    {
+      if( switchPoint != _switchPoint || _bMegamorphic )
+      {
+        // resolved against types a refresh has since replaced
+        return;
+      }
+      Entry[] entries = _entries;
+      if( entries.length >= MAX_ENTRIES )
+      {
+        _bMegamorphic = true;
+        _entries = new Entry[0];
+        return;
+      }
+      Entry[] newEntries = new Entry[entries.length + 1];
+      System.arraycopy( entries, 0, newEntries, 0, entries.length );
+      newEntries[entries.length] = entry;
+      _entries = newEntries;
+    }
+  }
+
+  static class Entry
+  {
+    final Class<?> _rootClass;
+    final IType _rootType;
+    final IType _type;
+
+    Entry( Object root, IType type )
+    {
+      _rootClass = root.getClass();
+      _rootType = runtimeTypeUnlessImpliedByClass( root );
+      _type = type;
+    }
+
+    boolean matches( Object root, Class<?> rootClass, IType type )
+    {
+      return _rootClass == rootClass && _type == type &&
+             (_rootType == null || _rootType == TypeSystem.getFromObject( root ));
+    }
+  }
+
+  static final class PropertyEntry extends Entry
+  {
+    final IPropertyAccessor _accessor;
+
+    PropertyEntry( Object root, IType type, IPropertyAccessor accessor )
+    {
+      super( root, type );
+      _accessor = accessor;
+    }
+  }
+
+  static final class GetPropertySite extends InlineCacheSite
+  {
+    GetPropertySite( String propertyName )
+    {
+      super( propertyName );
+    }
+
+    public Object getProperty( Object root, IType type )
+    {
+      if( root != null )
+      {
+        Class<?> rootClass = root.getClass();
+        for( Entry e : getEntries() )
+        {
+          if( e.matches( root, rootClass, type ) )
+          {
+            IPropertyAccessor accessor = ((PropertyEntry)e)._accessor;
+            return accessor == null
+                   ? GosuRuntimeMethods.getProperty( root, type, _name )
+                   : accessor.getValue( root );
+          }
+        }
+        if( !isMegamorphic() )
+        {
+          SwitchPoint switchPoint = getSwitchPoint();
+          IPropertyAccessor accessor = GosuRuntimeMethods.findPropertyAccessor( root, type, _name, false );
+          addEntry( new PropertyEntry( root, type, accessor ), switchPoint );
+          if( accessor != null )
+          {
+            return accessor.getValue( root );
+          }
+        }
+      }
+      return GosuRuntimeMethods.getProperty( root, type, _name );
+    }
+  }
+
+  static final class SetPropertySite extends InlineCacheSite
+  {
+    SetPropertySite( String propertyName )
+    {
+      super( propertyName );
+    }
+
+    public void setProperty( Object root, IType type, Object value )
+    {
+      if( root != null )
+      {
+        Class<?> rootClass = root.getClass();
+        for( Entry e : getEntries() )
+        {
+          if( e.matches( root, rootClass, type ) )
+          {
+            IPropertyAccessor accessor = ((PropertyEntry)e)._accessor;
+            if( accessor == null )
+            {
+              GosuRuntimeMethods.setProperty( root, type, _name, value );
+            }
+            else
+            {
+              accessor.setValue( root, value );
+            }
+            return;
+          }
+        }
+        if( !isMegamorphic() )
+        {
+          SwitchPoint switchPoint = getSwitchPoint();
+          IPropertyAccessor accessor = GosuRuntimeMethods.findPropertyAccessor( root, type, _name, true );
+          addEntry( new PropertyEntry( root, type, accessor ), switchPoint );
+          if( accessor != null )
+          {
+            accessor.setValue( root, value );
+            return;
+          }
+        }
+      }
+      GosuRuntimeMethods.setProperty( root, type, _name, value );
+    }
+  }
+
+  static final class MethodEntry extends Entry
+  {
+    final Class<?>[] _argClasses;
+    final IType[] _argTypes;
+    final IMethodCallHandler _handler;
+    final IParameterInfo[] _coerceToParameters;
+
+    MethodEntry( Object root, IType type, Object[] args, boolean bArgumentSensitive, IMethodCallHandler handler, IParameterInfo[] coerceToParameters )
+    {
+      super( root, type );
+      if( bArgumentSensitive )
+      {
+        int iCount = args == null ? 0 : args.length;
+        _argClasses = new Class<?>[iCount];
+        _argTypes = new IType[iCount];
+        for( int i = 0; i < iCount; i++ )
+        {
+          _argClasses[i] = runtimeClass( args[i] );
+          _argTypes[i] = runtimeTypeUnlessImpliedByClass( args[i] );
+        }
+      }
+      else
+      {
+        _argClasses = null;
+        _argTypes = null;
+      }
+      _handler = handler;
+      _coerceToParameters = coerceToParameters;
+    }
+
+    boolean matchesArgs( Object[] args )
+    {
+      if( _argClasses == null )
+      {
+        return true;
+      }
+      if( (args == null ? 0 : args.length) != _argClasses.length )
+      {
+        return false;
+      }
+      for( int i = 0; i < _argClasses.length; i++ )
+      {
+        if( runtimeClass( args[i] ) != _argClasses[i] ||
+            (_argTypes[i] != null && runtimeType( args[i] ) != _argTypes[i]) )
+        {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  static final class InvokeMethodSite extends InlineCacheSite
+  {
+    InvokeMethodSite( String methodName )
+    {
+      super( methodName );
+    }
+
+    public Object invokeMethod( IType type, IType[] parameterTypes, Object root, Object[] args )
+    {
+      if( root != null )
+      {
+        Class<?> rootClass = root.getClass();
+        for( Entry e : getEntries() )
+        {
+          if( e.matches( root, rootClass, type ) && ((MethodEntry)e).matchesArgs( args ) )
+          {
+            return invoke( (MethodEntry)e, type, parameterTypes, root, args );
+          }
+        }
+        if( !isMegamorphic() )
+        {
+          SwitchPoint switchPoint = getSwitchPoint();
+          MethodEntry entry = makeEntry( type, parameterTypes, root, args );
+          addEntry( entry, switchPoint );
+          return invoke( entry, type, parameterTypes, root, args );
+        }
+      }
+      return GosuRuntimeMethods.invokeMethodInfo( type, _name, parameterTypes, root, args );
+    }
+
+    private MethodEntry makeEntry( IType type, IType[] parameterTypes, Object root, Object[] args )
+    {
+      boolean bArgumentSensitive = GosuRuntimeMethods.isArgumentSensitive( type, parameterTypes );
+      IMethodInfo mi = GosuRuntimeMethods.findMethodInfo( type, _name, parameterTypes, root, args );
+      if( mi == null )
+      {
+        return new MethodEntry( root, type, args, bArgumentSensitive, null, null );
+      }
+      IParameterInfo[] coerceTo = GosuRuntimeMethods.isDynamic( type ) ? mi.getParameters() : null;
+      return new MethodEntry( root, type, args, bArgumentSensitive, mi.getCallHandler(), coerceTo );
+    }
+
+    private Object invoke( MethodEntry entry, IType type, IType[] parameterTypes, Object root, Object[] args )
+    {
+      if( entry._handler == null )
+      {
+        return GosuRuntimeMethods.invokeMethodInfo( type, _name, parameterTypes, root, args );
+      }
+      if( entry._coerceToParameters != null )
+      {
+        args = ReflectUtil.coerceArgsIfNecessary( entry._coerceToParameters, args );
+      }
+      return entry._handler.handleCall( root, args );
+    }
+  }
+}
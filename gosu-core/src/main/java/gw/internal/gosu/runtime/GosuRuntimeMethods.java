@@ -14,6 +14,7 @@ import gw.lang.reflect.IConstructorInfo;
 import gw.lang.reflect.IExpando;
 import gw.lang.reflect.IMethodInfo;
 import gw.lang.reflect.IPlaceholder;
+import gw.lang.reflect.IPropertyAccessor;
 import gw.lang.reflect.IPropertyInfo;
 import gw.lang.reflect.IRelativeTypeInfo;
 import gw.lang.reflect.IType;
@@ -63,26 +64,56 @@ public class GosuRuntimeMethods {
     return propertyInfo.getAccessor().getValue( root );
   }
 
-  private static boolean isDynamic( IType type )
+  static boolean isDynamic( IType type )
   {
     return type != null && (type.isDynamic() || (type instanceof IGosuClass && ((IGosuClass)type).isStructure()));
   }
 
   private static Object invokePropertyGetter( String dispatchName, Object root, IType type, String propertyName )
+  {
+    IMethodInfo method = findDispatchMethod( type, dispatchName, JavaTypes.STRING() );
+    return method == null
+           ? IPlaceholder.UNHANDLED
+           : method.getCallHandler().handleCall( root, propertyName );
+  }
+
+  private static IMethodInfo findDispatchMethod( IType type, String dispatchName, IType... paramTypes )
   {
     ITypeInfo typeInfo = type.getTypeInfo();
-    IMethodInfo method;
     if( typeInfo instanceof IRelativeTypeInfo )
     {
-      method = ((IRelativeTypeInfo) typeInfo).getMethod( type, dispatchName, JavaTypes.STRING() );
+      return ((IRelativeTypeInfo)typeInfo).getMethod( type, dispatchName, paramTypes );
     }
-    else
+    return typeInfo.getMethod( dispatchName, paramTypes );
+  }
+
+  /**
+   * Resolves the accessor getProperty() or setProperty() would ultimately use for the root, or null if the
+   * access must go through the fully dynamic path e.g., Bindings, $getProperty/$setProperty dispatch or a
+   * missing property.
+   */
+  static IPropertyAccessor findPropertyAccessor( Object root, IType type, String propertyName, boolean bSetter )
+  {
+    if( root instanceof Bindings )
     {
-      method = typeInfo.getMethod( dispatchName, JavaTypes.STRING() );
+      return null;
     }
-    return method == null
-           ? IPlaceholder.UNHANDLED
-           : method.getCallHandler().handleCall( root, propertyName );
+
+    if( isDynamic( type ) )
+    {
+      type = TypeSystem.getFromObject( root );
+    }
+
+    IMethodInfo dispatch = bSetter
+                           ? findDispatchMethod( type, "$setProperty", JavaTypes.STRING(), JavaTypes.OBJECT() )
+                           : findDispatchMethod( type, "$getProperty", JavaTypes.STRING() );
+    if( dispatch != null )
+    {
+      return null;
+    }
+
+    IPropertyInfo propertyInfo = getPropertyInfo( root, type, propertyName );
+    return propertyInfo == null ? null : propertyInfo.getAccessor();
   }
 
   public static Object getPropertyDynamically(Object rootObject, String propertyName) {
@@ -126,16 +157,7 @@ public class GosuRuntimeMethods {
 
   private static Object invokePropertySetter( String dispatchName, Object root, IType type, String propertyName, Object... args )
   {
-    ITypeInfo typeInfo = type.getTypeInfo();
-    IMethodInfo method;
-    if( typeInfo instanceof IRelativeTypeInfo )
-    {
-      method = ((IRelativeTypeInfo) typeInfo).getMethod( type, dispatchName, JavaTypes.STRING(), JavaTypes.OBJECT() );
-    }
-    else
-    {
-      method = typeInfo.getMethod( dispatchName, JavaTypes.STRING(), JavaTypes.OBJECT() );
-    }
+    IMethodInfo method = findDispatchMethod( type, dispatchName, JavaTypes.STRING(), JavaTypes.OBJECT() );
     return method == null
            ? IPlaceholder.UNHANDLED
            : method.getCallHandler().handleCall( root, propertyName, args );
@@ -279,26 +301,7 @@ public class GosuRuntimeMethods {
       return ret;
     }
 
-    ITypeInfo typeInfo = type.getTypeInfo();
-    IMethodInfo method;
-    if( bDynamicType )
-    {
-      IType[] runtimeTypes = ReflectUtil.extractRuntimeTypes( args );
-      method = ReflectUtil.findCallableMethod( methodName, runtimeTypes, type );
-    }
-    else
-    {
-      parameterTypes = replaceDynamicTypesWithRuntimeTypes( parameterTypes, args );
-      if( typeInfo instanceof IRelativeTypeInfo )
-      {
-        method = ((IRelativeTypeInfo)typeInfo).getMethod( type, methodName, parameterTypes );
-      }
-      else
-      {
-        method = typeInfo.getMethod( methodName, parameterTypes );
-      }
-    }
-
+    IMethodInfo method = findMethod( type, methodName, parameterTypes, args, bDynamicType );
     if( method == null )
     {
       ret = invokeMethodInvoker( "$invokeMissingMethod", root, type, methodName, args );
@@ -315,6 +318,66 @@ public class GosuRuntimeMethods {
     return method.getCallHandler().handleCall( root, args );
   }
 
+  private static IMethodInfo findMethod( IType type, String methodName, IType[] parameterTypes, Object[] args, boolean bDynamicType )
+  {
+    if( bDynamicType )
+    {
+      IType[] runtimeTypes = ReflectUtil.extractRuntimeTypes( args );
+      return ReflectUtil.findCallableMethod( methodName, runtimeTypes, type );
+    }
+
+    ITypeInfo typeInfo = type.getTypeInfo();
+    parameterTypes = replaceDynamicTypesWithRuntimeTypes( parameterTypes, args );
+    if( typeInfo instanceof IRelativeTypeInfo )
+    {
+      return ((IRelativeTypeInfo)typeInfo).getMethod( type, methodName, parameterTypes );
+    }
+    return typeInfo.getMethod( methodName, parameterTypes );
+  }
+
+  /**
+   * Resolves the method invokeMethodInfo() would ultimately call for the root and arguments, or null if the call
+   * must go through the fully dynamic path e.g., IExpando, Bindings, $invokeMethod dispatch or a missing method.
+   */
+  static IMethodInfo findMethodInfo( IType type, String methodName, IType[] parameterTypes, Object root, Object[] args )
+  {
+    if( root instanceof IExpando || root instanceof Bindings )
+    {
+      return null;
+    }
+
+    boolean bDynamicType = isDynamic( type );
+    if( bDynamicType )
+    {
+      type = TypeSystem.getFromObject( root );
+    }
+
+    if( findDispatchMethod( type, "$invokeMethod", JavaTypes.STRING(), JavaTypes.OBJECT().getArrayType() ) != null )
+    {
+      return null;
+    }
+    return findMethod( type, methodName, parameterTypes, args, bDynamicType );
+  }
+
+  static boolean isArgumentSensitive( IType type, IType[] parameterTypes )
+  {
+    if( isDynamic( type ) )
+    {
+      return true;
+    }
+    if( parameterTypes != null )
+    {
+      for( IType paramType : parameterTypes )
+      {
+        if( paramType instanceof IPlaceholder && ((IPlaceholder)paramType).isPlaceholder() )
+        {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
   private static Object invoke( Object o, Object[] args )
   {
     if( o instanceof IBlock )
@@ -344,16 +407,7 @@ public class GosuRuntimeMethods {
 
   private static Object invokeMethodInvoker( String dispatchName, Object root, IType type, String methodName, Object... args )
   {
-    ITypeInfo typeInfo = type.getTypeInfo();
-    IMethodInfo method;
-    if( typeInfo instanceof IRelativeTypeInfo )
-    {
-      method = ((IRelativeTypeInfo)typeInfo).getMethod( type, dispatchName, JavaTypes.STRING(), JavaTypes.OBJECT().getArrayType() );
-    }
-    else
-    {
-      method = typeInfo.getMethod( dispatchName, JavaTypes.STRING(), JavaTypes.OBJECT().getArrayType() );
-    }
+    IMethodInfo method = findDispatchMethod( type, dispatchName, JavaTypes.STRING(), JavaTypes.OBJECT().getArrayType() );
     return method == null
            ? IPlaceholder.UNHANDLED
            : method.getCallHandler().handleCall( root, methodName, args );
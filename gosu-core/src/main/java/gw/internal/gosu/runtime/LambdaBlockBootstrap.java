@@ -0,0 +1,52 @@
+/*
+ * Copyright 2014 Guidewire Software, Inc.
+ */
+
+package gw.internal.gosu.runtime;
+
+import gw.lang.function.ILambdaBlock;
+import gw.lang.function.LambdaBlockRegistry;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Bootstrap method for blocks compiled to lambdas (see {@link gw.lang.reflect.gs.BytecodeOptions#isLambdaBlocks()}).
+ * The block's body is a private synthetic method on the calling class: static if the block is, otherwise an instance
+ * method whose receiver is the site's only argument.  Its parameters and return type are Object, or the block's
+ * primitive types if it was compiled against a primitive function interface; LambdaMetafactory boxes and unboxes
+ * between those and the erased IFunctionN/IProcedureN invoke() method.
+ */
+public class LambdaBlockBootstrap
+{
+  @SuppressWarnings("UnusedDeclaration")
+  public static CallSite bootstrap( MethodHandles.Lookup caller, String name, MethodType type,
+                                    String strImplMethod, String strImplDescriptor, String strBlockClass ) throws Throwable
+  {
+    Class<?> host = caller.lookupClass();
+    MethodType implType = MethodType.fromMethodDescriptorString( strImplDescriptor, host.getClassLoader() );
+    MethodHandle impl = type.parameterCount() == 0
+                        ? caller.findStatic( host, strImplMethod, implType )
+                        : caller.findSpecial( host, strImplMethod, implType, host );
+
+    MethodType samType = MethodType.genericMethodType( implType.parameterCount() );
+    MethodType instantiatedType = implType.wrap();
+    if( implType.returnType() == void.class )
+    {
+      samType = samType.changeReturnType( void.class );
+      instantiatedType = instantiatedType.changeReturnType( void.class );
+    }
+
+    CallSite site = LambdaMetafactory.altMetafactory( caller, name, type, samType, impl, instantiatedType,
+                                                      LambdaMetafactory.FLAG_MARKERS, 1, ILambdaBlock.class );
+
+    // The lambda's class only exists once the site is linked.  Creating an instance with a null receiver is
+    // harmless: nothing runs until the block is invoked.
+    Object sample = site.getTarget().invokeWithArguments( new Object[type.parameterCount()] );
+    LambdaBlockRegistry.register( sample.getClass(), strBlockClass, type.returnType() );
+    return site;
+  }
+}
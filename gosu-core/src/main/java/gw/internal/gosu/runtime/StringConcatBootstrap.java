@@ -0,0 +1,124 @@
+/*
+ * Copyright 2014 Guidewire Software, Inc.
+ */
+
+package gw.internal.gosu.runtime;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.ConstantCallSite;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bootstrap method for string concatenation compiled to invokedynamic (see
+ * {@link gw.lang.reflect.gs.BytecodeOptions#isIndyStringConcat()}).  The recipe has the same form as
+ * StringConcatFactory's: literal text, with \1 marking where each argument goes.  The site is linked by
+ * StringConcatFactory, which picks the JVM's best strategy.
+ * <p/>
+ * The compiler only emits these sites by default when it runs on Java 9+, so the Java 8 path below exists just
+ * to keep such classes working if they are loaded on Java 8.  It boxes its arguments and is slower than the inline
+ * StringBuilder the compiler emits on Java 8.
+ */
+public class StringConcatBootstrap
+{
+  public static final char TAG_ARG = '\u0001';
+  public static final char TAG_CONST = '\u0002';
+
+  /**
+   * Each site may take at most this many argument slots, a long or double taking two.  StringConcatFactory's limit is
+   * 200.
+   */
+  public static final int MAX_SLOTS = 200;
+
+  private static final MethodHandle CONCAT_FACTORY = findConcatFactory();
+  private static final MethodHandle CONCAT = findConcat();
+
+  @SuppressWarnings("UnusedDeclaration")
+  public static CallSite bootstrap( MethodHandles.Lookup caller, String name, MethodType type, String strRecipe ) throws Throwable
+  {
+    if( CONCAT_FACTORY != null )
+    {
+      return (CallSite)CONCAT_FACTORY.invokeWithArguments( caller, name, type, strRecipe );
+    }
+
+    String[] literals = splitRecipe( strRecipe, type.parameterCount() );
+    MethodHandle concat = MethodHandles.insertArguments( CONCAT, 0, (Object)literals )
+      .asCollector( Object[].class, type.parameterCount() )
+      .asType( type );
+    return new ConstantCallSite( concat );
+  }
+
+  private static String[] splitRecipe( String strRecipe, int iArgs )
+  {
+    List<String> literals = new ArrayList<String>( iArgs + 1 );
+    int iStart = 0;
+    for( int i = 0; i < strRecipe.length(); i++ )
+    {
+      char c = strRecipe.charAt( i );
+      if( c == TAG_ARG )
+      {
+        literals.add( strRecipe.substring( iStart, i ) );
+        iStart = i + 1;
+      }
+      else if( c == TAG_CONST )
+      {
+        throw new IllegalArgumentException( "Constant tags are not supported: " + strRecipe );
+      }
+    }
+    literals.add( strRecipe.substring( iStart ) );
+    if( literals.size() != iArgs + 1 )
+    {
+      throw new IllegalArgumentException( "Recipe has " + (literals.size() - 1) + " arguments, but the call site has " + iArgs );
+    }
+    return literals.toArray( new String[literals.size()] );
+  }
+
+  private static String concat( String[] literals, Object[] args )
+  {
+    String[] values = new String[args.length];
+    int iLength = literals[args.length].length();
+    for( int i = 0; i < args.length; i++ )
+    {
+      values[i] = String.valueOf( args[i] );
+      iLength += literals[i].length() + values[i].length();
+    }
+    StringBuilder sb = new StringBuilder( iLength );
+    for( int i = 0; i < args.length; i++ )
+    {
+      sb.append( literals[i] ).append( values[i] );
+    }
+    return sb.append( literals[args.length] ).toString();
+  }
+
+  private static MethodHandle findConcatFactory()
+  {
+    try
+    {
+      Class<?> factory = Class.forName( "java.lang.invoke.StringConcatFactory" );
+      return MethodHandles.publicLookup().findStatic( factory, "makeConcatWithConstants",
+                                                      MethodType.methodType( CallSite.class, MethodHandles.Lookup.class, String.class,
+                                                                             MethodType.class, String.class, Object[].class ) );
+    }
+    catch( ReflectiveOperationException e )
+    {
+      // Java 8
+      return null;
+    }
+  }
+
+  private static MethodHandle findConcat()
+  {
+    try
+    {
+      return MethodHandles.lookup().findStatic( StringConcatBootstrap.class, "concat",
+                                                MethodType.methodType( String.class, String[].class, Object[].class ) );
+    }
+    catch( ReflectiveOperationException e )
+    {
+      throw new IllegalStateException( e );
+    }
+  }
+}
@@ -34,6 +34,25 @@ import java.util.regex.Pattern;
 
 public class GosuCompiler extends AbstractCompiler {
 
+  /**
+   * Number of gosuc compiler threads, e.g. {@code mvn -Dgosuc.threads=8 compile}; 0 uses one per available processor.
+   * Passed to gosuc as {@code -j} both in process and when forked.
+   */
+  public static final String THREADS_PROPERTY = "gosuc.threads";
+
+  /**
+   * Set to true to compile incrementally, e.g. {@code mvn -Dgosuc.incremental=true compile}: only changed sources and
+   * the sources depending on their APIs compile.  Passed to gosuc as {@code -incremental}.
+   */
+  public static final String INCREMENTAL_PROPERTY = "gosuc.incremental";
+
+  /**
+   * Set to true to compile in a background gosuc that keeps Gosu loaded between builds, e.g.
+   * {@code mvn -Dgosuc.daemon=true compile}; the first build starts it.  Passed to gosuc as {@code -daemon}.  The
+   * daemon's JVM options are taken from the {@code gosuc.daemon.jvmargs} property.
+   */
+  public static final String DAEMON_PROPERTY = "gosuc.daemon";
+
   public GosuCompiler() {
     super(CompilerOutputStyle.ONE_OUTPUT_FILE_PER_INPUT_FILE, "", ".class", null); // see MCOMPILER-199, mentioned in AbstractCompileMojo#getCompileSources.  It appears the empty string is the only workaround to have more than one static file suffix.
   }
@@ -247,6 +266,20 @@ public class GosuCompiler extends AbstractCompiler {
     if(config.isVerbose()) {
       fileOutput.add("-verbose");
     }
+
+    String threads = System.getProperty(THREADS_PROPERTY);
+    if(!StringUtils.isEmpty(threads)) {
+      fileOutput.add("-j");
+      fileOutput.add(threads.trim());
+    }
+
+    if(Boolean.parseBoolean(System.getProperty(INCREMENTAL_PROPERTY))) {
+      fileOutput.add("-incremental");
+    }
+
+    if(Boolean.parseBoolean(System.getProperty(DAEMON_PROPERTY))) {
+      fileOutput.add("-daemon");
+    }
   }
 
   private List<CompilerMessage> parseMessages(int exitCode, String sysout) {
@@ -0,0 +1,181 @@
+package org.gosulang.plexus.compiler.gosu;
+
+import org.codehaus.plexus.compiler.AbstractCompilerTest;
+import org.codehaus.plexus.compiler.Compiler;
+import org.codehaus.plexus.compiler.CompilerConfiguration;
+import org.codehaus.plexus.compiler.CompilerMessage;
+import org.codehaus.plexus.util.FileUtils;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class IncrementalGosuCompilerTest extends AbstractCompilerTest {
+
+  private static final long OLD_TIMESTAMP = 1000000000000L;
+
+  @Override
+  protected String getRoleHint() {
+    return "gosuc";
+  }
+
+  /**
+   * Compiles a copy of the Gosu sources incrementally, then changes Person.gs without and with changing its API.
+   * Bad.gs has an error, so it compiles every time; PersonEnhancement.gsx compiles again only when Person's API
+   * changes.
+   */
+  @Override
+  public void testCompilingSources() throws Exception
+  {
+    File sourceDir = new File( getBasedir() + "/target/" + getRoleHint() + "/incremental-src" );
+    FileUtils.deleteDirectory( sourceDir );
+    FileUtils.copyDirectoryStructure( new File( getBasedir() + "/src/test-input/src/main/gosu" ), sourceDir );
+    CompilerConfiguration config = makeConfiguration( sourceDir );
+    File outputDir = new File( config.getOutputLocation() );
+    File personSource = new File( sourceDir, "org/gosulang/foo/Person.gs" );
+    File personClass = new File( outputDir, "org/gosulang/foo/Person.class" );
+    File enhancementClass = new File( outputDir, "org/gosulang/foo/PersonEnhancement.class" );
+
+    // full build
+    assertEquals( 2, compile( config ).size() ); // Bad.gs has one error, Person.gs one warning
+    assertTrue( new File( outputDir.getParentFile(), outputDir.getName() + ".gosuc-deps" ).isFile() );
+
+    // nothing changed
+    makeOld( personClass, enhancementClass );
+    assertEquals( 1, compile( config ).size() );
+    assertEquals( OLD_TIMESTAMP, personClass.lastModified() );
+    assertEquals( OLD_TIMESTAMP, enhancementClass.lastModified() );
+
+    // body-only change
+    String person = new String( Files.readAllBytes( personSource.toPath() ), StandardCharsets.UTF_8 );
+    Files.write( personSource.toPath(), (person + "\n// comment\n").getBytes( StandardCharsets.UTF_8 ) );
+    assertEquals( 2, compile( config ).size() );
+    assertTrue( personClass.lastModified() != OLD_TIMESTAMP );
+    assertEquals( OLD_TIMESTAMP, enhancementClass.lastModified() );
+
+    // API change
+    makeOld( personClass, enhancementClass );
+    Files.write( personSource.toPath(), person.replace( "as readonly FirstName", "as readonly FirstName\n  var _age : int as Age" ).getBytes( StandardCharsets.UTF_8 ) );
+    assertEquals( 2, compile( config ).size() );
+    assertTrue( personClass.lastModified() != OLD_TIMESTAMP );
+    assertTrue( enhancementClass.lastModified() != OLD_TIMESTAMP );
+  }
+
+  /**
+   * PersonEnhancement calls a Person function and leaves out an argument, so it inlines the parameter's default
+   * value.  Changing only that value, or only the parameter's name, must compile PersonEnhancement again.
+   */
+  public void testDefaultValueChangeRecompilesCallers() throws Exception
+  {
+    File sourceDir = new File( getBasedir() + "/target/" + getRoleHint() + "/incremental-defaults-src" );
+    FileUtils.deleteDirectory( sourceDir );
+    FileUtils.copyDirectoryStructure( new File( getBasedir() + "/src/test-input/src/main/gosu" ), sourceDir );
+    File personSource = new File( sourceDir, "org/gosulang/foo/Person.gs" );
+    File enhancementSource = new File( sourceDir, "org/gosulang/foo/PersonEnhancement.gsx" );
+    String person = read( personSource ).replace( "as readonly FirstName",
+                                                  "as readonly FirstName\n" +
+                                                  "  function greet( greeting : String = \"Hello\" ) : String {\n" +
+                                                  "    return greeting + ' ' + _firstname\n" +
+                                                  "  }" );
+    write( personSource, person );
+    write( enhancementSource, read( enhancementSource ).replace( "property get FullName()",
+                                                                 "property get Greeting() : String {\n" +
+                                                                 "    return this.greet()\n" +
+                                                                 "  }\n\n" +
+                                                                 "  property get FullName()" ) );
+    CompilerConfiguration config = makeConfiguration( sourceDir );
+    File outputDir = new File( config.getOutputLocation() );
+    File personClass = new File( outputDir, "org/gosulang/foo/Person.class" );
+    File enhancementClass = new File( outputDir, "org/gosulang/foo/PersonEnhancement.class" );
+
+    // full build
+    assertEquals( 2, compile( config ).size() ); // Bad.gs has one error, Person.gs one warning
+
+    // default value change
+    makeOld( personClass, enhancementClass );
+    write( personSource, person.replace( "\"Hello\"", "\"Hi\"" ) );
+    assertEquals( 2, compile( config ).size() );
+    assertTrue( personClass.lastModified() != OLD_TIMESTAMP );
+    assertTrue( enhancementClass.lastModified() != OLD_TIMESTAMP );
+
+    // parameter name change
+    makeOld( personClass, enhancementClass );
+    write( personSource, person.replace( "\"Hello\"", "\"Hi\"" ).replace( "greeting", "salutation" ) );
+    assertEquals( 2, compile( config ).size() );
+    assertTrue( personClass.lastModified() != OLD_TIMESTAMP );
+    assertTrue( enhancementClass.lastModified() != OLD_TIMESTAMP );
+  }
+
+  private String read( File file ) throws Exception
+  {
+    return new String( Files.readAllBytes( file.toPath() ), StandardCharsets.UTF_8 );
+  }
+
+  private void write( File file, String content ) throws Exception
+  {
+    Files.write( file.toPath(), content.getBytes( StandardCharsets.UTF_8 ) );
+  }
+
+  private void makeOld( File... files )
+  {
+    for( File file : files )
+    {
+      assertTrue( file.setLastModified( OLD_TIMESTAMP ) );
+    }
+  }
+
+  private List<String> compile( CompilerConfiguration config ) throws Exception
+  {
+    String oldIncremental = System.getProperty( GosuCompiler.INCREMENTAL_PROPERTY );
+    System.setProperty( GosuCompiler.INCREMENTAL_PROPERTY, "true" );
+    try
+    {
+      Compiler compiler = (Compiler) lookup( Compiler.ROLE, getRoleHint() );
+      List<String> messages = new ArrayList<>();
+      for( CompilerMessage message : compiler.performCompile( config ).getCompilerMessages() )
+      {
+        messages.add( message.getMessage() );
+      }
+      return messages;
+    }
+    finally
+    {
+      if( oldIncremental == null )
+      {
+        System.clearProperty( GosuCompiler.INCREMENTAL_PROPERTY );
+      }
+      else
+      {
+        System.setProperty( GosuCompiler.INCREMENTAL_PROPERTY, oldIncremental );
+      }
+    }
+  }
+
+  private CompilerConfiguration makeConfiguration( File sourceDir ) throws Exception
+  {
+    @SuppressWarnings("unchecked") List<String> filenames =
+        FileUtils.getFileNames( sourceDir, "**/*.gs,**/*.gsx,**/*.gst", null, false, true );
+    Collections.sort( filenames );
+
+    CompilerConfiguration compilerConfig = new CompilerConfiguration();
+    compilerConfig.setClasspathEntries( getClasspath() );
+    compilerConfig.addSourceLocation( sourceDir.getPath() );
+    Set<File> sourceFiles = new HashSet<>();
+    for( String filename : filenames )
+    {
+      compilerConfig.addInclude( filename );
+      sourceFiles.add( new File( sourceDir, filename ) );
+    }
+    compilerConfig.setSourceFiles( sourceFiles );
+    compilerConfig.setOutputLocation( getBasedir() + "/target/" + getRoleHint() + "/incremental" );
+    FileUtils.deleteDirectory( compilerConfig.getOutputLocation() );
+    new File( compilerConfig.getOutputLocation() + ".gosuc-deps" ).delete();
+    compilerConfig.setFork( false );
+    return compilerConfig;
+  }
+}
@@ -0,0 +1,93 @@
+package org.gosulang.plexus.compiler.gosu;
+
+import org.codehaus.plexus.compiler.AbstractCompilerTest;
+import org.codehaus.plexus.compiler.Compiler;
+import org.codehaus.plexus.compiler.CompilerConfiguration;
+import org.codehaus.plexus.compiler.CompilerMessage;
+import org.codehaus.plexus.util.FileUtils;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class ParallelGosuCompilerTest extends AbstractCompilerTest {
+
+  @Override
+  protected String getRoleHint() {
+    return "gosuc";
+  }
+
+  /**
+   * Compiles all Gosu sources in one invocation, serially and then on several threads, and expects the same
+   * messages in the same order and the same output files.
+   */
+  @Override
+  public void testCompilingSources() throws Exception
+  {
+    CompilerConfiguration serialConfig = makeConfiguration( "serial" );
+    List<String> serialMessages = compile( serialConfig, "1" );
+
+    CompilerConfiguration parallelConfig = makeConfiguration( "parallel" );
+    List<String> parallelMessages = compile( parallelConfig, "4" );
+
+    assertEquals( 2, serialMessages.size() ); // Bad.gs has one error, Person.gs one warning
+    assertEquals( serialMessages, parallelMessages );
+    assertEquals( new HashSet<>( FileUtils.getFileNames( new File( serialConfig.getOutputLocation() ), null, null, false ) ),
+                  new HashSet<>( FileUtils.getFileNames( new File( parallelConfig.getOutputLocation() ), null, null, false ) ) );
+  }
+
+  private List<String> compile( CompilerConfiguration config, String threads ) throws Exception
+  {
+    String oldThreads = System.getProperty( GosuCompiler.THREADS_PROPERTY );
+    System.setProperty( GosuCompiler.THREADS_PROPERTY, threads );
+    try
+    {
+      Compiler compiler = (Compiler) lookup( Compiler.ROLE, getRoleHint() );
+      List<String> messages = new ArrayList<>();
+      for( CompilerMessage message : compiler.performCompile( config ).getCompilerMessages() )
+      {
+        // output locations differ between the runs
+        messages.add( message.getMessage().replace( config.getOutputLocation(), "" ) );
+      }
+      return messages;
+    }
+    finally
+    {
+      if( oldThreads == null )
+      {
+        System.clearProperty( GosuCompiler.THREADS_PROPERTY );
+      }
+      else
+      {
+        System.setProperty( GosuCompiler.THREADS_PROPERTY, oldThreads );
+      }
+    }
+  }
+
+  private CompilerConfiguration makeConfiguration( String name ) throws Exception
+  {
+    String sourceDir = getBasedir() + "/src/test-input/src/main/gosu";
+
+    @SuppressWarnings("unchecked") List<String> filenames =
+        FileUtils.getFileNames( new File( sourceDir ), "**/*.gs,**/*.gsx,**/*.gst", null, false, true );
+    Collections.sort( filenames );
+
+    CompilerConfiguration compilerConfig = new CompilerConfiguration();
+    compilerConfig.setClasspathEntries( getClasspath() );
+    compilerConfig.addSourceLocation( sourceDir );
+    Set<File> sourceFiles = new HashSet<>();
+    for( String filename : filenames )
+    {
+      compilerConfig.addInclude( filename );
+      sourceFiles.add( new File( sourceDir + File.separator + filename ) );
+    }
+    compilerConfig.setSourceFiles( sourceFiles );
+    compilerConfig.setOutputLocation( getBasedir() + "/target/" + getRoleHint() + "/parallel-" + name );
+    FileUtils.deleteDirectory( compilerConfig.getOutputLocation() );
+    compilerConfig.setFork( false );
+    return compilerConfig;
+  }
+}
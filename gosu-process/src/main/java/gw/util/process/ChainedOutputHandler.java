@@ -13,20 +13,25 @@ import java.util.List;
 
 /**
  */
-class ChainedOutputHandler implements OutputHandler, Closeable {
-  private static final OutputHandler NULL_OUTPUT_HANDLER = new OutputHandler() {
-    public void handleLine(String line) {}
-  };
+class ChainedOutputHandler implements OutputHandler, RawOutputHandler, Closeable {
   private List<OutputHandler> _handlers = new ArrayList<OutputHandler>();
+  private List<RawOutputHandler> _rawHandlers = new ArrayList<RawOutputHandler>();
 
   void add(OutputHandler handler) {
     _handlers.add(handler);
   }
 
+  void addRaw(RawOutputHandler handler) {
+    _rawHandlers.add(handler);
+  }
+
+  /**
+   * @return null if there are no line handlers, so the output needn't be split into lines
+   */
   OutputHandler maybeReduce() {
     switch (_handlers.size()) {
     case 0:
-      return NULL_OUTPUT_HANDLER;
+      return null;
     case 1:
       return _handlers.get(0);
     default:
@@ -34,6 +39,20 @@ class ChainedOutputHandler implements OutputHandler, Closeable {
     }
   }
 
+  /**
+   * @return null if there are no raw handlers
+   */
+  RawOutputHandler maybeReduceRaw() {
+    switch (_rawHandlers.size()) {
+    case 0:
+      return null;
+    case 1:
+      return _rawHandlers.get(0);
+    default:
+      return this;
+    }
+  }
+
   @Override
   public void handleLine(String line) {
     for (OutputHandler handler : _handlers) {
@@ -41,16 +60,23 @@ class ChainedOutputHandler implements OutputHandler, Closeable {
     }
   }
 
+  @Override
+  public void handleBytes(byte[] bytes, int offset, int length) {
+    for (RawOutputHandler handler : _rawHandlers) {
+      handler.handleBytes(bytes, offset, length);
+    }
+  }
+
   @Override
   public void close() throws IOException {
     close(0);
   }
 
   private void close(int idx) throws IOException {
-    if (idx >= _handlers.size()) {
+    if (idx >= _handlers.size() + _rawHandlers.size()) {
       return; // done
     }
-    OutputHandler handler = _handlers.get(idx);
+    Object handler = idx < _handlers.size() ? _handlers.get(idx) : _rawHandlers.get(idx - _handlers.size());
     try {
       if (handler instanceof Closeable) {
         StreamUtil.close((Closeable) handler);
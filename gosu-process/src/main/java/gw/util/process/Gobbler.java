@@ -4,42 +4,75 @@
 
 package gw.util.process;
 
-import gw.util.StreamUtil;
-
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.Reader;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
+ * Pumps one of a process' output streams to its handlers.  Pumps run on a shared pool of daemon threads, so running
+ * many short-lived processes reuses threads instead of starting two for each one.  The stream is read in raw chunks;
+ * it's decoded and split into lines only if there's a line handler.
  */
-class Gobbler extends Thread {
+class Gobbler implements Runnable {
+  static final ExecutorService PUMPS = Executors.newCachedThreadPool( new ThreadFactory() {
+    private final AtomicInteger _count = new AtomicInteger();
+
+    @Override
+    public Thread newThread( Runnable r ) {
+      Thread thread = new Thread( r, "ProcessRunner pump " + _count.incrementAndGet() );
+      thread.setDaemon( true );
+      return thread;
+    }
+  } );
+
   private final InputStream _streamToGobble;
   private final OutputHandler _outputHandler;
+  private final RawOutputHandler _rawOutputHandler;
   private final String _gobblerCharset;
 
-  Gobbler( InputStream streamToGobble, OutputHandler outputHandler, String charSet )
+  /**
+   * @param outputHandler null if no one wants lines
+   * @param rawOutputHandler null if no one wants raw output
+   */
+  Gobbler( InputStream streamToGobble, OutputHandler outputHandler, RawOutputHandler rawOutputHandler, String charSet )
   {
     _streamToGobble = streamToGobble;
     _outputHandler = outputHandler;
+    _rawOutputHandler = rawOutputHandler;
     _gobblerCharset = charSet;
   }
 
+  CompletableFuture<Void> start()
+  {
+    return CompletableFuture.runAsync( this, PUMPS );
+  }
+
   @Override
   public void run()
   {
+    LineSplitter lines = _outputHandler == null ? null : new LineSplitter( _outputHandler, _gobblerCharset );
+    byte[] buffer = new byte[8192];
     try
     {
-      Reader inputStreamReader = StreamUtil.getInputStreamReader(_streamToGobble, _gobblerCharset);
-      BufferedReader br = new BufferedReader(inputStreamReader);
-
-      String line;
-      while( (line = br.readLine()) != null ) {
-        _outputHandler.handleLine(line);
+      int count;
+      while( (count = _streamToGobble.read( buffer )) != -1 ) {
+        if( _rawOutputHandler != null ) {
+          _rawOutputHandler.handleBytes( buffer, 0, count );
+        }
+        if( lines != null ) {
+          lines.write( buffer, 0, count );
+        }
       }
     } catch (IOException ioe) {
       //ignore
     }
+    if( lines != null ) {
+      lines.finish();
+    }
   }
 
 }
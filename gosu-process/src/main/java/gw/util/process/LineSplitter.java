@@ -0,0 +1,97 @@
+/*
+ * Copyright 2014 Guidewire Software, Inc.
+ */
+
+package gw.util.process;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * Decodes chunks of output and hands each line to an OutputHandler.  Lines end the way BufferedReader.readLine()
+ * ends them: at '\n', '\r' or "\r\n".
+ */
+class LineSplitter {
+  private final OutputHandler _handler;
+  private final CharsetDecoder _decoder;
+  private final ByteBuffer _bytes = ByteBuffer.allocate( 8192 );
+  private final CharBuffer _chars = CharBuffer.allocate( 8192 );
+  private final StringBuilder _line = new StringBuilder();
+  private boolean _bSkipLF;
+
+  LineSplitter( OutputHandler handler, String charset ) {
+    _handler = handler;
+    _decoder = Charset.forName( charset ).newDecoder()
+      .onMalformedInput( CodingErrorAction.REPLACE )
+      .onUnmappableCharacter( CodingErrorAction.REPLACE );
+  }
+
+  void write( byte[] bytes, int offset, int length ) {
+    while( length > 0 ) {
+      int count = Math.min( length, _bytes.remaining() );
+      _bytes.put( bytes, offset, count );
+      offset += count;
+      length -= count;
+      _bytes.flip();
+      decode( false );
+      // keeps the bytes of a character split across chunks
+      _bytes.compact();
+    }
+  }
+
+  /**
+   * Hands off the last line, if the output didn't end with a line break.
+   */
+  void finish() {
+    _bytes.flip();
+    decode( true );
+    _decoder.flush( _chars );
+    split();
+    if( _line.length() > 0 ) {
+      endLine();
+    }
+  }
+
+  private void decode( boolean bEndOfInput ) {
+    CoderResult result;
+    do {
+      result = _decoder.decode( _bytes, _chars, bEndOfInput );
+      split();
+    } while( result.isOverflow() );
+  }
+
+  private void split() {
+    _chars.flip();
+    char[] chars = _chars.array();
+    int start = _chars.position();
+    int end = _chars.limit();
+    for( int i = start; i < end; i++ ) {
+      char c = chars[i];
+      if( _bSkipLF ) {
+        _bSkipLF = false;
+        if( c == '\n' ) {
+          start = i + 1;
+          continue;
+        }
+      }
+      if( c == '\n' || c == '\r' ) {
+        _line.append( chars, start, i - start );
+        endLine();
+        _bSkipLF = c == '\r';
+        start = i + 1;
+      }
+    }
+    _line.append( chars, start, end - start );
+    _chars.clear();
+  }
+
+  private void endLine() {
+    String line = _line.toString();
+    _line.setLength( 0 );
+    _handler.handleLine( line );
+  }
+}
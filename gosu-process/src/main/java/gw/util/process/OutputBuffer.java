@@ -8,17 +8,62 @@ import java.io.StringWriter;
 import java.util.concurrent.locks.ReentrantLock;
 
 /**
+ * Collects output lines.  A bounded buffer keeps just the last maxChars characters, since the end of a process'
+ * output is usually what explains how it ended.
  */
 class OutputBuffer extends StringWriter implements OutputHandler {
   private final ReentrantLock _lock = new ReentrantLock();
+  private final int _maxChars;
+  private boolean _truncated;
+
+  OutputBuffer() {
+    this(Integer.MAX_VALUE);
+  }
+
+  OutputBuffer(int maxChars) {
+    _maxChars = maxChars;
+  }
 
   @Override
   public void handleLine(String line) {
     _lock.lock();
     try {
       append(line).append('\n');
+      // trims once the buffer is twice the limit, so lines aren't shifted out one at a time
+      if (getBuffer().length() / 2 > _maxChars) {
+        trim();
+      }
+    } finally {
+      _lock.unlock();
+    }
+  }
+
+  boolean isTruncated() {
+    _lock.lock();
+    try {
+      return _truncated || getBuffer().length() > _maxChars;
     } finally {
       _lock.unlock();
     }
   }
+
+  @Override
+  public String toString() {
+    _lock.lock();
+    try {
+      trim();
+      return super.toString();
+    } finally {
+      _lock.unlock();
+    }
+  }
+
+  private void trim() {
+    StringBuffer buffer = getBuffer();
+    int excess = buffer.length() - _maxChars;
+    if (excess > 0) {
+      buffer.delete(0, excess);
+      _truncated = true;
+    }
+  }
 }
@@ -16,6 +16,9 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
 
 public class ProcessRunner {
 
@@ -34,6 +37,9 @@ public class ProcessRunner {
   private boolean _bufferStdErr;
   private List<OutputHandler> _stdOutHandlers = new ArrayList<OutputHandler>();
   private List<OutputHandler> _stdErrHandlers = new ArrayList<OutputHandler>();
+  private List<RawOutputHandler> _stdOutRawHandlers = new ArrayList<RawOutputHandler>();
+  private List<RawOutputHandler> _stdErrRawHandlers = new ArrayList<RawOutputHandler>();
+  private int _bufferLimit = Integer.MAX_VALUE;
   private String _charset = "UTF-8";
 
   public static String execWithCharset(String charset, String... command) {
@@ -82,6 +88,29 @@ public class ProcessRunner {
    * @return this object for chaining
    */
   public ProcessRunner exec()
+  {
+    try {
+      execAsync().get();
+    } catch (InterruptedException e) {
+      //ignore
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      throw cause instanceof RuntimeException ? (RuntimeException) cause : new RuntimeException(cause);
+    }
+    return this;
+  }
+
+  /**
+   * <p>Starts the given command like {@link #exec()}, but returns without waiting for it.  The process' input
+   * is fed and its output is handled on a shared pool of daemon threads.
+   *
+   * <p>The future completes with the exit code, after all of the output has been handled.  Then
+   * {@link #getExitCode()} and {@link #getBuffer()} are available as well.  If a handler throws, the process is
+   * destroyed and the future completes exceptionally.</p>
+   *
+   * @return a future for the exit code
+   */
+  public CompletableFuture<Integer> execAsync()
   {
     List<String> command = new ArrayList<String>();
     if (OSPlatform.isWindows() && _withCMD) {
@@ -106,7 +135,7 @@ public class ProcessRunner {
     ChainedOutputHandler stdOut = new ChainedOutputHandler();
     ChainedOutputHandler stdErr = new ChainedOutputHandler();
     if (_bufferStdOut || _bufferStdErr) {
-      _buffer = new OutputBuffer();
+      _buffer = new OutputBuffer(_bufferLimit);
       if (_bufferStdOut) {
         stdOut.add(_buffer);
       }
@@ -126,68 +155,94 @@ public class ProcessRunner {
     for (OutputHandler handler : _stdErrHandlers) {
       stdErr.add(handler);
     }
+    for (RawOutputHandler handler : _stdOutRawHandlers) {
+      stdOut.addRaw(handler);
+    }
+    for (RawOutputHandler handler : _stdErrRawHandlers) {
+      stdErr.addRaw(handler);
+    }
 
+    Process process;
     try {
-      Process process = pb.start();
-      feedInput(process, _input, _charset);
-      if (echo != null) {
-        echo.processStarted();
-      }
-      _exitCode = nomNomNom(process, stdOut.maybeReduce(), stdErr.maybeReduce(), _charset);
-      if (echo != null) {
-        echo.processFinished();
-      }
+      process = pb.start();
     } catch (IOException e) {
+      closeHandlers(stdOut, stdErr);
       throw new RuntimeException(e);
-    } finally {
-      try {
-        StreamUtil.close(stdOut, stdErr);
-      } catch (IOException e) {
-        e.printStackTrace();
-      }
     }
-    return this;
+    if (echo != null) {
+      echo.processStarted();
+    }
+    CompletableFuture<Void> input = feedInput(process, _input, _charset);
+    CompletableFuture<Void> output = new Gobbler(process.getInputStream(), stdOut.maybeReduce(), stdOut.maybeReduceRaw(), _charset).start();
+    CompletableFuture<Void> error = new Gobbler(process.getErrorStream(), stdErr.maybeReduce(), stdErr.maybeReduceRaw(), _charset).start();
+    for (CompletableFuture<Void> pump : Arrays.asList(input, output, error)) {
+      // A pump that failed stops draining its pipe, so the process can block writing to it and the others never
+      // see the end of their streams; destroy it now rather than in finish()
+      pump.whenComplete((ignore, t) -> {
+        if (t != null) {
+          process.destroy();
+        }
+      });
+    }
+    final EchoOutputEmitter finalEcho = echo;
+    return CompletableFuture.allOf(input, output, error)
+      .handleAsync((ignore, t) -> finish(process, stdOut, stdErr, finalEcho, t), Gobbler.PUMPS);
   }
 
-  private static void feedInput(Process process, String input, String charset) throws IOException {
-    Writer inputEmitter = null;
+  private Integer finish(Process process, ChainedOutputHandler stdOut, ChainedOutputHandler stdErr, EchoOutputEmitter echo, Throwable t) {
     try {
-      if (input != null) {
-        inputEmitter = new OutputStreamWriter(process.getOutputStream(), charset);
-        inputEmitter.write(input);
+      if (t != null) {
+        process.destroy();
+        if (t instanceof CompletionException && t.getCause() != null) {
+          t = t.getCause();
+        }
+        throw t instanceof RuntimeException ? (RuntimeException) t : new RuntimeException(t);
       }
-    } finally {
-      try {
-        StreamUtil.close(inputEmitter);
-      } catch (IOException e) {
-        e.printStackTrace();
+      _exitCode = process.waitFor();
+      if (echo != null) {
+        echo.processFinished();
       }
-    }
-  }
-
-  private static Integer nomNomNom(Process process, OutputHandler stdOut, OutputHandler stdErr, String charset) {
-    Gobbler outputGobbler = new Gobbler( process.getInputStream(), stdOut, charset );
-    Gobbler errorGobbler = new Gobbler( process.getErrorStream(), stdErr, charset );
-
-    // kick off the gobblers
-    errorGobbler.start();
-    outputGobbler.start();
-
-    try {
-      int exitCode = process.waitFor();
-      errorGobbler.join();
-      outputGobbler.join();
-      return exitCode;
+      return _exitCode;
     } catch (InterruptedException e) {
       //ignore
+      return null;
     } finally {
       try {
         StreamUtil.close(process.getErrorStream(), process.getInputStream());
       } catch ( IOException e) {
         e.printStackTrace();
       }
+      closeHandlers(stdOut, stdErr);
     }
-    return null;
+  }
+
+  private static void closeHandlers(ChainedOutputHandler stdOut, ChainedOutputHandler stdErr) {
+    try {
+      StreamUtil.close(stdOut, stdErr);
+    } catch (IOException e) {
+      e.printStackTrace();
+    }
+  }
+
+  private static CompletableFuture<Void> feedInput(Process process, String input, String charset) {
+    if (input == null) {
+      return CompletableFuture.completedFuture(null);
+    }
+    return CompletableFuture.runAsync(() -> {
+      Writer inputEmitter = null;
+      try {
+        inputEmitter = new OutputStreamWriter(process.getOutputStream(), charset);
+        inputEmitter.write(input);
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      } finally {
+        try {
+          StreamUtil.close(inputEmitter);
+        } catch (IOException e) {
+          e.printStackTrace();
+        }
+      }
+    }, Gobbler.PUMPS);
   }
 
   public String getRawCmdStr() {
@@ -223,6 +278,16 @@ public class ProcessRunner {
     return _buffer == null ? null : _buffer.toString();
   }
 
+  /**
+   * Returns true if the buffer was limited with {@link #withBufferLimit(int)} and the process printed more than
+   * the limit, so {@link #getBuffer()} holds just the end of the output.
+   *
+   * @return true if the beginning of the buffered output was dropped
+   */
+  public boolean isBufferTruncated() {
+    return _buffer != null && _buffer.isTruncated();
+  }
+
   /**
    * Returns the process' exit code, if it finished.
    *
@@ -309,6 +374,19 @@ public class ProcessRunner {
     return this;
   }
 
+  /**
+   * Limits the buffer accessible by {@link #getBuffer()} to the last <code>maxChars</code> characters of output.
+   *
+   * If unused, the buffer holds all of the output.
+   *
+   * @param maxChars the most characters to keep
+   * @return this object for chaining
+   */
+  public ProcessRunner withBufferLimit(int maxChars) {
+    _bufferLimit = maxChars;
+    return this;
+  }
+
   /**
    * Sets this process' output to be displayed the parent process' stdout and stderr.
    *
@@ -370,4 +448,34 @@ public class ProcessRunner {
     _stdOutHandlers.add(stdOutHandler);
     return this;
   }
+
+  /**
+   * Adds a handler for this process' stderr as raw chunks of bytes, without decoding them or splitting them
+   * into lines.
+   *
+   * This can be called multiple times in a chain to add multiple handlers.
+   *
+   * @param stdErrHandler handler that will be called with every chunk of output to stderr
+   * @return this object for chaining
+   */
+  public ProcessRunner withStdErrRawHandler( RawOutputHandler stdErrHandler )
+  {
+    _stdErrRawHandlers.add(stdErrHandler);
+    return this;
+  }
+
+  /**
+   * Adds a handler for this process' stdout as raw chunks of bytes, without decoding them or splitting them
+   * into lines.
+   *
+   * This can be called multiple times in a chain to add multiple handlers.
+   *
+   * @param stdOutHandler handler that will be called with every chunk of output to stdout
+   * @return this object for chaining
+   */
+  public ProcessRunner withStdOutRawHandler( RawOutputHandler stdOutHandler )
+  {
+    _stdOutRawHandlers.add(stdOutHandler);
+    return this;
+  }
 }
@@ -0,0 +1,15 @@
+/*
+ * Copyright 2014 Guidewire Software, Inc.
+ */
+
+package gw.util.process;
+
+/**
+ * Receives a process' output as it arrives, in raw chunks that aren't decoded or split into lines.
+ */
+public interface RawOutputHandler {
+  /**
+   * @param bytes a buffer that is reused once this call returns, so copy anything to keep
+   */
+  void handleBytes( byte[] bytes, int offset, int length );
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2014 Guidewire Software, Inc.
+ */
+
+package gw.util.process;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ProcessRunnerTest {
+
+  @Test
+  public void testThrowingHandlerDoesNotHang() throws Exception {
+    IllegalStateException failure = new IllegalStateException("handler failed");
+    ProcessRunner runner = chatty()
+      .withStdOutHandler(line -> {
+        throw failure;
+      });
+    try {
+      // without draining, the child blocks once it fills the pipe
+      runner.execAsync().get(60, TimeUnit.SECONDS);
+      fail();
+    } catch (ExecutionException e) {
+      assertEquals(failure, e.getCause());
+    }
+  }
+
+  @Test
+  public void testExecRethrowsHandlerFailure() {
+    IllegalStateException failure = new IllegalStateException("handler failed");
+    try {
+      chatty()
+        .withStdErrHandler(line -> {
+          throw failure;
+        })
+        .exec();
+      fail();
+    } catch (IllegalStateException e) {
+      assertEquals(failure, e);
+    }
+  }
+
+  @Test
+  public void testDrainsAllOutput() {
+    ProcessRunner runner = chatty().withStdOutBuffered().exec();
+    assertEquals(Integer.valueOf(0), runner.getExitCode());
+    assertEquals(Chatty.LINES * (Chatty.LINE.length() + 1), runner.getBuffer().length());
+  }
+
+  private static ProcessRunner chatty() {
+    return new ProcessRunner(new File(new File(System.getProperty("java.home"), "bin"), "java").getPath(),
+                             "-cp", System.getProperty("java.class.path"), Chatty.class.getName());
+  }
+
+  /**
+   * Writes a few pipe buffers worth of lines to stdout and to stderr.
+   */
+  public static class Chatty {
+    static final int LINES = 20000;
+    static final String LINE = "0123456789012345678901234567890123456789";
+
+    public static void main(String[] args) {
+      for (int i = 0; i < LINES; i++) {
+        System.out.println(LINE);
+        System.err.println(LINE);
+      }
+    }
+  }
+}
@@ -0,0 +1,26 @@
+package gw.internal.gosu.compiler.sample.expression.blocks
+
+class LambdaBlocks {
+  var _prefix = "yay"
+
+  function noArgs() : block() : String {
+    return \-> "yay"
+  }
+
+  function twoArgs() : block( s : String, i : int ) : String {
+    return \ s : String, i : int -> s + i
+  }
+
+  function usesThis() : block( s : String ) : String {
+    return \ s : String -> _prefix + s
+  }
+
+  static function staticBlock() : block( i : int ) : int {
+    return \ i : int -> i * 2
+  }
+
+  function capturing() : block() : String {
+    var str = "yay"
+    return \-> str
+  }
+}
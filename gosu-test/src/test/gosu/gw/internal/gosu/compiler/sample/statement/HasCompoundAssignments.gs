@@ -0,0 +1,75 @@
+package gw.internal.gosu.compiler.sample.statement
+
+uses java.util.Map
+uses java.util.HashMap
+uses java.lang.Integer
+
+class HasCompoundAssignments
+{
+  var _roots : int
+  var _index : int
+  public var Count : int
+  var _arr : int[] = new int[] {1, 2, 3}
+  var _map : Map<String, Integer> = new HashMap<String, Integer>() {"a" -> 1}
+
+  function memberCompound() : String
+  {
+    root().Count += 2
+    root().Count *= 3
+    root().Count -= 1
+    return Count + ":" + _roots
+  }
+
+  function arrayCompound() : String
+  {
+    arr()[nextIndex()] += 10
+    arr()[nextIndex()] *= 5
+    arr()[nextIndex()] -= 1
+    return _arr[0] + "," + _arr[1] + "," + _arr[2] + ":" + _index + ":" + _roots
+  }
+
+  function mapCompound() : String
+  {
+    map()["a"] += 4
+    map()["a"] *= 2
+    return _map["a"] + ":" + _roots
+  }
+
+  function nestedCompound() : String
+  {
+    arr()[countUp()] += countUp()
+    return _arr[0] + ":" + Count + ":" + _roots
+  }
+
+  private function root() : HasCompoundAssignments
+  {
+    _roots++
+    return this
+  }
+
+  private function nextIndex() : int
+  {
+    var index = _index
+    _index = index + 1
+    return index
+  }
+
+  // the old count, after a compound assignment of its own
+  private function countUp() : int
+  {
+    root().Count += 1
+    return Count - 1
+  }
+
+  private function arr() : int[]
+  {
+    _roots++
+    return _arr
+  }
+
+  private function map() : Map<String, Integer>
+  {
+    _roots++
+    return _map
+  }
+}
@@ -0,0 +1,7 @@
+package gw.internal.gosu.parser.classTests.gwtest.batchrefresh
+
+class Base {
+  function name() : String {
+    return "base"
+  }
+}
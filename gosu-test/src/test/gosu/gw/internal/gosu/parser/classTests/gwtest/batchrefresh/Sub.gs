@@ -0,0 +1,7 @@
+package gw.internal.gosu.parser.classTests.gwtest.batchrefresh
+
+class Sub extends Base {
+  override function name() : String {
+    return "sub"
+  }
+}
@@ -0,0 +1,4 @@
+package gw.internal.gosu.parser.classTests.gwtest.batchrefresh
+
+class SubSub extends Sub {
+}
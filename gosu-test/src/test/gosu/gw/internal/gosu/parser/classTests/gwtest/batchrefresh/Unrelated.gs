@@ -0,0 +1,6 @@
+package gw.internal.gosu.parser.classTests.gwtest.batchrefresh
+
+class Unrelated {
+  static class Inner {
+  }
+}
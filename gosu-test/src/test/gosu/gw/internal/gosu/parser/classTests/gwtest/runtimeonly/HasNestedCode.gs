@@ -0,0 +1,25 @@
+package gw.internal.gosu.parser.classTests.gwtest.runtimeonly
+
+uses java.util.concurrent.Callable
+
+class HasNestedCode {
+  var _name : String = "nested"
+
+  function describe() : String {
+    var greeting = new Inner().greet()
+    var name : Callable<String> = new Callable<String>() {
+      override function call() : String {
+        return _name
+      }
+    }
+    var join = \ a : String, b : String -> a + " " + b
+    return join( greeting, name.call() )
+  }
+
+  static class Inner {
+    function greet() : String {
+      var upper = \ s : String -> s.toUpperCase()
+      return upper( "hello" )
+    }
+  }
+}
@@ -0,0 +1,121 @@
+package gw.lang.enhancements
+
+uses gw.test.TestClass
+uses gw.util.concurrent.ParallelConfig
+uses java.lang.Integer
+uses java.lang.Thread
+uses java.math.BigDecimal
+uses java.util.ArrayList
+uses java.util.LinkedList
+uses java.util.List
+uses java.util.concurrent.ConcurrentHashMap
+uses java.util.concurrent.ForkJoinPool
+uses java.util.concurrent.atomic.AtomicInteger
+
+class CoreParallelEnhancementsTest extends TestClass {
+  var _threshold : int
+
+  override function beforeTestMethod() {
+    // small pieces, so even short lists are split
+    _threshold = ParallelConfig.Threshold
+    ParallelConfig.Threshold = 3
+  }
+
+  override function afterTestMethod( possibleException : java.lang.Throwable ) {
+    ParallelConfig.Threshold = _threshold
+    ParallelConfig.Pool = null
+  }
+
+  function testListMatchesSequential() {
+    var list = numbers( 1000 )
+    assertEquals( list.map( \ i -> "#" + i ), list.parallelMap( \ i -> "#" + i ) )
+    assertEquals( list.where( \ i -> i % 7 == 0 ), list.parallelWhere( \ i -> i % 7 == 0 ) )
+    assertEquals( list.countWhere( \ i -> i % 7 == 0 ), list.parallelCountWhere( \ i -> i % 7 == 0 ) )
+    assertEquals( list.reduce( "", \ s, i -> s + i ), list.parallelReduce( "", \ s, i -> s + i, \ s1, s2 -> s1 + s2 ) )
+    assertEquals( {}, new ArrayList<Integer>().parallelMap( \ i -> i ) )
+  }
+
+  function testNonRandomAccessList() {
+    var list = new LinkedList<Integer>( numbers( 100 ) )
+    assertEquals( list.map( \ i -> i * 2 ), list.parallelMap( \ i -> i * 2 ) )
+    assertEquals( list.where( \ i -> i > 50 ), list.parallelWhere( \ i -> i > 50 ) )
+  }
+
+  function testEachVisitsEveryElementOnce() {
+    var seen = ConcurrentHashMap.newKeySet<Integer>()
+    var calls = new AtomicInteger()
+    numbers( 500 ).parallelEach( \ i -> {
+      seen.add( i )
+      calls.incrementAndGet()
+    } )
+    assertEquals( 500, calls.get() )
+    assertEquals( 500, seen.size() )
+  }
+
+  function testSums() {
+    var list = numbers( 1000 )
+    assertEquals( list.sum( \ i -> i ), list.parallelSum( \ i -> i ) )
+    assertEquals( list.sum( \ i -> i as long ), list.parallelSum( \ i -> i as long ) )
+    assertEquals( list.sum( \ i -> new BigDecimal( i ) ), list.parallelSum( \ i -> new BigDecimal( i ) ) )
+    // the same pieces every time, so even double addition gives the same answer
+    var d = list.parallelSum( \ i -> 1.0 / i )
+    for( 0..|10 ) {
+      assertEquals( d, list.parallelSum( \ i -> 1.0 / i ) )
+    }
+  }
+
+  function testArrays() {
+    var array = numbers( 100 ).toTypedArray()
+    assertArrayEquals( array.map( \ i -> i + 1 ), array.parallelMap( \ i -> i + 1 ) )
+    assertArrayEquals( array.where( \ i -> i % 2 == 0 ), array.parallelWhere( \ i -> i % 2 == 0 ) )
+    assertEquals( array.sum( \ i -> i ), array.parallelSum( \ i -> i ) )
+  }
+
+  function testIntervals() {
+    assertEquals( (1..100).map( \ i -> i * i ), (1..100).parallelMap( \ i -> i * i ) )
+    assertEquals( (1|..|100).toList(), (1|..|100).parallelWhere( \ i -> true ) )
+    assertEquals( (0..20).step( 3 ).reverse().toList(), (0..20).step( 3 ).reverse().parallelWhere( \ i -> true ) )
+    assertEquals( (5..|5).toList(), (5..|5).parallelMap( \ i -> i ) )
+    assertEquals( 5050L, (1L..100L).parallelReduce( 0L, \ s, i -> s + i, \ s1, s2 -> s1 + s2 ) )
+    assertEquals( (10L..|40L).step( 7 ).toList(), (10L..|40L).step( 7 ).parallelMap( \ i -> i ) )
+  }
+
+  function testConfiguredPool() {
+    var pool = new ForkJoinPool( 2 )
+    try {
+      ParallelConfig.Pool = pool
+      assertSame( pool, ParallelConfig.Pool )
+      var list = numbers( 100 )
+      assertEquals( list.map( \ i -> i * 3 ), list.parallelMap( \ i -> i * 3 ) )
+      // nested calls run in the pool of the outer one
+      assertEquals( list.map( \ i -> i * 100 ), list.parallelMap( \ i -> numbers( 100 ).parallelSum( \ j -> i ) ) )
+    } finally {
+      pool.shutdown()
+    }
+    ParallelConfig.Pool = null
+    assertSame( ForkJoinPool.commonPool(), ParallelConfig.Pool )
+  }
+
+  function testSmallInputRunsOnTheCallingThread() {
+    var names = ConcurrentHashMap.newKeySet<String>()
+    numbers( 3 ).parallelEach( \ i -> { names.add( Thread.currentThread().Name ) } )
+    assertEquals( {Thread.currentThread().Name}.toSet(), names )
+  }
+
+  function testExceptionsReachTheCaller() {
+    try {
+      numbers( 100 ).parallelMap( \ i -> 10 / (i - 50) )
+      fail()
+    } catch( e : java.lang.ArithmeticException ) {
+      // expected
+    }
+  }
+
+  private function numbers( n : int ) : List<Integer> {
+    var list = new ArrayList<Integer>()
+    for( i in 1..n ) {
+      list.add( i )
+    }
+    return list
+  }
+}
@@ -0,0 +1,105 @@
+package gw.specContrib.blocks
+
+uses gw.lang.function.IDoubleFunction1_D
+uses gw.lang.function.IFunction1
+uses gw.lang.function.IFunction2
+uses gw.lang.function.IIntFunction0
+uses gw.lang.function.IIntFunction1_I
+uses gw.lang.function.IIntFunction2_OI
+uses gw.lang.function.ILongFunction2_LL
+uses gw.test.TestClass
+uses java.lang.Integer
+uses java.util.ArrayList
+uses java.util.List
+
+class PrimitiveBlockTest extends TestClass {
+
+  function testPrimitiveBlocksImplementPrimitiveInterfaces() {
+    assertTrue( asObject( \ x: int -> x * 2 ) typeis IIntFunction1_I )
+    assertTrue( asObject( \ -> 42 ) typeis IIntFunction0 )
+    assertTrue( asObject( \ a: long, b: long -> a + b ) typeis ILongFunction2_LL )
+    assertTrue( asObject( \ d: double -> d / 2 ) typeis IDoubleFunction1_D )
+    assertTrue( asObject( \ s: String, i: int -> s.length() + i ) typeis IIntFunction2_OI )
+  }
+
+  function testOtherBlocksDoNot() {
+    assertFalse( asObject( \ x: int -> x > 0 ) typeis IIntFunction1_I )
+    assertFalse( asObject( \ x: long -> (x as int) ) typeis IIntFunction1_I )
+    assertFalse( asObject( \ x: int -> { print( x ) } ) typeis IIntFunction1_I )
+    assertFalse( asObject( \ x: Integer -> x ) typeis IIntFunction1_I )
+  }
+
+  function testPrimitiveAndGenericInvokeAgree() {
+    var twice = \ x: int -> x * 2
+    assertEquals( 42, twice( 21 ) )
+    assertEquals( 42, (asObject( twice ) as IIntFunction1_I).invokeInt( 21 ) )
+    assertEquals( 42, (asObject( twice ) as IFunction1).invoke( 21 ) )
+
+    var add = \ a: long, b: long -> a + b
+    assertEquals( 5000000000L, add( 2000000000L, 3000000000L ) )
+    assertEquals( 5000000000L, (asObject( add ) as IFunction2).invoke( 2000000000L, 3000000000L ) )
+
+    var lengthPlus = \ s: String, i: int -> s.length() + i
+    assertEquals( 8, lengthPlus( "hello", 3 ) )
+    assertEquals( 8, (asObject( lengthPlus ) as IIntFunction2_OI<String>).invokeInt( "hello", 3 ) )
+  }
+
+  function testStatementBodies() {
+    var sign = \ x: int -> {
+      if( x < 0 ) {
+        return -1
+      }
+      return x == 0 ? 0 : 1
+    }
+    assertEquals( -1, sign( -7 ) )
+    assertEquals( 0, sign( 0 ) )
+    assertEquals( 1, sign( 7 ) )
+
+    var sumTo = \ n: long -> {
+      var total = 0L
+      for( i in 1L..n ) {
+        total += i
+      }
+      return total
+    }
+    assertEquals( 5050L, sumTo( 100 ) )
+  }
+
+  function testCapturedVariables() {
+    var offset = 10
+    var addOffset = \ x: int -> x + offset
+    offset = 20
+    assertEquals( 25, addOffset( 5 ) )
+
+    var count = 0
+    var inc = \ -> {
+      count++
+      return count
+    }
+    inc()
+    assertEquals( 2, inc() )
+    assertEquals( 2, count )
+  }
+
+  function testBlockPassedAsParameter() {
+    assertEquals( 9, apply( \ x -> x * x, 3 ) )
+    assertEquals( 7, apply( \ x -> { return x + 4 }, 3 ) )
+  }
+
+  function testEnhancementsUsePrimitiveBlocks() {
+    var list : List<Integer> = new ArrayList<Integer>( {1, 2, 3, 4} )
+    assertEquals( 10, list.sum( \ i -> i ) )
+    assertEquals( 20L, list.sum( \ i -> (i * 2) as long ) )
+    assertEquals( 5.0, list.sum( \ i -> i / 2.0 ), 0.0 )
+  }
+
+  private function apply( fn(x: int): int, value: int ) : int {
+    return fn( value )
+  }
+
+  // typeis and casts on a block's static type are checked against its function type; as an Object they test the
+  // block's class
+  private function asObject( blk: Object ) : Object {
+    return blk
+  }
+}
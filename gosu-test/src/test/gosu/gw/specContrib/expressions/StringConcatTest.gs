@@ -0,0 +1,78 @@
+package gw.specContrib.expressions
+
+uses gw.test.TestClass
+uses java.lang.StringBuilder
+
+class StringConcatTest extends TestClass {
+
+  function testMixedOperands() {
+    var s = "s"
+    var i = 42
+    var l = 7000000000L
+    var d = 1.5
+    var c = 'c'
+    var b = true
+    var o : Object = null
+    var n : String = null
+    assertEquals( "s42-7000000000-1.5-c-true-null-null", s + i + "-" + l + "-" + d + "-" + c + "-" + b + "-" + o + "-" + n )
+  }
+
+  function testGrouping() {
+    var i = 1
+    var j = 2
+    assertEquals( "12", "" + i + j )
+    assertEquals( "3", "" + (i + j) )
+    assertEquals( "3x", i + j + "x" )
+    assertEquals( "x12y", "x" + ("" + i + j) + "y" )
+  }
+
+  function testCharArrayAndCharSequence() {
+    var chars = new char[] {'a', 'b'}
+    var sb = new StringBuilder( "sb" )
+    assertEquals( "ab-sb", chars + "-" + sb )
+  }
+
+  function testOperandsConvertedInOrder() {
+    var sb = new StringBuilder( "a" )
+    assertEquals( "aab", sb + "" + sb.append( "b" ) )
+    sb = new StringBuilder( "a" )
+    assertEquals( "x-a-ab", "x-" + sb + "-" + sb.append( "b" ) )
+  }
+
+  function testCompoundAssignment() {
+    var s = "a"
+    s += 1
+    s += "b" + 2
+    assertEquals( "a1b2", s )
+  }
+
+  function testTagCharactersInLiterals() {
+    var x = "x"
+    assertEquals( "\u0001" + "x" + "\u0002", "\u0001" + x + "\u0002" )
+    assertEquals( 3, ("\u0001" + x + "\u0002").length() )
+  }
+
+  function testManyOperands() {
+    var l = 1L
+    var s = "" + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l + l
+    assertEquals( 105, s.length() )
+  }
+
+  function testLongLiteralText() {
+    var sb = new StringBuilder()
+    for( i in 0..|40000 ) {
+      sb.append( 'a' )
+    }
+    var text = sb.toString()
+    var n = 7
+    assertEquals( text + "7" + text, eval( "\"" + text + "\${n}" + text + "\"" ) )
+    assertEquals( text + "7" + text, eval( "\"" + text + "\" + n + \"" + text + "\"" ) )
+  }
+
+  function testTemplates() {
+    var name = "gosu"
+    var n : String = null
+    assertEquals( "hello gosu, 3 null", "hello ${name}, ${1 + 2} ${n}" )
+    assertEquals( "gosu", "${name}" )
+  }
+}
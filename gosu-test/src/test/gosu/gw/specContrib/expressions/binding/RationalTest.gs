@@ -6,6 +6,8 @@ uses java.io.ObjectOutputStream
 uses java.io.ObjectInputStream
 uses java.io.ByteArrayOutputStream
 uses java.io.ByteArrayInputStream
+uses java.lang.Long
+uses java.math.BigInteger
 
 class RationalTest extends TestClass {
   function testSimple() {
@@ -52,6 +54,60 @@ class RationalTest extends TestClass {
     assertEquals( "-2, -1 2/3, -1 1/3, -1, -2/3, -1/3, 0, 1/3, 2/3, 1, 1 1/3, 1 2/3, 2, ", sb.toString() )
   }
 
+  function testLongOverflowMovesToBigInteger() {
+    var max = Rational.get( Long.MAX_VALUE )
+    var sum = max + 1r
+    assertEquals( "9223372036854775808 / 1", sum.toString() )
+    assertEquals( new BigInteger( "9223372036854775808" ), sum.Numerator )
+    assertEquals( max, sum - 1r )
+    assertEquals( "9223372036854775807 / 1", (sum - 1r).toString() )
+
+    var product = Rational.get( 3, Long.MAX_VALUE ) * Rational.get( 5, Long.MAX_VALUE )
+    assertEquals( "15 / 85070591730234615847396907784232501249", product.toString() )
+    assertTrue( product > 0r )
+    assertTrue( product < Rational.get( 1, Long.MAX_VALUE ) )
+
+    assertEquals( "-9223372036854775808 / 1", Rational.get( Long.MIN_VALUE ).toString() )
+    assertEquals( "9223372036854775808 / 1", Rational.get( Long.MIN_VALUE ).negate().toString() )
+  }
+
+  function testLongAndBigIntegerValuesAreTheSame() {
+    var values = {Rational.get( 1, 3 ), Rational.get( -2, 6 ), Rational.get( Long.MAX_VALUE, 7 ), Rational.get( 4000000000L, -3 )}
+    for( r in values ) {
+      var big = Rational.get( new BigInteger( "100000000000000000000" ) )
+      var same = (r + big) - big
+      assertEquals( r, same )
+      assertEquals( r.hashCode(), same.hashCode() )
+      assertEquals( r.toString(), same.toString() )
+      assertEquals( r, Rational.get( r.Numerator, r.Denominator ) )
+      assertEquals( r.hashCode(), r.Numerator.hashCode() * 31 + r.Denominator.hashCode() )
+    }
+  }
+
+  function testArithmeticKeepsFractionsUnreduced() {
+    assertEquals( "2 / 2", (1r/2r + 1r/2r).toString() )
+    assertEquals( "5 / 6", (1r/2r + 1r/3r).toString() )
+    assertEquals( "2 / 6", (1r/2r * 2r/3r).toString() )
+    assertEquals( "1/3", (1r/2r * 2r/3r).toFractionString() )
+    assertEquals( "-3 / 4", (1r/2r / (-2r/3r)).toString() )
+    assertEquals( "8 / 27", (2r/3r).pow( 3 ).toString() )
+    assertTrue( 1r/2r + 1r/2r == 1r )
+    assertFalse( (1r/2r + 1r/2r).equals( 1r ) )
+  }
+
+  function testSerializationOfBigValue() {
+    var r = Rational.get( Long.MAX_VALUE ) * 3r
+    var ba = new ByteArrayOutputStream()
+    using( var out = new ObjectOutputStream( ba ) ) {
+      out.writeObject( r )
+    }
+    using( var inp = new ObjectInputStream( new ByteArrayInputStream( ba.toByteArray() ) ) ) {
+      var r2 = inp.readObject() as Rational
+      assertEquals( r, r2 )
+      assertEquals( r.toString(), r2.toString() )
+    }
+  }
+
   function testSerialization() {
     var r = 2r/3r
     var ba = new ByteArrayOutputStream()
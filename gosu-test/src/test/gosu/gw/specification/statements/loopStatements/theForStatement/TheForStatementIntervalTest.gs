@@ -0,0 +1,152 @@
+package gw.specification.statements.loopStatements.theForStatement
+
+uses gw.lang.reflect.interval.IntegerInterval
+uses gw.lang.reflect.interval.LongInterval
+uses gw.test.TestClass
+uses java.lang.IllegalArgumentException
+uses java.lang.Integer
+uses java.lang.Long
+uses java.util.ArrayList
+uses java.util.Iterator
+uses java.util.List
+
+class TheForStatementIntervalTest extends TestClass {
+
+  var _calls : int
+
+  function testIntervalLiteralsMatchIterators() {
+    for(a in -4..4) {
+      for(b in -4..4) {
+        var closed = new ArrayList<Integer>()
+        for(x in a..b) { closed.add(x) }
+        assertEquals(toList((a..b).iterator()), closed)
+
+        var leftOpen = new ArrayList<Integer>()
+        for(x in a|..b) { leftOpen.add(x) }
+        assertEquals(toList((a|..b).iterator()), leftOpen)
+
+        var rightOpen = new ArrayList<Integer>()
+        for(x in a..|b) { rightOpen.add(x) }
+        assertEquals(toList((a..|b).iterator()), rightOpen)
+
+        var open = new ArrayList<Integer>()
+        for(x in a|..|b) { open.add(x) }
+        assertEquals(toList((a|..|b).iterator()), open)
+      }
+    }
+  }
+
+  function testIntervalsWithStepMatchIterators() {
+    for(a in -4..4) {
+      for(b in -4..4) {
+        for(s in 1..5) {
+          var intervals : List<IntegerInterval> = {(a..b).step(s), (a|..b).step(s), (a..|b).step(s), (a|..|b).step(s)}
+          for(interval in intervals) {
+            var values = new ArrayList<Integer>()
+            for(x in interval) { values.add(x) }
+            assertEquals(interval.toString(), toList(interval.iterator()), values)
+          }
+        }
+      }
+    }
+  }
+
+  function testLongIntervalsMatchIterators() {
+    for(a in -4L..4L) {
+      for(b in -4L..4L) {
+        var values = new ArrayList<Long>()
+        for(x in a|..b) { values.add(x) }
+        assertEquals(toList((a|..b).iterator()), values)
+
+        var interval : LongInterval = (a..|b).step(2)
+        values = new ArrayList<Long>()
+        for(x in interval) { values.add(x) }
+        assertEquals(toList(interval.iterator()), values)
+      }
+    }
+  }
+
+  function testCharInterval() {
+    var values = new ArrayList<Integer>()
+    for(c in 'a'..'c') { values.add(c) }
+    assertEquals({97, 98, 99}, values)
+  }
+
+  function testIntervalEndingAtMaxValue() {
+    var values = new ArrayList<Integer>()
+    for(x in (Integer.MAX_VALUE - 2)..Integer.MAX_VALUE) { values.add(x) }
+    assertEquals({Integer.MAX_VALUE - 2, Integer.MAX_VALUE - 1, Integer.MAX_VALUE}, values)
+
+    values = new ArrayList<Integer>()
+    for(x in ((Integer.MAX_VALUE - 4)..Integer.MAX_VALUE).step(3)) { values.add(x) }
+    assertEquals({Integer.MAX_VALUE - 4, Integer.MAX_VALUE - 1}, values)
+
+    values = new ArrayList<Integer>()
+    for(x in (Integer.MIN_VALUE + 1)..Integer.MIN_VALUE) { values.add(x) }
+    assertEquals({Integer.MIN_VALUE + 1, Integer.MIN_VALUE}, values)
+
+    var longs = new ArrayList<Long>()
+    for(x in (Long.MAX_VALUE - 1)..Long.MAX_VALUE) { longs.add(x) }
+    assertEquals({Long.MAX_VALUE - 1, Long.MAX_VALUE}, longs)
+  }
+
+  function testNullInterval() {
+    var interval : IntegerInterval = null
+    for(x in interval) {
+      fail()
+    }
+  }
+
+  function testStepMustBePositive() {
+    var interval = (0..5).step(0)
+    try {
+      for(x in interval) { }
+      fail()
+    } catch(e : IllegalArgumentException) {
+      // expected
+    }
+  }
+
+  function testIndexBreakAndContinue() {
+    var values = new ArrayList<String>()
+    for(x in 10..1 index i) {
+      if(x == 8) {
+        continue
+      }
+      if(x == 6) {
+        break
+      }
+      values.add(x + ":" + i)
+    }
+    assertEquals({"10:0", "9:1", "7:3"}, values)
+  }
+
+  function testCapturedLoopVariable() {
+    var blocks = new ArrayList<block():int>()
+    for(x in 0..2) {
+      blocks.add(\-> x)
+    }
+    assertEquals({0, 1, 2}, blocks.map(\b -> b()))
+  }
+
+  function testEndpointsEvaluatedOnce() {
+    _calls = 0
+    var values = new ArrayList<Integer>()
+    for(x in 1..three()) { values.add(x) }
+    assertEquals({1, 2, 3}, values)
+    assertEquals(1, _calls)
+  }
+
+  private function three() : int {
+    _calls++
+    return 3
+  }
+
+  private function toList<T>(it : Iterator<T>) : List<T> {
+    var list = new ArrayList<T>()
+    while(it.hasNext()) {
+      list.add(it.next())
+    }
+    return list
+  }
+}
@@ -5,6 +5,7 @@ uses java.lang.*
 uses gw.lang.reflect.IExpando
 uses java.util.Map
 uses java.util.HashMap
+uses java.util.ArrayList
 uses java.math.BigInteger
 uses java.math.BigDecimal
 
@@ -17,6 +18,50 @@ class DynamicDispatchTest extends gw.BaseVerifyErrantTest {
     assertEquals( "Chicken", (eater as Dynamic).eat( deater ) )
   }
 
+  function testDynamicDispatchSiteSeesManyArgumentTypes() {
+    var eater : Dynamic = new Eater()
+    var animals : List<Animal> = {new Chicken(), new Cow(), new Animal(), new Chicken(), new Cow()}
+    var results = new ArrayList<String>()
+    for( a in animals ) {
+      var d : Dynamic = a
+      results.add( eater.eat( d ) )
+    }
+    assertEquals( {"Chicken", "Cow", "Animal", "Chicken", "Cow"}, results )
+  }
+
+  function testDynamicPropertySiteGoesMegamorphic() {
+    var bindings = new javax.script.SimpleBindings()
+    bindings.put( "Name", "g" )
+    var roots : List<Object> = {new Named( "a" ), new Named2( "b" ), new Named3( "c" ), new Named4( "d" ), new Named5( "e" ), new Named( "f" ), bindings}
+    var names = new ArrayList<String>()
+    for( r in roots ) {
+      var d : Dynamic = r
+      names.add( d.Name as String )
+      d.Name = d.Name + "!"
+      names.add( d.Name as String )
+    }
+    assertEquals( {"a", "a!", "b", "b!", "c", "c!", "d", "d!", "e", "e!", "f", "f!", "g", "g!"}, names )
+  }
+
+  function testDynamicPropertySiteSurvivesRefresh() {
+    var d : Dynamic = new Named( "a" )
+    for( i in 0..2 ) {
+      if( i == 1 ) {
+        gw.lang.reflect.TypeSystem.refresh( false )
+      }
+      assertEquals( "a", d.Name )
+    }
+  }
+
+  static class Named {
+    var _name : String as Name
+    construct( name : String ) { _name = name }
+  }
+  static class Named2 extends Named { construct( name : String ) { super( name ) } }
+  static class Named3 extends Named { construct( name : String ) { super( name ) } }
+  static class Named4 extends Named { construct( name : String ) { super( name ) } }
+  static class Named5 extends Named { construct( name : String ) { super( name ) } }
+
   static class Animal{}
   static class Chicken extends Animal {}
   static class Cow extends Animal {}
@@ -0,0 +1,114 @@
+package gw.util
+
+uses gw.test.TestClass
+uses java.lang.CharSequence
+uses java.lang.Integer
+uses java.lang.StringBuilder
+uses java.util.ArrayList
+uses java.util.Iterator
+uses java.util.LinkedList
+uses java.util.List
+uses java.util.NoSuchElementException
+
+class SequenceTest extends TestClass {
+
+  function testMatchesEagerEnhancements() {
+    var list : List<Integer> = {5, 3, 8, 1, 9, 2, 7}
+    assertEquals( list.where( \ i -> i > 3 ), list.lazy().where( \ i -> i > 3 ).toList() )
+    assertEquals( list.map( \ i -> "#" + i ), list.lazy().map( \ i -> "#" + i ).toList() )
+    assertEquals( list.flatMap( \ i -> pair( i, -i ) ), list.lazy().flatMap( \ i -> pair( i, -i ) ).toList() )
+    assertEquals( list.reduce( 0, \ s, i -> s + i ), list.lazy().reduce( 0, \ s, i -> s + i ) )
+    assertEquals( list.firstWhere( \ i -> i > 7 ), list.lazy().firstWhere( \ i -> i > 7 ) )
+    assertNull( list.lazy().firstWhere( \ i -> i > 100 ) )
+    assertTrue( list.lazy().hasMatch( \ i -> i == 2 ) )
+    assertFalse( list.lazy().hasMatch( \ i -> i == 4 ) )
+    assertEquals( 5, list.lazy().first() )
+    assertNull( new ArrayList<Integer>().lazy().first() )
+  }
+
+  function testChainRunsInOnePassAndStopsEarly() {
+    var calls = 0
+    var list : List<Integer> = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10}
+    var found = list.lazy()
+        .where( \ i -> { calls++
+                         return i % 2 == 0 } )
+        .map( \ i -> i * 10 )
+        .firstWhere( \ i -> i > 30 )
+    assertEquals( 40, found )
+    assertEquals( 4, calls )
+  }
+
+  function testNothingRunsBeforeTheTerminalOperation() {
+    var calls = 0
+    var seq = {1, 2, 3}.lazy().map( \ i -> { calls++
+                                             return i } )
+    assertEquals( 0, calls )
+    seq.toList()
+    assertEquals( 3, calls )
+  }
+
+  function testTake() {
+    var list : List<Integer> = {1, 2, 3, 4, 5}
+    assertEquals( {1, 2, 3}, list.lazy().take( 3 ).toList() )
+    assertEquals( list, list.lazy().take( 10 ).toList() )
+    assertEquals( {}, list.lazy().take( 0 ).toList() )
+    assertEquals( {}, list.lazy().take( -1 ).toList() )
+
+    var calls = 0
+    list.lazy().where( \ i -> { calls++
+                                return true } ).take( 2 ).each( \ i -> {} )
+    assertEquals( 2, calls )
+
+    // take inside a flatMap stage stops the outer source as well
+    var mapCalls = 0
+    var values = list.lazy().map( \ i -> { mapCalls++
+                                           return i } ).flatMap( \ i -> pair( i, i ) ).take( 3 ).toList()
+    assertEquals( {1, 1, 2}, values )
+    assertEquals( 2, mapCalls )
+  }
+
+  function testWhereTypeIs() {
+    var list : List<Object> = {"a", 1, new StringBuilder( "b" ), 2.5}
+    assertEquals( list.whereTypeIs( CharSequence ).map( \ c -> c.toString() ),
+                  list.lazy().whereTypeIs( CharSequence ).map( \ c -> c.toString() ).toList() )
+  }
+
+  function testIteratorMatchesTerminalOperations() {
+    var list = new LinkedList<Integer>( {4, 7, 1, 8, 2, 6} )
+    var seq = list.lazy().where( \ i -> i != 7 ).flatMap( \ i -> i % 2 == 0 ? {i, i + 1} : new ArrayList<Integer>() ).map( \ i -> i * 2 ).take( 6 )
+    var fromIterator = new ArrayList<Integer>()
+    for( i in seq ) {
+      fromIterator.add( i )
+    }
+    assertEquals( seq.toList(), fromIterator )
+    assertEquals( {8, 10, 16, 18, 4, 6}, fromIterator )
+
+    var it : Iterator<Integer> = {1}.lazy().iterator()
+    it.next()
+    try {
+      it.next()
+      fail()
+    } catch( e : NoSuchElementException ) {
+      // expected
+    }
+  }
+
+  function testOtherEnhancementsWorkThroughAsIterable() {
+    var seq = {3, 1, 2}.lazy().map( \ i -> i * 2 )
+    assertEquals( "6,2,4", seq.asIterable().join( "," ) )
+    assertEquals( 3, seq.asIterable().Count )
+  }
+
+  function testSourceIsReadAgainForEachTerminalOperation() {
+    var list = new ArrayList<Integer>( {1, 2} )
+    var seq = list.lazy().map( \ i -> i + 1 )
+    assertEquals( {2, 3}, seq.toList() )
+    list.add( 3 )
+    assertEquals( {2, 3, 4}, seq.toList() )
+  }
+
+  // a block body starting with '{' is a statement list, not a list literal
+  private function pair( a: Integer, b: Integer ) : List<Integer> {
+    return {a, b}
+  }
+}
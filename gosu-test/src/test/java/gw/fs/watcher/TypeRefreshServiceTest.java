@@ -0,0 +1,205 @@
+/*
+ * Copyright 2014 Guidewire Software, Inc.
+ */
+
+package gw.fs.watcher;
+
+import gw.fs.IDirectory;
+import gw.fs.IResource;
+import gw.fs.watcher.DirectoryWatcher.FileEvent;
+import gw.lang.reflect.RefreshKind;
+import gw.test.TestClass;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+public class TypeRefreshServiceTest extends TestClass {
+  private static final long DEBOUNCE_MILLIS = 100;
+
+  private final List<Map<IResource, RefreshKind>> _refreshes = new ArrayList<>();
+  private FakeWatcher _watcher;
+  private TypeRefreshService _service;
+  private Path _dir;
+  private long _start;
+
+  @Override
+  public void beforeTestMethod() {
+    super.beforeTestMethod();
+    try {
+      _dir = Files.createTempDirectory("type-refresh");
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+    _watcher = new FakeWatcher();
+    _service = new TypeRefreshService(_watcher, DEBOUNCE_MILLIS) {
+      @Override
+      void refresh(Map<IResource, RefreshKind> changes) {
+        _refreshes.add(changes);
+        try {
+          Thread.sleep(1);
+        } catch (InterruptedException e) {
+          throw new RuntimeException(e);
+        }
+      }
+    };
+    // polls are timed from a while ago, so the latency of a refresh spans its debounce window
+    _start = System.nanoTime() - TimeUnit.SECONDS.toNanos(10);
+  }
+
+  @Override
+  public void afterTestMethod(Throwable possibleException) {
+    _service.stop();
+    _refreshes.clear();
+    try {
+      Files.deleteIfExists(_dir);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+    super.afterTestMethod(possibleException);
+  }
+
+  public void testChangesWaitForTheDebounceWindow() {
+    _watcher.add(_dir.resolve("A.gs"), FileEvent.MODIFY);
+    poll(0);
+    poll(DEBOUNCE_MILLIS - 1);
+    assertEquals(0, _refreshes.size());
+
+    poll(DEBOUNCE_MILLIS);
+    assertEquals(1, _refreshes.size());
+    assertEquals(RefreshKind.MODIFICATION, getChanges(0).get("A.gs"));
+  }
+
+  public void testNewChangesRestartTheDebounceWindow() {
+    _watcher.add(_dir.resolve("A.gs"), FileEvent.MODIFY);
+    poll(0);
+    _watcher.add(_dir.resolve("B.gs"), FileEvent.MODIFY);
+    poll(60);
+    poll(DEBOUNCE_MILLIS + 10);
+    assertEquals(0, _refreshes.size());
+
+    poll(60 + DEBOUNCE_MILLIS);
+    assertEquals(1, _refreshes.size());
+    assertEquals(2, getChanges(0).size());
+  }
+
+  public void testSteadyChangesAreRefreshedAfterTheMaxDelay() {
+    long maxDelay = DEBOUNCE_MILLIS * 10;
+    for (long millis = 0; millis < maxDelay; millis += DEBOUNCE_MILLIS / 2) {
+      _watcher.add(_dir.resolve("A" + millis + ".gs"), FileEvent.MODIFY);
+      poll(millis);
+    }
+    assertEquals(0, _refreshes.size());
+
+    _watcher.add(_dir.resolve("B.gs"), FileEvent.MODIFY);
+    poll(maxDelay);
+    assertEquals(1, _refreshes.size());
+    assertEquals(21, getChanges(0).size());
+  }
+
+  public void testFlushDoesNotWaitForTheDebounceWindow() {
+    _watcher.add(_dir.resolve("A.gs"), FileEvent.MODIFY);
+    _service.flush();
+    assertEquals(1, _refreshes.size());
+    assertEquals(RefreshKind.MODIFICATION, getChanges(0).get("A.gs"));
+  }
+
+  public void testCreatedThenDeletedFileIsNotRefreshed() {
+    _watcher.add(_dir.resolve("A.gs"), FileEvent.CREATE);
+    _watcher.add(_dir.resolve("B.gs"), FileEvent.MODIFY);
+    poll(0);
+    _watcher.add(_dir.resolve("A.gs"), FileEvent.DELETE);
+    poll(10);
+    poll(10 + DEBOUNCE_MILLIS);
+
+    Map<String, RefreshKind> changes = getChanges(0);
+    assertEquals(1, changes.size());
+    assertEquals(RefreshKind.MODIFICATION, changes.get("B.gs"));
+  }
+
+  public void testDeletedThenCreatedFileIsModified() {
+    _watcher.add(_dir.resolve("A.gs"), FileEvent.DELETE);
+    poll(0);
+    _watcher.add(_dir.resolve("A.gs"), FileEvent.CREATE);
+    poll(10);
+    poll(10 + DEBOUNCE_MILLIS);
+    assertEquals(RefreshKind.MODIFICATION, getChanges(0).get("A.gs"));
+  }
+
+  public void testModifiedThenDeletedFileIsDeleted() {
+    _watcher.add(_dir.resolve("A.gs"), FileEvent.MODIFY);
+    poll(0);
+    _watcher.add(_dir.resolve("A.gs"), FileEvent.DELETE);
+    poll(10);
+    poll(10 + DEBOUNCE_MILLIS);
+    assertEquals(RefreshKind.DELETION, getChanges(0).get("A.gs"));
+  }
+
+  public void testDeletedDirectoryIsRefreshedAsADirectory() throws IOException {
+    Path pkg = Files.createDirectories(_dir.resolve("pkg").resolve("sub"));
+    _service.watch(_dir);
+    Files.delete(pkg);
+    Files.delete(pkg.getParent());
+
+    _watcher.add(pkg.getParent(), FileEvent.DELETE);
+    _watcher.add(_dir.resolve("A.gs"), FileEvent.DELETE);
+    _service.flush();
+
+    Map<IResource, RefreshKind> changes = _refreshes.get(0);
+    assertEquals(2, changes.size());
+    for (Map.Entry<IResource, RefreshKind> change : changes.entrySet()) {
+      assertEquals(RefreshKind.DELETION, change.getValue());
+      assertEquals(change.getKey().getName().equals("pkg"), change.getKey() instanceof IDirectory);
+    }
+  }
+
+  public void testMetrics() {
+    _watcher.add(_dir.resolve("A.gs"), FileEvent.MODIFY);
+    _watcher.add(_dir.resolve("B.gs"), FileEvent.MODIFY);
+    poll(0);
+    poll(DEBOUNCE_MILLIS);
+    _watcher.add(_dir.resolve("C.gs"), FileEvent.CREATE);
+    _service.flush();
+
+    assertEquals(2, _service.getRefreshCount());
+    assertEquals(3, _service.getRefreshedResourceCount());
+    assertTrue(_service.getLastRefreshNanos() > 0);
+    assertTrue(_service.getMaxRefreshNanos() >= _service.getLastRefreshNanos());
+    assertTrue(_service.getTotalRefreshNanos() >= _service.getMaxRefreshNanos());
+    // the first batch waited out the debounce window
+    assertTrue(_service.getMaxLatencyNanos() >= TimeUnit.MILLISECONDS.toNanos(DEBOUNCE_MILLIS));
+  }
+
+  private void poll(long millis) {
+    _service.poll(_start + TimeUnit.MILLISECONDS.toNanos(millis));
+  }
+
+  private Map<String, RefreshKind> getChanges(int refresh) {
+    Map<String, RefreshKind> changes = new HashMap<>();
+    for (Map.Entry<IResource, RefreshKind> change : _refreshes.get(refresh).entrySet()) {
+      changes.put(change.getKey().getName(), change.getValue());
+    }
+    return changes;
+  }
+
+  private static class FakeWatcher extends DirectoryWatcher {
+    private final Map<Path, FileEvent> _events = new LinkedHashMap<>();
+
+    void add(Path path, FileEvent event) {
+      _events.put(path, event);
+    }
+
+    @Override
+    public Map<Path, FileEvent> getChangesSinceLastTime() {
+      Map<Path, FileEvent> events = new LinkedHashMap<>(_events);
+      _events.clear();
+      return events;
+    }
+  }
+}
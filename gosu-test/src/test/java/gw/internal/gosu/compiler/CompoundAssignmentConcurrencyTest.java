@@ -0,0 +1,90 @@
+/*
+ * Copyright 2014 Guidewire Software, Inc.
+ */
+
+package gw.internal.gosu.compiler;
+
+import gw.lang.reflect.TypeSystem;
+import gw.lang.reflect.gs.IGosuClass;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Compound assignments park their evaluated roots in temp symbols while the statement is transformed; classes
+ * transformed on different threads, as gosuc -j does, must not see each other's.
+ */
+public class CompoundAssignmentConcurrencyTest extends ByteCodeTestBase
+{
+  private static final String SAMPLE = "gw.internal.gosu.compiler.sample.statement.HasCompoundAssignments";
+  private static final List<String> CLASSES = Arrays.asList(
+    SAMPLE,
+    "gw.internal.gosu.compiler.sample.statement.TestArrayAssignmentStatement",
+    "gw.internal.gosu.compiler.sample.statement.TestMapAssignmentStatement",
+    "gw.specification.statements.assignmentStatements.C",
+    "gw.specification.statements.assignmentStatements.AssignmentStatementsTest" );
+  private static final int THREADS = 8;
+  private static final int ROUNDS = 25;
+
+  public void testRootsAreEvaluatedOnce()
+  {
+    assertEquals( "5:3", invokeMethod( constructFromGosuClassloader( SAMPLE ), "memberCompound" ) );
+    assertEquals( "11,10,2:3:3", invokeMethod( constructFromGosuClassloader( SAMPLE ), "arrayCompound" ) );
+    assertEquals( "10:2", invokeMethod( constructFromGosuClassloader( SAMPLE ), "mapCompound" ) );
+    assertEquals( "2:2:3", invokeMethod( constructFromGosuClassloader( SAMPLE ), "nestedCompound" ) );
+  }
+
+  public void testConcurrentCompilesMatchSerialCompiles() throws Exception
+  {
+    List<IGosuClass> classes = new ArrayList<IGosuClass>();
+    List<byte[]> expected = new ArrayList<byte[]>();
+    for( String name : CLASSES )
+    {
+      IGosuClass gsClass = (IGosuClass)TypeSystem.getByFullName( name );
+      assertTrue( gsClass.isValid() );
+      classes.add( gsClass );
+      expected.add( TypeSystem.getGosuClassLoader().getBytes( gsClass ) );
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool( THREADS );
+    try
+    {
+      List<Future<List<byte[]>>> results = new ArrayList<Future<List<byte[]>>>();
+      for( int i = 0; i < THREADS; i++ )
+      {
+        final int iOffset = i;
+        results.add( executor.submit( new Callable<List<byte[]>>()
+        {
+          public List<byte[]> call()
+          {
+            // each thread starts on a different class so different classes are transformed at the same time
+            List<byte[]> bytes = new ArrayList<byte[]>();
+            for( int j = 0; j < ROUNDS * classes.size(); j++ )
+            {
+              bytes.add( TypeSystem.getGosuClassLoader().getBytes( classes.get( (iOffset + j) % classes.size() ) ) );
+            }
+            return bytes;
+          }
+        } ) );
+      }
+      for( int i = 0; i < THREADS; i++ )
+      {
+        List<byte[]> bytes = results.get( i ).get();
+        for( int j = 0; j < bytes.size(); j++ )
+        {
+          int iClass = (i + j) % classes.size();
+          assertTrue( CLASSES.get( iClass ), Arrays.equals( expected.get( iClass ), bytes.get( j ) ) );
+        }
+      }
+    }
+    finally
+    {
+      executor.shutdownNow();
+    }
+  }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2014 Guidewire Software, Inc.
+ */
+
+package gw.internal.gosu.compiler;
+
+import gw.internal.gosu.compiler.sample.statement.classes.JavaClass;
+import gw.lang.reflect.TypeSystem;
+import gw.lang.reflect.gs.ICompilableType;
+import gw.test.TestClass;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+public class PersistentClassCacheTest extends TestClass
+{
+  private static final String TYPE_NAME = "gw.internal.gosu.compiler.sample.statement.HasSwitchStatement";
+  // extends the Java class JavaClass
+  private static final String SUBCLASS_NAME = "gw.internal.gosu.compiler.sample.statement.classes.GosuShape";
+
+  private File _dir;
+
+  @Override
+  public void beforeTestMethod()
+  {
+    super.beforeTestMethod();
+    try
+    {
+      _dir = Files.createTempDirectory( "gosu-class-cache" ).toFile();
+    }
+    catch( Exception e )
+    {
+      throw new RuntimeException( e );
+    }
+    PersistentClassCache.setDir( _dir );
+  }
+
+  @Override
+  public void afterTestMethod( Throwable possibleException )
+  {
+    PersistentClassCache.setDir( null );
+    PersistentClassCache.setMaxBytes( 512L * 1024 * 1024 );
+    deleteRecursively( _dir );
+    super.afterTestMethod( possibleException );
+  }
+
+  public void testCompiledBytesAreCachedAndReused()
+  {
+    byte[] compiled = getBytes();
+    File entry = getEntry();
+    assertNotNull( entry );
+
+    long lStamp = entry.lastModified() - 10000;
+    assertTrue( entry.setLastModified( lStamp ) );
+    byte[] cached = getBytes();
+    assertTrue( Arrays.equals( compiled, cached ) );
+    assertTrue( "Hit should mark the entry used", entry.lastModified() > lStamp );
+  }
+
+  public void testCorruptEntryIsReplaced() throws Exception
+  {
+    byte[] compiled = getBytes();
+    File entry = getEntry();
+    try( RandomAccessFile raf = new RandomAccessFile( entry, "rw" ) )
+    {
+      raf.seek( raf.length() - 20 );
+      raf.write( ~raf.read() );
+    }
+    byte[] recompiled = getBytes();
+    assertTrue( Arrays.equals( compiled, recompiled ) );
+    assertTrue( Arrays.equals( compiled, getBytes() ) );
+  }
+
+  public void testEntryForOtherSourceIsNotLoaded() throws Exception
+  {
+    getBytes();
+    File entry = getEntry();
+    // an entry whose key doesn't match the current source is never looked up, and is removed on the next write
+    File stale = new File( entry.getParentFile(), "123abc" );
+    Files.copy( entry.toPath(), stale.toPath() );
+    assertTrue( entry.delete() );
+    getBytes();
+    assertFalse( stale.exists() );
+    assertTrue( getEntry().exists() );
+  }
+
+  public void testDisabledCacheWritesNothing()
+  {
+    PersistentClassCache.setDir( null );
+    getBytes();
+    String[] files = _dir.list();
+    assertEquals( 0, files == null ? 0 : files.length );
+  }
+
+  public void testEvictsWhenFull()
+  {
+    getBytes();
+    PersistentClassCache.setMaxBytes( 1 );
+    PersistentClassCache.setDir( _dir ); // recount the size
+    assertTrue( getEntry().delete() );
+    getBytes();
+    assertNull( "Entry should have been evicted", getEntry() );
+  }
+
+  public void testChangedJavaDependencyInvalidatesEntry() throws Exception
+  {
+    byte[] compiled = getBytes( SUBCLASS_NAME );
+    byte[] entry = Files.readAllBytes( getEntry( SUBCLASS_NAME ).toPath() );
+
+    File classFile = new File( JavaClass.class.getResource( "JavaClass.class" ).toURI() );
+    long lStamp = classFile.lastModified();
+    try
+    {
+      assertTrue( classFile.setLastModified( lStamp - 60000 ) );
+      PersistentClassCache.setDir( _dir ); // forget the fingerprints, as a type system refresh would
+      assertTrue( Arrays.equals( compiled, getBytes( SUBCLASS_NAME ) ) );
+      // the stale entry was dropped and replaced by one with the dependency's new fingerprint
+      assertFalse( Arrays.equals( entry, Files.readAllBytes( getEntry( SUBCLASS_NAME ).toPath() ) ) );
+    }
+    finally
+    {
+      //noinspection ResultOfMethodCallIgnored
+      classFile.setLastModified( lStamp );
+    }
+  }
+
+  private byte[] getBytes()
+  {
+    return getBytes( TYPE_NAME );
+  }
+
+  private byte[] getBytes( String typeName )
+  {
+    ICompilableType type = (ICompilableType)TypeSystem.getByFullName( typeName );
+    return GosuClassLoader.instance().getBytes( type );
+  }
+
+  private File getEntry()
+  {
+    return getEntry( TYPE_NAME );
+  }
+
+  private File getEntry( String typeName )
+  {
+    File[] files = new File( _dir, typeName ).listFiles();
+    return files == null || files.length == 0 ? null : files[0];
+  }
+
+  private static void deleteRecursively( File file )
+  {
+    File[] children = file.listFiles();
+    if( children != null )
+    {
+      for( File child : children )
+      {
+        deleteRecursively( child );
+      }
+    }
+    //noinspection ResultOfMethodCallIgnored
+    file.delete();
+  }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2014 Guidewire Software, Inc.
+ */
+
+package gw.internal.gosu.compiler.blocks;
+
+import gw.internal.gosu.compiler.ByteCodeTestBase;
+import gw.lang.function.IBlock;
+import gw.lang.function.IFunction0;
+import gw.lang.function.IFunction2;
+import gw.lang.function.ILambdaBlock;
+import gw.lang.parser.expressions.IBlockExpression;
+import gw.lang.reflect.IFunctionType;
+import gw.lang.reflect.gs.BytecodeOptions;
+
+/**
+ * Blocks compiled with gosu.lambda.blocks on.  LambdaBlocks is left out of the gosuc build of the test sources and
+ * only loaded by this test, so it is compiled at runtime with the option set.
+ */
+public class LambdaBlockTest extends ByteCodeTestBase
+{
+  private static final String CLASS = "gw.internal.gosu.compiler.sample.expression.blocks.LambdaBlocks";
+
+  private boolean _bLambdaBlocks;
+
+  @Override
+  public void beforeTestClass()
+  {
+    super.beforeTestClass();
+    _bLambdaBlocks = BytecodeOptions.isLambdaBlocks();
+    BytecodeOptions.setLambdaBlocks( true );
+  }
+
+  @Override
+  public void afterTestClass()
+  {
+    BytecodeOptions.setLambdaBlocks( _bLambdaBlocks );
+    super.afterTestClass();
+  }
+
+  public void testCaptureFreeBlocksAreLambdas()
+  {
+    Object obj = constructFromGosuClassloader( CLASS );
+    Object blk = invokeMethod( obj, "noArgs" );
+    assertTrue( blk instanceof ILambdaBlock );
+    assertEquals( "yay", ((IFunction0)blk).invoke() );
+
+    blk = invokeMethod( obj, "twoArgs" );
+    assertTrue( blk instanceof ILambdaBlock );
+    assertEquals( "yay3", ((IFunction2)blk).invoke( "yay", 3 ) );
+    assertEquals( "yay3", ((IBlock)blk).invokeWithArgs( "yay", 3 ) );
+
+    blk = invokeMethod( obj, "usesThis" );
+    assertTrue( blk instanceof ILambdaBlock );
+    assertEquals( "yay!", ((IBlock)blk).invokeWithArgs( "!" ) );
+
+    blk = invokeStaticMethod( CLASS, "staticBlock" );
+    assertTrue( blk instanceof ILambdaBlock );
+    assertEquals( 42, ((IBlock)blk).invokeWithArgs( 21 ) );
+  }
+
+  public void testCapturingBlocksStillGetAClass()
+  {
+    Object blk = invokeMethod( constructFromGosuClassloader( CLASS ), "capturing" );
+    assertFalse( blk instanceof ILambdaBlock );
+    assertEquals( "yay", ((IFunction0)blk).invoke() );
+  }
+
+  public void testReflectionSeesTheBlock()
+  {
+    IBlock blk = (IBlock)invokeMethod( constructFromGosuClassloader( CLASS ), "twoArgs" );
+    IFunctionType type = blk.getFunctionType();
+    assertEquals( 2, type.getParameterTypes().length );
+    assertEquals( "String", type.getReturnType().getRelativeName() );
+    assertTrue( blk.getParsedElement() instanceof IBlockExpression );
+  }
+
+  public void testWrongArgCount()
+  {
+    IBlock blk = (IBlock)invokeMethod( constructFromGosuClassloader( CLASS ), "twoArgs" );
+    try
+    {
+      blk.invokeWithArgs( "yay" );
+      fail();
+    }
+    catch( IllegalArgumentException e )
+    {
+      // expected
+    }
+  }
+}
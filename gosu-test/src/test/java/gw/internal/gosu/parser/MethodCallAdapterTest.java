@@ -67,6 +67,102 @@ public class MethodCallAdapterTest extends TestClass
     fail();
   }
 
+  public void testHotCallsMatchReflectiveCalls() throws Exception
+  {
+    Method m = MethodCallAdapterTest.class.getMethod( "widen", long.class, double.class );
+
+    MethodCallAdapter mc = new MethodCallAdapter( m );
+    for( int i = 0; i <= MethodHandleAccessors.getThreshold() * 2; i++ )
+    {
+      assertEquals( "" + (i + 2.5), mc.handleCall( this, i, 2.5f ) );
+    }
+  }
+
+  public void testHotCallThrowsTargetException() throws Exception
+  {
+    Method m = MethodCallAdapterTest.class.getMethod( "throwIt", RuntimeException.class );
+
+    MethodCallAdapter mc = new MethodCallAdapter( m );
+    for( int i = 0; i <= MethodHandleAccessors.getThreshold() * 2; i++ )
+    {
+      IllegalStateException ise = new IllegalStateException( "from target" );
+      try
+      {
+        mc.handleCall( null, ise );
+        fail();
+      }
+      catch( IllegalStateException e )
+      {
+        assertSame( ise, e );
+      }
+    }
+  }
+
+  public void testHotCallReportsArgMismatch() throws Exception
+  {
+    Method m = MethodCallAdapterTest.class.getMethod( "staticMethod", String.class );
+
+    String coldMessage = null;
+    try
+    {
+      new MethodCallAdapter( m ).handleCall( null, 42 );
+      fail();
+    }
+    catch( RuntimeException e )
+    {
+      coldMessage = e.getMessage();
+    }
+
+    MethodCallAdapter mc = new MethodCallAdapter( m );
+    for( int i = 0; i <= MethodHandleAccessors.getThreshold() * 2; i++ )
+    {
+      mc.handleCall( null, "hello" );
+    }
+    try
+    {
+      mc.handleCall( null, 42 );
+      fail();
+    }
+    catch( RuntimeException e )
+    {
+      // the same error the reflective path reports
+      assertEquals( RuntimeException.class, e.getClass() );
+      assertTrue( e.getMessage(), e.getMessage().startsWith( "Tried to pass values of types: (java.lang.Integer)" ) );
+      assertEquals( coldMessage, e.getMessage() );
+    }
+  }
+
+  public void testHotFieldAccess() throws Exception
+  {
+    FieldJavaClassField field = new FieldJavaClassField( MethodCallAdapterTest.class.getField( "_iCount" ), null );
+    for( int i = 0; i <= MethodHandleAccessors.getThreshold() * 2; i++ )
+    {
+      field.set( this, i );
+      assertEquals( i, field.get( this ) );
+    }
+    try
+    {
+      field.set( this, null );
+      fail();
+    }
+    catch( IllegalArgumentException e )
+    {
+      // expected
+    }
+  }
+
+  public int _iCount;
+
+  public String widen( long l, double d )
+  {
+    return "" + (l + d);
+  }
+
+  public static void throwIt( RuntimeException e )
+  {
+    throw e;
+  }
+
   public static String staticMethod( String str )
   {
     return "static " + str;
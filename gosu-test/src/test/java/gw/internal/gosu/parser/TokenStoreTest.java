@@ -0,0 +1,227 @@
+/*
+ * Copyright 2014 Guidewire Software, Inc.
+ */
+
+package gw.internal.gosu.parser;
+
+import gw.internal.gosu.parser.statements.NoOpStatement;
+import gw.lang.parser.ISourceCodeTokenizer;
+import gw.lang.parser.IToken;
+import gw.lang.parser.Keyword;
+import gw.test.TestClass;
+import gw.util.perf.objectsize.IObjectSizeFilter;
+import gw.util.perf.objectsize.ObjectSizeUtil;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests the packed {@link TokenStore} behind {@link SourceCodeTokenizer}.
+ */
+public class TokenStoreTest extends TestClass
+{
+  private static final String SOURCE =
+    "uses java.util.List\n" +
+    "/** doc */\n" +
+    "class Foo {\n" +
+    "  var _s : String = \"hi\\n\" // comment\n" +
+    "  function bar( c : char ) : int { return 42 + 'c' as int }\n" +
+    "}\n";
+
+  public void testAccessorsMatchViews()
+  {
+    SourceCodeTokenizer tokenizer = new SourceCodeTokenizer( SOURCE );
+    tokenizer.nextToken();
+    int iCount = 0;
+    while( !tokenizer.isEOF() )
+    {
+      Token token = tokenizer.getCurrentToken();
+      assertEquals( token.getType(), tokenizer.getType() );
+      assertEquals( token.getTokenStart(), tokenizer.getTokenStart() );
+      assertEquals( token.getTokenEnd(), tokenizer.getTokenEnd() );
+      assertEquals( token.getLine(), tokenizer.getLineNumber() );
+      assertEquals( token.getTokenColumn(), tokenizer.getTokenColumn() );
+      assertEquals( token.getStringValue(), tokenizer.getStringValue() );
+      assertSame( token, tokenizer.getCurrentToken() );
+      tokenizer.nextToken();
+      iCount++;
+    }
+    assertTrue( iCount > 30 );
+  }
+
+  public void testViewsAreInSourceOrder()
+  {
+    SourceCodeTokenizer tokenizer = new SourceCodeTokenizer( SOURCE );
+    tokenizer.nextToken();
+    TokenStore tokens = tokenizer.getTokens();
+    int iIndex = 0;
+    int iEnd = 0;
+    for( Token token : tokens )
+    {
+      assertTrue( token.getTokenStart() >= iEnd );
+      assertEquals( tokens.getTokenStart( iIndex ), token.getTokenStart() );
+      assertEquals( tokens.getTokenEnd( iIndex ), token.getTokenEnd() );
+      assertEquals( tokens.getType( iIndex ), token.getType() );
+      assertEquals( iIndex, tokens.indexOf( token ) );
+      iEnd = token.getTokenEnd();
+      iIndex++;
+    }
+    assertEquals( tokens.size(), iIndex );
+  }
+
+  public void testStringTokens()
+  {
+    SourceCodeTokenizer tokenizer = new SourceCodeTokenizer( SOURCE );
+    tokenizer.nextToken();
+    Token stringToken = null;
+    Token charToken = null;
+    for( Token token : tokenizer.getTokens() )
+    {
+      if( token.getType() == '"' )
+      {
+        stringToken = token;
+      }
+      else if( token.getType() == '\'' )
+      {
+        charToken = token;
+      }
+    }
+    assertTrue( stringToken instanceof StringToken );
+    assertEquals( "hi\n", stringToken.getStringValue() );
+    assertEquals( "\"hi\\n\"", stringToken.getText() );
+    assertTrue( charToken instanceof StringToken );
+    assertEquals( "c", charToken.getStringValue() );
+  }
+
+  public void testKeywordsAndDocComments()
+  {
+    SourceCodeTokenizer tokenizer = new SourceCodeTokenizer( SOURCE );
+    tokenizer.nextToken();
+    TokenStore tokens = tokenizer.getTokens();
+    int iClass = -1;
+    for( int i = 0; i < tokens.size(); i++ )
+    {
+      if( "class".equals( tokens.getStringValue( i ) ) )
+      {
+        iClass = i;
+      }
+    }
+    assertTrue( iClass > 0 );
+    assertSame( Keyword.KW_class, tokens.getKeyword( iClass ) );
+    assertSame( Keyword.KW_class, tokens.get( iClass ).getKeyword() );
+    assertEquals( ISourceCodeTokenizer.TT_KEYWORD, tokens.getType( iClass ) );
+
+    boolean bFoundDoc = false;
+    for( int i = 0; i < tokens.size(); i++ )
+    {
+      bFoundDoc |= tokens.getTurd( i ) != null;
+    }
+    assertTrue( bFoundDoc );
+  }
+
+  public void testAfterWritesThrough()
+  {
+    SourceCodeTokenizer tokenizer = new SourceCodeTokenizer( SOURCE );
+    tokenizer.nextToken();
+    TokenStore tokens = tokenizer.getTokens();
+    ParseTree tree = new ParseTree( null, 0, 0, null );
+    List<Token> list = tokens.toList();
+    list.get( 2 ).setAfter( tree );
+    assertSame( tree, tokens.getAfter( 2 ) );
+    assertSame( tree, tokens.toList().get( 2 ).getAfter() );
+    assertNull( tokens.getAfter( 3 ) );
+  }
+
+  public void testParsedElementTokens()
+  {
+    SourceCodeTokenizer tokenizer = new SourceCodeTokenizer( SOURCE );
+    tokenizer.nextToken();
+    TokenStore tokens = tokenizer.getTokens();
+    NoOpStatement stmt = new NoOpStatement();
+    for( int i = 0; i < 20; i++ )
+    {
+      stmt.addToken( tokens.get( i ), null );
+    }
+    stmt.addToken( tokens.get( 5 ), null );
+    List<IToken> elementTokens = stmt.getTokens();
+    assertEquals( 20, elementTokens.size() );
+    assertSame( elementTokens, stmt.getTokens() );
+    for( int i = 0; i < 20; i++ )
+    {
+      assertEquals( tokens.getTokenStart( i ), elementTokens.get( i ).getTokenStart() );
+    }
+
+    // a token made outside the store, as getPriorToken() does for an empty store
+    Token loose = new Token();
+    stmt.addToken( loose, null );
+    stmt.addToken( tokens.get( 20 ), null );
+    stmt.addToken( tokens.get( 3 ), null );
+    assertEquals( 22, stmt.getTokens().size() );
+    assertSame( loose, stmt.getTokens().get( 20 ) );
+  }
+
+  public void testPushInsertPop()
+  {
+    SourceCodeTokenizer tokenizer = new SourceCodeTokenizer( SOURCE );
+    tokenizer.nextToken();
+    TokenStore tokens = tokenizer.getTokens();
+    int iSize = tokens.size();
+    Token first = (Token)tokens.get( 0 ).copy();
+    Token last = (Token)tokens.peek().copy();
+
+    tokens.insert( last, 0 );
+    assertEquals( iSize + 1, tokens.size() );
+    assertEquals( last.getTokenStart(), tokens.getTokenStart( 0 ) );
+    assertEquals( first.getTokenStart(), tokens.getTokenStart( 1 ) );
+    assertEquals( first.getStringValue(), tokens.getStringValue( 1 ) );
+
+    Token popped = tokens.pop();
+    assertEquals( iSize, tokens.size() );
+    assertEquals( last.getTokenStart(), popped.getTokenStart() );
+    assertEquals( last.getText(), popped.getText() );
+    assertEquals( -1, tokens.indexOf( popped ) );
+  }
+
+  public void testPackedStoreIsSmallerThanTokens()
+  {
+    StringBuilder sb = new StringBuilder();
+    for( int i = 0; i < 200; i++ )
+    {
+      sb.append( SOURCE.replace( "Foo", "Foo" + i ) );
+    }
+    SourceCodeTokenizer tokenizer = new SourceCodeTokenizer( sb );
+    tokenizer.nextToken();
+    TokenStore tokens = tokenizer.getTokens();
+    tokens.trimToSize();
+    Token[] unpacked = tokens.toList().toArray( new Token[tokens.size()] );
+
+    // Token text is interned and shared either way
+    IObjectSizeFilter filter = new IObjectSizeFilter()
+    {
+      @Override
+      public boolean skipField( Field field )
+      {
+        return field.getName().equals( "_store" );
+      }
+
+      @Override
+      public boolean skipObject( Object obj )
+      {
+        return obj instanceof String || obj instanceof Keyword || obj instanceof DocCommentBlock || obj instanceof ArrayList;
+      }
+    };
+    boolean bVerbose = ObjectSizeUtil.VERBOSE;
+    ObjectSizeUtil.VERBOSE = false;
+    try
+    {
+      long lPacked = ObjectSizeUtil.deepSizeOf( tokens, filter, Integer.MAX_VALUE ).size();
+      long lUnpacked = ObjectSizeUtil.deepSizeOf( unpacked, filter, Integer.MAX_VALUE ).size();
+      assertTrue( "packed: " + lPacked + ", unpacked: " + lUnpacked, lPacked * 3 < lUnpacked * 2 );
+    }
+    finally
+    {
+      ObjectSizeUtil.VERBOSE = bVerbose;
+    }
+  }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2014 Guidewire Software, Inc.
+ */
+
+package gw.internal.gosu.parser;
+
+import gw.lang.reflect.ITypeLoader;
+import gw.lang.reflect.TypeSystem;
+import gw.lang.reflect.gs.IGosuClass;
+import gw.test.TestClass;
+
+import java.util.Collections;
+
+public class TypeNameIndexTest extends TestClass
+{
+  private static final String PACKAGE = "gw.internal.gosu.parser.classTests.gwtest.batchrefresh.";
+
+  public void testNamesAndTheirNestedTypesMayBeIndexed()
+  {
+    TypeNameIndex index = new TypeNameIndex( Collections.<ITypeLoader>emptyList(), 0 );
+    index.add( "a.b.Outer" );
+
+    assertFalse( index.isCertainMiss( "a.b.Outer" ) );
+    assertFalse( index.isCertainMiss( "a.b.Outer.Inner" ) );
+    assertTrue( index.isCertainMiss( "a.b.Other" ) );
+    assertTrue( index.isCertainMiss( "a.b" ) );
+    assertTrue( index.isCertainMiss( "a.b.OuterX" ) );
+  }
+
+  public void testOnlyPlainNamesAreCertainMisses()
+  {
+    TypeNameIndex index = new TypeNameIndex( Collections.<ITypeLoader>emptyList(), 0 );
+
+    assertTrue( index.isCertainMiss( "a.b.C" ) );
+    assertFalse( index.isCertainMiss( "a.b.C$D" ) );
+    assertFalse( index.isCertainMiss( "a.b.C<java.lang.String>" ) );
+    assertFalse( index.isCertainMiss( "a.b.__Program__1" ) );
+    assertFalse( index.isCertainMiss( "a.b.C.block_0_" ) );
+    assertFalse( index.isCertainMiss( IGosuClass.PROXY_PREFIX + ".a.b.C" ) );
+  }
+
+  public void testMostMissesAreCertain()
+  {
+    TypeNameIndex index = new TypeNameIndex( Collections.<ITypeLoader>emptyList(), 10000 );
+    for( int i = 0; i < 10000; i++ )
+    {
+      index.add( "pkg" + (i % 100) + ".Type" + i );
+    }
+    int iCertain = 0;
+    for( int i = 0; i < 10000; i++ )
+    {
+      assertFalse( index.isCertainMiss( "pkg" + (i % 100) + ".Type" + i ) );
+      if( index.isCertainMiss( "pkg" + (i % 100) + ".Missing" + i ) )
+      {
+        iCertain++;
+      }
+    }
+    assertTrue( iCertain > 9800 );
+  }
+
+  public void testIndexedModuleStillFindsTypes()
+  {
+    assertNotNull( TypeSystem.getByFullNameIfValid( PACKAGE + "Unrelated" ) );
+    assertNotNull( TypeSystem.getByFullNameIfValid( PACKAGE + "Unrelated.Inner" ) );
+    assertNull( TypeSystem.getByFullNameIfValid( PACKAGE + "Unrelatde" ) );
+    assertNull( TypeSystem.getByFullNameIfValid( PACKAGE + "Unrelated.Outer" ) );
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2014 Guidewire Software, Inc.
+ */
+
+package gw.internal.gosu.parser.classTests;
+
+import gw.config.CommonServices;
+import gw.fs.IDirectory;
+import gw.fs.IResource;
+import gw.lang.reflect.ITypeLoaderListener;
+import gw.lang.reflect.RefreshKind;
+import gw.lang.reflect.RefreshRequest;
+import gw.lang.reflect.ReflectUtil;
+import gw.lang.reflect.TypeSystem;
+import gw.lang.reflect.gs.IGosuClass;
+import gw.test.TestClass;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class BatchedRefreshTest extends TestClass
+{
+  private static final String PACKAGE = "gw.internal.gosu.parser.classTests.gwtest.batchrefresh.";
+
+  private final List<RefreshRequest> _requests = new ArrayList<RefreshRequest>();
+  private final ITypeLoaderListener _listener = new ITypeLoaderListener()
+  {
+    public void refreshedTypes( RefreshRequest request )
+    {
+      _requests.add( request );
+    }
+
+    public void refreshed()
+    {
+    }
+  };
+
+  @Override
+  public void beforeTestMethod()
+  {
+    super.beforeTestMethod();
+    TypeSystem.addTypeLoaderListenerAsWeakRef( _listener );
+  }
+
+  @Override
+  public void afterTestMethod( Throwable possibleException )
+  {
+    TypeSystem.removeTypeLoaderListener( _listener );
+    _requests.clear();
+    super.afterTestMethod( possibleException );
+  }
+
+  public void testFilesOfOneLoaderAreRefreshedInOneRequest()
+  {
+    Map<IResource, RefreshKind> changes = new LinkedHashMap<IResource, RefreshKind>();
+    changes.put( getType( "Base" ).getSourceFileHandle().getFile(), RefreshKind.MODIFICATION );
+    changes.put( getType( "Unrelated" ).getSourceFileHandle().getFile(), RefreshKind.MODIFICATION );
+    TypeSystem.refreshed( changes );
+
+    RefreshRequest request = _requests.get( 0 );
+    assertEquals( RefreshKind.MODIFICATION, request.kind );
+    assertNull( request.file );
+    assertEquals( 2, request.files.length );
+    List<String> types = Arrays.asList( request.types );
+    assertTrue( types.contains( PACKAGE + "Base" ) );
+    assertTrue( types.contains( PACKAGE + "Unrelated" ) );
+  }
+
+  public void testLoadedSubtypesAreRefreshedWithTheirSupertype()
+  {
+    // only subtypes with compiled headers are refreshed
+    getType( "SubSub" ).getSupertype().getSupertype();
+
+    Map<IResource, RefreshKind> changes = new LinkedHashMap<IResource, RefreshKind>();
+    changes.put( getType( "Base" ).getSourceFileHandle().getFile(), RefreshKind.MODIFICATION );
+    TypeSystem.refreshed( changes );
+
+    assertEquals( 2, _requests.size() );
+    assertSame( _requests.get( 0 ).file, _requests.get( 0 ).files[0] );
+    RefreshRequest subtypes = _requests.get( 1 );
+    assertEquals( RefreshKind.MODIFICATION, subtypes.kind );
+    assertEquals( 0, subtypes.files.length );
+    assertEquals( new HashSet<String>( Arrays.asList( PACKAGE + "Sub", PACKAGE + "SubSub" ) ),
+                  new HashSet<String>( Arrays.asList( subtypes.types ) ) );
+
+    assertEquals( "sub", ReflectUtil.invokeMethod( ReflectUtil.construct( PACKAGE + "SubSub" ), "name" ) );
+  }
+
+  public void testTypesOfADeletedDirectoryAreRefreshed() throws IOException
+  {
+    File dir = new File( getType( "Base" ).getSourceFileHandle().getFile().getParent().toJavaFile(), "gone" );
+    File file = new File( dir, "Doomed.gs" );
+    try
+    {
+      assertTrue( dir.mkdir() );
+      Files.write( file.toPath(), ("package " + PACKAGE + "gone\n\nclass Doomed {\n}\n").getBytes( "UTF-8" ) );
+      IDirectory directory = CommonServices.getFileSystem().getIDirectory( dir );
+      TypeSystem.refreshed( Collections.singletonMap( directory, RefreshKind.CREATION ) );
+      assertNotNull( TypeSystem.getByFullNameIfValid( PACKAGE + "gone.Doomed" ) );
+
+      assertTrue( file.delete() );
+      assertTrue( dir.delete() );
+      _requests.clear();
+      TypeSystem.refreshed( Collections.singletonMap( directory, RefreshKind.DELETION ) );
+
+      boolean bRefreshed = false;
+      for( RefreshRequest request : _requests )
+      {
+        bRefreshed |= request.kind == RefreshKind.DELETION && Arrays.asList( request.types ).contains( PACKAGE + "gone.Doomed" );
+      }
+      assertTrue( bRefreshed );
+    }
+    finally
+    {
+      file.delete();
+      dir.delete();
+    }
+  }
+
+  private IGosuClass getType( String relativeName )
+  {
+    return (IGosuClass)TypeSystem.getByFullName( PACKAGE + relativeName );
+  }
+}
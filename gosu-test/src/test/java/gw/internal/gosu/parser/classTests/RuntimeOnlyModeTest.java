@@ -0,0 +1,129 @@
+/*
+ * Copyright 2014 Guidewire Software, Inc.
+ */
+
+package gw.internal.gosu.parser.classTests;
+
+import gw.internal.gosu.compiler.GosuClassLoader;
+import gw.internal.gosu.parser.DynamicFunctionSymbol;
+import gw.internal.gosu.parser.ExecutionEnvironment;
+import gw.internal.gosu.parser.IGosuClassInternal;
+import gw.lang.parser.IBlockClass;
+import gw.lang.reflect.ITypeRef;
+import gw.lang.reflect.ReflectUtil;
+import gw.lang.reflect.TypeSystem;
+import gw.lang.reflect.gs.IGosuClass;
+import gw.test.TestClass;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class RuntimeOnlyModeTest extends TestClass
+{
+  private static final String TYPE_NAME = "gw.internal.gosu.parser.classTests.gwtest.runtimeonly.HasNestedCode";
+
+  @Override
+  public void beforeTestMethod()
+  {
+    super.beforeTestMethod();
+    ExecutionEnvironment.setRuntimeOnly( true );
+  }
+
+  @Override
+  public void afterTestMethod( Throwable possibleException )
+  {
+    ExecutionEnvironment.setRuntimeOnly( false );
+    TypeSystem.refresh( (ITypeRef)getHasNestedCodeType() );
+    super.afterTestMethod( possibleException );
+  }
+
+  public void testDefinitionsAreDiscardedOnceTheNestIsCompiled()
+  {
+    IGosuClassInternal gsClass = getHasNestedCodeType();
+    byte[] bytes = GosuClassLoader.instance().getBytes( gsClass );
+    assertTrue( gsClass.isDefinitionsDiscarded() );
+    assertNull( findDescribe( gsClass ).getValueDirectly() );
+    assertNotNull( bytes );
+    assertNull( "The loader has the top-level class's bytes, the class keeps none", gsClass.getCompiledBytes() );
+
+    List<IGosuClassInternal> nest = getNest( gsClass );
+    int iBlocks = 0;
+    int iAnonymous = 0;
+    for( IGosuClassInternal nested : nest )
+    {
+      assertNotNull( nested.getName(), nested.getCompiledBytes() );
+      if( nested instanceof IBlockClass )
+      {
+        iBlocks++;
+      }
+      else if( nested.isAnonymous() )
+      {
+        // blocks are anonymous too
+        iAnonymous++;
+      }
+    }
+    assertEquals( 2, iBlocks );
+    assertEquals( 1, iAnonymous );
+    assertEquals( 4, nest.size() );
+
+    IGosuClassInternal nested = nest.get( 0 );
+    byte[] nestedBytes = nested.getCompiledBytes();
+    assertSame( nestedBytes, GosuClassLoader.instance().getBytes( nested ) );
+    assertNull( "Kept bytes are handed out once", nested.getCompiledBytes() );
+  }
+
+  public void testDiscardedClassCompilesAgainFromANewParse()
+  {
+    IGosuClassInternal gsClass = getHasNestedCodeType();
+    GosuClassLoader.instance().getBytes( gsClass );
+    assertTrue( gsClass.isDefinitionsDiscarded() );
+
+    assertNotNull( GosuClassLoader.instance().getBytes( gsClass ) );
+    assertTrue( gsClass.isValid() );
+  }
+
+  public void testClassRunsAndParsesDefinitionsAgainOnDemand()
+  {
+    IGosuClassInternal gsClass = getHasNestedCodeType();
+    GosuClassLoader.instance().getBytes( gsClass );
+    assertTrue( gsClass.isDefinitionsDiscarded() );
+
+    Object instance = ReflectUtil.construct( TYPE_NAME );
+    assertEquals( "HELLO nested", ReflectUtil.invokeMethod( instance, "describe" ) );
+
+    assertNotNull( gsClass.getClassStatement() );
+    assertFalse( gsClass.isDefinitionsDiscarded() );
+    assertTrue( gsClass.isValid() );
+    assertNotNull( findDescribe( gsClass ).getValueDirectly() );
+    assertEquals( 4, getNest( gsClass ).size() );
+    assertNotNull( gsClass.getInnerClass( "AnonymouS__0" ) );
+  }
+
+  private IGosuClassInternal getHasNestedCodeType()
+  {
+    return (IGosuClassInternal)TypeSystem.getByFullName( TYPE_NAME );
+  }
+
+  private DynamicFunctionSymbol findDescribe( IGosuClassInternal gsClass )
+  {
+    for( DynamicFunctionSymbol dfs : gsClass.getParseInfo().getMemberFunctions().values() )
+    {
+      if( dfs.getDisplayName().equals( "describe" ) )
+      {
+        return dfs;
+      }
+    }
+    throw new IllegalStateException( "No describe() in " + gsClass.getName() );
+  }
+
+  private List<IGosuClassInternal> getNest( IGosuClass gsClass )
+  {
+    List<IGosuClassInternal> nest = new ArrayList<IGosuClassInternal>();
+    for( IGosuClass nested : gsClass.getKnownInnerClassesWithoutCompiling().values() )
+    {
+      nest.add( (IGosuClassInternal)nested );
+      nest.addAll( getNest( nested ) );
+    }
+    return nest;
+  }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2014 Guidewire Software, Inc.
+ */
+
+package gw.internal.gosu.parser.java.compiler;
+
+import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.CompilationUnitTree;
+import gw.lang.reflect.IDefaultTypeLoader;
+import gw.lang.reflect.TypeSystem;
+import gw.lang.reflect.gs.ClassType;
+import gw.lang.reflect.gs.ISourceFileHandle;
+import gw.lang.reflect.gs.StringSourceFileHandle;
+import gw.test.TestClass;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaFileObject;
+
+public class JavaParserTest extends TestClass
+{
+  public void testFilesParsedTogetherAreReused()
+  {
+    IDefaultTypeLoader loader = TypeSystem.getGlobalModule().getModuleTypeLoader().getDefaultTypeLoader();
+    ISourceFileHandle list = loader.getSourceFileHandle( "gw.specContrib.classes.optional_params.ImmutableList" );
+    ISourceFileHandle varArgs = loader.getSourceFileHandle( "gw.specContrib.classes.optional_params.OverloadedVarArgs" );
+    JavaParser.instance().parseFiles( Arrays.asList( list, varArgs ) );
+
+    List<CompilationUnitTree> first = new ArrayList<>();
+    List<CompilationUnitTree> second = new ArrayList<>();
+    assertTrue( JavaParser.instance().parseFile( varArgs, first, null, null, null ) );
+    assertTrue( JavaParser.instance().parseFile( varArgs, second, null, null, null ) );
+    assertEquals( 1, first.size() );
+    assertSame( first.get( 0 ), second.get( 0 ) );
+    assertEquals( "OverloadedVarArgs", ((ClassTree)first.get( 0 ).getTypeDecls().get( 0 )).getSimpleName().toString() );
+  }
+
+  public void testSourceWithoutFileIsParsedEachTime()
+  {
+    StringSourceFileHandle handle = new StringSourceFileHandle( "foo.Bad", "package foo; public class Bad { int x }", false, ClassType.JavaClass );
+    for( int i = 0; i < 2; i++ )
+    {
+      DiagnosticCollector<JavaFileObject> errorHandler = new DiagnosticCollector<>();
+      List<CompilationUnitTree> trees = new ArrayList<>();
+      assertTrue( JavaParser.instance().parseFile( handle, trees, null, null, errorHandler ) );
+      assertEquals( 1, trees.size() );
+      assertEquals( 1, errorHandler.getDiagnostics().size() );
+    }
+  }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2014 Guidewire Software, Inc.
+ */
+
+package gw.lang.gosuc.simple;
+
+import gw.lang.gosuc.cli.CommandLineOptions;
+import gw.test.TestClass;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class CompileDaemonTest extends TestClass
+{
+  public void testDaemonServesItsPortFileUntilStopped() throws Exception
+  {
+    File dir = Files.createTempDirectory( "gosuc-daemon" ).toFile();
+    File portFile = new File( dir, "daemon.port" );
+    Thread daemon = startDaemon( portFile );
+    try
+    {
+      CompileDaemonClient client = new CompileDaemonClient( portFile );
+      waitFor( portFile );
+
+      // only one daemon serves a port file
+      new CompileDaemon( portFile, TimeUnit.MINUTES.toMillis( 1 ) ).run();
+      assertTrue( portFile.exists() );
+
+      assertTrue( client.stop() );
+      daemon.join( 10000 );
+      assertFalse( daemon.isAlive() );
+      assertFalse( portFile.exists() );
+      assertFalse( client.stop() );
+    }
+    finally
+    {
+      daemon.interrupt();
+    }
+  }
+
+  public void testRequestsWithoutTheTokenAreIgnored() throws Exception
+  {
+    File dir = Files.createTempDirectory( "gosuc-daemon" ).toFile();
+    File portFile = new File( dir, "daemon.port" );
+    Thread daemon = startDaemon( portFile );
+    try
+    {
+      waitFor( portFile );
+      String portAndToken = new String( Files.readAllBytes( portFile.toPath() ), "UTF-8" ).trim();
+      File otherPortFile = new File( dir, "other.port" );
+      Files.write( otherPortFile.toPath(), Arrays.asList( portAndToken.substring( 0, portAndToken.indexOf( ' ' ) ) + " wrong" ) );
+
+      try
+      {
+        new CompileDaemonClient( otherPortFile ).stop();
+        fail();
+      }
+      catch( IOException e )
+      {
+        // the daemon hung up
+      }
+      assertTrue( daemon.isAlive() );
+      assertTrue( new CompileDaemonClient( portFile ).stop() );
+      daemon.join( 10000 );
+    }
+    finally
+    {
+      daemon.interrupt();
+    }
+  }
+
+  public void testEditJustBeforeARequestIsCompiled() throws Exception
+  {
+    File dir = Files.createTempDirectory( "gosuc-daemon" ).toFile();
+    File portFile = new File( dir, "daemon.port" );
+    File src = new File( dir, "src" );
+    File out = new File( dir, "out" );
+    File source = new File( new File( src, "daemontest" ), "Edited.gs" );
+    File classFile = new File( new File( out, "daemontest" ), "Edited.class" );
+    assertTrue( source.getParentFile().mkdirs() );
+    assertTrue( out.mkdirs() );
+    List<String> args = Arrays.asList( "-sourcepath", src.getAbsolutePath(), "-d", out.getAbsolutePath(), source.getAbsolutePath() );
+    CompileDaemonClient client = new CompileDaemonClient( portFile );
+    try
+    {
+      Files.write( source.toPath(), Arrays.asList( "package daemontest", "", "class Edited {", "  function one() {}", "}" ) );
+      SoutCompilerDriver driver = new SoutCompilerDriver();
+      assertFalse( client.compile( args, driver ) );
+      assertEquals( Collections.emptyList(), driver.getErrors() );
+      assertFalse( new String( Files.readAllBytes( classFile.toPath() ), "ISO-8859-1" ).contains( "two" ) );
+
+      // no time for the daemon's file watcher to see the edit
+      Files.write( source.toPath(), Arrays.asList( "package daemontest", "", "class Edited {", "  function two() {}", "}" ) );
+      driver = new SoutCompilerDriver();
+      assertFalse( client.compile( args, driver ) );
+      assertEquals( Collections.emptyList(), driver.getErrors() );
+      assertTrue( new String( Files.readAllBytes( classFile.toPath() ), "ISO-8859-1" ).contains( "two" ) );
+    }
+    finally
+    {
+      client.stop();
+    }
+  }
+
+  public void testArgsHaveAbsolutePaths()
+  {
+    CommandLineOptions options = new CommandLineOptions();
+    options.setSourceFiles( Arrays.asList( "src" + File.separator + "A.gs" ) );
+    options.setThreads( 2 );
+    options.setIncremental( true );
+
+    assertEquals( Arrays.asList( "-incremental", "-j", "2", "-maxerrs", "100", "-maxwarns", String.valueOf( Integer.MAX_VALUE ),
+                                 new File( "src", "A.gs" ).getAbsolutePath() ),
+                  CompileDaemonClient.toArgs( options ) );
+  }
+
+  private Thread startDaemon( File portFile )
+  {
+    Thread daemon = new Thread( () -> {
+      try
+      {
+        new CompileDaemon( portFile, TimeUnit.MINUTES.toMillis( 1 ) ).run();
+      }
+      catch( IOException e )
+      {
+        throw new RuntimeException( e );
+      }
+    }, "gosuc daemon" );
+    daemon.setDaemon( true );
+    daemon.start();
+    return daemon;
+  }
+
+  private void waitFor( File portFile ) throws InterruptedException
+  {
+    for( int i = 0; i < 100 && !portFile.exists(); i++ )
+    {
+      Thread.sleep( 100 );
+    }
+    assertTrue( portFile.exists() );
+  }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2014 Guidewire Software, Inc.
+ */
+
+package gw.lang.reflect;
+
+import gw.test.TestClass;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Looks up already-loaded types and their type info from many threads at once.  Lookups of loaded types don't take
+ * the type system lock, they must still find the right types.  See TypeSystemContentionBenchmark in gosu-benchmarks
+ * for how they scale.
+ */
+public class TypeSystemContentionTest extends TestClass
+{
+  private static final String[] TYPE_NAMES = {
+    "java.lang.String",
+    "java.util.ArrayList",
+    "java.util.HashMap",
+    "java.lang.Integer",
+    "gw.lang.reflect.TypeSystem",
+    "gw.lang.reflect.TypeSystemContentionTest",
+  };
+  private static final int LOOKUPS_PER_THREAD = 100000;
+
+  @Override
+  public void beforeTestMethod()
+  {
+    super.beforeTestMethod();
+    // warm up: load the types and their type info on this thread
+    for( String name : TYPE_NAMES )
+    {
+      TypeSystem.getByFullName( name ).getTypeInfo().getMethods();
+    }
+  }
+
+  public void testLookupsStayCorrectUnderContention() throws Exception
+  {
+    int iThreads = Math.max( 4, Runtime.getRuntime().availableProcessors() );
+    CountDownLatch start = new CountDownLatch( 1 );
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+    List<Thread> threads = new ArrayList<>();
+    for( int i = 0; i < iThreads; i++ )
+    {
+      Thread thread = new Thread( () -> {
+        try
+        {
+          start.await();
+          for( int j = 0; j < LOOKUPS_PER_THREAD && failure.get() == null; j++ )
+          {
+            String name = TYPE_NAMES[j % TYPE_NAMES.length];
+            IType type = TypeSystem.getByFullName( name );
+            if( type.getTypeInfo() == null || !name.equals( type.getName() ) )
+            {
+              throw new AssertionError( "Bad lookup: " + name );
+            }
+          }
+        }
+        catch( Throwable t )
+        {
+          failure.compareAndSet( null, t );
+        }
+      }, "TypeSystemContentionTest-" + i );
+      threads.add( thread );
+      thread.start();
+    }
+    start.countDown();
+    for( Thread thread : threads )
+    {
+      thread.join();
+    }
+    assertNull( String.valueOf( failure.get() ), failure.get() );
+  }
+}
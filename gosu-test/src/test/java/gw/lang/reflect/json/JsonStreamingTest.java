@@ -0,0 +1,246 @@
+/*
+ * Copyright 2014 Guidewire Software, Inc.
+ */
+
+package gw.lang.reflect.json;
+
+import gw.test.TestClass;
+
+import javax.script.Bindings;
+import javax.script.ScriptException;
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class JsonStreamingTest extends TestClass
+{
+  public void testEvents()
+  {
+    JsonReader reader = new JsonReader( bytes( "{'a': [1, -2.5e3, \"s\\u00E9\", true, false, null], \"b\": {}}" ) );
+    assertEquals( JsonReader.Event.BEGIN_OBJECT, reader.next() );
+    assertEquals( JsonReader.Event.NAME, reader.next() );
+    assertEquals( "a", reader.getString() );
+    assertEquals( JsonReader.Event.BEGIN_ARRAY, reader.next() );
+    assertEquals( JsonReader.Event.INTEGER, reader.next() );
+    assertEquals( 1, reader.getInt() );
+    assertEquals( JsonReader.Event.DOUBLE, reader.next() );
+    assertEquals( -2500.0, reader.getDouble(), 0 );
+    assertEquals( JsonReader.Event.STRING, reader.next() );
+    assertEquals( "sé", reader.getString() );
+    assertEquals( JsonReader.Event.TRUE, reader.next() );
+    assertEquals( JsonReader.Event.FALSE, reader.next() );
+    assertEquals( JsonReader.Event.NULL, reader.next() );
+    assertEquals( JsonReader.Event.END_ARRAY, reader.next() );
+    assertEquals( JsonReader.Event.NAME, reader.next() );
+    assertEquals( "b", reader.getString() );
+    reader.skipValue();
+    assertEquals( JsonReader.Event.END_OBJECT, reader.next() );
+    assertEquals( JsonReader.Event.END, reader.next() );
+  }
+
+  public void testNumbers()
+  {
+    Bindings bindings = Json.fromJson( bytes( "{'i': 2147483647, 'l': 2147483648, 'min': -9223372036854775808, 'big': 9223372036854775808}" ) );
+    assertEquals( Integer.MAX_VALUE, bindings.get( "i" ) );
+    assertEquals( 2147483648L, bindings.get( "l" ) );
+    assertEquals( Long.MIN_VALUE, bindings.get( "min" ) );
+    assertEquals( new BigInteger( "9223372036854775808" ), bindings.get( "big" ) );
+  }
+
+  public void testUtf8FromSmallReads()
+  {
+    String text = "{\"kéy\": [\"中文\", \"😀\", \"plain\"]}";
+    InputStream in = new FilterInputStream( new ByteArrayInputStream( bytes( text ) ) )
+    {
+      @Override
+      public int read( byte[] b, int off, int len ) throws IOException
+      {
+        return super.read( b, off, Math.min( len, 1 ) );
+      }
+    };
+    Bindings bindings = Json.fromJson( in );
+    assertEquals( Arrays.asList( "中文", "😀", "plain" ), bindings.get( "kéy" ) );
+  }
+
+  public void testSyntaxErrors()
+  {
+    assertSyntaxError( "{'a': [1, 2,]}", "[1:13]" );
+    assertSyntaxError( "{'a' 1}", "[1:6]" );
+    assertSyntaxError( "\n  [tru]", "[2:4]" );
+    assertSyntaxError( "['open", "Unterminated string" );
+  }
+
+  public void testWriterRoundTrip() throws ScriptException
+  {
+    String text = "{\"name\": \"a \\\"quoted\\\" \\\\ line\\nbreak é\", \"list\": [1, 2.5, true, null, {\"x\": []}], \"empty\": {}}";
+    Bindings bindings = DefaultParser.instance().parseJson( text );
+    String compact = write( bindings, 0 );
+    assertEquals( compact, write( DefaultParser.instance().parseJson( compact ), 0 ) );
+    assertEquals( compact, write( DefaultParser.instance().parseJson( write( bindings, 2 ) ), 0 ) );
+  }
+
+  public void testWriterRejectsMisplacedValues()
+  {
+    JsonWriter writer = new JsonWriter( new StringWriter() );
+    writer.beginObject();
+    try
+    {
+      writer.value( 1 );
+      fail();
+    }
+    catch( IllegalStateException e )
+    {
+      // expected, a value in an object needs a name
+    }
+  }
+
+  public void testBindIJsonIO()
+  {
+    Item item = new Item();
+    item._name = "root";
+    item._count = Long.MAX_VALUE;
+    item._ratio = 0.25f;
+    item._enabled = true;
+    item._color = Color.GREEN;
+    item._child = new Item();
+    item._child._name = "child";
+    item._children = new ArrayList<>();
+    item._children.add( new Item() );
+    item._tags = Arrays.asList( "a", "b" );
+
+    Item copy = IJsonIO.read( new JsonReader( bytes( write( item ) ) ) );
+    assertEquals( "root", copy._name );
+    assertEquals( Long.MAX_VALUE, copy._count );
+    assertEquals( 0.25f, copy._ratio, 0 );
+    assertTrue( copy._enabled );
+    assertEquals( Color.GREEN, copy._color );
+    assertEquals( "child", copy._child._name );
+    assertNull( copy._child._child );
+    assertEquals( 1, copy._children.size() );
+    assertEquals( Arrays.asList( "a", "b" ), copy._tags );
+    assertEquals( 5, copy._transient );
+  }
+
+  public void testBindingMatchesBindingsFormat()
+  {
+    Pair pair = new Pair();
+    pair._first = "one";
+    pair._second = 2;
+    String json = write( pair );
+
+    // what the streaming writer writes, the Bindings path reads
+    Pair viaBindings = IJsonIO.read( Json.fromJson( json ) );
+    assertEquals( "one", viaBindings._first );
+    assertEquals( 2, viaBindings._second );
+
+    // and the type member doesn't have to come first
+    Pair reordered = IJsonIO.read( new JsonReader( bytes( "{\"_second\": 3, \"" + IJsonIO.TYPE + "\": \"" + Pair.class.getName() + "\", \"_unknown\": [1]}" ) ) );
+    assertEquals( 3, reordered._second );
+    assertEquals( "default", reordered._first );
+  }
+
+  public void testCustomLoadAndSave()
+  {
+    List<Custom> list = new ArrayList<>();
+    Custom custom = new Custom();
+    custom._value = "v";
+    list.add( custom );
+    list.add( null );
+
+    StringWriter out = new StringWriter();
+    JsonWriter writer = new JsonWriter( out );
+    IJsonIO.writeList( list, writer );
+    writer.flush();
+
+    List<Custom> copy = IJsonIO.readList( new JsonReader( bytes( out.toString() ) ) );
+    assertEquals( "loaded v", copy.get( 0 )._value );
+    assertNull( copy.get( 1 ) );
+  }
+
+  private static void assertSyntaxError( String json, String message )
+  {
+    try
+    {
+      Json.fromJson( bytes( json ) );
+      fail( json );
+    }
+    catch( RuntimeException e )
+    {
+      assertTrue( e.getCause() instanceof ScriptException );
+      assertTrue( e.getCause().getMessage(), e.getCause().getMessage().contains( message ) );
+    }
+  }
+
+  private static String write( IJsonIO obj )
+  {
+    StringWriter out = new StringWriter();
+    JsonWriter writer = new JsonWriter( out );
+    IJsonIO.write( obj, writer );
+    writer.flush();
+    return out.toString();
+  }
+
+  private static String write( Object value, int iIndent )
+  {
+    StringWriter out = new StringWriter();
+    try( JsonWriter writer = new JsonWriter( out, iIndent ) )
+    {
+      writer.value( value );
+    }
+    return out.toString();
+  }
+
+  private static byte[] bytes( String text )
+  {
+    return text.getBytes( StandardCharsets.UTF_8 );
+  }
+
+  public enum Color
+  {
+    RED, GREEN
+  }
+
+  public static class Item implements IJsonIO
+  {
+    private String _name;
+    private long _count;
+    private float _ratio;
+    private boolean _enabled;
+    private Color _color;
+    private Item _child;
+    private List<Item> _children;
+    private List<String> _tags;
+    private transient int _transient = 5;
+  }
+
+  public static class Pair implements IJsonIO
+  {
+    private String _first = "default";
+    private int _second;
+  }
+
+  public static class Custom implements IJsonIO
+  {
+    private String _value;
+
+    @Override
+    public void load( Bindings bindings )
+    {
+      _value = "loaded " + bindings.get( "value" );
+    }
+
+    @Override
+    public void save( Bindings bindings )
+    {
+      bindings.put( TYPE, getClass().getName() );
+      bindings.put( "value", _value );
+    }
+  }
+}
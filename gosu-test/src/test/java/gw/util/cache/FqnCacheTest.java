@@ -0,0 +1,69 @@
+/*
+ * Copyright 2014 Guidewire Software, Inc.
+ */
+
+package gw.util.cache;
+
+import gw.test.TestClass;
+
+import java.util.Arrays;
+
+public class FqnCacheTest extends TestClass {
+
+  public void testParts() {
+    assertParts("a.b.C", "a", "b", "C");
+    assertParts("java.util.List<java.lang.String>[][]", "java", "util", "List", "<java.lang.String>", "[]", "[]");
+    assertParts("a.b[]", "a", "b[]");
+    assertParts("x.y.", "x", "y");
+    assertParts(".a.b", ".a.b");
+    assertParts(".a<b>", ".a", "<b>");
+    assertParts("", "");
+  }
+
+  public void testTypeParametersMustBeClosed() {
+    try {
+      FqnCache.getParts("a.b<c");
+      fail();
+    } catch (RuntimeException e) {
+      assertEquals("\"<c\" does not end with '>'", e.getMessage());
+    }
+  }
+
+  public void testLookupByParts() {
+    FqnCache<String> cache = new FqnCache<>();
+    cache.add("a.b.C", "C");
+    cache.add("a.b.C<java.lang.String>", "C<String>");
+    cache.add("a.b.D", "D");
+
+    assertEquals("C", cache.get("a.b.C"));
+    assertEquals("C<String>", cache.get(new String("a.b.C<java.lang.String>".toCharArray())));
+    assertNull(cache.get("a.b.C<java.lang.Object>"));
+    assertNull(cache.get("a.b"));
+    assertNull(cache.get("a.bb.C"));
+    assertTrue(cache.contains("a.b"));
+    assertFalse(cache.contains("a.b.E"));
+    assertEquals("<java.lang.String>", cache.getNode("a.b.C<java.lang.String>").getName());
+  }
+
+  public void testManyChildrenAddedAndRemoved() {
+    FqnCache<Integer> cache = new FqnCache<>();
+    for (int i = 0; i < 1000; i++) {
+      cache.add("pkg.Type" + i, i);
+    }
+    for (int i = 0; i < 1000; i += 2) {
+      assertTrue(cache.remove("pkg.Type" + i));
+    }
+    assertFalse(cache.remove("pkg.Type0"));
+
+    for (int i = 0; i < 1000; i++) {
+      assertEquals(i % 2 == 0 ? null : Integer.valueOf(i), cache.get("pkg.Type" + i));
+    }
+    assertEquals(500, cache.getNode("pkg").getChildren().size());
+    assertEquals(500, cache.getFqns().size());
+    assertTrue(cache.getFqns().containsAll(Arrays.asList("pkg.Type1", "pkg.Type999")));
+  }
+
+  private void assertParts(String fqn, String... parts) {
+    assertEquals(Arrays.asList(parts), Arrays.asList(FqnCache.getParts(fqn)));
+  }
+}
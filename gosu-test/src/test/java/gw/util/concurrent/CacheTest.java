@@ -13,8 +13,18 @@
 
 package gw.util.concurrent;
 
+import gw.lang.reflect.TypeSystem;
 import gw.test.TestClass;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * Tests the {@link Cache} implementation.
  *
@@ -224,6 +234,205 @@ public class CacheTest extends TestClass {
     assertEquals(1, cache.getHits());
   }
 
+  public void testConcurrentMissesLoadOnce() throws Exception {
+    final AtomicInteger loads = new AtomicInteger();
+    final CountDownLatch loading = new CountDownLatch(1);
+    final Cache<Integer,String> cache = new Cache<Integer,String>("testCache", 10, new Cache.MissHandler<Integer,String>() {
+     @Override
+     public String load(Integer key) {
+       loads.incrementAndGet();
+       loading.countDown();
+       try {
+         Thread.sleep(200);
+       } catch (InterruptedException e) {
+         throw new RuntimeException(e);
+       }
+       return LOAD[key];
+     }
+   });
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<String>> results = new ArrayList<Future<String>>();
+      results.add(executor.submit(() -> cache.get(ONE)));
+      loading.await();
+      for (int i = 0; i < 7; i++) {
+        results.add(executor.submit(() -> cache.get(ONE)));
+      }
+      for (Future<String> result : results) {
+        assertEquals(LOAD[1], result.get());
+      }
+    } finally {
+      executor.shutdown();
+    }
+    assertEquals(1, loads.get());
+    assertEquals(7, cache.getSharedLoads());
+    assertEquals(8, cache.getMisses());
+  }
+
+  public void testRecursiveLoadOfTheSameKey() {
+    final AtomicInteger loads = new AtomicInteger();
+    final Cache<Integer,Integer>[] cache = new Cache[1];
+    cache[0] = new Cache<Integer,Integer>("testCache", 10, new Cache.MissHandler<Integer,Integer>() {
+     @Override
+     public Integer load(Integer key) {
+       // asks for its own key once, which must load it again instead of waiting on itself
+       return loads.getAndIncrement() == 0 ? cache[0].get(key) + 1 : key;
+     }
+   });
+    assertEquals(FOUR, cache[0].get(THREE));
+    assertEquals(2, loads.get());
+    assertEquals(0, cache[0].getSharedLoads());
+  }
+
+  public void testTypeSystemLockHolderDoesNotWait() throws Exception {
+    final AtomicInteger loads = new AtomicInteger();
+    final CountDownLatch loading = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    final Cache<Integer,String> cache = new Cache<Integer,String>("testCache", 10, new Cache.MissHandler<Integer,String>() {
+     @Override
+     public String load(Integer key) {
+       if (loads.getAndIncrement() == 0) {
+         loading.countDown();
+         try {
+           release.await(10, TimeUnit.SECONDS);
+         } catch (InterruptedException e) {
+           throw new RuntimeException(e);
+         }
+       }
+       return LOAD[key];
+     }
+   });
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<String> first = executor.submit(() -> cache.get(ONE));
+      loading.await();
+      TypeSystem.lock();
+      try {
+        assertEquals(LOAD[1], cache.get(ONE));
+      } finally {
+        TypeSystem.unlock();
+      }
+      release.countDown();
+      assertEquals(LOAD[1], first.get());
+    } finally {
+      executor.shutdown();
+    }
+    assertEquals(2, loads.get());
+    assertEquals(0, cache.getSharedLoads());
+  }
+
+  public void testLoadsNeedingEachOthersKeysDoNotDeadlock() throws Exception {
+    final CountDownLatch bothLoading = new CountDownLatch(2);
+    final Cache<Integer,String>[] caches = new Cache[2];
+    for (int i = 0; i < 2; i++) {
+      final int other = 1 - i;
+      final AtomicInteger loads = new AtomicInteger();
+      caches[i] = new Cache<Integer,String>("testCache" + i, 10, new Cache.MissHandler<Integer,String>() {
+       @Override
+       public String load(Integer key) {
+         if (loads.getAndIncrement() > 0) {
+           return LOAD[key];
+         }
+         bothLoading.countDown();
+         try {
+           bothLoading.await();
+         } catch (InterruptedException e) {
+           throw new RuntimeException(e);
+         }
+         // each thread now needs the key the other one is loading
+         return caches[other].get(key);
+       }
+     });
+    }
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Future<String> first = executor.submit(() -> caches[0].get(ONE));
+      Future<String> second = executor.submit(() -> caches[1].get(ONE));
+      assertEquals(LOAD[1], first.get(10, TimeUnit.SECONDS));
+      assertEquals(LOAD[1], second.get(10, TimeUnit.SECONDS));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  public void testWaiterHoldingALockTheLoaderNeedsDoesNotDeadlock() throws Exception {
+    final Object lock = new Object();
+    final AtomicInteger loads = new AtomicInteger();
+    final CountDownLatch loading = new CountDownLatch(1);
+    final Cache<Integer,String> cache = new Cache<Integer,String>("testCache", 10, new Cache.MissHandler<Integer,String>() {
+     @Override
+     public String load(Integer key) {
+       if (loads.getAndIncrement() == 0) {
+         loading.countDown();
+         // like a class loading lock the waiting thread holds
+         synchronized (lock) {
+           return LOAD[key];
+         }
+       }
+       return LOAD[key];
+     }
+   });
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<String> first;
+      synchronized (lock) {
+        first = executor.submit(() -> cache.get(ONE));
+        loading.await();
+        long start = System.nanoTime();
+        assertEquals(LOAD[1], cache.get(ONE));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= Cache.MAX_LOAD_WAIT_MILLIS);
+      }
+      assertEquals(LOAD[1], first.get(10, TimeUnit.SECONDS));
+    } finally {
+      executor.shutdown();
+    }
+    assertEquals(2, loads.get());
+    assertEquals(0, cache.getSharedLoads());
+  }
+
+  public void testFrequentEntriesSurviveAScan() {
+    Cache<Integer,Integer> cache = new Cache<Integer,Integer>("testCache", 100, new Cache.MissHandler<Integer,Integer>() {
+     @Override
+     public Integer load(Integer key) {
+       return key;
+     }
+   });
+    for (int i = 0; i < 5; i++) {
+      for (int key = 0; key < 50; key++) {
+        cache.get(key);
+      }
+    }
+    for (int key = 1000; key < 2000; key++) {
+      cache.get(key);
+    }
+    int counts[] = getCounts(cache);
+    for (int key = 0; key < 50; key++) {
+      cache.get(key);
+    }
+    assertEquals(counts[2] + 50, cache.getHits());
+    assertEquals(100, cache.getUtilizedSize());
+  }
+
+  public void testWeightedCache() {
+    Cache<Integer,String> cache = new Cache<Integer,String>("testCache", 10, new Cache.Weigher<Integer,String>() {
+      @Override
+      public int weigh(Integer key, String value) {
+        return value.length();
+      }
+    }, new Cache.MissHandler<Integer,String>() {
+     @Override
+     public String load(Integer key) {
+       return LOAD[key];
+     }
+   });
+    for (int key = 0; key < LOAD.length; key++) {
+      cache.get(key);
+      assertTrue(cache.getUtilizedWeight() <= 10);
+    }
+    assertTrue(cache.getEvictions() > 0);
+    assertEquals(10, cache.getConfiguredWeight());
+  }
+
   private void assertHit(int[] counts, Cache cache) {
     assertEquals(counts[0] + 1, cache.getRequests());
     assertEquals(counts[1], cache.getMisses());